@@ -0,0 +1,225 @@
+package com.neobit.crm.analytics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Per-tenant {@link DealColumns}, loaded on first use and kept current incrementally.
+ *
+ * Before a query, if the tenant was last refreshed more than the refresh interval
+ * ago, deals whose {@code updated_at} moved since the previous pass are re-read
+ * and deals recorded in {@code deal_deletions} are dropped. Each pass re-reads an
+ * overlap window so transactions that committed after the previous pass with an
+ * earlier {@code updated_at} are not missed. A tenant idle for longer than the
+ * tombstone retention is reloaded in full.
+ *
+ * All tenants together are held to a memory budget; the least recently queried
+ * tenants are evicted first and reload on their next query.
+ */
+@Component
+@Slf4j
+public class DealAnalyticsStore {
+
+    private static final String SELECT_SQL =
+            "SELECT id, pipeline_id, stage_id, owner_id, upper(status) AS status, currency, amount, probability, " +
+            "expected_close_date, created_at FROM deals WHERE tenant_id = ?";
+
+    private static final String CHANGED_SQL = SELECT_SQL + " AND updated_at > ?";
+
+    private static final String DELETED_SQL =
+            "SELECT deal_id FROM deal_deletions WHERE tenant_id = ? AND deleted_at > ?";
+
+    private static final RowMapper<DealRow> ROW_MAPPER = (rs, rowNum) -> {
+        BigDecimal amount = rs.getBigDecimal("amount");
+        Date closeDate = rs.getDate("expected_close_date");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        return new DealRow(
+                rs.getObject("id", UUID.class),
+                rs.getObject("pipeline_id", UUID.class),
+                rs.getObject("stage_id", UUID.class),
+                rs.getObject("owner_id", UUID.class),
+                rs.getString("status"),
+                rs.getString("currency"),
+                amount != null ? amount.movePointRight(2).longValueExact() : 0,
+                rs.getInt("probability"),
+                closeDate != null ? (int) closeDate.toLocalDate().toEpochDay() : DealColumns.NO_DAY,
+                createdAt != null ? (int) createdAt.toInstant().atOffset(ZoneOffset.UTC).toLocalDate().toEpochDay()
+                        : DealColumns.NO_DAY);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long refreshIntervalMs;
+    private final long overlapMs;
+    private final long tombstoneRetentionMs;
+    private final long maxBytes;
+    /** Access-ordered, so iteration starts at the least recently queried tenant */
+    private final LinkedHashMap<UUID, TenantDeals> tenants = new LinkedHashMap<>(16, 0.75f, true);
+
+    public DealAnalyticsStore(JdbcTemplate jdbcTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.deal-analytics.refresh-interval-ms:2000}") long refreshIntervalMs,
+                              @Value("${app.deal-analytics.refresh-overlap-ms:30000}") long overlapMs,
+                              @Value("${app.deal-analytics.tombstone-retention-hours:24}") long tombstoneRetentionHours,
+                              @Value("${app.deal-analytics.max-bytes:268435456}") long maxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.refreshIntervalMs = refreshIntervalMs;
+        this.overlapMs = overlapMs;
+        this.tombstoneRetentionMs = tombstoneRetentionHours * 3_600_000;
+        this.maxBytes = maxBytes;
+        Gauge.builder("crm.deal_analytics.tenants", this, s -> s.tenantCount())
+                .description("Tenants whose deals are held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs {@code reader} against the tenant's current deals.
+     */
+    public <T> T read(UUID tenantId, Function<DealColumns, T> reader) {
+        TenantDeals deals;
+        synchronized (tenants) {
+            deals = tenants.computeIfAbsent(tenantId, TenantDeals::new);
+        }
+        DealColumns columns = deals.current();
+        T result = reader.apply(columns);
+        enforceBudget(tenantId);
+        return result;
+    }
+
+    /**
+     * Tombstones only need to outlive the longest gap between refreshes of a loaded tenant.
+     */
+    @Scheduled(cron = "${app.deal-analytics.tombstone-prune-cron:0 45 * * * *}")
+    public void pruneTombstones() {
+        try {
+            int pruned = jdbcTemplate.update("DELETE FROM deal_deletions WHERE deleted_at < ?",
+                    new Timestamp(System.currentTimeMillis() - tombstoneRetentionMs));
+            log.debug("Pruned {} deal tombstones", pruned);
+        } catch (RuntimeException e) {
+            log.warn("Could not prune deal tombstones: {}", e.getMessage());
+        }
+    }
+
+    int tenantCount() {
+        synchronized (tenants) {
+            return tenants.size();
+        }
+    }
+
+    private void enforceBudget(UUID keep) {
+        synchronized (tenants) {
+            long total = 0;
+            for (TenantDeals deals : tenants.values()) {
+                total += deals.estimatedBytes();
+            }
+            Iterator<Map.Entry<UUID, TenantDeals>> eldest = tenants.entrySet().iterator();
+            while (total > maxBytes && eldest.hasNext()) {
+                Map.Entry<UUID, TenantDeals> entry = eldest.next();
+                if (entry.getKey().equals(keep)) {
+                    continue;
+                }
+                total -= entry.getValue().estimatedBytes();
+                eldest.remove();
+                log.debug("Evicted deal analytics for tenant {}", entry.getKey());
+            }
+        }
+    }
+
+    private final class TenantDeals {
+
+        private final UUID tenantId;
+        private final ReentrantLock refreshLock = new ReentrantLock();
+        private volatile DealColumns columns;
+        /** Database time at the start of the last successful pass */
+        private volatile Timestamp syncedAt;
+        private volatile long refreshedAtMs;
+
+        TenantDeals(UUID tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        /**
+         * Loads or refreshes as needed. Only one caller refreshes; the others read
+         * what is there, except on first load where they wait for it.
+         */
+        DealColumns current() {
+            if (columns == null) {
+                refreshLock.lock();
+                try {
+                    if (columns == null) {
+                        load();
+                    }
+                } finally {
+                    refreshLock.unlock();
+                }
+            } else if (System.currentTimeMillis() - refreshedAtMs > refreshIntervalMs && refreshLock.tryLock()) {
+                try {
+                    if (System.currentTimeMillis() - syncedAt.getTime() > tombstoneRetentionMs) {
+                        load();
+                    } else {
+                        refresh();
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not refresh deal analytics for tenant {}, serving the previous state: {}",
+                            tenantId, e.getMessage());
+                } finally {
+                    refreshLock.unlock();
+                }
+            }
+            return columns;
+        }
+
+        long estimatedBytes() {
+            DealColumns current = columns;
+            return current != null ? current.estimatedBytes() : 0;
+        }
+
+        private void load() {
+            Timestamp started = databaseNow();
+            List<DealRow> rows = jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, tenantId);
+            DealColumns loaded = new DealColumns(rows.size());
+            loaded.upsertAll(rows);
+            columns = loaded;
+            syncedAt = started;
+            refreshedAtMs = System.currentTimeMillis();
+            log.debug("Loaded {} deals for tenant {}", rows.size(), tenantId);
+        }
+
+        private void refresh() {
+            Timestamp started = databaseNow();
+            Timestamp since = new Timestamp(syncedAt.getTime() - overlapMs);
+            List<DealRow> changed = jdbcTemplate.query(CHANGED_SQL, ROW_MAPPER, tenantId, since);
+            List<UUID> deleted = new ArrayList<>(jdbcTemplate.queryForList(DELETED_SQL, UUID.class, tenantId, since));
+            if (!changed.isEmpty()) {
+                columns.upsertAll(changed);
+            }
+            if (!deleted.isEmpty()) {
+                columns.removeAll(deleted);
+            }
+            syncedAt = started;
+            refreshedAtMs = System.currentTimeMillis();
+        }
+
+        private Timestamp databaseNow() {
+            return jdbcTemplate.queryForObject("SELECT clock_timestamp()", Timestamp.class);
+        }
+    }
+}
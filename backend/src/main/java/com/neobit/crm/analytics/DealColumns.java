@@ -0,0 +1,362 @@
+package com.neobit.crm.analytics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * Deals of one tenant held column by column in primitive arrays.
+ *
+ * Amounts are cents in a {@code long[]}, probabilities a {@code byte[]}, dates
+ * epoch days in an {@code int[]}, and stage, owner, pipeline, status and currency
+ * are dictionary codes. A pivot is a single pass over the arrays that packs the
+ * grouped codes into one {@code long} key, so it allocates only per group; large
+ * tenants are scanned in parallel chunks whose partial groups are merged.
+ *
+ * Rows are addressed by id; removing one moves the last row into its place.
+ * Readers and writers are separated by a read-write lock.
+ */
+public final class DealColumns {
+    
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    public static final int MAX_GROUP_BY = 3;
+    
+    private static final int KEY_BITS = 21;
+    private static final long KEY_MASK = (1L << KEY_BITS) - 1;
+    private static final int CHUNK_ROWS = 16_384;
+    
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> rowOf = new HashMap<>();
+    private final Map<DealDimension, Dictionary> dictionaries = new EnumMap<>(DealDimension.class);
+    
+    private int size;
+    private UUID[] ids;
+    private long[] amountCents;
+    private byte[] probability;
+    private int[] pipeline;
+    private int[] stage;
+    private int[] owner;
+    private int[] status;
+    private int[] currency;
+    private int[] closeDay;
+    private int[] createdDay;
+    
+    public DealColumns(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        ids = new UUID[capacity];
+        amountCents = new long[capacity];
+        probability = new byte[capacity];
+        pipeline = new int[capacity];
+        stage = new int[capacity];
+        owner = new int[capacity];
+        status = new int[capacity];
+        currency = new int[capacity];
+        closeDay = new int[capacity];
+        createdDay = new int[capacity];
+        for (DealDimension dimension : DealDimension.values()) {
+            if (!dimension.isMonth()) {
+                dictionaries.put(dimension, new Dictionary());
+            }
+        }
+    }
+    
+    /** Grouped totals; {@code weightedBasis} is cents times percent, i.e. scale 4. */
+    public record Group(List<String> keys, long count, long amountCents, long weightedBasis) {
+    }
+    
+    /**
+     * Inserts or replaces deals by id.
+     */
+    public void upsertAll(List<DealRow> rows) {
+        lock.writeLock().lock();
+        try {
+            for (DealRow row : rows) {
+                upsert(row);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void removeAll(Iterable<UUID> dealIds) {
+        lock.writeLock().lock();
+        try {
+            for (UUID id : dealIds) {
+                remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Rough heap footprint, used to bound the memory of all tenants together.
+     */
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            // Seven int columns, one long, one byte and a UUID reference per slot, plus id objects and the index
+            long perSlot = 7 * 4 + 8 + 1 + 4;
+            long perRow = 32 + 48;
+            long dictionaryBytes = dictionaries.values().stream().mapToLong(d -> d.size() * 96L).sum();
+            return ids.length * perSlot + (long) size * perRow + dictionaryBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Counts and sums deals matching {@code filter}, grouped by up to
+     * {@link #MAX_GROUP_BY} dimensions; no dimensions gives one overall group.
+     * Chunks are scanned in parallel once the tenant has more than
+     * {@code parallelThreshold} deals.
+     */
+    public List<Group> pivot(List<DealDimension> groupBy, DealFilter filter, int parallelThreshold) {
+        if (groupBy.size() > MAX_GROUP_BY) {
+            throw new IllegalArgumentException("At most " + MAX_GROUP_BY + " dimensions can be grouped");
+        }
+        lock.readLock().lock();
+        try {
+            Scan scan = compile(groupBy, filter);
+            if (scan == null) {
+                return List.of();
+            }
+            Map<Long, long[]> totals;
+            if (size > parallelThreshold) {
+                int chunks = (size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+                totals = IntStream.range(0, chunks).parallel()
+                        .mapToObj(chunk -> scan.run(chunk * CHUNK_ROWS, Math.min(size, (chunk + 1) * CHUNK_ROWS)))
+                        .reduce(DealColumns::merge)
+                        .orElseGet(HashMap::new);
+            } else {
+                totals = scan.run(0, size);
+            }
+            List<Group> groups = new ArrayList<>(totals.size());
+            totals.forEach((key, t) -> groups.add(new Group(decode(groupBy, key), t[0], t[1], t[2])));
+            return groups;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void upsert(DealRow row) {
+        if (row.probability() < 0 || row.probability() > 100) {
+            throw new IllegalArgumentException("Probability out of range for deal " + row.id());
+        }
+        Integer existing = rowOf.get(row.id());
+        int i = existing != null ? existing : append(row.id());
+        amountCents[i] = row.amountCents();
+        probability[i] = (byte) row.probability();
+        pipeline[i] = encode(DealDimension.PIPELINE, row.pipelineId());
+        stage[i] = encode(DealDimension.STAGE, row.stageId());
+        owner[i] = encode(DealDimension.OWNER, row.ownerId());
+        status[i] = encode(DealDimension.STATUS, row.status());
+        currency[i] = encode(DealDimension.CURRENCY, row.currency());
+        closeDay[i] = row.closeDay();
+        createdDay[i] = row.createdDay();
+    }
+    
+    private int append(UUID id) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            probability = Arrays.copyOf(probability, capacity);
+            pipeline = Arrays.copyOf(pipeline, capacity);
+            stage = Arrays.copyOf(stage, capacity);
+            owner = Arrays.copyOf(owner, capacity);
+            status = Arrays.copyOf(status, capacity);
+            currency = Arrays.copyOf(currency, capacity);
+            closeDay = Arrays.copyOf(closeDay, capacity);
+            createdDay = Arrays.copyOf(createdDay, capacity);
+        }
+        ids[size] = id;
+        rowOf.put(id, size);
+        return size++;
+    }
+    
+    private void remove(UUID id) {
+        Integer i = rowOf.remove(id);
+        if (i == null) {
+            return;
+        }
+        int last = --size;
+        if (i != last) {
+            ids[i] = ids[last];
+            amountCents[i] = amountCents[last];
+            probability[i] = probability[last];
+            pipeline[i] = pipeline[last];
+            stage[i] = stage[last];
+            owner[i] = owner[last];
+            status[i] = status[last];
+            currency[i] = currency[last];
+            closeDay[i] = closeDay[last];
+            createdDay[i] = createdDay[last];
+            rowOf.put(ids[i], i);
+        }
+        ids[last] = null;
+    }
+    
+    private int encode(DealDimension dimension, Object value) {
+        int code = dictionaries.get(dimension).encode(value != null ? value.toString() : null);
+        if (code > KEY_MASK) {
+            throw new IllegalStateException("Too many distinct " + dimension.label() + " values for the columnar store");
+        }
+        return code;
+    }
+    
+    private int[] codes(DealDimension dimension) {
+        return switch (dimension) {
+            case PIPELINE -> pipeline;
+            case STAGE -> stage;
+            case OWNER -> owner;
+            case STATUS -> status;
+            case CURRENCY -> currency;
+            case CLOSE_MONTH -> closeDay;
+            case CREATED_MONTH -> createdDay;
+        };
+    }
+    
+    /**
+     * Resolves the filter to codes once, so the scan compares ints only; null when
+     * nothing can match.
+     */
+    private Scan compile(List<DealDimension> groupBy, DealFilter filter) {
+        List<int[]> filterColumns = new ArrayList<>();
+        List<boolean[]> filterAllowed = new ArrayList<>();
+        for (Map.Entry<DealDimension, Set<String>> entry : filter.values().entrySet()) {
+            Dictionary dictionary = dictionaries.get(entry.getKey());
+            boolean[] allowed = new boolean[dictionary.size()];
+            boolean any = false;
+            for (String value : entry.getValue()) {
+                int code = dictionary.lookup(value);
+                if (code >= 0) {
+                    allowed[code] = true;
+                    any = true;
+                }
+            }
+            if (!any) {
+                return null;
+            }
+            filterColumns.add(codes(entry.getKey()));
+            filterAllowed.add(allowed);
+        }
+        int[][] groupColumns = new int[groupBy.size()][];
+        boolean[] monthly = new boolean[groupBy.size()];
+        for (int d = 0; d < groupBy.size(); d++) {
+            groupColumns[d] = codes(groupBy.get(d));
+            monthly[d] = groupBy.get(d).isMonth();
+        }
+        return new Scan(filterColumns.toArray(new int[0][]), filterAllowed.toArray(new boolean[0][]),
+                filter.closeFromDay() != null ? filter.closeFromDay() : NO_DAY,
+                filter.closeToDay() != null ? filter.closeToDay() : Integer.MAX_VALUE,
+                filter.closeFromDay() != null || filter.closeToDay() != null,
+                groupColumns, monthly);
+    }
+    
+    private List<String> decode(List<DealDimension> groupBy, long key) {
+        List<String> labels = new ArrayList<>(groupBy.size());
+        for (int d = 0; d < groupBy.size(); d++) {
+            int code = (int) ((key >>> (d * KEY_BITS)) & KEY_MASK);
+            DealDimension dimension = groupBy.get(d);
+            labels.add(dimension.isMonth() ? monthLabel(code) : dictionaries.get(dimension).decode(code));
+        }
+        return labels;
+    }
+    
+    private static Map<Long, long[]> merge(Map<Long, long[]> a, Map<Long, long[]> b) {
+        b.forEach((key, t) -> a.merge(key, t, (x, y) -> new long[]{x[0] + y[0],
+                Math.addExact(x[1], y[1]), Math.addExact(x[2], y[2])}));
+        return a;
+    }
+    
+    /**
+     * Month key code of an epoch day: months since 0000-01 plus one, 0 for no date.
+     */
+    static int monthCode(int epochDay) {
+        if (epochDay == NO_DAY) {
+            return 0;
+        }
+        // Civil-from-days (H. Hinnant), without building a LocalDate per row
+        long z = epochDay + 719468L;
+        long era = Math.floorDiv(z, 146097);
+        long doe = z - era * 146097;
+        long yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        long doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        long mp = (5 * doy + 2) / 153;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return (int) (year * 12 + month - 1) + 1;
+    }
+    
+    private static String monthLabel(int code) {
+        if (code == 0) {
+            return null;
+        }
+        int months = code - 1;
+        return String.format("%04d-%02d", months / 12, months % 12 + 1);
+    }
+    
+    private final class Scan {
+    
+        private final int[][] filterColumns;
+        private final boolean[][] filterAllowed;
+        private final int closeFrom;
+        private final int closeTo;
+        private final boolean closeRange;
+        private final int[][] groupColumns;
+        private final boolean[] monthly;
+    
+        Scan(int[][] filterColumns, boolean[][] filterAllowed, int closeFrom, int closeTo, boolean closeRange,
+             int[][] groupColumns, boolean[] monthly) {
+            this.filterColumns = filterColumns;
+            this.filterAllowed = filterAllowed;
+            this.closeFrom = closeFrom;
+            this.closeTo = closeTo;
+            this.closeRange = closeRange;
+            this.groupColumns = groupColumns;
+            this.monthly = monthly;
+        }
+    
+        Map<Long, long[]> run(int from, int to) {
+            Map<Long, long[]> totals = new HashMap<>();
+            rows:
+            for (int i = from; i < to; i++) {
+                for (int f = 0; f < filterColumns.length; f++) {
+                    if (!filterAllowed[f][filterColumns[f][i]]) {
+                        continue rows;
+                    }
+                }
+                if (closeRange && (closeDay[i] == NO_DAY || closeDay[i] < closeFrom || closeDay[i] > closeTo)) {
+                    continue;
+                }
+                long key = 0;
+                for (int d = 0; d < groupColumns.length; d++) {
+                    int code = monthly[d] ? monthCode(groupColumns[d][i]) : groupColumns[d][i];
+                    key |= (long) code << (d * KEY_BITS);
+                }
+                long[] t = totals.computeIfAbsent(key, k -> new long[3]);
+                t[0]++;
+                t[1] = Math.addExact(t[1], amountCents[i]);
+                t[2] = Math.addExact(t[2], amountCents[i] * probability[i]);
+            }
+            return totals;
+        }
+    }
+}
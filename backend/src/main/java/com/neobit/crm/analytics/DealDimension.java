@@ -0,0 +1,34 @@
+package com.neobit.crm.analytics;
+
+import java.util.Locale;
+
+/**
+ * Columns a deal pivot can group and filter by. Months are derived from the
+ * stored epoch days and labelled {@code yyyy-MM}.
+ */
+public enum DealDimension {
+    
+    PIPELINE,
+    STAGE,
+    OWNER,
+    STATUS,
+    CURRENCY,
+    CLOSE_MONTH,
+    CREATED_MONTH;
+    
+    /**
+     * Parses {@code stage}, {@code close_month}, {@code closeMonth} and similar spellings.
+     */
+    public static DealDimension parse(String name) {
+        String normalized = name.trim().replaceAll("([a-z])([A-Z])", "$1_$2").replace('-', '_').toUpperCase(Locale.ROOT);
+        return valueOf(normalized);
+    }
+    
+    public String label() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+    
+    boolean isMonth() {
+        return this == CLOSE_MONTH || this == CREATED_MONTH;
+    }
+}
@@ -0,0 +1,33 @@
+package com.neobit.crm.analytics;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Restricts a pivot to deals whose dimension values are in the given sets and
+ * whose expected close date falls in {@code [closeFromDay, closeToDay]}.
+ * Month dimensions are filtered with the close day range, not by value.
+ */
+public record DealFilter(Map<DealDimension, Set<String>> values, Integer closeFromDay, Integer closeToDay) {
+    
+    public static final DealFilter NONE = new DealFilter(Map.of(), null, null);
+    
+    public DealFilter {
+        values = values.isEmpty() ? Map.of() : new EnumMap<>(values);
+    }
+    
+    public static DealFilter of(Map<DealDimension, ? extends Collection<String>> values, Integer closeFromDay, Integer closeToDay) {
+        Map<DealDimension, Set<String>> sets = new EnumMap<>(DealDimension.class);
+        values.forEach((dimension, allowed) -> {
+            if (allowed != null && !allowed.isEmpty()) {
+                if (dimension.isMonth()) {
+                    throw new IllegalArgumentException("Month dimensions are filtered by close date range");
+                }
+                sets.put(dimension, Set.copyOf(allowed));
+            }
+        });
+        return new DealFilter(sets, closeFromDay, closeToDay);
+    }
+}
@@ -0,0 +1,11 @@
+package com.neobit.crm.analytics;
+
+import java.util.UUID;
+
+/**
+ * One deal as the columnar store keeps it. Amounts are in cents; days are epoch
+ * days, or {@link DealColumns#NO_DAY} when unset.
+ */
+public record DealRow(UUID id, UUID pipelineId, UUID stageId, UUID ownerId, String status, String currency,
+                      long amountCents, int probability, int closeDay, int createdDay) {
+}
@@ -0,0 +1,53 @@
+package com.neobit.crm.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for a low-cardinality column. Code 0 is null; codes are
+ * never reused, so a value keeps its code for the life of the store.
+ */
+final class Dictionary {
+    
+    static final int NULL_CODE = 0;
+    
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+    
+    Dictionary() {
+        values.add(null);
+    }
+    
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+    
+    /**
+     * Code of {@code value} without adding it; -1 if the column never held it.
+     */
+    int lookup(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        return codes.getOrDefault(value, -1);
+    }
+    
+    String decode(int code) {
+        return values.get(code);
+    }
+    
+    int size() {
+        return values.size();
+    }
+}
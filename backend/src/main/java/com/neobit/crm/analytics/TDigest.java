@@ -0,0 +1,209 @@
+package com.neobit.crm.analytics;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Merging t-digest: a compact, mergeable sketch of a distribution that answers
+ * quantile queries with small relative error, most accurate in the tails.
+ *
+ * Values are buffered and folded into at most about {@code compression} centroids
+ * whenever the buffer fills. Centroids are sized by the arcsine scale function, so
+ * those near the median hold many values and those near the extremes few. Two
+ * digests merge by feeding one's centroids into the other, which is what lets
+ * daily sketches be combined over any window. Not thread-safe.
+ */
+public final class TDigest {
+    
+    public static final double DEFAULT_COMPRESSION = 100;
+    
+    private static final byte FORMAT = 1;
+    
+    private final double compression;
+    private double[] means;
+    private long[] weights;
+    private int size;
+    private final double[] bufferMeans;
+    private final long[] bufferWeights;
+    private int buffered;
+    private long count;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+    
+    public TDigest(double compression) {
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        this.means = new double[capacity];
+        this.weights = new long[capacity];
+        this.bufferMeans = new double[capacity * 4];
+        this.bufferWeights = new long[capacity * 4];
+    }
+    
+    public void add(double value) {
+        add(value, 1);
+    }
+    
+    public void add(double value, long weight) {
+        if (Double.isNaN(value) || weight <= 0) {
+            throw new IllegalArgumentException("Cannot add " + value + " with weight " + weight);
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        count += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+    
+    public void merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.size; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        // Keep the other digest's exact extremes, which its centroids may have averaged away
+        if (other.count > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+    
+    public long count() {
+        return count;
+    }
+    
+    /**
+     * Estimated value at quantile {@code q} in [0, 1]; NaN when empty.
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile must be in [0, 1]: " + q);
+        }
+        compress();
+        if (size == 0) {
+            return Double.NaN;
+        }
+        if (size == 1) {
+            return means[0];
+        }
+        double index = q * count;
+        // Below the first centroid's centre, and above the last one's, interpolate to the extremes
+        double firstCentre = weights[0] / 2.0;
+        if (index <= firstCentre) {
+            return min + (means[0] - min) * (index / firstCentre);
+        }
+        double lastCentre = count - weights[size - 1] / 2.0;
+        if (index >= lastCentre) {
+            double span = count - lastCentre;
+            return means[size - 1] + (max - means[size - 1]) * ((index - lastCentre) / span);
+        }
+        double centre = firstCentre;
+        for (int i = 0; i < size - 1; i++) {
+            double nextCentre = centre + (weights[i] + weights[i + 1]) / 2.0;
+            if (index <= nextCentre) {
+                return means[i] + (means[i + 1] - means[i]) * ((index - centre) / (nextCentre - centre));
+            }
+            centre = nextCentre;
+        }
+        return means[size - 1];
+    }
+    
+    public byte[] toBytes() {
+        compress();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 8 * 3 + 8 + 4 + size * 16);
+        buffer.put(FORMAT).putDouble(compression).putLong(count).putDouble(min).putDouble(max).putInt(size);
+        for (int i = 0; i < size; i++) {
+            buffer.putDouble(means[i]).putLong(weights[i]);
+        }
+        return buffer.array();
+    }
+    
+    public static TDigest fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT) {
+            throw new IllegalArgumentException("Unknown t-digest format");
+        }
+        TDigest digest = new TDigest(buffer.getDouble());
+        digest.count = buffer.getLong();
+        digest.min = buffer.getDouble();
+        digest.max = buffer.getDouble();
+        int size = buffer.getInt();
+        if (size > digest.means.length) {
+            digest.means = new double[size];
+            digest.weights = new long[size];
+        }
+        for (int i = 0; i < size; i++) {
+            digest.means[i] = buffer.getDouble();
+            digest.weights[i] = buffer.getLong();
+        }
+        digest.size = size;
+        return digest;
+    }
+    
+    /**
+     * Sorts centroids and buffered values together by mean and merges neighbours
+     * while the merged centroid spans at most one unit of the scale function.
+     */
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int n = size + buffered;
+        double[] allMeans = Arrays.copyOf(means, n);
+        long[] allWeights = Arrays.copyOf(weights, n);
+        System.arraycopy(bufferMeans, 0, allMeans, size, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, size, buffered);
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+        
+        double[] merged = new double[n];
+        long[] mergedWeights = new long[n];
+        int out = 0;
+        double total = count;
+        double before = 0;
+        double mean = allMeans[order[0]];
+        long weight = allWeights[order[0]];
+        double lowerK = scale(0);
+        for (int i = 1; i < n; i++) {
+            double nextMean = allMeans[order[i]];
+            long nextWeight = allWeights[order[i]];
+            if (scale((before + weight + nextWeight) / total) - lowerK <= 1) {
+                weight += nextWeight;
+                mean += (nextMean - mean) * nextWeight / weight;
+            } else {
+                merged[out] = mean;
+                mergedWeights[out] = weight;
+                out++;
+                before += weight;
+                lowerK = scale(before / total);
+                mean = nextMean;
+                weight = nextWeight;
+            }
+        }
+        merged[out] = mean;
+        mergedWeights[out] = weight;
+        out++;
+        
+        if (out > means.length) {
+            means = new double[out];
+            weights = new long[out];
+        }
+        System.arraycopy(merged, 0, means, 0, out);
+        System.arraycopy(mergedWeights, 0, weights, 0, out);
+        size = out;
+        buffered = 0;
+    }
+    
+    private double scale(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * Math.min(1, Math.max(0, q)) - 1);
+    }
+}
@@ -0,0 +1,92 @@
+package com.neobit.crm.archive;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Value encodings used by the columnar archive files. Every value is preceded
+ * by a presence byte so nulls cost one byte.
+ */
+public enum ColumnType {
+    
+    UUID_VALUE {
+        @Override
+        void writeValue(DataOutputStream out, Object value) throws IOException {
+            UUID uuid = (UUID) value;
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+        
+        @Override
+        Object readValue(DataInputStream in) throws IOException {
+            return new UUID(in.readLong(), in.readLong());
+        }
+    },
+    TEXT {
+        @Override
+        void writeValue(DataOutputStream out, Object value) throws IOException {
+            byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+        
+        @Override
+        Object readValue(DataInputStream in) throws IOException {
+            byte[] bytes = new byte[in.readInt()];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    },
+    /** Microseconds since the epoch, the resolution PostgreSQL stores. */
+    TIMESTAMP {
+        @Override
+        void writeValue(DataOutputStream out, Object value) throws IOException {
+            out.writeLong(toMicros((Instant) value));
+        }
+        
+        @Override
+        Object readValue(DataInputStream in) throws IOException {
+            return fromMicros(in.readLong());
+        }
+    },
+    INT {
+        @Override
+        void writeValue(DataOutputStream out, Object value) throws IOException {
+            out.writeInt(((Number) value).intValue());
+        }
+        
+        @Override
+        Object readValue(DataInputStream in) throws IOException {
+            return in.readInt();
+        }
+    };
+    
+    abstract void writeValue(DataOutputStream out, Object value) throws IOException;
+    
+    abstract Object readValue(DataInputStream in) throws IOException;
+    
+    void write(DataOutputStream out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(0);
+        } else {
+            out.writeByte(1);
+            writeValue(out, value);
+        }
+    }
+    
+    Object read(DataInputStream in) throws IOException {
+        return in.readByte() == 0 ? null : readValue(in);
+    }
+    
+    public static long toMicros(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000L), instant.getNano() / 1_000);
+    }
+    
+    public static Instant fromMicros(long micros) {
+        return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+    }
+}
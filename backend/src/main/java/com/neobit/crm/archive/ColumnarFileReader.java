@@ -0,0 +1,131 @@
+package com.neobit.crm.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads files produced by {@link ColumnarFileWriter}. Only the footer is read on
+ * open; row groups are read and decompressed on demand.
+ */
+public final class ColumnarFileReader implements Closeable {
+    
+    public record RowGroup(UUID key, long minSort, long maxSort, int rowCount, long offset, int[] columnLengths) {
+        
+        public boolean overlaps(long fromSort, long toSort) {
+            return minSort <= toSort && maxSort >= fromSort;
+        }
+    }
+    
+    private final FileChannel channel;
+    private final List<ColumnType> columns;
+    private final List<RowGroup> groups;
+    
+    private ColumnarFileReader(FileChannel channel, List<ColumnType> columns, List<RowGroup> groups) {
+        this.channel = channel;
+        this.columns = columns;
+        this.groups = groups;
+    }
+    
+    public static ColumnarFileReader open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            int magicLength = ColumnarFileWriter.MAGIC.length;
+            long size = channel.size();
+            if (size < 2L * magicLength + 4) {
+                throw new IOException("Not a columnar archive: " + path);
+            }
+            ByteBuffer tail = read(channel, size - magicLength - 4, magicLength + 4);
+            int footerLength = tail.getInt();
+            byte[] magic = new byte[magicLength];
+            tail.get(magic);
+            if (!Arrays.equals(magic, ColumnarFileWriter.MAGIC)) {
+                throw new IOException("Not a columnar archive: " + path);
+            }
+            ByteBuffer footer = read(channel, size - magicLength - 4 - footerLength, footerLength);
+            
+            int columnCount = footer.getInt();
+            List<ColumnType> columns = new ArrayList<>(columnCount);
+            for (int c = 0; c < columnCount; c++) {
+                columns.add(ColumnType.values()[footer.get()]);
+            }
+            int groupCount = footer.getInt();
+            List<RowGroup> groups = new ArrayList<>(groupCount);
+            for (int g = 0; g < groupCount; g++) {
+                UUID key = new UUID(footer.getLong(), footer.getLong());
+                long minSort = footer.getLong();
+                long maxSort = footer.getLong();
+                int rowCount = footer.getInt();
+                long offset = footer.getLong();
+                int[] lengths = new int[columnCount];
+                for (int c = 0; c < columnCount; c++) {
+                    lengths[c] = footer.getInt();
+                }
+                groups.add(new RowGroup(key, minSort, maxSort, rowCount, offset, lengths));
+            }
+            return new ColumnarFileReader(channel, List.copyOf(columns), List.copyOf(groups));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public List<ColumnType> columns() {
+        return columns;
+    }
+    
+    public List<RowGroup> rowGroups() {
+        return groups;
+    }
+    
+    public long rowCount() {
+        return groups.stream().mapToLong(RowGroup::rowCount).sum();
+    }
+    
+    /**
+     * Decodes one row group into rows of column values.
+     */
+    public List<Object[]> read(RowGroup group) throws IOException {
+        int total = Arrays.stream(group.columnLengths()).sum();
+        ByteBuffer bytes = read(channel, group.offset(), total);
+        Object[][] rows = new Object[group.rowCount()][columns.size()];
+        int blockStart = 0;
+        for (int c = 0; c < columns.size(); c++) {
+            int length = group.columnLengths()[c];
+            ColumnType type = columns.get(c);
+            try (DataInputStream in = new DataInputStream(new GZIPInputStream(
+                    new ByteArrayInputStream(bytes.array(), blockStart, length), 64 * 1024))) {
+                for (Object[] row : rows) {
+                    row[c] = type.read(in);
+                }
+            }
+            blockStart += length;
+        }
+        return Arrays.asList(rows);
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+    
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of archive file");
+            }
+        }
+        return buffer.flip();
+    }
+}
@@ -0,0 +1,138 @@
+package com.neobit.crm.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows into a compressed columnar file.
+ *
+ * Rows arrive sorted by a group key (the tenant) and a sort value (created_at
+ * in microseconds). They are cut into row groups that never span two keys; inside
+ * a group each column is stored as its own gzip block, so similar values sit next
+ * to each other and compress well. The footer lists every group with its key,
+ * sort range and block sizes, letting a reader skip whole groups without
+ * decompressing them.
+ *
+ * Layout: {@code MAGIC, group*, footer, int footerLength, MAGIC}.
+ */
+public final class ColumnarFileWriter implements Closeable {
+    
+    static final byte[] MAGIC = {'C', 'R', 'M', 'C', 'O', 'L', '0', '1'};
+    
+    private final FileChannel channel;
+    private final List<ColumnType> columns;
+    private final int maxGroupRows;
+    private final List<ColumnarFileReader.RowGroup> groups = new ArrayList<>();
+    
+    private final List<Object[]> pending = new ArrayList<>();
+    private UUID pendingKey;
+    private long pendingMin = Long.MAX_VALUE;
+    private long pendingMax = Long.MIN_VALUE;
+    private long position;
+    private long rowCount;
+    
+    public ColumnarFileWriter(Path path, List<ColumnType> columns, int maxGroupRows) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.columns = List.copyOf(columns);
+        this.maxGroupRows = maxGroupRows;
+        writeFully(ByteBuffer.wrap(MAGIC));
+    }
+    
+    /**
+     * Appends a row. Rows must be ordered by {@code groupKey}; {@code sortValue} only
+     * feeds the group's min/max range.
+     */
+    public void write(UUID groupKey, long sortValue, Object[] row) throws IOException {
+        if (row.length != columns.size()) {
+            throw new IllegalArgumentException("Expected " + columns.size() + " values, got " + row.length);
+        }
+        if (!pending.isEmpty() && (!groupKey.equals(pendingKey) || pending.size() >= maxGroupRows)) {
+            flushGroup();
+        }
+        pendingKey = groupKey;
+        pendingMin = Math.min(pendingMin, sortValue);
+        pendingMax = Math.max(pendingMax, sortValue);
+        pending.add(row);
+        rowCount++;
+    }
+    
+    public long rowCount() {
+        return rowCount;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!pending.isEmpty()) {
+                flushGroup();
+            }
+            ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+            DataOutputStream footer = new DataOutputStream(footerBytes);
+            footer.writeInt(columns.size());
+            for (ColumnType column : columns) {
+                footer.writeByte(column.ordinal());
+            }
+            footer.writeInt(groups.size());
+            for (ColumnarFileReader.RowGroup group : groups) {
+                footer.writeLong(group.key().getMostSignificantBits());
+                footer.writeLong(group.key().getLeastSignificantBits());
+                footer.writeLong(group.minSort());
+                footer.writeLong(group.maxSort());
+                footer.writeInt(group.rowCount());
+                footer.writeLong(group.offset());
+                for (int length : group.columnLengths()) {
+                    footer.writeInt(length);
+                }
+            }
+            footer.flush();
+            writeFully(ByteBuffer.wrap(footerBytes.toByteArray()));
+            writeFully(ByteBuffer.allocate(4).putInt(footerBytes.size()).flip());
+            writeFully(ByteBuffer.wrap(MAGIC));
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+    
+    private void flushGroup() throws IOException {
+        long offset = position;
+        int[] lengths = new int[columns.size()];
+        for (int c = 0; c < columns.size(); c++) {
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(block, 64 * 1024) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            })) {
+                ColumnType type = columns.get(c);
+                for (Object[] row : pending) {
+                    type.write(out, row[c]);
+                }
+            }
+            lengths[c] = block.size();
+            writeFully(ByteBuffer.wrap(block.toByteArray()));
+        }
+        groups.add(new ColumnarFileReader.RowGroup(pendingKey, pendingMin, pendingMax, pending.size(), offset, lengths));
+        pending.clear();
+        pendingMin = Long.MAX_VALUE;
+        pendingMax = Long.MIN_VALUE;
+    }
+    
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+}
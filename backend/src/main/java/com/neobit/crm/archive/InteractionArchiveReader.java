@@ -0,0 +1,137 @@
+package com.neobit.crm.archive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobit.crm.dto.interaction.InteractionDTO;
+import com.neobit.crm.entity.Interaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static com.neobit.crm.archive.InteractionArchiveSchema.*;
+
+/**
+ * Read path for interactions whose month has been moved out of the database.
+ *
+ * Only row groups for the requested tenant whose created_at range overlaps the
+ * query are decompressed. Archived rows carry ids only: customer, account and
+ * user names are not resolved, and attachments are not included.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InteractionArchiveReader {
+    
+    // An exported month is read from its file as soon as its partition is detached;
+    // the month was frozen before the export, so the file holds every row
+    private static final String ARCHIVES_SQL =
+            "SELECT a.file_path FROM interaction_archives a WHERE (a.status = 'archived' " +
+            "OR (a.status = 'exported' AND NOT EXISTS (SELECT 1 FROM pg_inherits i " +
+            "WHERE i.inhrelid = to_regclass(a.partition_name)))) " +
+            "AND a.range_start <= ? AND a.range_end > ? ORDER BY a.range_start DESC";
+    
+    private static final TypeReference<Map<String, Object>> METADATA_TYPE = new TypeReference<>() {};
+    private static final TypeReference<List<String>> TAGS_TYPE = new TypeReference<>() {};
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    
+    public boolean coversAny(Instant start, Instant end) {
+        return !archiveFiles(start, end).isEmpty();
+    }
+    
+    /**
+     * Archived interactions of the tenant with {@code start <= createdAt <= end}, newest first.
+     */
+    public List<InteractionDTO> find(UUID tenantId, Instant start, Instant end) {
+        long from = ColumnType.toMicros(start);
+        long to = ColumnType.toMicros(end);
+        List<InteractionDTO> result = new ArrayList<>();
+        for (String file : archiveFiles(start, end)) {
+            Path path = Paths.get(file);
+            try (ColumnarFileReader reader = ColumnarFileReader.open(path)) {
+                for (ColumnarFileReader.RowGroup group : reader.rowGroups()) {
+                    if (!group.key().equals(tenantId) || !group.overlaps(from, to)) {
+                        continue;
+                    }
+                    for (Object[] row : reader.read(group)) {
+                        Instant createdAt = (Instant) row[CREATED_AT];
+                        if (!createdAt.isBefore(start) && !createdAt.isAfter(end)) {
+                            result.add(toDTO(row));
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // Missing or unreadable archives must not look like an empty month
+                log.error("Cannot read interaction archive {}", path, e);
+                throw new UncheckedIOException("Interaction archive unavailable: " + path.getFileName(), e);
+            }
+        }
+        result.sort(Comparator.comparing(InteractionDTO::getCreatedAt).reversed());
+        return result;
+    }
+    
+    private List<String> archiveFiles(Instant start, Instant end) {
+        return jdbcTemplate.queryForList(ARCHIVES_SQL, String.class,
+                Timestamp.from(end), Timestamp.from(start));
+    }
+    
+    private InteractionDTO toDTO(Object[] row) {
+        return InteractionDTO.builder()
+                .id((UUID) row[ID])
+                .customerId((UUID) row[CUSTOMER_ID])
+                .accountId((UUID) row[ACCOUNT_ID])
+                .userId((UUID) row[USER_ID])
+                .type(enumValue(Interaction.InteractionType.class, row[TYPE]))
+                .direction(enumValue(Interaction.InteractionDirection.class, row[DIRECTION]))
+                .status(enumValue(Interaction.InteractionStatus.class, row[STATUS]))
+                .subject((String) row[SUBJECT])
+                .description((String) row[DESCRIPTION])
+                .summary((String) row[SUMMARY])
+                .sentiment((String) row[SENTIMENT])
+                .sentimentScore(row[SENTIMENT_SCORE] != null ? new BigDecimal((String) row[SENTIMENT_SCORE]) : null)
+                .startedAt((Instant) row[STARTED_AT])
+                .endedAt((Instant) row[ENDED_AT])
+                .durationSeconds((Integer) row[DURATION_SECONDS])
+                .scheduledAt((Instant) row[SCHEDULED_AT])
+                .location((String) row[LOCATION])
+                .externalId((String) row[EXTERNAL_ID])
+                .externalSource((String) row[EXTERNAL_SOURCE])
+                .metadata(json((String) row[METADATA], METADATA_TYPE))
+                .tags(json((String) row[TAGS], TAGS_TYPE))
+                .createdAt((Instant) row[CREATED_AT])
+                .updatedAt((Instant) row[UPDATED_AT])
+                .build();
+    }
+    
+    private static <E extends Enum<E>> E enumValue(Class<E> type, Object value) {
+        return value != null ? Enum.valueOf(type, ((String) value).toUpperCase(Locale.ROOT)) : null;
+    }
+    
+    private <T> T json(String value, TypeReference<T> type) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt archived interaction value", e);
+        }
+    }
+}
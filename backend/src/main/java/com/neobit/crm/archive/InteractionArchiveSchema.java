@@ -0,0 +1,58 @@
+package com.neobit.crm.archive;
+
+import java.util.List;
+
+import static com.neobit.crm.archive.ColumnType.INT;
+import static com.neobit.crm.archive.ColumnType.TEXT;
+import static com.neobit.crm.archive.ColumnType.TIMESTAMP;
+import static com.neobit.crm.archive.ColumnType.UUID_VALUE;
+
+/**
+ * Column order of archived interaction files. Enums, decimals, JSON and arrays
+ * are stored as their PostgreSQL text form.
+ */
+final class InteractionArchiveSchema {
+    
+    static final int ID = 0;
+    static final int TENANT_ID = 1;
+    static final int CUSTOMER_ID = 2;
+    static final int ACCOUNT_ID = 3;
+    static final int USER_ID = 4;
+    static final int TYPE = 5;
+    static final int DIRECTION = 6;
+    static final int STATUS = 7;
+    static final int SUBJECT = 8;
+    static final int DESCRIPTION = 9;
+    static final int SUMMARY = 10;
+    static final int SENTIMENT = 11;
+    static final int SENTIMENT_SCORE = 12;
+    static final int STARTED_AT = 13;
+    static final int ENDED_AT = 14;
+    static final int DURATION_SECONDS = 15;
+    static final int SCHEDULED_AT = 16;
+    static final int LOCATION = 17;
+    static final int EXTERNAL_ID = 18;
+    static final int EXTERNAL_SOURCE = 19;
+    static final int METADATA = 20;
+    static final int TAGS = 21;
+    static final int CREATED_AT = 22;
+    static final int UPDATED_AT = 23;
+    
+    static final List<ColumnType> COLUMNS = List.of(
+            UUID_VALUE, UUID_VALUE, UUID_VALUE, UUID_VALUE, UUID_VALUE,
+            TEXT, TEXT, TEXT, TEXT, TEXT, TEXT, TEXT, TEXT,
+            TIMESTAMP, TIMESTAMP, INT, TIMESTAMP,
+            TEXT, TEXT, TEXT, TEXT, TEXT,
+            TIMESTAMP, TIMESTAMP);
+    
+    /** Export query for one partition; {@code %s} is the partition table name. */
+    static final String EXPORT_SQL =
+            "SELECT id, tenant_id, customer_id, account_id, user_id, type::text, direction::text, status::text, " +
+            "subject, description, summary, sentiment, sentiment_score::text, started_at, ended_at, " +
+            "duration_seconds, scheduled_at, location, external_id, external_source, metadata::text, " +
+            "array_to_json(tags)::text, created_at, updated_at " +
+            "FROM %s ORDER BY tenant_id, created_at";
+    
+    private InteractionArchiveSchema() {
+    }
+}
@@ -0,0 +1,402 @@
+package com.neobit.crm.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of {@code interactions} in shape.
+ *
+ * On startup and once a day it creates the partitions for the next few months,
+ * then archives every month older than the hot window. The month is frozen first:
+ * {@code interaction_archive_horizon} moves past it, so the database rejects any
+ * further write to its rows, and a brief SHARE lock waits out writers already in
+ * flight. The partition is then exported to a columnar file under
+ * {@code archive-dir} while still attached, together with a content hash,
+ * recorded as exported in {@code interaction_archives}, detached, hashed again
+ * and dropped. A hash mismatch means a write got past the freeze, and the month
+ * is exported again from the detached table. Reads switch to the file as soon as
+ * the partition is detached, so the month never drops out of view.
+ *
+ * The detach is a plain one: {@code DETACH ... CONCURRENTLY} is refused while
+ * {@code interactions} has a default partition. Its ACCESS EXCLUSIVE lock is only
+ * held for the catalog change, and it runs under {@code lock_timeout} and is
+ * retried, so it never queues other queries for long. Each step is recorded before
+ * the next one starts, so an interrupted run is finished by the next one. A
+ * session advisory lock keeps several instances from doing the same work.
+ */
+@Component
+@Slf4j
+public class InteractionPartitionManager {
+    
+    private static final long ADVISORY_LOCK_KEY = 0x6372_6d5f_7061_7274L;
+    private static final Pattern PARTITION_NAME = Pattern.compile("interactions_p(\\d{4})_(\\d{2})");
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+    
+    private static final String DEFAULT_PARTITION_ROWS_SQL =
+            "SELECT to_char(date_trunc('month', created_at AT TIME ZONE 'UTC'), 'YYYY-MM') AS month, count(*) " +
+            "FROM interactions_default GROUP BY 1 ORDER BY 1";
+    
+    private static final String ATTACHED_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'interactions'::regclass ORDER BY c.relname";
+    
+    // Order-independent: the sum of a 60-bit hash of every row's text form
+    private static final String CONTENT_HASH_SQL =
+            "SELECT count(*), coalesce(sum(('x' || left(md5(t::text), 15))::bit(60)::bigint), 0)::text FROM %s t";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int hotMonths;
+    private final boolean archiveEnabled;
+    private final Path archiveDir;
+    private final int rowGroupSize;
+    private final long lockTimeoutMs;
+    private final int lockAttempts;
+    
+    public InteractionPartitionManager(JdbcTemplate jdbcTemplate,
+                                       @Value("${app.interaction-partitions.months-ahead:3}") int monthsAhead,
+                                       @Value("${app.interaction-partitions.hot-months:24}") int hotMonths,
+                                       @Value("${app.interaction-partitions.archive.enabled:true}") boolean archiveEnabled,
+                                       @Value("${app.interaction-partitions.archive.dir:./data/interaction-archive}") String archiveDir,
+                                       @Value("${app.interaction-partitions.archive.row-group-size:65536}") int rowGroupSize,
+                                       @Value("${app.interaction-partitions.archive.lock-timeout-ms:2000}") long lockTimeoutMs,
+                                       @Value("${app.interaction-partitions.archive.lock-attempts:30}") int lockAttempts) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.hotMonths = hotMonths;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveDir = Paths.get(archiveDir).toAbsolutePath();
+        this.rowGroupSize = rowGroupSize;
+        this.lockTimeoutMs = lockTimeoutMs;
+        this.lockAttempts = lockAttempts;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+    
+    @Scheduled(cron = "${app.interaction-partitions.cron:0 15 2 * * *}", zone = "UTC")
+    public void maintain() {
+        try {
+            jdbcTemplate.execute((Connection connection) -> {
+                // Everything runs on this one connection so the session lock covers it
+                JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                Boolean locked = session.queryForObject("SELECT pg_try_advisory_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    log.debug("Interaction partition maintenance is running elsewhere");
+                    return null;
+                }
+                try {
+                    ensurePartitions(session);
+                    reportDefaultPartition(session);
+                    if (archiveEnabled) {
+                        resumeArchives(connection, session);
+                        archiveExpired(connection, session);
+                    }
+                } finally {
+                    session.queryForObject("SELECT pg_advisory_unlock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            log.error("Interaction partition maintenance failed", e);
+        }
+    }
+    
+    private void ensurePartitions(JdbcTemplate session) {
+        LocalDate month = currentMonth();
+        for (int i = 0; i <= monthsAhead; i++) {
+            session.queryForObject("SELECT create_interaction_partition(?)", String.class, month.plusMonths(i));
+        }
+    }
+    
+    /**
+     * Rows land in the default partition when their month has no partition of its
+     * own. Months inside the pre-created window are moved out by
+     * {@code create_interaction_partition}; anything else stays there until someone looks.
+     */
+    private void reportDefaultPartition(JdbcTemplate session) {
+        session.query(DEFAULT_PARTITION_ROWS_SQL, rs -> {
+            log.warn("{} interactions from {} are in the default partition", rs.getLong(2), rs.getString(1));
+        });
+    }
+    
+    private void archiveExpired(Connection connection, JdbcTemplate session) throws SQLException {
+        LocalDate horizon = currentMonth().minusMonths(hotMonths);
+        List<String> attached = session.queryForList(ATTACHED_PARTITIONS_SQL, String.class);
+        for (String partition : attached) {
+            LocalDate start = monthOf(partition);
+            if (start != null && start.isBefore(horizon)) {
+                session.update("INSERT INTO interaction_archives (partition_name, range_start, range_end, status) " +
+                                "VALUES (?, ?, ?, 'exporting') ON CONFLICT (partition_name) DO NOTHING",
+                        partition, utc(start), utc(start.plusMonths(1)));
+                archive(connection, session, partition);
+            }
+        }
+    }
+    
+    /** Finishes archives left half done by an earlier run. */
+    private void resumeArchives(Connection connection, JdbcTemplate session) throws SQLException {
+        List<String> unfinished = session.queryForList(
+                "SELECT partition_name FROM interaction_archives WHERE status <> 'archived' ORDER BY partition_name",
+                String.class);
+        for (String partition : unfinished) {
+            log.info("Resuming archive of {}", partition);
+            archive(connection, session, partition);
+        }
+        // Archived and recorded, but the run stopped before the drop
+        List<String> leftovers = session.queryForList(
+                "SELECT partition_name FROM interaction_archives WHERE status = 'archived' " +
+                "AND to_regclass(partition_name) IS NOT NULL", String.class);
+        for (String partition : leftovers) {
+            session.execute("DROP TABLE " + quote(partition));
+        }
+    }
+    
+    private void archive(Connection connection, JdbcTemplate session, String partition) throws SQLException {
+        Boolean exists = session.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+        if (!Boolean.TRUE.equals(exists)) {
+            log.warn("Partition {} is gone but its archive was never completed", partition);
+            return;
+        }
+        
+        Path target = archiveDir.resolve(partition + ".cia");
+        Map<String, Object> record = session.queryForMap(
+                "SELECT status, range_end, content_hash FROM interaction_archives WHERE partition_name = ?", partition);
+        String exportedHash = (String) record.get("content_hash");
+        if (!"exported".equals(record.get("status")) || exportedHash == null || !Files.exists(target)) {
+            freeze(connection, session, partition, (Timestamp) record.get("range_end"));
+            // Written while the partition is still attached, so its rows stay readable throughout
+            Content exported = export(connection, partition, target);
+            markExported(session, partition, target, exported);
+            exportedHash = exported.hash();
+        }
+        
+        if (!session.queryForList("SELECT 1 FROM pg_inherits WHERE inhrelid = ?::regclass", Integer.class, partition).isEmpty()) {
+            runLocked(connection, "ALTER TABLE interactions DETACH PARTITION " + quote(partition));
+            log.info("Detached interaction partition {}", partition);
+        }
+        
+        Content detached = session.queryForObject(String.format(CONTENT_HASH_SQL, quote(partition)),
+                (rs, rowNum) -> new Content(rs.getLong(1), rs.getString(2)));
+        if (detached == null) {
+            throw new IllegalStateException("Could not hash partition " + partition);
+        }
+        if (!detached.hash().equals(exportedHash)) {
+            log.warn("Partition {} changed after it was frozen, exporting it again", partition);
+            Content reexported = export(connection, partition, target);
+            markExported(session, partition, target, reexported);
+            detached = reexported;
+        }
+        try (ColumnarFileReader reader = ColumnarFileReader.open(target)) {
+            if (reader.rowCount() != detached.rows()) {
+                throw new IllegalStateException("Archive of " + partition + " has " + reader.rowCount()
+                        + " rows, partition has " + detached.rows());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        
+        session.update("UPDATE interaction_archives SET status = 'archived', file_path = ?, row_count = ?, " +
+                        "file_size = ?, checksum = ?, archived_at = now() WHERE partition_name = ?",
+                target.toString(), detached.rows(), size(target), sha256(target), partition);
+        session.execute("DROP TABLE " + quote(partition));
+        log.info("Archived {} interactions from {} to {}", detached.rows(), partition, target);
+    }
+    
+    /**
+     * Makes the month read-only: the horizon trigger rejects writes to rows older
+     * than {@code frozen_before}, and taking a SHARE lock on the partition waits
+     * for the transactions that wrote to it before the horizon moved.
+     */
+    private void freeze(Connection connection, JdbcTemplate session, String partition, Timestamp rangeEnd) throws SQLException {
+        session.update("UPDATE interaction_archive_horizon SET frozen_before = greatest(frozen_before, ?)", rangeEnd);
+        runLocked(connection, "LOCK TABLE " + quote(partition) + " IN SHARE MODE");
+    }
+    
+    /**
+     * Runs {@code sql} in a transaction of its own under {@code lock_timeout},
+     * retrying while the lock is contended.
+     */
+    private void runLocked(Connection connection, String sql) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            for (int attempt = 1; ; attempt++) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("SET LOCAL lock_timeout = " + lockTimeoutMs);
+                    statement.execute(sql);
+                    connection.commit();
+                    return;
+                } catch (SQLException e) {
+                    connection.rollback();
+                    if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState()) || attempt >= lockAttempts) {
+                        throw e;
+                    }
+                    log.debug("Lock not available for [{}], attempt {}", sql, attempt);
+                }
+                try {
+                    Thread.sleep(lockTimeoutMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for a lock", e);
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private static void markExported(JdbcTemplate session, String partition, Path target, Content content) {
+        session.update("UPDATE interaction_archives SET status = 'exported', file_path = ?, row_count = ?, " +
+                "content_hash = ? WHERE partition_name = ?", target.toString(), content.rows(), content.hash(), partition);
+    }
+    
+    /**
+     * Streams the partition into {@code target}, writing to a temporary
+     * file first so a crash never leaves a truncated archive under the final name.
+     * The content hash is taken in the same snapshot as the rows.
+     */
+    private Content export(Connection connection, String partition, Path target) throws SQLException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        boolean autoCommit = connection.getAutoCommit();
+        int isolation = connection.getTransactionIsolation();
+        // The driver only streams with a fetch size inside a transaction
+        connection.setAutoCommit(false);
+        connection.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+        try {
+            Files.createDirectories(archiveDir);
+            String hash;
+            long rows;
+            try (ColumnarFileWriter writer = new ColumnarFileWriter(tmp, InteractionArchiveSchema.COLUMNS, rowGroupSize);
+                 Statement statement = connection.createStatement()) {
+                try (ResultSet rs = statement.executeQuery(String.format(CONTENT_HASH_SQL, quote(partition)))) {
+                    rs.next();
+                    hash = rs.getString(2);
+                }
+                statement.setFetchSize(5_000);
+                try (ResultSet rs = statement.executeQuery(
+                        String.format(InteractionArchiveSchema.EXPORT_SQL, quote(partition)))) {
+                    int columnCount = InteractionArchiveSchema.COLUMNS.size();
+                    while (rs.next()) {
+                        Object[] row = new Object[columnCount];
+                        for (int c = 0; c < columnCount; c++) {
+                            row[c] = readColumn(rs, c + 1, InteractionArchiveSchema.COLUMNS.get(c));
+                        }
+                        UUID tenantId = (UUID) row[InteractionArchiveSchema.TENANT_ID];
+                        OffsetDateTime createdAt = rs.getObject(InteractionArchiveSchema.CREATED_AT + 1, OffsetDateTime.class);
+                        writer.write(tenantId, ColumnType.toMicros(createdAt.toInstant()), row);
+                    }
+                }
+                rows = writer.rowCount();
+            }
+            connection.commit();
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return new Content(rows, hash);
+        } catch (IOException e) {
+            connection.rollback();
+            throw new UncheckedIOException("Could not write archive " + target, e);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setTransactionIsolation(isolation);
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private static Object readColumn(ResultSet rs, int index, ColumnType type) throws SQLException {
+        return switch (type) {
+            case UUID_VALUE -> rs.getObject(index, UUID.class);
+            case TEXT -> rs.getString(index);
+            case TIMESTAMP -> {
+                OffsetDateTime value = rs.getObject(index, OffsetDateTime.class);
+                yield value != null ? value.toInstant() : null;
+            }
+            case INT -> {
+                int value = rs.getInt(index);
+                yield rs.wasNull() ? null : value;
+            }
+        };
+    }
+    
+    private static LocalDate monthOf(String partition) {
+        Matcher m = PARTITION_NAME.matcher(partition);
+        if (!m.matches()) {
+            return null;
+        }
+        return LocalDate.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2)), 1);
+    }
+    
+    private static LocalDate currentMonth() {
+        return LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+    }
+    
+    private static OffsetDateTime utc(LocalDate date) {
+        return date.atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+    
+    private static String quote(String identifier) {
+        if (!PARTITION_NAME.matcher(identifier).matches()) {
+            throw new IllegalArgumentException("Unexpected partition name: " + identifier);
+        }
+        return "\"" + identifier + "\"";
+    }
+    
+    private static long size(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static String sha256(Path path) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private record Content(long rows, String hash) {}
+}
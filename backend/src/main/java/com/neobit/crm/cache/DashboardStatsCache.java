@@ -0,0 +1,133 @@
+package com.neobit.crm.cache;
+
+import com.neobit.crm.event.TenantDataChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-tenant cache of dashboard statistics.
+ *
+ * Concurrent requests for a tenant whose entry is missing share one computation:
+ * the first caller loads on its own thread and the rest wait for its result.
+ * Entries are dropped after a committed change to anything the dashboard counts,
+ * on this node directly and on other nodes through a Redis channel, and expire
+ * after a TTL as a backstop for writes that bypass the services.
+ */
+@Component
+@Slf4j
+public class DashboardStatsCache implements MessageListener {
+    
+    static final String CHANNEL = "crm:dashboard:invalidate";
+    private static final String SEPARATOR = "|";
+    private static final Set<String> COUNTED_ENTITIES = Set.of("customer", "account", "task", "interaction");
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<UUID, Entry> entries = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long ttlMs;
+    private final Counter computedCounter;
+    
+    public DashboardStatsCache(StringRedisTemplate redisTemplate,
+                               RedisMessageListenerContainer listenerContainer,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.dashboard.cache-ttl-seconds:60}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.ttlMs = ttlSeconds * 1000;
+        this.computedCounter = meterRegistry.counter("crm.dashboard.stats.computed");
+    }
+    
+    @PostConstruct
+    void register() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+    
+    /**
+     * Returns the cached statistics of a tenant, computing them with {@code loader}
+     * unless another request already is.
+     */
+    public Map<String, Object> get(UUID tenantId, Supplier<Map<String, Object>> loader) {
+        long now = System.currentTimeMillis();
+        Entry created = new Entry(new CompletableFuture<>(), now + ttlMs);
+        Entry entry = entries.compute(tenantId, (id, current) ->
+                current != null && !current.isExpired(now) ? current : created);
+        if (entry == created) {
+            try {
+                created.stats().complete(Map.copyOf(loader.get()));
+                computedCounter.increment();
+            } catch (RuntimeException e) {
+                entries.remove(tenantId, created);
+                created.stats().completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return entry.stats().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        String entity = event.eventType().substring(0, Math.max(0, event.eventType().indexOf('.')));
+        if (!COUNTED_ENTITIES.contains(entity)) {
+            return;
+        }
+        entries.remove(event.tenantId());
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + event.tenantId());
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the TTL
+            log.warn("Failed to publish dashboard invalidation for tenant {}: {}", event.tenantId(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 2);
+        if (parts.length != 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            entries.remove(UUID.fromString(parts[1]));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed dashboard invalidation: {}", parts[1]);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.dashboard.evict-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+    
+    private record Entry(CompletableFuture<Map<String, Object>> stats, long expiresAt) {
+        
+        /** An entry still being computed is never expired, so waiters keep sharing it. */
+        boolean isExpired(long now) {
+            return expiresAt <= now && stats.isDone();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.neobit.crm.cache;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.type.EntityType;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the node-local Hibernate second-level cache coherent across instances.
+ *
+ * After a transaction commits a change to a cached entity, the entity name and id
+ * are published on a Redis channel. Every other node evicts that entity, the
+ * collections it owns and the collection regions that hold it as an element,
+ * and marks the entity's tables as updated in its timestamps region. Cached
+ * query results that read those tables are then treated as stale, while results
+ * over other tables stay cached. Local eviction is left to Hibernate.
+ */
+@Component
+@Slf4j
+public class SecondLevelCacheInvalidator implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener, MessageListener {
+    
+    static final String CHANNEL = "crm:l2cache:invalidate";
+    private static final String SEPARATOR = "|";
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final EntityManagerFactory entityManagerFactory;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    
+    private final Map<String, List<String>> ownedCollectionRoles = new HashMap<>();
+    private final Map<String, List<String>> containingCollectionRoles = new HashMap<>();
+    private SessionFactoryImplementor sessionFactory;
+    
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory,
+                                       StringRedisTemplate redisTemplate,
+                                       RedisMessageListenerContainer listenerContainer) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+    
+    @PostConstruct
+    void register() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        
+        sessionFactory.getMappingMetamodel().forEachCollectionDescriptor(collection -> {
+            if (!collection.hasCache()) {
+                return;
+            }
+            ownedCollectionRoles.computeIfAbsent(collection.getOwnerEntityPersister().getEntityName(),
+                    k -> new ArrayList<>()).add(collection.getRole());
+            if (collection.getElementType() instanceof EntityType element) {
+                containingCollectionRoles.computeIfAbsent(element.getAssociatedEntityName(),
+                        k -> new ArrayList<>()).add(collection.getRole());
+            }
+        });
+        
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+        
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+    
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.canWriteToCache();
+    }
+    
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+    
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+    
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        publish(event.getPersister(), event.getId());
+    }
+    
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        // Nothing was committed, nothing to invalidate
+    }
+    
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        // Nothing was committed, nothing to invalidate
+    }
+    
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        // Nothing was committed, nothing to invalidate
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            evict(parts[1], parts[2]);
+        } catch (RuntimeException e) {
+            log.warn("Failed to apply L2 cache invalidation for {}#{}: {}", parts[1], parts[2], e.getMessage());
+        }
+    }
+    
+    private void publish(EntityPersister persister, Object id) {
+        if (!persister.canWriteToCache() || id == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + persister.getEntityName() + SEPARATOR + id);
+        } catch (RuntimeException e) {
+            // Other nodes fall back to their region expiry
+            log.warn("Failed to publish L2 cache invalidation for {}#{}: {}", persister.getEntityName(), id, e.getMessage());
+        }
+    }
+    
+    private void evict(String entityName, String rawId) {
+        EntityPersister persister = sessionFactory.getMappingMetamodel().getEntityDescriptor(entityName);
+        Object id = UUID.class.equals(persister.getIdentifierType().getReturnedClass()) ? UUID.fromString(rawId) : rawId;
+        
+        Cache cache = sessionFactory.getCache();
+        cache.evictEntityData(entityName, id);
+        for (String role : ownedCollectionRoles.getOrDefault(entityName, List.of())) {
+            cache.evictCollectionData(role, id);
+        }
+        for (String role : containingCollectionRoles.getOrDefault(entityName, List.of())) {
+            cache.evictCollectionData(role);
+        }
+        if (sessionFactory.getSessionFactoryOptions().isQueryCacheEnabled()) {
+            String[] spaces = Arrays.stream(persister.getQuerySpaces()).map(Object::toString).toArray(String[]::new);
+            try (StatelessSession session = sessionFactory.openStatelessSession()) {
+                cache.getTimestampsCache().invalidate(spaces, (SharedSessionContractImplementor) session);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.neobit.crm.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import javax.cache.CacheManager;
+
+/**
+ * Hit, miss, put and eviction counts for every second-level cache region.
+ *
+ * The numbers come from the Caffeine JCache statistics switched on with
+ * {@code monitoring.statistics} in hibernate-caffeine.conf, not from Hibernate's
+ * session statistics, so they are available without {@code generate_statistics}.
+ * Each region is published as the standard {@code cache.*} meters tagged with
+ * its name.
+ */
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheMetrics implements MeterBinder {
+    
+    private final EntityManagerFactory entityManagerFactory;
+    
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        RegionFactory regionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getCache().getRegionFactory();
+        if (!(regionFactory instanceof JCacheRegionFactory jcache)) {
+            return;
+        }
+        // Regions are created with the session factory, so the set is complete here
+        CacheManager cacheManager = jcache.getCacheManager();
+        for (String name : cacheManager.getCacheNames()) {
+            JCacheMetrics.monitor(registry, cacheManager.getCache(name), Tags.of("layer", "hibernate-l2"));
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.neobit.crm.config;
+
+import com.neobit.crm.profiling.SqlProfiler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+    
+    /**
+     * Bounded pool for fan-out reads (customer 360 sections). Rejections are
+     * surfaced to the caller instead of queueing unbounded work.
+     */
+    @Bean(name = "readFanOutExecutor")
+    public ThreadPoolTaskExecutor readFanOutExecutor(
+            @Value("${app.read-fan-out.core-pool-size:8}") int corePoolSize,
+            @Value("${app.read-fan-out.max-pool-size:32}") int maxPoolSize,
+            @Value("${app.read-fan-out.queue-capacity:200}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("read-fan-out-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        // Carry the caller's security context (replica routing) and SQL profile (per-route attribution)
+        executor.setTaskDecorator(task -> {
+            SecurityContext context = SecurityContextHolder.getContext();
+            SqlProfiler.RequestProfile profile = SqlProfiler.current();
+            return () -> {
+                SecurityContextHolder.setContext(context);
+                SqlProfiler.attach(profile);
+                try {
+                    task.run();
+                } finally {
+                    SqlProfiler.detach();
+                    SecurityContextHolder.clearContext();
+                }
+            };
+        });
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,124 @@
+package com.neobit.crm.config;
+
+import com.neobit.crm.datasource.ReadYourWritesTracker;
+import com.neobit.crm.datasource.ReplicaAwareTransactionManager;
+import com.neobit.crm.datasource.ReplicaLagMonitor;
+import com.neobit.crm.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Primary datasource plus optional read replica.
+ *
+ * When {@code app.datasource.replica.url} is set, {@code @Transactional(readOnly = true)}
+ * work is routed to the replica (see {@link ReplicaRoutingDataSource}); otherwise the
+ * primary is used directly.
+ */
+@Configuration
+public class DataSourceConfig {
+    
+    private static final String REPLICA_CONFIGURED = "!'${app.datasource.replica.url:}'.isEmpty()";
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+    
+    @Bean
+    @ConditionalOnExpression(REPLICA_CONFIGURED)
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties properties,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:${spring.datasource.username}}") String username,
+            @Value("${app.datasource.replica.password:${spring.datasource.password}}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+    
+    /**
+     * Small pool for saved-report queries, kept apart so heavy reports cannot starve
+     * request traffic. Every statement is cancelled by the server after the reporting
+     * timeout.
+     *
+     * Always reads the primary: results are cached under the data version seen when
+     * they were computed, and a lagging replica would pin a stale result to a
+     * version it has not replayed yet.
+     */
+    @Bean
+    public HikariDataSource reportingDataSource(
+            DataSourceProperties properties,
+            @Value("${app.reporting.pool-size:4}") int maximumPoolSize,
+            @Value("${app.reporting.statement-timeout-ms:15000}") long statementTimeoutMs) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("reporting");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(properties.determineUrl());
+        dataSource.setUsername(properties.determineUsername());
+        dataSource.setPassword(properties.determinePassword());
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setMinimumIdle(0);
+        dataSource.setReadOnly(true);
+        dataSource.setConnectionInitSql("SET statement_timeout = " + statementTimeoutMs);
+        return dataSource;
+    }
+    
+    @Bean
+    @ConditionalOnExpression(REPLICA_CONFIGURED)
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               @Value("${app.datasource.replica.max-lag-ms:2000}") long maxLagMs,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(replicaDataSource, maxLagMs, meterRegistry);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") ObjectProvider<DataSource> replicaDataSource,
+                                 ObjectProvider<ReplicaLagMonitor> lagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        DataSource replica = replicaDataSource.getIfAvailable();
+        if (replica == null) {
+            return primaryDataSource;
+        }
+        
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(readYourWritesTracker, lagMonitor.getObject());
+        routing.setTargetDataSources(Map.of(
+                ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource,
+                ReplicaRoutingDataSource.Route.REPLICA, replica));
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+    
+    @Bean
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                         ReadYourWritesTracker readYourWritesTracker) {
+        return new ReplicaAwareTransactionManager(entityManagerFactory, readYourWritesTracker);
+    }
+}
@@ -0,0 +1,34 @@
+package com.neobit.crm.config;
+
+import com.neobit.crm.profiling.ProfilingDataSource;
+import com.neobit.crm.profiling.SqlProfiler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the per-route SQL profiler: a JDBC proxy around the application
+ * datasource records every statement, Hibernate's and plain JDBC alike, into the
+ * current request's profile. Off with {@code app.sql-profiler.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sql-profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlProfilerConfig {
+    
+    @Bean
+    public static BeanPostProcessor sqlProfilerDataSourceWrapper(ObjectProvider<SqlProfiler> profiler) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return new ProfilingDataSource(dataSource, profiler.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,155 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.attachment.AttachmentDTO;
+import com.neobit.crm.dto.attachment.StorageUsageDTO;
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.service.AttachmentService;
+import com.neobit.crm.service.AttachmentService.AttachmentContent;
+import com.neobit.crm.storage.ByteRange;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/attachments")
+@RequiredArgsConstructor
+@Tag(name = "Attachments", description = "File attachments for CRM records")
+public class AttachmentController {
+    
+    // Tomcat's sendfile hand-off: the connector copies the file to the socket itself
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    
+    private final AttachmentService attachmentService;
+    
+    /**
+     * The request body is the raw file, read as a stream; multipart is not used so
+     * the upload is never buffered by the servlet container.
+     */
+    @PostMapping
+    @Operation(summary = "Upload an attachment (raw request body)")
+    public ResponseEntity<ApiResponse<AttachmentDTO>> upload(@RequestParam String entityType,
+                                                             @RequestParam UUID entityId,
+                                                             @RequestParam String fileName,
+                                                             HttpServletRequest request) throws IOException {
+        AttachmentDTO attachment = attachmentService.upload(entityType, entityId, fileName,
+                request.getContentType(), request.getContentLengthLong(), request.getInputStream());
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success("Attachment uploaded", attachment));
+    }
+    
+    @GetMapping
+    @Operation(summary = "List attachments of a record")
+    public ResponseEntity<ApiResponse<List<AttachmentDTO>>> getAttachments(@RequestParam String entityType,
+                                                                           @RequestParam UUID entityId) {
+        List<AttachmentDTO> attachments = attachmentService.getAttachments(entityType, entityId);
+        return ResponseEntity.ok(ApiResponse.success(attachments));
+    }
+    
+    @GetMapping("/usage")
+    @Operation(summary = "Get the tenant's attachment storage usage")
+    public ResponseEntity<ApiResponse<StorageUsageDTO>> getUsage() {
+        return ResponseEntity.ok(ApiResponse.success(attachmentService.getUsage()));
+    }
+    
+    /**
+     * Serves the bytes with a strong ETag (the content hash) and single-range support.
+     */
+    @GetMapping("/{id}/content")
+    @Operation(summary = "Download attachment content")
+    public void download(@PathVariable UUID id, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AttachmentContent content = attachmentService.getContent(id);
+        String etag = "\"" + content.sha256() + "\"";
+        long total = content.size();
+        
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        // The bytes behind an attachment id never change
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=31536000, immutable");
+        
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        
+        ByteRange range = null;
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null || ifRange.trim().equals(etag)) {
+            range = ByteRange.parse(request.getHeader(HttpHeaders.RANGE), total);
+        }
+        if (range != null && !range.satisfiable()) {
+            response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + total);
+            return;
+        }
+        
+        long start = range != null ? range.start() : 0;
+        long length = range != null ? range.length() : total;
+        response.setStatus(range != null ? HttpStatus.PARTIAL_CONTENT.value() : HttpStatus.OK.value());
+        if (range != null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, range.contentRange(total));
+        }
+        response.setContentType(content.fileType() != null ? content.fileType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(content.fileName(), StandardCharsets.UTF_8).build().toString());
+        
+        if ("HEAD".equals(request.getMethod()) || length == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, content.path().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+        try (FileChannel file = FileChannel.open(content.path(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                long sent = file.transferTo(position, remaining, out);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+        }
+    }
+    
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete an attachment")
+    public ResponseEntity<ApiResponse<Void>> delete(@PathVariable UUID id) {
+        attachmentService.delete(id);
+        return ResponseEntity.ok(ApiResponse.success("Attachment deleted", null));
+    }
+    
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag));
+    }
+}
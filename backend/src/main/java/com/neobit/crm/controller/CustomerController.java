@@ -1,9 +1,11 @@
 package com.neobit.crm.controller;
 
+import com.neobit.crm.dto.customer.CustomerDetailResponse;
 import com.neobit.crm.dto.request.*;
 import com.neobit.crm.dto.response.*;
 import com.neobit.crm.security.TenantContext;
 import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.service.CustomerDetailService;
 import com.neobit.crm.service.CustomerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -41,6 +43,7 @@ import java.util.UUID;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final CustomerDetailService customerDetailService;
 
     /**
      * List customers with filtering and pagination
@@ -80,6 +83,9 @@ public class CustomerController {
      * Get customer by ID
      * 
      * GET /api/customers/{id}
+     * 
+     * Sections (interactions, tasks, deals, issues, notes) are loaded in parallel.
+     * A section that times out is omitted and named in "unavailableSections".
      */
     @GetMapping("/{id}")
     @Operation(summary = "Get customer details")
@@ -87,9 +93,7 @@ public class CustomerController {
         
         log.debug("Getting customer: {}", id);
         
-        UUID tenantId = TenantContext.getTenantId();
-        
-        CustomerDetailResponse customer = customerService.getCustomerById(tenantId, id);
+        CustomerDetailResponse customer = customerDetailService.getCustomerDetail(id);
         
         return ResponseEntity.ok(customer);
     }
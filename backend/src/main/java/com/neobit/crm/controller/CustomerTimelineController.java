@@ -0,0 +1,36 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.common.CursorPage;
+import com.neobit.crm.dto.timeline.TimelineItemDTO;
+import com.neobit.crm.service.CustomerTimelineService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Set;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/customers/{customerId}/timeline")
+@RequiredArgsConstructor
+@Tag(name = "Customer Timeline", description = "Merged activity timeline for a customer")
+public class CustomerTimelineController {
+    
+    private final CustomerTimelineService timelineService;
+    
+    @GetMapping
+    @Operation(summary = "Get customer timeline",
+            description = "Newest first across interactions, activities, tasks, notes, emails, calendar events and deal stage changes. " +
+                    "Pass nextCursor to continue; sources limits the streams merged.")
+    public ResponseEntity<ApiResponse<CursorPage<TimelineItemDTO>>> getTimeline(
+            @PathVariable UUID customerId,
+            @RequestParam(required = false) Set<String> sources,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "25") int size) {
+        CursorPage<TimelineItemDTO> timeline = timelineService.getTimeline(customerId, sources, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(timeline));
+    }
+}
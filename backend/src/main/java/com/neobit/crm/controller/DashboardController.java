@@ -1,7 +1,9 @@
 package com.neobit.crm.controller;
 
 import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.dashboard.DashboardSnapshotDTO;
 import com.neobit.crm.service.DashboardService;
+import com.neobit.crm.service.LiveDashboardService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import java.util.Map;
 public class DashboardController {
     
     private final DashboardService dashboardService;
+    private final LiveDashboardService liveDashboardService;
     
     @GetMapping("/stats")
     @Operation(summary = "Get dashboard statistics")
@@ -26,5 +29,11 @@ public class DashboardController {
         Map<String, Object> stats = dashboardService.getDashboardStats();
         return ResponseEntity.ok(ApiResponse.success(stats));
     }
+    
+    @GetMapping("/snapshot")
+    @Operation(summary = "Get dashboard figures with a version for applying live deltas",
+            description = "Subscribe to /topic/tenant/{tenantId}/dashboard and add each delta whose version is above this one")
+    public ResponseEntity<ApiResponse<DashboardSnapshotDTO>> getDashboardSnapshot() {
+        return ResponseEntity.ok(ApiResponse.success(liveDashboardService.snapshot()));
+    }
 }
-
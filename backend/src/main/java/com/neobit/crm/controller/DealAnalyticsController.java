@@ -0,0 +1,39 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.deal.DealPivotDTO;
+import com.neobit.crm.service.DealAnalyticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/deals/analytics")
+@RequiredArgsConstructor
+@Tag(name = "Deal Analytics", description = "Pipeline pivots from the in-memory deal store")
+public class DealAnalyticsController {
+    
+    private final DealAnalyticsService analyticsService;
+    
+    @GetMapping("/pivot")
+    @Operation(summary = "Pivot deals", description = "Count, amount and weighted amount grouped by up to three of pipeline, stage, owner, status, currency, closeMonth and createdMonth.")
+    public ResponseEntity<ApiResponse<DealPivotDTO>> pivot(
+            @RequestParam(required = false) List<String> groupBy,
+            @RequestParam(required = false) List<UUID> pipelineId,
+            @RequestParam(required = false) List<UUID> stageId,
+            @RequestParam(required = false) List<UUID> ownerId,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate closeFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate closeTo) {
+        DealPivotDTO pivot = analyticsService.pivot(groupBy, pipelineId, stageId, ownerId, status, currency, closeFrom, closeTo);
+        return ResponseEntity.ok(ApiResponse.success(pivot));
+    }
+}
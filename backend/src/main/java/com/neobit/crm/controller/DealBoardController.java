@@ -0,0 +1,75 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.common.CursorPage;
+import com.neobit.crm.dto.deal.DealBoardDTO;
+import com.neobit.crm.dto.deal.DealCardDTO;
+import com.neobit.crm.dto.deal.DealMoveDTO;
+import com.neobit.crm.dto.deal.MoveDealRequest;
+import com.neobit.crm.dto.deal.MoveStageRequest;
+import com.neobit.crm.dto.deal.StageOrderDTO;
+import com.neobit.crm.service.DealBoardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Deal Board", description = "Pipeline kanban boards")
+public class DealBoardController {
+    
+    private final DealBoardService boardService;
+    
+    @GetMapping("/pipelines/{pipelineId}/board")
+    @Operation(summary = "Get pipeline board", description = "Every stage with its newest deals, deal count and total amount")
+    public ResponseEntity<ApiResponse<DealBoardDTO>> getBoard(
+            @PathVariable UUID pipelineId,
+            @RequestParam(defaultValue = "20") int perStage) {
+        DealBoardDTO board = boardService.getBoard(pipelineId, perStage);
+        return ResponseEntity.ok(ApiResponse.success(board));
+    }
+    
+    @GetMapping("/pipelines/stages/{stageId}/deals")
+    @Operation(summary = "Load more deals of a stage", description = "Pass the stage's nextCursor from the board or the previous page")
+    public ResponseEntity<ApiResponse<CursorPage<DealCardDTO>>> getStageDeals(
+            @PathVariable UUID stageId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<DealCardDTO> page = boardService.getStageDeals(stageId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+    
+    @GetMapping("/deals/rotting")
+    @Operation(summary = "Get rotting deals", description = "Open deals past their stage's rotting threshold, longest rotting first")
+    public ResponseEntity<ApiResponse<CursorPage<DealCardDTO>>> getRottingDeals(
+            @RequestParam(required = false) UUID pipelineId,
+            @RequestParam(required = false) UUID ownerId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<DealCardDTO> page = boardService.getRottingDeals(pipelineId, ownerId, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(page));
+    }
+    
+    @PostMapping("/deals/{dealId}/move")
+    @Operation(summary = "Move deal", description = "Drops the card into a stage below afterDealId, or on top when it is omitted; broadcasts the moved card and stage totals as deal.moved")
+    public ResponseEntity<ApiResponse<DealMoveDTO>> moveDeal(
+            @PathVariable UUID dealId,
+            @Valid @RequestBody MoveDealRequest request) {
+        DealMoveDTO move = boardService.moveDeal(dealId, request);
+        return ResponseEntity.ok(ApiResponse.success("Deal moved", move));
+    }
+    
+    @PostMapping("/pipelines/stages/{stageId}/move")
+    @Operation(summary = "Reorder stage", description = "Places the stage after afterStageId, or first when it is omitted")
+    public ResponseEntity<ApiResponse<StageOrderDTO>> moveStage(
+            @PathVariable UUID stageId,
+            @RequestBody MoveStageRequest request) {
+        StageOrderDTO order = boardService.moveStage(stageId, request.getAfterStageId());
+        return ResponseEntity.ok(ApiResponse.success("Stage moved", order));
+    }
+}
@@ -0,0 +1,38 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.interaction.IngestBatchDTO;
+import com.neobit.crm.dto.interaction.IngestInteractionsRequest;
+import com.neobit.crm.service.InteractionIngestService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/interactions/ingest")
+@RequiredArgsConstructor
+@Tag(name = "Interaction Ingest", description = "Bulk interaction ingest for integrations")
+public class InteractionIngestController {
+    
+    private final InteractionIngestService ingestService;
+    
+    @PostMapping
+    @Operation(summary = "Submit a batch of interactions for asynchronous ingest")
+    public ResponseEntity<ApiResponse<IngestBatchDTO>> submit(@Valid @RequestBody IngestInteractionsRequest request) {
+        IngestBatchDTO batch = ingestService.submit(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success("Batch accepted", batch));
+    }
+    
+    @GetMapping("/{id}")
+    @Operation(summary = "Get ingest batch status")
+    public ResponseEntity<ApiResponse<IngestBatchDTO>> getBatch(@PathVariable UUID id) {
+        IngestBatchDTO batch = ingestService.getBatch(id);
+        return ResponseEntity.ok(ApiResponse.success(batch));
+    }
+}
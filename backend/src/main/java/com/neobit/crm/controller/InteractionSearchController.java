@@ -0,0 +1,40 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.common.CursorPage;
+import com.neobit.crm.dto.interaction.InteractionSearchHit;
+import com.neobit.crm.entity.Interaction;
+import com.neobit.crm.service.InteractionSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/interactions/search")
+@RequiredArgsConstructor
+@Tag(name = "Interaction Search", description = "Full-text search over interactions")
+public class InteractionSearchController {
+    
+    private final InteractionSearchService searchService;
+    
+    @GetMapping
+    @Operation(summary = "Search interactions",
+            description = "Web search syntax: quoted phrases, OR, and -term to exclude. Results are ranked; pass nextCursor to page.")
+    public ResponseEntity<ApiResponse<CursorPage<InteractionSearchHit>>> search(
+            @RequestParam String q,
+            @RequestParam(required = false) Interaction.InteractionType type,
+            @RequestParam(required = false) UUID customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        CursorPage<InteractionSearchHit> hits = searchService.search(q, type, customerId, from, to, cursor, size);
+        return ResponseEntity.ok(ApiResponse.success(hits));
+    }
+}
@@ -0,0 +1,33 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.interaction.InteractionStatsDTO;
+import com.neobit.crm.service.InteractionStatsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/interactions/stats")
+@RequiredArgsConstructor
+@Tag(name = "Interaction Stats", description = "Interaction statistics from daily rollups")
+public class InteractionStatsController {
+    
+    private final InteractionStatsService statsService;
+    
+    @GetMapping
+    @Operation(summary = "Get interaction statistics", description = "Counts and durations by type, direction and UTC day. Defaults to the last 30 days.")
+    public ResponseEntity<ApiResponse<InteractionStatsDTO>> getStats(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID userId) {
+        InteractionStatsDTO stats = statsService.getStats(from, to, userId);
+        return ResponseEntity.ok(ApiResponse.success(stats));
+    }
+}
@@ -0,0 +1,32 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.deal.PipelineVelocityDTO;
+import com.neobit.crm.service.PipelineVelocityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "Pipeline Velocity", description = "Stage conversion and time in stage from daily rollups")
+public class PipelineVelocityController {
+    
+    private final PipelineVelocityService velocityService;
+    
+    @GetMapping("/pipelines/{pipelineId}/velocity")
+    @Operation(summary = "Get pipeline velocity", description = "Per stage, in board order: deals entered and left, conversion and funnel reach rates, and mean, median and p90 seconds in stage for transitions from 'from' to 'to' (UTC days, inclusive; last 90 days by default)")
+    public ResponseEntity<ApiResponse<PipelineVelocityDTO>> getVelocity(
+            @PathVariable UUID pipelineId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        PipelineVelocityDTO velocity = velocityService.getVelocity(pipelineId, from, to);
+        return ResponseEntity.ok(ApiResponse.success(velocity));
+    }
+}
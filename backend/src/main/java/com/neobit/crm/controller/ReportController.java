@@ -0,0 +1,34 @@
+package com.neobit.crm.controller;
+
+import com.neobit.crm.dto.common.ApiResponse;
+import com.neobit.crm.dto.report.DashboardResultDTO;
+import com.neobit.crm.dto.report.ReportResultDTO;
+import com.neobit.crm.service.ReportService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/reports")
+@RequiredArgsConstructor
+@Tag(name = "Reports", description = "Saved report and custom dashboard results")
+public class ReportController {
+    
+    private final ReportService reportService;
+    
+    @GetMapping("/{id}/result")
+    @Operation(summary = "Run a saved report", description = "Served from cache while the data it reads is unchanged; otherwise refreshed incrementally or recomputed.")
+    public ResponseEntity<ApiResponse<ReportResultDTO>> runReport(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success(reportService.runReport(id)));
+    }
+    
+    @GetMapping("/dashboards/{id}/result")
+    @Operation(summary = "Run every widget of a custom dashboard", description = "Widgets that are not cached are computed in one database round trip.")
+    public ResponseEntity<ApiResponse<DashboardResultDTO>> runDashboard(@PathVariable UUID id) {
+        return ResponseEntity.ok(ApiResponse.success(reportService.runDashboard(id)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.neobit.crm.datasource;
+
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers who wrote recently so their reads stay on the primary until the
+ * replicas have had time to catch up.
+ *
+ * The key is the authenticated user, or the current tenant for unauthenticated
+ * work such as webhooks. State is per node.
+ */
+@Component
+public class ReadYourWritesTracker {
+    
+    private final long windowMs;
+    private final Map<UUID, Long> stickyUntil = new ConcurrentHashMap<>();
+    
+    public ReadYourWritesTracker(@Value("${app.datasource.replica.read-your-writes-ms:5000}") long windowMs) {
+        this.windowMs = windowMs;
+    }
+    
+    public void markWrite() {
+        UUID key = currentKey();
+        if (key != null) {
+            stickyUntil.put(key, System.currentTimeMillis() + windowMs);
+        }
+    }
+    
+    public boolean isSticky() {
+        UUID key = currentKey();
+        if (key == null) {
+            return false;
+        }
+        Long until = stickyUntil.get(key);
+        return until != null && until > System.currentTimeMillis();
+    }
+    
+    @Scheduled(fixedDelay = 60_000)
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+    
+    private UUID currentKey() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return TenantContext.getCurrentTenant();
+    }
+}
@@ -0,0 +1,27 @@
+package com.neobit.crm.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/**
+ * JPA transaction manager that records committed writes for read-your-writes routing.
+ */
+public class ReplicaAwareTransactionManager extends JpaTransactionManager {
+    
+    private final transient ReadYourWritesTracker readYourWritesTracker;
+    
+    public ReplicaAwareTransactionManager(EntityManagerFactory entityManagerFactory,
+                                          ReadYourWritesTracker readYourWritesTracker) {
+        super(entityManagerFactory);
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+    
+    @Override
+    protected void doCommit(DefaultTransactionStatus status) {
+        super.doCommit(status);
+        if (!status.isReadOnly()) {
+            readYourWritesTracker.markWrite();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.neobit.crm.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+
+/**
+ * Polls the replica for replay lag. While the lag is above the limit, or the
+ * replica cannot be reached, read-only work is routed to the primary.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+    
+    private static final String LAG_QUERY =
+            "SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final long maxLagMs;
+    
+    private volatile long lagMs;
+    private volatile boolean healthy;
+    
+    public ReplicaLagMonitor(DataSource replicaDataSource, long maxLagMs, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(replicaDataSource);
+        this.jdbcTemplate.setQueryTimeout(2);
+        this.maxLagMs = maxLagMs;
+        Gauge.builder("crm.datasource.replica.lag", this, m -> m.lagMs)
+                .baseUnit("milliseconds")
+                .description("Replica replay lag as last measured")
+                .register(meterRegistry);
+        Gauge.builder("crm.datasource.replica.usable", this, m -> m.isUsable() ? 1 : 0)
+                .description("1 while read-only work is routed to the replica")
+                .register(meterRegistry);
+    }
+    
+    public boolean isUsable() {
+        return healthy && lagMs <= maxLagMs;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval-ms:1000}")
+    public void check() {
+        try {
+            Double lag = jdbcTemplate.queryForObject(LAG_QUERY, Double.class);
+            lagMs = lag != null ? lag.longValue() : 0;
+            if (!healthy) {
+                log.info("Replica is reachable again, lag {} ms", lagMs);
+            }
+            healthy = true;
+        } catch (RuntimeException e) {
+            if (healthy) {
+                log.warn("Replica lag check failed, routing reads to primary: {}", e.getMessage());
+            }
+            healthy = false;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.neobit.crm.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to the replica unless the caller wrote recently
+ * or the replica is lagging; everything else goes to the primary.
+ *
+ * Must sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * so the lookup happens on the first statement, after the transaction's
+ * read-only flag has been bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    
+    public enum Route { PRIMARY, REPLICA }
+    
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ReplicaLagMonitor lagMonitor;
+    
+    public ReplicaRoutingDataSource(ReadYourWritesTracker readYourWritesTracker, ReplicaLagMonitor lagMonitor) {
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.lagMonitor = lagMonitor;
+    }
+    
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                || readYourWritesTracker.isSticky()
+                || !lagMonitor.isUsable()) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+}
@@ -0,0 +1,26 @@
+package com.neobit.crm.dto.attachment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentDTO {
+    
+    private UUID id;
+    private String fileName;
+    private String fileType;
+    private Long fileSize;
+    private String sha256;
+    private String entityType;
+    private UUID entityId;
+    private UUID uploadedById;
+    private Instant createdAt;
+}
@@ -0,0 +1,16 @@
+package com.neobit.crm.dto.attachment;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageUsageDTO {
+    
+    private long usedBytes;
+    private long quotaBytes;
+}
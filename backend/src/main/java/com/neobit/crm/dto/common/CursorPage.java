@@ -0,0 +1,33 @@
+package com.neobit.crm.dto.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paged list. Pass {@code nextCursor} back to get the
+ * following page; it is null on the last page.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    public static <T> CursorPage<T> of(List<T> content, String nextCursor) {
+        return CursorPage.<T>builder()
+                .content(content)
+                .size(content.size())
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
+    }
+}
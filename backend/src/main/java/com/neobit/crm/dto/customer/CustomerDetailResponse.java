@@ -0,0 +1,39 @@
+package com.neobit.crm.dto.customer;
+
+import com.neobit.crm.dto.deal.DealDTO;
+import com.neobit.crm.dto.interaction.InteractionDTO;
+import com.neobit.crm.dto.issue.IssueDTO;
+import com.neobit.crm.dto.note.NoteDTO;
+import com.neobit.crm.dto.task.TaskDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Customer 360 view. Sections that did not load within their timeout are
+ * left null and listed in {@code unavailableSections}.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CustomerDetailResponse {
+    
+    private CustomerDTO customer;
+    private List<InteractionDTO> recentInteractions;
+    private List<TaskDTO> openTasks;
+    private List<DealDTO> deals;
+    private List<IssueDTO> issues;
+    private List<NoteDTO> notes;
+    
+    @Builder.Default
+    private List<String> unavailableSections = new ArrayList<>();
+    
+    public boolean isPartial() {
+        return unavailableSections != null && !unavailableSections.isEmpty();
+    }
+}
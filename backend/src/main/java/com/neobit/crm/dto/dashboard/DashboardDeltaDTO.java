@@ -0,0 +1,22 @@
+package com.neobit.crm.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDeltaDTO {
+    
+    private long version;
+    /**
+     * Amounts to add to dashboard figures, e.g. {@code totalCustomers} or
+     * {@code interactionsByType.CALL}; figures that did not change are left out
+     */
+    private Map<String, Long> changes;
+}
@@ -0,0 +1,20 @@
+package com.neobit.crm.dto.dashboard;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardSnapshotDTO {
+    
+    /** Deltas with a version at or below this one are already included */
+    private long version;
+    /** Same shape as {@code GET /dashboard/stats} */
+    private Map<String, Object> stats;
+}
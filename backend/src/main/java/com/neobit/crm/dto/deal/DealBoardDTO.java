@@ -0,0 +1,44 @@
+package com.neobit.crm.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealBoardDTO {
+    
+    private UUID pipelineId;
+    private String name;
+    private List<Stage> stages;
+    
+    /**
+     * One column: the stage's first cards in rank order and totals over all of its deals.
+     * {@code nextCursor} loads the following cards and is null when all are shown.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        private UUID id;
+        private String name;
+        private String rank;
+        private int position;
+        private String color;
+        private Integer winProbability;
+        private boolean wonStage;
+        private boolean lostStage;
+        private long dealCount;
+        private BigDecimal totalAmount;
+        private List<DealCardDTO> deals;
+        private String nextCursor;
+    }
+}
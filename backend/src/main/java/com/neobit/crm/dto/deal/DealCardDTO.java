@@ -0,0 +1,41 @@
+package com.neobit.crm.dto.deal;
+
+import com.neobit.crm.entity.Deal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * A deal as shown on a pipeline board card.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealCardDTO {
+    
+    private UUID id;
+    private String dealNumber;
+    private String name;
+    private UUID stageId;
+    private String rank;
+    private Long version;
+    private BigDecimal amount;
+    private String currency;
+    private Integer probability;
+    private Deal.DealStatus status;
+    private LocalDate expectedCloseDate;
+    private UUID contactId;
+    private UUID ownerId;
+    private String ownerName;
+    private Integer daysInStage;
+    private Instant rotsAt;
+    private Instant lastActivityAt;
+    private Instant createdAt;
+}
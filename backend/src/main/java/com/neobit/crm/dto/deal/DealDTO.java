@@ -0,0 +1,41 @@
+package com.neobit.crm.dto.deal;
+
+import com.neobit.crm.entity.Deal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealDTO {
+    
+    private UUID id;
+    private String dealNumber;
+    private String name;
+    private UUID pipelineId;
+    private UUID stageId;
+    private String stageName;
+    private BigDecimal amount;
+    private String currency;
+    private Integer probability;
+    private BigDecimal weightedValue;
+    private Deal.DealStatus status;
+    private LocalDate expectedCloseDate;
+    private LocalDate actualCloseDate;
+    private UUID contactId;
+    private UUID accountId;
+    private UUID ownerId;
+    private String ownerName;
+    private Integer daysInStage;
+    private Instant lastActivityAt;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.neobit.crm.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A card moved between stages, with the new totals of both stages; this is also
+ * the payload of the {@code deal.moved} WebSocket event.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealMoveDTO {
+    
+    private DealCardDTO deal;
+    private UUID fromStageId;
+    private UUID toStageId;
+    private List<StageTotals> stages;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageTotals {
+        private UUID stageId;
+        private long dealCount;
+        private BigDecimal totalAmount;
+    }
+}
@@ -0,0 +1,31 @@
+package com.neobit.crm.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DealPivotDTO {
+    
+    private List<String> dimensions;
+    private List<Row> rows;
+    private Row totals;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        private List<String> keys;
+        private long count;
+        private BigDecimal amount;
+        private BigDecimal weightedAmount;
+    }
+}
@@ -0,0 +1,25 @@
+package com.neobit.crm.dto.deal;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveDealRequest {
+    
+    @NotNull(message = "Stage is required")
+    private UUID stageId;
+    
+    /** The card to drop below; null drops on top of the column */
+    private UUID afterDealId;
+    
+    /** Version of the deal the client saw; a move based on a stale copy is rejected */
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.neobit.crm.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MoveStageRequest {
+    
+    /** The stage to place after; null makes the stage the first column */
+    private UUID afterStageId;
+}
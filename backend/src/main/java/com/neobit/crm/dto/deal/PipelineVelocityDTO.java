@@ -0,0 +1,44 @@
+package com.neobit.crm.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PipelineVelocityDTO {
+    
+    private UUID pipelineId;
+    private String pipelineName;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Stage> stages;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Stage {
+        private UUID stageId;
+        private String name;
+        private boolean wonStage;
+        private boolean lostStage;
+        private long entered;
+        private long exited;
+        private long advanced;
+        /** Share of deals leaving the stage that moved forward; null when none left */
+        private Double conversionRate;
+        /** Product of the conversion rates of the open stages up to and including this one */
+        private Double reachRate;
+        private Double meanSeconds;
+        private Double medianSeconds;
+        private Double p90Seconds;
+    }
+}
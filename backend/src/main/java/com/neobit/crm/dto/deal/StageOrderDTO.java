@@ -0,0 +1,32 @@
+package com.neobit.crm.dto.deal;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Rank keys of the stages of a pipeline whose order changed; also the payload of
+ * the {@code pipeline.stages_reordered} WebSocket event.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StageOrderDTO {
+    
+    private UUID pipelineId;
+    private List<Entry> stages;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private UUID stageId;
+        private String rank;
+    }
+}
@@ -0,0 +1,39 @@
+package com.neobit.crm.dto.interaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestBatchDTO {
+    
+    private UUID id;
+    private String status;
+    private Integer received;
+    private Integer accepted;
+    private Integer rejected;
+    private Integer inserted;
+    private Integer duplicates;
+    private Integer failed;
+    private List<Rejection> rejections;
+    private Instant createdAt;
+    private Instant completedAt;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private Integer index;
+        private String externalId;
+        private String reason;
+    }
+}
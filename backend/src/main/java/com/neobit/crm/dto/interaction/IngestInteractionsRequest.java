@@ -0,0 +1,17 @@
+package com.neobit.crm.dto.interaction;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Items are validated one by one; invalid items are rejected individually
+ * and the rest of the batch is still accepted.
+ */
+@Data
+public class IngestInteractionsRequest {
+    
+    @NotEmpty(message = "At least one interaction is required")
+    private List<CreateInteractionRequest> interactions;
+}
@@ -0,0 +1,31 @@
+package com.neobit.crm.dto.interaction;
+
+import com.neobit.crm.entity.Interaction;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionSearchHit {
+    
+    private UUID id;
+    private Interaction.InteractionType type;
+    private Interaction.InteractionDirection direction;
+    private Interaction.InteractionStatus status;
+    private String subject;
+    /** Matching fragments with terms wrapped in {@code <mark>}; other text is HTML-escaped. */
+    private String headline;
+    private UUID customerId;
+    private String customerName;
+    private UUID accountId;
+    private String accountName;
+    private float rank;
+    private Instant createdAt;
+}
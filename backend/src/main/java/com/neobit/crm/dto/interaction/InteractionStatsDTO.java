@@ -0,0 +1,35 @@
+package com.neobit.crm.dto.interaction;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InteractionStatsDTO {
+    
+    private LocalDate from;
+    private LocalDate to;
+    private long totalInteractions;
+    private long totalDurationSeconds;
+    private Map<String, Long> byType;
+    private Map<String, Long> byDirection;
+    private List<DayCount> byDay;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DayCount {
+        private LocalDate day;
+        private long count;
+        private long durationSeconds;
+    }
+}
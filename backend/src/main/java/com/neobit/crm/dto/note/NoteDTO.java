@@ -0,0 +1,28 @@
+package com.neobit.crm.dto.note;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NoteDTO {
+    
+    private UUID id;
+    private String title;
+    private String content;
+    private Boolean isPinned;
+    private Boolean isPrivate;
+    private String entityType;
+    private UUID entityId;
+    private UUID createdById;
+    private String createdByName;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
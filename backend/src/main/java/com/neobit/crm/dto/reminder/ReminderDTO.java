@@ -0,0 +1,25 @@
+package com.neobit.crm.dto.reminder;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReminderDTO {
+    
+    /** activity or interaction */
+    private String source;
+    private UUID id;
+    private UUID tenantId;
+    private String subject;
+    /** When the activity or meeting starts; may be null for activities without a start */
+    private Instant startsAt;
+    private Instant firedAt;
+}
@@ -0,0 +1,32 @@
+package com.neobit.crm.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardResultDTO {
+    
+    private UUID dashboardId;
+    private String name;
+    private List<Widget> widgets;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Widget {
+        private String widgetId;
+        private UUID reportId;
+        private ReportResultDTO result;
+        /** Set instead of result when the widget's report is missing or invalid */
+        private String error;
+    }
+}
@@ -0,0 +1,37 @@
+package com.neobit.crm.dto.report;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportResultDTO {
+    
+    private UUID reportId;
+    private String name;
+    private List<String> dimensions;
+    private List<String> measures;
+    private List<Row> rows;
+    private boolean truncated;
+    private Instant computedAt;
+    /** cache, incremental or full */
+    private String served;
+    
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Row {
+        private List<String> keys;
+        private List<BigDecimal> values;
+    }
+}
@@ -0,0 +1,27 @@
+package com.neobit.crm.dto.timeline;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineItemDTO {
+    
+    /** interaction, activity, task, note, email, calendar_event or deal_stage_change */
+    private String source;
+    private UUID id;
+    private Instant occurredAt;
+    private String title;
+    private String body;
+    /** Source specific kind, e.g. the interaction type or task status */
+    private String kind;
+    private UUID userId;
+    private UUID dealId;
+}
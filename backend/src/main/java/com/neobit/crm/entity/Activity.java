@@ -1,5 +1,6 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -20,7 +21,7 @@ import java.util.UUID;
 public class Activity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -124,7 +125,9 @@ public class Activity {
     @Column(name = "reminder_at")
     private Instant reminderAt;
 
-    @Column(name = "reminder_sent")
+    // Written only by ReminderScheduler's claim and the V11 reset trigger; a stale
+    // entity flushed after a claim must not put it back
+    @Column(name = "reminder_sent", insertable = false, updatable = false)
     @Builder.Default
     private Boolean reminderSent = false;
 
@@ -1,18 +1,24 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
+import com.neobit.crm.service.sequence.DocumentNumberListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Generated;
 import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.generator.EventType;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @Entity
 @Table(name = "deals")
+@EntityListeners(DocumentNumberListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +27,7 @@ import java.util.*;
 public class Deal {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -68,7 +74,7 @@ public class Deal {
     private LocalDate actualCloseDate;
 
     // Status
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = DealStatusConverter.class)
     @Builder.Default
     private DealStatus status = DealStatus.OPEN;
 
@@ -110,6 +116,15 @@ public class Deal {
     @Builder.Default
     private Integer daysInStage = 0;
 
+    // When the deal starts rotting in its stage; null once closed
+    @Column(name = "rots_at")
+    private Instant rotsAt;
+
+    // Board order within the stage; new deals get a database default that puts them on top
+    @Generated(event = EventType.INSERT)
+    @Column(name = "board_rank")
+    private String boardRank;
+
     // Tags
     @Column(columnDefinition = "text[]")
     @JdbcTypeCode(SqlTypes.ARRAY)
@@ -134,6 +149,9 @@ public class Deal {
     @Builder.Default
     private Instant updatedAt = Instant.now();
 
+    @Version
+    private Long version;
+
     @PreUpdate
     public void preUpdate() {
         this.updatedAt = Instant.now();
@@ -152,6 +170,10 @@ public class Deal {
             this.status = DealStatus.LOST;
             this.actualCloseDate = LocalDate.now();
         }
+        Integer rottingDays = newStage.getRottingDays();
+        this.rotsAt = status == DealStatus.OPEN && rottingDays != null && rottingDays > 0
+                ? stageEnteredAt.plus(rottingDays, ChronoUnit.DAYS)
+                : null;
     }
 
     public BigDecimal getWeightedValue() {
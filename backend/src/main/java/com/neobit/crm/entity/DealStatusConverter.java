@@ -0,0 +1,23 @@
+package com.neobit.crm.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.Locale;
+
+/**
+ * Stores {@link Deal.DealStatus} in lower case, as the {@code deals.status} check constraint expects.
+ */
+@Converter
+public class DealStatusConverter implements AttributeConverter<Deal.DealStatus, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Deal.DealStatus status) {
+        return status != null ? status.name().toLowerCase(Locale.ROOT) : null;
+    }
+
+    @Override
+    public Deal.DealStatus convertToEntityAttribute(String value) {
+        return value != null ? Deal.DealStatus.valueOf(value.toUpperCase(Locale.ROOT)) : null;
+    }
+}
@@ -1,7 +1,10 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
@@ -11,6 +14,7 @@ import java.util.Map;
 import java.util.UUID;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "integration_configs")
 @Getter
 @Setter
@@ -20,7 +24,7 @@ import java.util.UUID;
 public class IntegrationConfig {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
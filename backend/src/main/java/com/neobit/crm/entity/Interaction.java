@@ -1,5 +1,6 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
@@ -23,7 +24,7 @@ import java.util.UUID;
 public class Interaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -97,7 +98,8 @@ public class Interaction {
     @Builder.Default
     private List<String> tags = new ArrayList<>();
 
-    @Column(name = "created_at")
+    // Partition key of the interactions table; never moved after insert
+    @Column(name = "created_at", nullable = false, updatable = false)
     @Builder.Default
     private Instant createdAt = Instant.now();
 
@@ -0,0 +1,61 @@
+package com.neobit.crm.entity;
+
+import com.neobit.crm.entity.id.UuidV7;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Acknowledgement record for one batch ingest request. Counts are written by
+ * the ingest writer as the queued interactions are flushed.
+ */
+@Entity
+@Table(name = "interaction_ingest_batches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InteractionIngestBatch {
+
+    @Id
+    @UuidV7
+    private UUID id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private UUID tenantId;
+
+    @Column(name = "submitted_by")
+    private UUID submittedBy;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private String status = "queued";
+
+    @Column(nullable = false)
+    private Integer received;
+
+    @Column(nullable = false)
+    private Integer accepted;
+
+    @Builder.Default
+    private Integer rejected = 0;
+
+    @Builder.Default
+    private Integer inserted = 0;
+
+    @Builder.Default
+    private Integer duplicates = 0;
+
+    @Builder.Default
+    private Integer failed = 0;
+
+    @Column(name = "created_at")
+    @Builder.Default
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "completed_at")
+    private Instant completedAt;
+}
@@ -1,7 +1,10 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -9,6 +12,7 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "pipelines")
 @Getter
 @Setter
@@ -18,7 +22,7 @@ import java.util.UUID;
 public class Pipeline {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -52,6 +56,7 @@ public class Pipeline {
 
     @OneToMany(mappedBy = "pipeline", cascade = CascadeType.ALL, orphanRemoval = true)
     @OrderBy("position ASC")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @Builder.Default
     private List<PipelineStage> stages = new ArrayList<>();
 
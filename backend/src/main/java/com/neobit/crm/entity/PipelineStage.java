@@ -1,12 +1,16 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "pipeline_stages")
 @Getter
 @Setter
@@ -16,7 +20,7 @@ import java.util.UUID;
 public class PipelineStage {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -36,6 +40,10 @@ public class PipelineStage {
     @Builder.Default
     private Integer position = 0;
 
+    // Board order within the pipeline; stages without one follow, by position
+    @Column(name = "board_rank")
+    private String boardRank;
+
     @Column(name = "win_probability")
     @Builder.Default
     private Integer winProbability = 0;
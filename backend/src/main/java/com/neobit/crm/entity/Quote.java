@@ -1,18 +1,21 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
+import com.neobit.crm.service.pricing.QuoteCalculator;
+import com.neobit.crm.service.sequence.DocumentNumberListener;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.*;
 
 @Entity
 @Table(name = "quotes")
+@EntityListeners(DocumentNumberListener.class)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,7 +24,7 @@ import java.util.*;
 public class Quote {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -158,23 +161,12 @@ public class Quote {
         recalculateTotals();
     }
 
+    /**
+     * Sets every line total and the quote amounts with {@link QuoteCalculator}, the
+     * engine {@code QuotePricingService} prices with, rounded as the columns store them.
+     */
     public void recalculateTotals() {
-        this.subtotal = lineItems.stream()
-                .map(QuoteLineItem::getTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal discount = BigDecimal.ZERO;
-        if (discountType == DiscountType.PERCENT && discountValue != null) {
-            discount = subtotal.multiply(discountValue.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
-        } else if (discountType == DiscountType.AMOUNT && discountValue != null) {
-            discount = discountValue;
-        }
-
-        this.taxAmount = lineItems.stream()
-                .map(item -> item.getTotalPrice().multiply(item.getTaxRate().divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP)))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        this.totalAmount = subtotal.subtract(discount).add(taxAmount);
+        QuoteCalculator.of(this).applyTo(this);
     }
 
     public boolean isExpired() {
@@ -1,10 +1,12 @@
 package com.neobit.crm.entity;
 
+import com.neobit.crm.entity.id.UuidV7;
+import com.neobit.crm.service.pricing.QuoteCalculator;
+import com.neobit.crm.service.pricing.Scaled;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -18,7 +20,7 @@ import java.util.UUID;
 public class QuoteLineItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -66,16 +68,17 @@ public class QuoteLineItem {
     @Builder.Default
     private Instant createdAt = Instant.now();
 
+    /**
+     * Rounds the line total as {@link QuoteCalculator#lineTotal} does.
+     */
     @PrePersist
     @PreUpdate
     public void calculateTotal() {
         if (quantity != null && unitPrice != null) {
-            BigDecimal subtotal = quantity.multiply(unitPrice);
-            if (discountPercent != null && discountPercent.compareTo(BigDecimal.ZERO) > 0) {
-                BigDecimal discount = subtotal.multiply(discountPercent.divide(BigDecimal.valueOf(100), 4, RoundingMode.HALF_UP));
-                subtotal = subtotal.subtract(discount);
-            }
-            this.totalPrice = subtotal.setScale(2, RoundingMode.HALF_UP);
+            this.totalPrice = Scaled.toDecimal(QuoteCalculator.lineTotal(
+                    Scaled.of(quantity, Scaled.QUANTITY_SCALE),
+                    Scaled.of(unitPrice, Scaled.MONEY_SCALE),
+                    Scaled.of(discountPercent, Scaled.PERCENT_SCALE)), Scaled.MONEY_SCALE);
         }
     }
 
@@ -0,0 +1,23 @@
+package com.neobit.crm.entity.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Assigns a time-ordered RFC 9562 version 7 UUID to the annotated identifier
+ * before insert. Works on {@link java.util.UUID} and {@link String} ids.
+ *
+ * Consecutive keys land next to each other in the primary key B-tree, unlike
+ * random version 4 keys which touch a different leaf page on every insert.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
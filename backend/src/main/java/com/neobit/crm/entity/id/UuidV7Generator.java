@@ -0,0 +1,98 @@
+package com.neobit.crm.entity.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Hibernate generator behind {@link UuidV7}, and a standalone source of v7 values
+ * for code that builds rows outside of Hibernate.
+ *
+ * Layout: 48-bit Unix millis, version, 12-bit counter, variant, 62 random bits.
+ * The counter is reseeded every millisecond and incremented for ids issued in the
+ * same millisecond, so ids from one JVM are strictly increasing. When the counter
+ * runs out, or the wall clock steps back, the timestamp is carried forward instead.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final Source SHARED = new Source(System::currentTimeMillis, new SecureRandom());
+
+    private final boolean asString;
+
+    public UuidV7Generator(UuidV7 config, Member member, CustomIdGeneratorCreationContext context) {
+        this.asString = String.class.equals(idType(member));
+    }
+
+    public static UUID next() {
+        return SHARED.next();
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        if (currentValue != null) {
+            return currentValue;
+        }
+        UUID id = SHARED.next();
+        return asString ? id.toString() : id;
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    private static Class<?> idType(Member member) {
+        if (member instanceof Field field) {
+            return field.getType();
+        }
+        if (member instanceof Method method) {
+            return method.getReturnType();
+        }
+        return UUID.class;
+    }
+
+    static final class Source {
+
+        private static final int COUNTER_BITS = 12;
+        private static final int COUNTER_MAX = (1 << COUNTER_BITS) - 1;
+
+        private final LongSupplier clock;
+        private final SecureRandom random;
+
+        private long lastMillis = -1;
+        private int counter;
+
+        Source(LongSupplier clock, SecureRandom random) {
+            this.clock = clock;
+            this.random = random;
+        }
+
+        synchronized UUID next() {
+            long now = clock.getAsLong();
+            if (now > lastMillis) {
+                lastMillis = now;
+                // Leave headroom in the top bit so a burst rarely has to borrow the next millisecond
+                counter = random.nextInt(1 << (COUNTER_BITS - 1));
+            } else if (counter < COUNTER_MAX) {
+                counter++;
+            } else {
+                lastMillis++;
+                counter = 0;
+            }
+
+            long msb = (lastMillis << 16) | (0x7L << 12) | counter;
+            long lsb = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+            return new UUID(msb, lsb);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.neobit.crm.event;
+
+import java.util.UUID;
+
+/**
+ * Published in-process whenever tenant data that others may be showing changes.
+ *
+ * {@code eventType} is {@code <entity>.<operation>}, e.g. {@code customer.created},
+ * the same name clients receive over WebSocket. {@code previous} optionally carries
+ * the pre-change values of fields that counters depend on, such as a customer's
+ * lead flag; it is never sent to clients. Listeners that need committed data
+ * should use {@code @TransactionalEventListener}.
+ */
+public record TenantDataChangedEvent(UUID tenantId, String eventType, Object data, Object previous) {
+    
+    public TenantDataChangedEvent(UUID tenantId, String eventType, Object data) {
+        this(tenantId, eventType, data, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.neobit.crm.exception;
+
+public class ConflictException extends RuntimeException {
+    
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -2,6 +2,7 @@ package com.neobit.crm.mapper;
 
 import com.neobit.crm.dto.account.AccountDTO;
 import com.neobit.crm.entity.Account;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -10,6 +11,16 @@ public class AccountMapper {
     public AccountDTO toDTO(Account account) {
         if (account == null) return null;
         
+        return toDTO(account, account.getCustomers() != null ? Hibernate.size(account.getCustomers()) : 0);
+    }
+    
+    /**
+     * Maps an account whose customer count was already resolved, e.g. by a grouped
+     * count over a whole page, so the customers collection is never touched.
+     */
+    public AccountDTO toDTO(Account account, long customerCount) {
+        if (account == null) return null;
+        
         return AccountDTO.builder()
                 .id(account.getId())
                 .name(account.getName())
@@ -30,7 +41,7 @@ public class AccountMapper {
                 .status(account.getStatus())
                 .tags(account.getTags())
                 .customFields(account.getCustomFields())
-                .customerCount(account.getCustomers() != null ? account.getCustomers().size() : 0)
+                .customerCount((int) customerCount)
                 .createdAt(account.getCreatedAt())
                 .updatedAt(account.getUpdatedAt())
                 .build();
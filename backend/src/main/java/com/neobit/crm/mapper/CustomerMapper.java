@@ -2,6 +2,8 @@ package com.neobit.crm.mapper;
 
 import com.neobit.crm.dto.customer.CustomerDTO;
 import com.neobit.crm.entity.Customer;
+import com.neobit.crm.repository.projection.CustomerRow;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -37,10 +39,45 @@ public class CustomerMapper {
                 .tags(customer.getTags())
                 .customFields(customer.getCustomFields())
                 .lastContactedAt(customer.getLastContactedAt())
-                .interactionCount(customer.getInteractions() != null ? customer.getInteractions().size() : 0)
+                .interactionCount(customer.getInteractions() != null ? Hibernate.size(customer.getInteractions()) : 0)
                 .createdAt(customer.getCreatedAt())
                 .updatedAt(customer.getUpdatedAt())
                 .build();
     }
+    
+    public CustomerDTO toDTO(CustomerRow row, long interactionCount) {
+        if (row == null) return null;
+        
+        return CustomerDTO.builder()
+                .id(row.id())
+                .accountId(row.accountId())
+                .accountName(row.accountName())
+                .firstName(row.firstName())
+                .lastName(row.lastName())
+                .fullName((row.firstName() != null ? row.firstName() : "") + " " + (row.lastName() != null ? row.lastName() : ""))
+                .email(row.email())
+                .phone(row.phone())
+                .mobile(row.mobile())
+                .jobTitle(row.jobTitle())
+                .department(row.department())
+                .addressLine1(row.addressLine1())
+                .addressLine2(row.addressLine2())
+                .city(row.city())
+                .state(row.state())
+                .country(row.country())
+                .postalCode(row.postalCode())
+                .leadSource(row.leadSource())
+                .leadStatus(row.leadStatus())
+                .leadScore(row.leadScore())
+                .isLead(row.isLead())
+                .ownerId(row.ownerId())
+                .ownerName(row.ownerId() != null ? UserNames.fullName(row.ownerFirstName(), row.ownerLastName()) : null)
+                .tags(row.tags())
+                .customFields(row.customFields())
+                .lastContactedAt(row.lastContactedAt())
+                .interactionCount((int) interactionCount)
+                .createdAt(row.createdAt())
+                .updatedAt(row.updatedAt())
+                .build();
+    }
 }
-
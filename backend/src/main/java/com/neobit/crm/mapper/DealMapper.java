@@ -0,0 +1,37 @@
+package com.neobit.crm.mapper;
+
+import com.neobit.crm.dto.deal.DealDTO;
+import com.neobit.crm.entity.Deal;
+import org.springframework.stereotype.Component;
+
+@Component
+public class DealMapper {
+    
+    public DealDTO toDTO(Deal deal) {
+        if (deal == null) return null;
+        
+        return DealDTO.builder()
+                .id(deal.getId())
+                .dealNumber(deal.getDealNumber())
+                .name(deal.getName())
+                .pipelineId(deal.getPipeline() != null ? deal.getPipeline().getId() : null)
+                .stageId(deal.getStage() != null ? deal.getStage().getId() : null)
+                .stageName(deal.getStage() != null ? deal.getStage().getName() : null)
+                .amount(deal.getAmount())
+                .currency(deal.getCurrency())
+                .probability(deal.getProbability())
+                .weightedValue(deal.getWeightedValue())
+                .status(deal.getStatus())
+                .expectedCloseDate(deal.getExpectedCloseDate())
+                .actualCloseDate(deal.getActualCloseDate())
+                .contactId(deal.getContact() != null ? deal.getContact().getId() : null)
+                .accountId(deal.getAccount() != null ? deal.getAccount().getId() : null)
+                .ownerId(deal.getOwner() != null ? deal.getOwner().getId() : null)
+                .ownerName(deal.getOwner() != null ? deal.getOwner().getFullName() : null)
+                .daysInStage(deal.getDaysInStage())
+                .lastActivityAt(deal.getLastActivityAt())
+                .createdAt(deal.getCreatedAt())
+                .updatedAt(deal.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.neobit.crm.mapper;
+
+import com.neobit.crm.dto.note.NoteDTO;
+import com.neobit.crm.entity.Note;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NoteMapper {
+    
+    public NoteDTO toDTO(Note note) {
+        if (note == null) return null;
+        
+        return NoteDTO.builder()
+                .id(note.getId())
+                .title(note.getTitle())
+                .content(note.getContent())
+                .isPinned(note.getIsPinned())
+                .isPrivate(note.getIsPrivate())
+                .entityType(note.getEntityType())
+                .entityId(note.getEntityId())
+                .createdById(note.getCreatedBy() != null ? note.getCreatedBy().getId() : null)
+                .createdByName(note.getCreatedBy() != null ? note.getCreatedBy().getFullName() : null)
+                .createdAt(note.getCreatedAt())
+                .updatedAt(note.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,17 @@
+package com.neobit.crm.mapper;
+
+/**
+ * Name formatting shared by mappers that read user columns from projections
+ * instead of a loaded {@link com.neobit.crm.entity.User}.
+ */
+final class UserNames {
+    
+    private UserNames() {}
+    
+    /** Same output as {@code User.getFullName()}. */
+    static String fullName(String firstName, String lastName) {
+        String first = firstName != null ? firstName.trim() : "";
+        String last = lastName != null ? lastName.trim() : "";
+        return (first + " " + last).trim();
+    }
+}
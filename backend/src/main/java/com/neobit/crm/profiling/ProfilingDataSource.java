@@ -0,0 +1,141 @@
+package com.neobit.crm.profiling;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * JDBC proxy that times every statement execution and counts the rows it
+ * returns or affects, reporting to {@link SqlProfiler}.
+ *
+ * Query time runs from execute until the result set is closed, so it includes
+ * fetching rows. Batches are recorded once, with the summed update count.
+ */
+public class ProfilingDataSource extends DelegatingDataSource {
+    
+    private final SqlProfiler profiler;
+    
+    public ProfilingDataSource(DataSource target, SqlProfiler profiler) {
+        super(target);
+        this.profiler = profiler;
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxyConnection(super.getConnection());
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxyConnection(super.getConnection(username, password));
+    }
+    
+    private Connection proxyConnection(Connection connection) {
+        return (Connection) newProxy(Connection.class, (proxy, method, args) -> {
+            Object result = invoke(connection, method, args);
+            String name = method.getName();
+            if (result instanceof PreparedStatement ps && args != null && args.length > 0 && args[0] instanceof String sql
+                    && (name.equals("prepareStatement") || name.equals("prepareCall"))) {
+                return proxyStatement(ps, sql);
+            }
+            if (result instanceof Statement st && name.equals("createStatement")) {
+                return proxyStatement(st, null);
+            }
+            return result;
+        });
+    }
+    
+    private Statement proxyStatement(Statement statement, String preparedSql) {
+        Class<?> type = statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) newProxy(type, new InvocationHandler() {
+            
+            private String batchSql = preparedSql;
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if (!name.startsWith("execute") && !name.equals("addBatch")) {
+                    return ProfilingDataSource.invoke(statement, method, args);
+                }
+                String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                if (name.equals("addBatch")) {
+                    if (sql != null) {
+                        batchSql = sql;
+                    }
+                    return ProfilingDataSource.invoke(statement, method, args);
+                }
+                if (name.startsWith("executeBatch") || name.startsWith("executeLargeBatch")) {
+                    sql = batchSql;
+                }
+                
+                long start = System.nanoTime();
+                Object result = ProfilingDataSource.invoke(statement, method, args);
+                long elapsed = System.nanoTime() - start;
+                if (sql == null) {
+                    return result;
+                }
+                SqlShape shape = SqlShape.of(sql);
+                
+                if (result instanceof ResultSet rs) {
+                    return proxyResultSet(rs, shape, start);
+                }
+                if (result instanceof int[] counts) {
+                    long rows = 0;
+                    for (int c : counts) rows += Math.max(c, 0);
+                    profiler.record(shape, elapsed, rows);
+                } else if (result instanceof long[] counts) {
+                    long rows = 0;
+                    for (long c : counts) rows += Math.max(c, 0);
+                    profiler.record(shape, elapsed, rows);
+                } else if (result instanceof Number count) {
+                    profiler.record(shape, elapsed, Math.max(count.longValue(), 0));
+                } else {
+                    // execute(): result set or update count is read later; record time only
+                    profiler.record(shape, elapsed, Math.max(statement.getUpdateCount(), 0));
+                }
+                return result;
+            }
+        });
+    }
+    
+    private ResultSet proxyResultSet(ResultSet resultSet, SqlShape shape, long start) {
+        return (ResultSet) newProxy(ResultSet.class, new InvocationHandler() {
+            
+            private long rows;
+            private boolean recorded;
+            
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                Object result = ProfilingDataSource.invoke(resultSet, method, args);
+                if (method.getName().equals("next") && Boolean.TRUE.equals(result)) {
+                    rows++;
+                } else if (method.getName().equals("close") && !recorded) {
+                    recorded = true;
+                    profiler.record(shape, System.nanoTime() - start, rows);
+                }
+                return result;
+            }
+        });
+    }
+    
+    private static Object newProxy(Class<?> type, InvocationHandler handler) {
+        return Proxy.newProxyInstance(ProfilingDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+    
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.neobit.crm.profiling;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code /actuator/sqlprofile}: statement shapes per route, slowest first.
+ * {@code DELETE} resets the collected data.
+ */
+@Component
+@Endpoint(id = "sqlprofile")
+@RequiredArgsConstructor
+public class SqlProfileEndpoint {
+    
+    private final SqlProfiler profiler;
+    
+    @ReadOperation
+    public Map<String, List<Map<String, Object>>> routes() {
+        return profiler.snapshot();
+    }
+    
+    @DeleteOperation
+    public void reset() {
+        profiler.reset();
+    }
+}
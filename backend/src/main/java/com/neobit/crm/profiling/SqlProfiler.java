@@ -0,0 +1,245 @@
+package com.neobit.crm.profiling;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects executed SQL grouped by HTTP route and statement shape.
+ *
+ * Executions inside a request are buffered on the request's {@link RequestProfile}
+ * and folded into the aggregates when the request finishes and its route is
+ * known. Anything that runs outside a request is recorded under
+ * {@value #BACKGROUND_ROUTE}. A select shape repeated at least
+ * {@code app.sql-profiler.n-plus-one-threshold} times in one request is flagged
+ * as a likely N+1.
+ */
+@Component
+@Slf4j
+public class SqlProfiler {
+    
+    public static final String BACKGROUND_ROUTE = "background";
+    
+    private static final ThreadLocal<RequestProfile> CURRENT = new ThreadLocal<>();
+    
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+    private final int maxRoutes;
+    
+    private final Map<String, Map<String, ShapeStats>> routes = new ConcurrentHashMap<>();
+    private final Set<String> reportedNPlusOne = ConcurrentHashMap.newKeySet();
+    
+    public SqlProfiler(MeterRegistry meterRegistry,
+                       @Value("${app.sql-profiler.n-plus-one-threshold:10}") int nPlusOneThreshold,
+                       @Value("${app.sql-profiler.max-routes:500}") int maxRoutes) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+        this.maxRoutes = maxRoutes;
+    }
+    
+    // ---- request lifecycle ----
+    
+    public RequestProfile begin() {
+        RequestProfile profile = new RequestProfile();
+        CURRENT.set(profile);
+        return profile;
+    }
+    
+    public static RequestProfile current() {
+        return CURRENT.get();
+    }
+    
+    /**
+     * Binds a profile started on another thread, for work fanned out from a request.
+     */
+    public static void attach(RequestProfile profile) {
+        if (profile != null) {
+            CURRENT.set(profile);
+        }
+    }
+    
+    public static void detach() {
+        CURRENT.remove();
+    }
+    
+    public void end(RequestProfile profile, String route) {
+        CURRENT.remove();
+        List<Execution> executions = profile.drain();
+        if (executions.isEmpty()) {
+            return;
+        }
+        
+        Map<SqlShape, Integer> selectsPerShape = new HashMap<>();
+        for (Execution execution : executions) {
+            aggregate(route, execution);
+            if (execution.shape().isSelect()) {
+                selectsPerShape.merge(execution.shape(), 1, Integer::sum);
+            }
+        }
+        
+        DistributionSummary.builder("crm.sql.statements.per.request")
+                .description("SQL statements executed per HTTP request")
+                .tag("route", route)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(executions.size());
+        
+        selectsPerShape.forEach((shape, count) -> {
+            if (count >= nPlusOneThreshold) {
+                flagNPlusOne(route, shape, count);
+            }
+        });
+    }
+    
+    // ---- recording ----
+    
+    void record(SqlShape shape, long nanos, long rows) {
+        Execution execution = new Execution(shape, nanos, rows);
+        RequestProfile profile = CURRENT.get();
+        if (profile == null || !profile.add(execution)) {
+            aggregate(BACKGROUND_ROUTE, execution);
+        }
+    }
+    
+    private void aggregate(String route, Execution execution) {
+        Map<String, ShapeStats> shapes = routes.get(route);
+        if (shapes == null) {
+            if (routes.size() >= maxRoutes) {
+                return;
+            }
+            shapes = routes.computeIfAbsent(route, r -> new ConcurrentHashMap<>());
+        }
+        SqlShape shape = execution.shape();
+        shapes.computeIfAbsent(shape.sql(), s -> new ShapeStats(shape)).add(execution);
+        
+        Timer.builder("crm.sql.statements")
+                .description("SQL statement execution time by route")
+                .tags("route", route, "operation", shape.operation(), "table", shape.table())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(execution.nanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("crm.sql.rows")
+                .description("Rows returned or affected per SQL statement")
+                .tags("route", route, "operation", shape.operation(), "table", shape.table())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(execution.rows());
+    }
+    
+    private void flagNPlusOne(String route, SqlShape shape, int count) {
+        Map<String, ShapeStats> shapes = routes.get(route);
+        ShapeStats stats = shapes != null ? shapes.get(shape.sql()) : null;
+        if (stats != null) {
+            stats.nPlusOne.increment();
+        }
+        Counter.builder("crm.sql.n_plus_one")
+                .description("Requests where one select shape repeated past the N+1 threshold")
+                .tags("route", route, "table", shape.table())
+                .register(meterRegistry)
+                .increment();
+        if (reportedNPlusOne.add(route + '\n' + shape.sql())) {
+            log.warn("Possible N+1 on {}: {} executions of [{}]", route, count, shape.sql());
+        }
+    }
+    
+    // ---- reporting ----
+    
+    public Map<String, List<Map<String, Object>>> snapshot() {
+        Map<String, List<Map<String, Object>>> result = new LinkedHashMap<>();
+        routes.keySet().stream().sorted().forEach(route -> {
+            List<Map<String, Object>> shapes = new ArrayList<>();
+            routes.get(route).values().stream()
+                    .sorted(Comparator.comparingLong((ShapeStats s) -> s.totalNanos.sum()).reversed())
+                    .forEach(s -> shapes.add(s.toMap()));
+            result.put(route, shapes);
+        });
+        return result;
+    }
+    
+    public void reset() {
+        routes.clear();
+        reportedNPlusOne.clear();
+    }
+    
+    // ---- types ----
+    
+    record Execution(SqlShape shape, long nanos, long rows) {}
+    
+    /**
+     * Executions buffered for one HTTP request; safe to share with fan-out threads.
+     */
+    public static final class RequestProfile {
+        
+        private static final int MAX_EXECUTIONS = 10_000;
+        
+        private final List<Execution> executions = new ArrayList<>();
+        
+        synchronized boolean add(Execution execution) {
+            if (executions.size() >= MAX_EXECUTIONS) {
+                return false;
+            }
+            executions.add(execution);
+            return true;
+        }
+        
+        synchronized List<Execution> drain() {
+            List<Execution> drained = new ArrayList<>(executions);
+            executions.clear();
+            return drained;
+        }
+    }
+    
+    static final class ShapeStats {
+        
+        private final SqlShape shape;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder nPlusOne = new LongAdder();
+        private volatile long maxNanos;
+        
+        ShapeStats(SqlShape shape) {
+            this.shape = shape;
+        }
+        
+        void add(Execution execution) {
+            count.increment();
+            totalNanos.add(execution.nanos());
+            rows.add(execution.rows());
+            if (execution.nanos() > maxNanos) {
+                maxNanos = execution.nanos();
+            }
+        }
+        
+        Map<String, Object> toMap() {
+            long n = count.sum();
+            long total = totalNanos.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sql", shape.sql());
+            map.put("operation", shape.operation());
+            map.put("table", shape.table());
+            map.put("count", n);
+            map.put("totalMs", total / 1_000_000.0);
+            map.put("meanMs", n == 0 ? 0 : total / 1_000_000.0 / n);
+            map.put("maxMs", maxNanos / 1_000_000.0);
+            map.put("rows", rows.sum());
+            map.put("nPlusOneRequests", nPlusOne.sum());
+            return map;
+        }
+    }
+}
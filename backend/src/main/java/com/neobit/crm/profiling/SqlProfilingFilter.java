@@ -0,0 +1,42 @@
+package com.neobit.crm.profiling;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens a SQL profile for each request and closes it under the matched route
+ * pattern, e.g. {@code GET /customers/{id}}. Runs ahead of security so the
+ * authentication lookups are attributed too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.sql-profiler.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class SqlProfilingFilter extends OncePerRequestFilter {
+    
+    private final SqlProfiler profiler;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        SqlProfiler.RequestProfile profile = profiler.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            profiler.end(profile, request.getMethod() + " " + (pattern != null ? pattern : "unmapped"));
+        }
+    }
+}
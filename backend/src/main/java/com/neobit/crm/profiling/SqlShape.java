@@ -0,0 +1,61 @@
+package com.neobit.crm.profiling;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Normalized form of a SQL statement: literals and bind markers become {@code ?},
+ * IN lists collapse to one marker and whitespace is squeezed, so statements that
+ * differ only in values group together.
+ */
+public record SqlShape(String sql, String operation, String table) {
+    
+    private static final int MAX_LENGTH = 1000;
+    private static final int MAX_CACHED = 10_000;
+    private static final Map<String, SqlShape> CACHE = new ConcurrentHashMap<>();
+    
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.$])-?\\d+(?:\\.\\d+)?(?![\\w$])");
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern VALUES_LIST = Pattern.compile("(?i)\\bvalues\\s*(\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))(?:\\s*,\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\))+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TABLE = Pattern.compile("(?i)\\b(?:from|into|update|join)\\s+([\\w.\"]+)");
+    
+    public static SqlShape of(String sql) {
+        SqlShape shape = CACHE.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (CACHE.size() >= MAX_CACHED) {
+                CACHE.clear();
+            }
+            CACHE.put(sql, shape);
+        }
+        return shape;
+    }
+    
+    static SqlShape normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?...)");
+        normalized = VALUES_LIST.matcher(normalized).replaceAll("values $1...");
+        if (normalized.length() > MAX_LENGTH) {
+            normalized = normalized.substring(0, MAX_LENGTH) + "...";
+        }
+        
+        int space = normalized.indexOf(' ');
+        String operation = (space > 0 ? normalized.substring(0, space) : normalized).toLowerCase(Locale.ROOT);
+        if ("with".equals(operation)) {
+            operation = "select";
+        }
+        Matcher table = TABLE.matcher(normalized);
+        return new SqlShape(normalized, operation, table.find() ? table.group(1).replace("\"", "").toLowerCase(Locale.ROOT) : "none");
+    }
+    
+    public boolean isSelect() {
+        return "select".equals(operation);
+    }
+}
@@ -0,0 +1,24 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.entity.Attachment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface AttachmentRepository extends JpaRepository<Attachment, UUID> {
+    
+    @Query("SELECT a FROM Attachment a WHERE a.id = :id AND a.tenant.id = :tenantId")
+    Optional<Attachment> findByIdAndTenantId(@Param("id") UUID id, @Param("tenantId") UUID tenantId);
+    
+    @Query("SELECT a FROM Attachment a WHERE a.tenant.id = :tenantId AND a.entityType = :entityType " +
+           "AND a.entityId = :entityId ORDER BY a.createdAt DESC")
+    List<Attachment> findByEntity(@Param("tenantId") UUID tenantId,
+                                  @Param("entityType") String entityType,
+                                  @Param("entityId") UUID entityId);
+}
@@ -1,6 +1,7 @@
 package com.neobit.crm.repository;
 
 import com.neobit.crm.entity.Customer;
+import com.neobit.crm.repository.projection.CustomerRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,6 +10,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +18,24 @@ import java.util.UUID;
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSpecificationExecutor<Customer> {
     
+    /**
+     * Shared select for the list endpoints: account and owner are outer-joined, so a
+     * page is one statement. Interaction counts are not part of it; a correlated
+     * count per row would probe every interactions partition once per customer, so
+     * callers fetch them for the whole page with {@code InteractionRepository.countByCustomerIds}.
+     */
+    String CUSTOMER_ROW_SELECT = "SELECT new com.neobit.crm.repository.projection.CustomerRow(" +
+           "c.id, a.id, a.name, c.firstName, c.lastName, c.email, c.phone, c.mobile, " +
+           "c.jobTitle, c.department, c.addressLine1, c.addressLine2, c.city, c.state, " +
+           "c.country, c.postalCode, c.leadSource, c.leadStatus, c.leadScore, c.isLead, " +
+           "o.id, o.firstName, o.lastName, c.tags, c.customFields, c.lastContactedAt, " +
+           "c.createdAt, c.updatedAt) " +
+           "FROM Customer c LEFT JOIN c.account a LEFT JOIN c.owner o ";
+    
+    String SEARCH_PREDICATE = "(LOWER(c.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(c.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+           "LOWER(c.email) LIKE LOWER(CONCAT('%', :search, '%')))";
+    
     Page<Customer> findByTenantId(UUID tenantId, Pageable pageable);
     
     Optional<Customer> findByIdAndTenantId(UUID id, UUID tenantId);
@@ -48,6 +68,39 @@ public interface CustomerRepository extends JpaRepository<Customer, UUID>, JpaSp
     @Query(value = "SELECT * FROM customers c WHERE c.tenant_id = :tenantId AND :tag = ANY(c.tags)", nativeQuery = true)
     List<Customer> findByTenantIdAndTag(@Param("tenantId") UUID tenantId, @Param("tag") String tag);
     
+    @Query(value = CUSTOMER_ROW_SELECT + "WHERE c.tenant.id = :tenantId",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.tenant.id = :tenantId")
+    Page<CustomerRow> findRowsByTenantId(@Param("tenantId") UUID tenantId, Pageable pageable);
+    
+    @Query(CUSTOMER_ROW_SELECT + "WHERE c.id = :id AND c.tenant.id = :tenantId")
+    Optional<CustomerRow> findRowByIdAndTenantId(@Param("id") UUID id, @Param("tenantId") UUID tenantId);
+    
+    @Query(value = CUSTOMER_ROW_SELECT + "WHERE c.tenant.id = :tenantId AND " + SEARCH_PREDICATE,
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.tenant.id = :tenantId AND " + SEARCH_PREDICATE)
+    Page<CustomerRow> searchRows(@Param("tenantId") UUID tenantId, 
+                                 @Param("search") String search, 
+                                 Pageable pageable);
+    
+    @Query(value = CUSTOMER_ROW_SELECT + "WHERE c.tenant.id = :tenantId AND c.isLead = true",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.tenant.id = :tenantId AND c.isLead = true")
+    Page<CustomerRow> findLeadRows(@Param("tenantId") UUID tenantId, Pageable pageable);
+    
+    @Query(value = CUSTOMER_ROW_SELECT + "WHERE c.tenant.id = :tenantId AND c.leadStatus = :status",
+           countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.tenant.id = :tenantId AND c.leadStatus = :status")
+    Page<CustomerRow> findRowsByLeadStatus(@Param("tenantId") UUID tenantId, 
+                                           @Param("status") String status, 
+                                           Pageable pageable);
+    
+    /**
+     * Customer counts for a page of accounts; returns {@code [accountId, count]} pairs.
+     */
+    @Query("SELECT c.account.id, COUNT(c) FROM Customer c WHERE c.account.id IN :accountIds " +
+           "GROUP BY c.account.id")
+    List<Object[]> countByAccountIds(@Param("accountIds") Collection<UUID> accountIds);
+    
+    @Query("SELECT c.id FROM Customer c WHERE c.tenant.id = :tenantId AND c.id IN :ids")
+    List<UUID> findExistingIds(@Param("tenantId") UUID tenantId, @Param("ids") Collection<UUID> ids);
+    
     long countByTenantId(UUID tenantId);
     
     @Query("SELECT COUNT(c) FROM Customer c WHERE c.tenant.id = :tenantId AND c.isLead = true")
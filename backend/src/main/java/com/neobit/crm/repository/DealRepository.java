@@ -0,0 +1,32 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.entity.Deal;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface DealRepository extends JpaRepository<Deal, UUID> {
+    
+    Page<Deal> findByTenantId(UUID tenantId, Pageable pageable);
+    
+    Optional<Deal> findByIdAndTenantId(UUID id, UUID tenantId);
+    
+    @Query("SELECT d FROM Deal d WHERE d.tenant.id = :tenantId AND d.contact.id = :contactId " +
+           "ORDER BY d.createdAt DESC")
+    List<Deal> findByTenantIdAndContactId(@Param("tenantId") UUID tenantId,
+                                          @Param("contactId") UUID contactId,
+                                          Pageable pageable);
+    
+    @Query("SELECT d FROM Deal d WHERE d.tenant.id = :tenantId AND d.pipeline.id = :pipelineId")
+    Page<Deal> findByTenantIdAndPipelineId(@Param("tenantId") UUID tenantId,
+                                           @Param("pipelineId") UUID pipelineId,
+                                           Pageable pageable);
+}
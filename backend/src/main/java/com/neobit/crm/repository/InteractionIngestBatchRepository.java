@@ -0,0 +1,14 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.entity.InteractionIngestBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface InteractionIngestBatchRepository extends JpaRepository<InteractionIngestBatch, UUID> {
+    
+    Optional<InteractionIngestBatch> findByIdAndTenantId(UUID id, UUID tenantId);
+}
@@ -3,13 +3,16 @@ package com.neobit.crm.repository;
 import com.neobit.crm.entity.Interaction;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,24 +20,30 @@ import java.util.UUID;
 @Repository
 public interface InteractionRepository extends JpaRepository<Interaction, UUID>, JpaSpecificationExecutor<Interaction> {
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     Page<Interaction> findByTenantId(UUID tenantId, Pageable pageable);
     
     Optional<Interaction> findByIdAndTenantId(UUID id, UUID tenantId);
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     Page<Interaction> findByTenantIdAndCustomerId(UUID tenantId, UUID customerId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     Page<Interaction> findByTenantIdAndAccountId(UUID tenantId, UUID accountId, Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     @Query("SELECT i FROM Interaction i WHERE i.tenant.id = :tenantId AND i.user.id = :userId")
     Page<Interaction> findByTenantIdAndUserId(@Param("tenantId") UUID tenantId, 
                                                @Param("userId") UUID userId, 
                                                Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     @Query("SELECT i FROM Interaction i WHERE i.tenant.id = :tenantId AND i.type = :type")
     Page<Interaction> findByTenantIdAndType(@Param("tenantId") UUID tenantId, 
                                              @Param("type") Interaction.InteractionType type, 
                                              Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     @Query("SELECT i FROM Interaction i WHERE i.tenant.id = :tenantId AND " +
            "i.createdAt BETWEEN :startDate AND :endDate")
     Page<Interaction> findByTenantIdAndDateRange(@Param("tenantId") UUID tenantId,
@@ -42,6 +51,7 @@ public interface InteractionRepository extends JpaRepository<Interaction, UUID>,
                                                   @Param("endDate") Instant endDate,
                                                   Pageable pageable);
     
+    @EntityGraph(attributePaths = {"customer", "account", "user"})
     @Query("SELECT i FROM Interaction i WHERE i.tenant.id = :tenantId AND i.scheduledAt > :now " +
            "ORDER BY i.scheduledAt ASC")
     List<Interaction> findUpcomingScheduled(@Param("tenantId") UUID tenantId, 
@@ -54,8 +64,36 @@ public interface InteractionRepository extends JpaRepository<Interaction, UUID>,
     
     long countByTenantId(UUID tenantId);
     
+    /**
+     * Interaction counts for a page of customers; returns {@code [customerId, count]} pairs.
+     */
+    @Query("SELECT i.customer.id, COUNT(i) FROM Interaction i WHERE i.tenant.id = :tenantId " +
+           "AND i.customer.id IN :customerIds GROUP BY i.customer.id")
+    List<Object[]> countByCustomerIds(@Param("tenantId") UUID tenantId,
+                                      @Param("customerIds") Collection<UUID> customerIds);
+    
     @Query("SELECT COUNT(i) FROM Interaction i WHERE i.tenant.id = :tenantId AND " +
            "i.createdAt > :since")
     long countRecentByTenantId(@Param("tenantId") UUID tenantId, @Param("since") Instant since);
+    
+    @Query(value = "SELECT interaction_id FROM interaction_external_keys WHERE tenant_id = :tenantId " +
+                   "AND external_source = :externalSource AND external_id = :externalId", nativeQuery = true)
+    Optional<UUID> findIdByExternalKey(@Param("tenantId") UUID tenantId,
+                                       @Param("externalSource") String externalSource,
+                                       @Param("externalId") String externalId);
+    
+    /**
+     * Claims the idempotency key the ingest writer also uses; returns 0 when
+     * another interaction already holds it.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO interaction_external_keys (tenant_id, external_source, external_id, interaction_id, created_at) " +
+                   "VALUES (:tenantId, :externalSource, :externalId, :interactionId, :createdAt) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int claimExternalKey(@Param("tenantId") UUID tenantId,
+                         @Param("externalSource") String externalSource,
+                         @Param("externalId") String externalId,
+                         @Param("interactionId") UUID interactionId,
+                         @Param("createdAt") Instant createdAt);
 }
 
@@ -0,0 +1,22 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.entity.Note;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface NoteRepository extends JpaRepository<Note, UUID> {
+    
+    @Query("SELECT n FROM Note n WHERE n.tenant.id = :tenantId AND n.entityType = :entityType " +
+           "AND n.entityId = :entityId ORDER BY n.isPinned DESC, n.createdAt DESC")
+    List<Note> findByEntity(@Param("tenantId") UUID tenantId,
+                            @Param("entityType") String entityType,
+                            @Param("entityId") UUID entityId,
+                            Pageable pageable);
+}
@@ -0,0 +1,21 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.entity.PipelineStage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface PipelineStageRepository extends JpaRepository<PipelineStage, UUID> {
+    
+    Optional<PipelineStage> findByIdAndTenantId(UUID id, UUID tenantId);
+    
+    @Query("SELECT s FROM PipelineStage s WHERE s.tenant.id = :tenantId AND s.pipeline.id = :pipelineId")
+    List<PipelineStage> findByTenantIdAndPipelineId(@Param("tenantId") UUID tenantId,
+                                                    @Param("pipelineId") UUID pipelineId);
+}
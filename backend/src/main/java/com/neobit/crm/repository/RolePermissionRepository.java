@@ -0,0 +1,26 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.entity.RolePermission;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RolePermissionRepository extends JpaRepository<RolePermission, UUID> {
+    
+    /**
+     * Permission codes for a role in a tenant, including platform defaults.
+     * Served from the query cache; any write to role_permissions or permissions invalidates it.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT p.code FROM RolePermission rp JOIN rp.permission p " +
+           "WHERE rp.role = :role AND (rp.tenant IS NULL OR rp.tenant.id = :tenantId)")
+    List<String> findPermissionCodes(@Param("tenantId") UUID tenantId, @Param("role") String role);
+}
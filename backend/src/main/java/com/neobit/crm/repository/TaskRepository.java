@@ -37,6 +37,12 @@ public interface TaskRepository extends JpaRepository<Task, UUID> {
     List<Task> findByTenantIdAndCustomerId(@Param("tenantId") UUID tenantId, 
                                             @Param("customerId") UUID customerId);
     
+    @Query("SELECT t FROM Task t WHERE t.tenant.id = :tenantId AND t.customer.id = :customerId " +
+           "AND t.status != 'completed' ORDER BY t.dueDate ASC NULLS LAST")
+    List<Task> findOpenByTenantIdAndCustomerId(@Param("tenantId") UUID tenantId,
+                                               @Param("customerId") UUID customerId,
+                                               Pageable pageable);
+    
     long countByTenantId(UUID tenantId);
     
     @Query("SELECT COUNT(t) FROM Task t WHERE t.tenant.id = :tenantId AND t.status = 'pending'")
@@ -0,0 +1,42 @@
+package com.neobit.crm.repository.projection;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Flat read model for customer list endpoints. Account and owner columns come
+ * from joins, so one statement returns a whole page without touching lazy
+ * associations. Interaction counts are fetched per page alongside it.
+ */
+public record CustomerRow(
+        UUID id,
+        UUID accountId,
+        String accountName,
+        String firstName,
+        String lastName,
+        String email,
+        String phone,
+        String mobile,
+        String jobTitle,
+        String department,
+        String addressLine1,
+        String addressLine2,
+        String city,
+        String state,
+        String country,
+        String postalCode,
+        String leadSource,
+        String leadStatus,
+        Integer leadScore,
+        Boolean isLead,
+        UUID ownerId,
+        String ownerFirstName,
+        String ownerLastName,
+        List<String> tags,
+        Map<String, Object> customFields,
+        Instant lastContactedAt,
+        Instant createdAt,
+        Instant updatedAt
+) {}
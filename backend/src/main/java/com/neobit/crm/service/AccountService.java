@@ -9,6 +9,7 @@ import com.neobit.crm.entity.User;
 import com.neobit.crm.exception.ResourceNotFoundException;
 import com.neobit.crm.mapper.AccountMapper;
 import com.neobit.crm.repository.AccountRepository;
+import com.neobit.crm.repository.CustomerRepository;
 import com.neobit.crm.repository.TenantRepository;
 import com.neobit.crm.repository.UserRepository;
 import com.neobit.crm.security.TenantContext;
@@ -18,6 +19,9 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -25,16 +29,20 @@ import java.util.UUID;
 public class AccountService {
     
     private final AccountRepository accountRepository;
+    private final CustomerRepository customerRepository;
     private final TenantRepository tenantRepository;
     private final UserRepository userRepository;
     private final AccountMapper accountMapper;
+    private final WebSocketNotificationService webSocketNotificationService;
     
+    @Transactional(readOnly = true)
     public PageResponse<AccountDTO> getAccounts(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Account> page = accountRepository.findByTenantId(tenantId, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(accountMapper::toDTO).toList());
+        return PageResponse.of(page, toDTOs(page.getContent()));
     }
     
+    @Transactional(readOnly = true)
     public AccountDTO getAccountById(UUID accountId) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Account account = accountRepository.findByIdAndTenantId(accountId, tenantId)
@@ -42,10 +50,11 @@ public class AccountService {
         return accountMapper.toDTO(account);
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<AccountDTO> searchAccounts(String search, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Account> page = accountRepository.searchByName(tenantId, search, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(accountMapper::toDTO).toList());
+        return PageResponse.of(page, toDTOs(page.getContent()));
     }
     
     @Transactional
@@ -79,7 +88,9 @@ public class AccountService {
             account.setOwner(owner);
         }
         
-        return accountMapper.toDTO(accountRepository.save(account));
+        AccountDTO accountDTO = accountMapper.toDTO(accountRepository.save(account));
+        webSocketNotificationService.notifyAccountUpdate(tenantId, "created", accountDTO);
+        return accountDTO;
     }
     
     @Transactional
@@ -110,7 +121,9 @@ public class AccountService {
             account.setOwner(owner);
         }
         
-        return accountMapper.toDTO(accountRepository.save(account));
+        AccountDTO accountDTO = accountMapper.toDTO(accountRepository.save(account));
+        webSocketNotificationService.notifyAccountUpdate(tenantId, "updated", accountDTO);
+        return accountDTO;
     }
     
     @Transactional
@@ -119,6 +132,23 @@ public class AccountService {
         Account account = accountRepository.findByIdAndTenantId(accountId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account", "id", accountId));
         accountRepository.delete(account);
+        webSocketNotificationService.notifyAccountUpdate(tenantId, "deleted", Map.of("id", accountId.toString()));
+    }
+    
+    /**
+     * Maps a page of accounts with one grouped count for customers instead of
+     * initializing each account's customers collection.
+     */
+    private List<AccountDTO> toDTOs(List<Account> accounts) {
+        if (accounts.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Long> customerCounts = new HashMap<>();
+        for (Object[] row : customerRepository.countByAccountIds(accounts.stream().map(Account::getId).toList())) {
+            customerCounts.put((UUID) row[0], (Long) row[1]);
+        }
+        return accounts.stream()
+                .map(a -> accountMapper.toDTO(a, customerCounts.getOrDefault(a.getId(), 0L)))
+                .toList();
     }
 }
-
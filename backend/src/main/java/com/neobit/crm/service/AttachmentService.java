@@ -0,0 +1,297 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.attachment.AttachmentDTO;
+import com.neobit.crm.dto.attachment.StorageUsageDTO;
+import com.neobit.crm.entity.Attachment;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.QuotaExceededException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.repository.AttachmentRepository;
+import com.neobit.crm.repository.TenantRepository;
+import com.neobit.crm.repository.UserRepository;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.storage.BlobStore;
+import com.neobit.crm.storage.StagedBlob;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Attachments backed by the content-addressed {@link BlobStore}.
+ *
+ * An upload is streamed to a staging file and hashed before any connection is
+ * taken. The transaction then charges the tenant's quota, takes a reference on
+ * the blob row (which serialises against the garbage collector) and inserts the
+ * attachment; the file is published only after that commits, so a failed upload
+ * never leaves a file behind that no row accounts for. Tenants are charged the full
+ * logical size of every attachment even when the bytes are shared, so one
+ * tenant's usage never depends on what another tenant has uploaded.
+ */
+@Service
+@Slf4j
+public class AttachmentService {
+    
+    // Owner types that may carry attachments, and the table their ids live in
+    private static final Map<String, String> ENTITY_TABLES = Map.of(
+            "customer", "customers",
+            "account", "accounts",
+            "deal", "deals",
+            "interaction", "interactions",
+            "task", "tasks");
+    
+    private static final String ENSURE_USAGE_SQL =
+            "INSERT INTO tenant_storage_usage (tenant_id, used_bytes) VALUES (?, 0) ON CONFLICT (tenant_id) DO NOTHING";
+    
+    private static final String CHARGE_SQL =
+            "UPDATE tenant_storage_usage SET used_bytes = used_bytes + ?, updated_at = now() " +
+            "WHERE tenant_id = ? AND used_bytes + ? <= COALESCE(quota_bytes, ?)";
+    
+    private static final String RELEASE_SQL =
+            "UPDATE tenant_storage_usage SET used_bytes = GREATEST(used_bytes - ?, 0), updated_at = now() " +
+            "WHERE tenant_id = ?";
+    
+    private static final String REFERENCE_BLOB_SQL =
+            "INSERT INTO blobs (sha256, size_bytes, ref_count) VALUES (?, ?, 1) " +
+            "ON CONFLICT (sha256) DO UPDATE SET ref_count = blobs.ref_count + 1, last_referenced_at = now()";
+    
+    private static final String RELEASE_BLOB_SQL =
+            "UPDATE blobs SET ref_count = GREATEST(ref_count - 1, 0), last_referenced_at = now() WHERE sha256 = ?";
+    
+    private final AttachmentRepository attachmentRepository;
+    private final TenantRepository tenantRepository;
+    private final UserRepository userRepository;
+    private final BlobStore blobStore;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate compensationTemplate;
+    private final long maxFileSize;
+    private final long defaultQuotaBytes;
+    
+    public AttachmentService(AttachmentRepository attachmentRepository,
+                             TenantRepository tenantRepository,
+                             UserRepository userRepository,
+                             BlobStore blobStore,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.attachments.max-file-size:104857600}") long maxFileSize,
+                             @Value("${app.attachments.default-quota-bytes:10737418240}") long defaultQuotaBytes) {
+        this.attachmentRepository = attachmentRepository;
+        this.tenantRepository = tenantRepository;
+        this.userRepository = userRepository;
+        this.blobStore = blobStore;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // Runs from afterCommit, where the committed transaction's resources are still bound
+        this.compensationTemplate = new TransactionTemplate(transactionManager);
+        this.compensationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.maxFileSize = maxFileSize;
+        this.defaultQuotaBytes = defaultQuotaBytes;
+    }
+    
+    /**
+     * Stores {@code content} as an attachment of the given entity. {@code declaredLength}
+     * is the request's Content-Length, or -1 when unknown; a declared size over the
+     * limits is rejected before anything is read.
+     */
+    public AttachmentDTO upload(String entityType, UUID entityId, String fileName, String fileType,
+                                long declaredLength, InputStream content) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        UUID userId = currentUserId();
+        String table = ENTITY_TABLES.get(entityType);
+        if (table == null) {
+            throw new BadRequestException("Unsupported entity type: " + entityType);
+        }
+        if (fileName == null || fileName.isBlank()) {
+            throw new BadRequestException("File name is required");
+        }
+        if (declaredLength > maxFileSize) {
+            throw new QuotaExceededException("File exceeds the maximum size of " + maxFileSize + " bytes");
+        }
+        if (declaredLength > 0 && declaredLength > remainingQuota(tenantId)) {
+            throw new QuotaExceededException("Storage quota exceeded");
+        }
+        
+        StagedBlob staged;
+        try {
+            staged = blobStore.stage(content, maxFileSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Upload failed", e);
+        }
+        AtomicReference<Attachment> saved = new AtomicReference<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        publish(staged, tenantId, saved.get());
+                    }
+                    
+                    @Override
+                    public void afterCompletion(int status) {
+                        // Already moved into the store after a commit; a rolled-back upload leaves nothing
+                        blobStore.discard(staged);
+                    }
+                });
+                Boolean exists = jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM " + table + " WHERE id = ? AND tenant_id = ?)",
+                        Boolean.class, entityId, tenantId);
+                if (!Boolean.TRUE.equals(exists)) {
+                    throw new ResourceNotFoundException(entityType, "id", entityId);
+                }
+                charge(tenantId, staged.size());
+                jdbcTemplate.update(REFERENCE_BLOB_SQL, staged.sha256(), staged.size());
+                Attachment attachment = Attachment.builder()
+                        .tenant(tenantRepository.getReferenceById(tenantId))
+                        .fileName(fileName)
+                        .fileType(fileType)
+                        .fileSize(staged.size())
+                        .contentSha256(staged.sha256())
+                        .entityType(entityType)
+                        .entityId(entityId)
+                        .uploadedBy(userRepository.getReferenceById(userId))
+                        .build();
+                saved.set(attachmentRepository.save(attachment));
+            });
+        } catch (RuntimeException e) {
+            // Also covers a transaction that never started, so no synchronization ran
+            blobStore.discard(staged);
+            throw e;
+        }
+        log.debug("Stored attachment {} ({} bytes, blob {})", saved.get().getId(), staged.size(), staged.sha256());
+        return toDTO(saved.get(), userId);
+    }
+    
+    /**
+     * Moves the staged file into the store once the attachment has committed. The
+     * blob row already counts this reference, so the garbage collector leaves the
+     * file alone. If it cannot be written the attachment is taken back out rather
+     * than left pointing at bytes that do not exist.
+     */
+    private void publish(StagedBlob staged, UUID tenantId, Attachment attachment) {
+        try {
+            blobStore.publish(staged);
+        } catch (IOException e) {
+            log.error("Could not store blob {}, removing attachment {}", staged.sha256(), attachment.getId(), e);
+            compensationTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("DELETE FROM attachments WHERE id = ?", attachment.getId());
+                jdbcTemplate.update(RELEASE_BLOB_SQL, staged.sha256());
+                jdbcTemplate.update(RELEASE_SQL, staged.size(), tenantId);
+            });
+            throw new UncheckedIOException("Could not store blob " + staged.sha256(), e);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public List<AttachmentDTO> getAttachments(String entityType, UUID entityId) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        return attachmentRepository.findByEntity(tenantId, entityType, entityId).stream()
+                .map(a -> toDTO(a, a.getUploadedBy() != null ? a.getUploadedBy().getId() : null))
+                .toList();
+    }
+    
+    /**
+     * Resolves an attachment to the blob file that holds its bytes.
+     */
+    @Transactional(readOnly = true)
+    public AttachmentContent getContent(UUID id) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        Attachment attachment = attachmentRepository.findByIdAndTenantId(id, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", "id", id));
+        if (attachment.getContentSha256() == null) {
+            throw new ResourceNotFoundException("Attachment content", "id", id);
+        }
+        Path path = blobStore.path(attachment.getContentSha256());
+        if (!Files.isReadable(path)) {
+            log.error("Blob {} for attachment {} is missing", attachment.getContentSha256(), id);
+            throw new ResourceNotFoundException("Attachment content", "id", id);
+        }
+        return new AttachmentContent(attachment.getFileName(), attachment.getFileType(),
+                attachment.getContentSha256(), attachment.getFileSize(), path);
+    }
+    
+    /**
+     * Deletes the attachment and returns its bytes to the tenant's quota. The blob
+     * file is left for {@code BlobGarbageCollector} once nothing references it.
+     */
+    @Transactional
+    public void delete(UUID id) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        Attachment attachment = attachmentRepository.findByIdAndTenantId(id, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Attachment", "id", id));
+        attachmentRepository.delete(attachment);
+        attachmentRepository.flush();
+        if (attachment.getContentSha256() != null) {
+            jdbcTemplate.update(RELEASE_BLOB_SQL, attachment.getContentSha256());
+            jdbcTemplate.update(RELEASE_SQL, attachment.getFileSize(), tenantId);
+        }
+    }
+    
+    @Transactional(readOnly = true)
+    public StorageUsageDTO getUsage() {
+        return usage(TenantContext.getCurrentTenant());
+    }
+    
+    private StorageUsageDTO usage(UUID tenantId) {
+        return jdbcTemplate.query(
+                "SELECT used_bytes, COALESCE(quota_bytes, ?) AS quota FROM tenant_storage_usage WHERE tenant_id = ?",
+                rs -> rs.next()
+                        ? new StorageUsageDTO(rs.getLong("used_bytes"), rs.getLong("quota"))
+                        : new StorageUsageDTO(0, defaultQuotaBytes),
+                defaultQuotaBytes, tenantId);
+    }
+    
+    private void charge(UUID tenantId, long bytes) {
+        jdbcTemplate.update(ENSURE_USAGE_SQL, tenantId);
+        int updated = jdbcTemplate.update(CHARGE_SQL, bytes, tenantId, bytes, defaultQuotaBytes);
+        if (updated == 0) {
+            throw new QuotaExceededException("Storage quota exceeded");
+        }
+    }
+    
+    private long remainingQuota(UUID tenantId) {
+        StorageUsageDTO usage = usage(tenantId);
+        return usage.getQuotaBytes() - usage.getUsedBytes();
+    }
+    
+    private UUID currentUserId() {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        return currentUser.getId();
+    }
+    
+    private AttachmentDTO toDTO(Attachment attachment, UUID uploadedById) {
+        return AttachmentDTO.builder()
+                .id(attachment.getId())
+                .fileName(attachment.getFileName())
+                .fileType(attachment.getFileType())
+                .fileSize(attachment.getFileSize())
+                .sha256(attachment.getContentSha256())
+                .entityType(attachment.getEntityType())
+                .entityId(attachment.getEntityId())
+                .uploadedById(uploadedById)
+                .createdAt(attachment.getCreatedAt())
+                .build();
+    }
+    
+    public record AttachmentContent(String fileName, String fileType, String sha256, long size, Path path) {
+    }
+}
@@ -0,0 +1,126 @@
+package com.neobit.crm.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for {@code customers.last_contacted_at}.
+ *
+ * Callers record a contact; only the latest timestamp per customer is kept, and
+ * the pending set is written once per interval with a single
+ * {@code UPDATE ... FROM (VALUES ...)} per chunk. A burst of interactions for one
+ * customer therefore costs one row update instead of one locked update per
+ * interaction. The value can trail the interaction by up to one interval.
+ */
+@Component
+@Slf4j
+public class CustomerContactTracker {
+    
+    private final ConcurrentHashMap<UUID, Instant> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final int chunkSize;
+    private final Counter flushedCounter;
+    
+    public CustomerContactTracker(JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.last-contacted.chunk-size:500}") int chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.flushedCounter = meterRegistry.counter("crm.customers.last_contacted.flushed");
+        Gauge.builder("crm.customers.last_contacted.pending", pending, Map::size)
+                .description("Customers with a contact time waiting to be written")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Records a contact. Inside a transaction it only counts once that transaction
+     * commits, so a rolled back interaction never moves the timestamp.
+     */
+    public void recordContact(UUID customerId, Instant contactedAt) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(customerId, contactedAt);
+                }
+            });
+        } else {
+            merge(customerId, contactedAt);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.last-contacted.flush-interval-ms:1000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<UUID, Instant>> batch = new ArrayList<>(pending.size());
+        for (UUID customerId : pending.keySet()) {
+            Instant contactedAt = pending.remove(customerId);
+            if (contactedAt != null) {
+                batch.add(Map.entry(customerId, contactedAt));
+            }
+        }
+        // Same lock order everywhere, so concurrent flushes from several instances cannot deadlock
+        batch.sort(Map.Entry.comparingByKey());
+        for (int from = 0; from < batch.size(); from += chunkSize) {
+            List<Map.Entry<UUID, Instant>> chunk = batch.subList(from, Math.min(batch.size(), from + chunkSize));
+            try {
+                jdbcTemplate.update(updateSql(chunk.size()), arguments(chunk));
+                flushedCounter.increment(chunk.size());
+            } catch (RuntimeException e) {
+                log.warn("Could not write last contacted time for {} customers, will retry: {}", chunk.size(), e.getMessage());
+                chunk.forEach(entry -> merge(entry.getKey(), entry.getValue()));
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    int pendingCount() {
+        return pending.size();
+    }
+    
+    private void merge(UUID customerId, Instant contactedAt) {
+        pending.merge(customerId, contactedAt, (a, b) -> a.isAfter(b) ? a : b);
+    }
+    
+    private static String updateSql(int rows) {
+        StringBuilder sql = new StringBuilder("UPDATE customers c SET last_contacted_at = v.contacted_at FROM (VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? "" : ", ").append("(?::uuid, ?::timestamptz)");
+        }
+        return sql.append(") AS v(id, contacted_at) ")
+                .append("WHERE c.id = v.id AND (c.last_contacted_at IS NULL OR c.last_contacted_at < v.contacted_at)")
+                .toString();
+    }
+    
+    private static Object[] arguments(List<Map.Entry<UUID, Instant>> chunk) {
+        Object[] args = new Object[chunk.size() * 2];
+        for (int i = 0; i < chunk.size(); i++) {
+            args[2 * i] = chunk.get(i).getKey();
+            args[2 * i + 1] = Timestamp.from(chunk.get(i).getValue());
+        }
+        return args;
+    }
+}
@@ -0,0 +1,197 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.customer.CustomerDTO;
+import com.neobit.crm.dto.customer.CustomerDetailResponse;
+import com.neobit.crm.dto.deal.DealDTO;
+import com.neobit.crm.dto.interaction.InteractionDTO;
+import com.neobit.crm.dto.issue.IssueDTO;
+import com.neobit.crm.dto.note.NoteDTO;
+import com.neobit.crm.dto.task.TaskDTO;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.mapper.*;
+import com.neobit.crm.repository.*;
+import com.neobit.crm.security.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Assembles the customer 360 view.
+ *
+ * Every section is an independent read, so they run concurrently on the
+ * bounded read fan-out pool, each in its own read-only transaction and with
+ * its own timeout. The timeout bounds the query on the server as well: a
+ * section gets a {@code statement_timeout} of whatever is left of its budget
+ * when it starts, and one that waited out its budget in the queue never runs,
+ * so an abandoned section does not keep holding a pooled connection. The
+ * customer itself is mandatory; any other section that
+ * fails or times out is reported in {@code unavailableSections} and the rest
+ * of the response is still returned.
+ */
+@Service
+@Slf4j
+public class CustomerDetailService {
+
+    private static final String CUSTOMER_ENTITY_TYPE = "customer";
+
+    private final CustomerRepository customerRepository;
+    private final InteractionRepository interactionRepository;
+    private final TaskRepository taskRepository;
+    private final DealRepository dealRepository;
+    private final IssueRepository issueRepository;
+    private final NoteRepository noteRepository;
+    private final CustomerMapper customerMapper;
+    private final InteractionMapper interactionMapper;
+    private final TaskMapper taskMapper;
+    private final DealMapper dealMapper;
+    private final IssueMapper issueMapper;
+    private final NoteMapper noteMapper;
+    private final Executor executor;
+    private final TransactionTemplate readOnlyTx;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final long sectionTimeoutMs;
+    private final int sectionSize;
+
+    public CustomerDetailService(CustomerRepository customerRepository,
+                                 InteractionRepository interactionRepository,
+                                 TaskRepository taskRepository,
+                                 DealRepository dealRepository,
+                                 IssueRepository issueRepository,
+                                 NoteRepository noteRepository,
+                                 CustomerMapper customerMapper,
+                                 InteractionMapper interactionMapper,
+                                 TaskMapper taskMapper,
+                                 DealMapper dealMapper,
+                                 IssueMapper issueMapper,
+                                 NoteMapper noteMapper,
+                                 @Qualifier("readFanOutExecutor") Executor executor,
+                                 PlatformTransactionManager transactionManager,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${app.customer-detail.section-timeout-ms:800}") long sectionTimeoutMs,
+                                 @Value("${app.customer-detail.section-size:10}") int sectionSize) {
+        this.customerRepository = customerRepository;
+        this.interactionRepository = interactionRepository;
+        this.taskRepository = taskRepository;
+        this.dealRepository = dealRepository;
+        this.issueRepository = issueRepository;
+        this.noteRepository = noteRepository;
+        this.customerMapper = customerMapper;
+        this.interactionMapper = interactionMapper;
+        this.taskMapper = taskMapper;
+        this.dealMapper = dealMapper;
+        this.issueMapper = issueMapper;
+        this.noteMapper = noteMapper;
+        this.executor = executor;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.jdbcTemplate = jdbcTemplate;
+        this.sectionTimeoutMs = sectionTimeoutMs;
+        this.sectionSize = sectionSize;
+    }
+
+    public CustomerDetailResponse getCustomerDetail(UUID customerId) {
+        // TenantContext is thread-local, so resolve it here and pass it into each section
+        UUID tenantId = TenantContext.getCurrentTenant();
+        List<String> unavailable = Collections.synchronizedList(new ArrayList<>());
+        PageRequest recent = PageRequest.of(0, sectionSize);
+
+        CompletableFuture<CustomerDTO> customer = submit(() -> customerMapper.toDTO(
+                customerRepository.findRowByIdAndTenantId(customerId, tenantId)
+                        .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId)),
+                interactionRepository.countByCustomerIds(tenantId, List.of(customerId)).stream()
+                        .mapToLong(row -> (Long) row[1]).sum()));
+
+        CompletableFuture<List<InteractionDTO>> interactions = section("recentInteractions", unavailable, () ->
+                interactionRepository.findByTenantIdAndCustomerId(tenantId, customerId,
+                                PageRequest.of(0, sectionSize, Sort.by(Sort.Direction.DESC, "createdAt")))
+                        .getContent().stream().map(interactionMapper::toDTO).toList());
+
+        CompletableFuture<List<TaskDTO>> tasks = section("openTasks", unavailable, () ->
+                taskRepository.findOpenByTenantIdAndCustomerId(tenantId, customerId, recent)
+                        .stream().map(taskMapper::toDTO).toList());
+
+        CompletableFuture<List<DealDTO>> deals = section("deals", unavailable, () ->
+                dealRepository.findByTenantIdAndContactId(tenantId, customerId, recent)
+                        .stream().map(dealMapper::toDTO).toList());
+
+        CompletableFuture<List<IssueDTO>> issues = section("issues", unavailable, () ->
+                issueRepository.findByTenantIdAndCustomerId(tenantId.toString(), customerId.toString(),
+                                PageRequest.of(0, sectionSize, Sort.by(Sort.Direction.DESC, "createdAt")))
+                        .getContent().stream().map(issueMapper::toDTO).toList());
+
+        CompletableFuture<List<NoteDTO>> notes = section("notes", unavailable, () ->
+                noteRepository.findByEntity(tenantId, CUSTOMER_ENTITY_TYPE, customerId, recent)
+                        .stream().map(noteMapper::toDTO).toList());
+
+        CustomerDTO customerDTO;
+        try {
+            customerDTO = customer.orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        CompletableFuture.allOf(interactions, tasks, deals, issues, notes).join();
+
+        return CustomerDetailResponse.builder()
+                .customer(customerDTO)
+                .recentInteractions(interactions.join())
+                .openTasks(tasks.join())
+                .deals(deals.join())
+                .issues(issues.join())
+                .notes(notes.join())
+                .unavailableSections(new ArrayList<>(unavailable))
+                .build();
+    }
+
+    /**
+     * Optional section: failures and timeouts resolve to {@code null} and are recorded by name.
+     */
+    private <T> CompletableFuture<T> section(String name, List<String> unavailable, Supplier<T> loader) {
+        return submit(loader)
+                .orTimeout(sectionTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(ex -> {
+                    log.warn("Customer detail section '{}' unavailable: {}", name, ex.toString());
+                    unavailable.add(name);
+                    return null;
+                });
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> loader) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sectionTimeoutMs);
+        try {
+            return CompletableFuture.supplyAsync(() -> readOnlyTx.execute(status -> {
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remainingMs <= 0) {
+                    throw new QueryTimeoutException("Section timed out before it started");
+                }
+                // Same connection as the repositories below; SET LOCAL ends with the transaction
+                jdbcTemplate.execute("SET LOCAL statement_timeout = " + remainingMs);
+                return loader.get();
+            }), executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
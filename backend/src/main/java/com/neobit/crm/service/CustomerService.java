@@ -11,8 +11,10 @@ import com.neobit.crm.exception.ResourceNotFoundException;
 import com.neobit.crm.mapper.CustomerMapper;
 import com.neobit.crm.repository.AccountRepository;
 import com.neobit.crm.repository.CustomerRepository;
+import com.neobit.crm.repository.InteractionRepository;
 import com.neobit.crm.repository.TenantRepository;
 import com.neobit.crm.repository.UserRepository;
+import com.neobit.crm.repository.projection.CustomerRow;
 import com.neobit.crm.security.TenantContext;
 import com.neobit.crm.service.TelegramNotificationService;
 import lombok.RequiredArgsConstructor;
@@ -21,6 +23,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -29,6 +33,7 @@ import java.util.UUID;
 public class CustomerService {
     
     private final CustomerRepository customerRepository;
+    private final InteractionRepository interactionRepository;
     private final TenantRepository tenantRepository;
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
@@ -36,35 +41,40 @@ public class CustomerService {
     private final TelegramNotificationService telegramNotificationService;
     private final WebSocketNotificationService webSocketNotificationService;
     
+    @Transactional(readOnly = true)
     public PageResponse<CustomerDTO> getCustomers(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Page<Customer> page = customerRepository.findByTenantId(tenantId, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(customerMapper::toDTO).toList());
+        Page<CustomerRow> page = customerRepository.findRowsByTenantId(tenantId, pageable);
+        return PageResponse.of(page, toDTOs(tenantId, page.getContent()));
     }
     
+    @Transactional(readOnly = true)
     public CustomerDTO getCustomerById(UUID customerId) {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Customer customer = customerRepository.findByIdAndTenantId(customerId, tenantId)
+        CustomerRow customer = customerRepository.findRowByIdAndTenantId(customerId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
-        return customerMapper.toDTO(customer);
+        return toDTOs(tenantId, List.of(customer)).get(0);
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<CustomerDTO> searchCustomers(String search, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Page<Customer> page = customerRepository.search(tenantId, search, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(customerMapper::toDTO).toList());
+        Page<CustomerRow> page = customerRepository.searchRows(tenantId, search, pageable);
+        return PageResponse.of(page, toDTOs(tenantId, page.getContent()));
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<CustomerDTO> getLeads(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Page<Customer> page = customerRepository.findLeads(tenantId, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(customerMapper::toDTO).toList());
+        Page<CustomerRow> page = customerRepository.findLeadRows(tenantId, pageable);
+        return PageResponse.of(page, toDTOs(tenantId, page.getContent()));
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<CustomerDTO> getCustomersByStatus(String status, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Page<Customer> page = customerRepository.findByLeadStatus(tenantId, status, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(customerMapper::toDTO).toList());
+        Page<CustomerRow> page = customerRepository.findRowsByLeadStatus(tenantId, status, pageable);
+        return PageResponse.of(page, toDTOs(tenantId, page.getContent()));
     }
     
     @Transactional
@@ -122,6 +132,7 @@ public class CustomerService {
         UUID tenantId = TenantContext.getCurrentTenant();
         Customer customer = customerRepository.findByIdAndTenantId(customerId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", customerId));
+        boolean wasLead = Boolean.TRUE.equals(customer.getIsLead());
         
         if (request.getFirstName() != null) customer.setFirstName(request.getFirstName());
         if (request.getLastName() != null) customer.setLastName(request.getLastName());
@@ -159,7 +170,7 @@ public class CustomerService {
         
         // Send notifications
         telegramNotificationService.notifyCustomerUpdated(tenantId, savedCustomer);
-        webSocketNotificationService.notifyCustomerUpdate(tenantId, "updated", customerDTO);
+        webSocketNotificationService.notifyCustomerUpdate(tenantId, "updated", customerDTO, Map.of("isLead", wasLead));
         
         return customerDTO;
     }
@@ -172,12 +183,27 @@ public class CustomerService {
         
         String customerName = customer.getFirstName() + " " + (customer.getLastName() != null ? customer.getLastName() : "");
         String customerEmail = customer.getEmail();
+        boolean wasLead = Boolean.TRUE.equals(customer.getIsLead());
         
         customerRepository.delete(customer);
         
         // Send notifications
         telegramNotificationService.notifyCustomerDeleted(tenantId, customerName, customerEmail);
-        webSocketNotificationService.notifyCustomerUpdate(tenantId, "deleted", java.util.Map.of("id", customerId.toString()));
+        webSocketNotificationService.notifyCustomerUpdate(tenantId, "deleted", java.util.Map.of("id", customerId.toString()),
+                Map.of("isLead", wasLead));
+    }
+    
+    /** Maps a page of rows with one grouped count query for the whole page. */
+    private List<CustomerDTO> toDTOs(UUID tenantId, List<CustomerRow> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        Map<UUID, Long> interactionCounts = new HashMap<>();
+        for (Object[] row : interactionRepository.countByCustomerIds(tenantId, rows.stream().map(CustomerRow::id).toList())) {
+            interactionCounts.put((UUID) row[0], (Long) row[1]);
+        }
+        return rows.stream()
+                .map(row -> customerMapper.toDTO(row, interactionCounts.getOrDefault(row.id(), 0L)))
+                .toList();
     }
 }
-
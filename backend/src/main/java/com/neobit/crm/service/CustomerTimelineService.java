@@ -0,0 +1,118 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.common.CursorPage;
+import com.neobit.crm.dto.timeline.TimelineItemDTO;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.repository.CustomerRepository;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.service.timeline.TimelineCursor;
+import com.neobit.crm.service.timeline.TimelineMerger;
+import com.neobit.crm.service.timeline.TimelinePosition;
+import com.neobit.crm.service.timeline.TimelineSource;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Customer timeline across interactions, activities, tasks, notes, synced
+ * emails, calendar events and deal stage changes, newest first.
+ *
+ * Each source is read as its own keyset-paged stream and the streams are merged
+ * with {@link TimelineMerger}; no source is ever loaded in full.
+ */
+@Service
+@RequiredArgsConstructor
+public class CustomerTimelineService {
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    static final List<TimelineSource> SOURCES = List.of(
+            new TimelineSource("interaction",
+                    "i.id, i.created_at AS occurred_at, i.subject AS title, left(i.description, 280) AS body, " +
+                    "i.type::text AS kind, i.user_id, NULL::uuid AS deal_id",
+                    "interactions i",
+                    "i.tenant_id = :tenantId AND i.customer_id = :customerId",
+                    "i.created_at", "i.id"),
+            new TimelineSource("activity",
+                    "a.id, a.created_at AS occurred_at, a.subject AS title, left(a.description, 280) AS body, " +
+                    "a.activity_type AS kind, a.owner_id AS user_id, a.deal_id",
+                    "activities a",
+                    "a.tenant_id = :tenantId AND a.contact_id = :customerId",
+                    "a.created_at", "a.id"),
+            new TimelineSource("task",
+                    "t.id, t.created_at AS occurred_at, t.title, left(t.description, 280) AS body, " +
+                    "t.status AS kind, t.assigned_to AS user_id, NULL::uuid AS deal_id",
+                    "tasks t",
+                    "t.tenant_id = :tenantId AND t.customer_id = :customerId",
+                    "t.created_at", "t.id"),
+            new TimelineSource("note",
+                    "n.id, n.created_at AS occurred_at, n.title, left(n.content, 280) AS body, " +
+                    "'note' AS kind, n.created_by AS user_id, NULL::uuid AS deal_id",
+                    "notes n",
+                    "n.tenant_id = :tenantId AND n.entity_type = 'customer' AND n.entity_id = :customerId " +
+                    "AND (n.is_private = false OR n.created_by = :userId)",
+                    "n.created_at", "n.id"),
+            new TimelineSource("email",
+                    "e.id, COALESCE(e.received_at, e.created_at) AS occurred_at, e.subject AS title, e.snippet AS body, " +
+                    "'email' AS kind, e.user_id, NULL::uuid AS deal_id",
+                    "email_sync_records e",
+                    "e.tenant_id = :tenantId AND e.customer_id = :customerId",
+                    "COALESCE(e.received_at, e.created_at)", "e.id"),
+            new TimelineSource("calendar_event",
+                    "c.id, c.start_time AS occurred_at, c.title, left(c.description, 280) AS body, " +
+                    "COALESCE(c.status, 'event') AS kind, c.user_id, NULL::uuid AS deal_id",
+                    "calendar_events c",
+                    "c.tenant_id = :tenantId AND c.customer_id = :customerId",
+                    "c.start_time", "c.id"),
+            new TimelineSource("deal_stage_change",
+                    "h.id, h.created_at AS occurred_at, d.name AS title, " +
+                    "concat_ws(' -> ', fs.name, ts.name) AS body, 'stage_change' AS kind, h.changed_by AS user_id, d.id AS deal_id",
+                    "deal_stage_history h JOIN deals d ON d.id = h.deal_id " +
+                    "LEFT JOIN pipeline_stages fs ON fs.id = h.from_stage_id " +
+                    "LEFT JOIN pipeline_stages ts ON ts.id = h.to_stage_id",
+                    "d.tenant_id = :tenantId AND d.contact_id = :customerId",
+                    "h.created_at", "h.id"));
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final CustomerRepository customerRepository;
+    
+    @Transactional(readOnly = true)
+    public CursorPage<TimelineItemDTO> getTimeline(UUID customerId, Set<String> sources, String cursor, int size) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        if (customerRepository.findExistingIds(tenantId, List.of(customerId)).isEmpty()) {
+            throw new ResourceNotFoundException("Customer", "id", customerId);
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("customerId", customerId)
+                .addValue("userId", currentUser.getId());
+        Map<String, TimelineMerger.Fetcher> fetchers = new LinkedHashMap<>();
+        for (TimelineSource source : SOURCES) {
+            if (sources == null || sources.isEmpty() || sources.contains(source.name())) {
+                fetchers.put(source.name(), (after, limit) -> source.fetch(jdbcTemplate, params, after, limit));
+            }
+        }
+        if (fetchers.isEmpty()) {
+            throw new BadRequestException("Unknown timeline sources: " + sources);
+        }
+        
+        Map<String, TimelinePosition> positions = TimelineCursor.decode(cursor);
+        TimelineMerger.Page page = TimelineMerger.merge(fetchers, positions, pageSize);
+        return CursorPage.of(page.items(), page.hasMore() ? TimelineCursor.encode(page.positions()) : null);
+    }
+}
@@ -0,0 +1,110 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.customer.CustomerDTO;
+import com.neobit.crm.dto.task.TaskDTO;
+import com.neobit.crm.event.TenantDataChangedEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns tenant change events into increments of the dashboard figures returned by
+ * {@link DashboardService#getDashboardStats()}. Nested figures use dotted keys,
+ * e.g. {@code interactionsByType.CALL}.
+ */
+final class DashboardDeltas {
+    
+    static final String BY_TYPE_PREFIX = "interactionsByType.";
+    
+    private DashboardDeltas() {
+    }
+    
+    /**
+     * Returns the increments caused by {@code event}; empty when it changes no count.
+     */
+    static Map<String, Long> of(TenantDataChangedEvent event) {
+        Map<String, Long> changes = new HashMap<>();
+        switch (event.eventType()) {
+            case "customer.created" -> {
+                add(changes, "totalCustomers", 1);
+                if (event.data() instanceof CustomerDTO customer && Boolean.TRUE.equals(customer.getIsLead())) {
+                    add(changes, "totalLeads", 1);
+                }
+            }
+            case "customer.updated" -> {
+                if (event.data() instanceof CustomerDTO customer && event.previous() != null) {
+                    boolean wasLead = Boolean.TRUE.equals(previous(event, "isLead"));
+                    add(changes, "totalLeads", (Boolean.TRUE.equals(customer.getIsLead()) ? 1 : 0) - (wasLead ? 1 : 0));
+                }
+            }
+            case "customer.deleted" -> {
+                add(changes, "totalCustomers", -1);
+                if (Boolean.TRUE.equals(previous(event, "isLead"))) {
+                    add(changes, "totalLeads", -1);
+                }
+            }
+            case "account.created" -> add(changes, "totalAccounts", 1);
+            case "account.deleted" -> add(changes, "totalAccounts", -1);
+            case "task.created" -> {
+                add(changes, "totalTasks", 1);
+                if (event.data() instanceof TaskDTO task && "pending".equals(task.getStatus())) {
+                    add(changes, "pendingTasks", 1);
+                }
+            }
+            case "task.completed" -> {
+                if ("pending".equals(previous(event, "status"))) {
+                    add(changes, "pendingTasks", -1);
+                }
+            }
+            case "task.deleted" -> {
+                add(changes, "totalTasks", -1);
+                if ("pending".equals(previous(event, "status"))) {
+                    add(changes, "pendingTasks", -1);
+                }
+            }
+            case "interaction.rolled_up" -> {
+                if (event.data() instanceof Map<?, ?> rolledUp) {
+                    if (rolledUp.get("byType") instanceof Map<?, ?> byType) {
+                        byType.forEach((type, count) -> {
+                            add(changes, BY_TYPE_PREFIX + type, ((Number) count).longValue());
+                            add(changes, "totalInteractions", ((Number) count).longValue());
+                        });
+                    }
+                    if (rolledUp.get("recent") instanceof Number recent) {
+                        add(changes, "recentInteractions", recent.longValue());
+                    }
+                }
+            }
+            default -> {
+                // Changes nothing the dashboard counts
+            }
+        }
+        changes.values().removeIf(amount -> amount == 0);
+        return changes;
+    }
+    
+    /**
+     * Flattens {@link DashboardService#getDashboardStats()} output into dotted keys.
+     */
+    static Map<String, Long> flatten(Map<String, Object> stats) {
+        Map<String, Long> flat = new HashMap<>();
+        stats.forEach((name, value) -> {
+            if (value instanceof Number number) {
+                flat.put(name, number.longValue());
+            } else if (value instanceof Map<?, ?> nested) {
+                nested.forEach((key, count) -> flat.put(name + "." + key, ((Number) count).longValue()));
+            }
+        });
+        return flat;
+    }
+    
+    private static Object previous(TenantDataChangedEvent event, String field) {
+        return event.previous() instanceof Map<?, ?> previous ? previous.get(field) : null;
+    }
+    
+    private static void add(Map<String, Long> changes, String figure, long amount) {
+        if (amount != 0) {
+            changes.merge(figure, amount, Long::sum);
+        }
+    }
+}
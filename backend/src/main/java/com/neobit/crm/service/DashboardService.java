@@ -1,54 +1,87 @@
 package com.neobit.crm.service;
 
-import com.neobit.crm.repository.*;
+import com.neobit.crm.cache.DashboardStatsCache;
 import com.neobit.crm.security.TenantContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 
-import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class DashboardService {
     
-    private final CustomerRepository customerRepository;
-    private final AccountRepository accountRepository;
-    private final InteractionRepository interactionRepository;
-    private final TaskRepository taskRepository;
+    /**
+     * Every dashboard figure in one round trip: one row per interaction type, with
+     * the customer, account and task counts repeated on each row.
+     */
+    private static final String STATS_SQL =
+            "WITH c AS (SELECT count(*) AS total, count(*) FILTER (WHERE is_lead) AS leads " +
+            "FROM customers WHERE tenant_id = :tenantId), " +
+            "a AS (SELECT count(*) AS total FROM accounts WHERE tenant_id = :tenantId), " +
+            "t AS (SELECT count(*) AS total, count(*) FILTER (WHERE status = 'pending') AS pending " +
+            "FROM tasks WHERE tenant_id = :tenantId), " +
+            "i AS (SELECT type::text AS type, sum(interaction_count) AS total, " +
+            "COALESCE(sum(interaction_count) FILTER (WHERE day >= :since), 0) AS recent " +
+            "FROM interaction_daily_rollups WHERE tenant_id = :tenantId GROUP BY type) " +
+            "SELECT c.total AS customers, c.leads, a.total AS accounts, t.total AS tasks, t.pending, " +
+            "i.type, i.total AS interactions, i.recent " +
+            "FROM c CROSS JOIN a CROSS JOIN t LEFT JOIN i ON true";
     
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DashboardStatsCache statsCache;
+    
+    /**
+     * Dashboard statistics of the current tenant, shared by every request until a
+     * counted entity changes.
+     */
     public Map<String, Object> getDashboardStats() {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Instant last7Days = Instant.now().minus(7, ChronoUnit.DAYS);
+        return statsCache.get(tenantId, () -> computeStats(tenantId));
+    }
+    
+    /**
+     * Runs outside a read-only transaction, so on the primary: a cached result read
+     * from a lagging replica right after an invalidation would stay stale until the
+     * next change.
+     */
+    Map<String, Object> computeStats(UUID tenantId) {
+        // Rollups are per UTC day, so "recent" is today and the six days before it
+        LocalDate last7Days = LocalDate.now(ZoneOffset.UTC).minusDays(6);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("since", Date.valueOf(last7Days));
         
         Map<String, Object> stats = new HashMap<>();
-        
-        // Customer stats
-        stats.put("totalCustomers", customerRepository.countByTenantId(tenantId));
-        stats.put("totalLeads", customerRepository.countLeadsByTenantId(tenantId));
-        
-        // Account stats
-        stats.put("totalAccounts", accountRepository.countByTenantId(tenantId));
-        
-        // Interaction stats
-        stats.put("totalInteractions", interactionRepository.countByTenantId(tenantId));
-        stats.put("recentInteractions", interactionRepository.countRecentByTenantId(tenantId, last7Days));
-        
-        // Task stats
-        stats.put("totalTasks", taskRepository.countByTenantId(tenantId));
-        stats.put("pendingTasks", taskRepository.countPendingByTenantId(tenantId));
-        
-        // Interaction breakdown by type
-        Map<String, Long> interactionsByType = new HashMap<>();
-        interactionRepository.countByType(tenantId).forEach(row -> {
-            interactionsByType.put(row[0].toString(), (Long) row[1]);
+        Map<String, Long> interactionsByType = new TreeMap<>();
+        long[] interactions = new long[2];
+        jdbcTemplate.query(STATS_SQL, params, rs -> {
+            stats.put("totalCustomers", rs.getLong("customers"));
+            stats.put("totalLeads", rs.getLong("leads"));
+            stats.put("totalAccounts", rs.getLong("accounts"));
+            stats.put("totalTasks", rs.getLong("tasks"));
+            stats.put("pendingTasks", rs.getLong("pending"));
+            String type = rs.getString("type");
+            if (type != null) {
+                long total = rs.getLong("interactions");
+                interactionsByType.put(type.toUpperCase(Locale.ROOT), total);
+                interactions[0] += total;
+                interactions[1] += rs.getLong("recent");
+            }
         });
-        stats.put("interactionsByType", interactionsByType);
-        
+        stats.put("totalInteractions", interactions[0]);
+        stats.put("recentInteractions", interactions[1]);
+        stats.put("interactionsByType", Collections.unmodifiableMap(interactionsByType));
         return stats;
     }
 }
-
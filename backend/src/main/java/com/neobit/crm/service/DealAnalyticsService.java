@@ -0,0 +1,130 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.analytics.DealAnalyticsStore;
+import com.neobit.crm.analytics.DealColumns;
+import com.neobit.crm.analytics.DealDimension;
+import com.neobit.crm.analytics.DealFilter;
+import com.neobit.crm.dto.deal.DealPivotDTO;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.security.TenantContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pipeline pivots (count, amount and probability-weighted amount of deals grouped
+ * by up to three dimensions) answered from {@link DealAnalyticsStore} rather than
+ * the database. Amounts are summed as stored, so totals across currencies only
+ * mean something when currency is one of the grouped dimensions.
+ */
+@Service
+public class DealAnalyticsService {
+    
+    private static final Comparator<String> KEY_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+    
+    private final DealAnalyticsStore store;
+    private final int parallelThreshold;
+    
+    public DealAnalyticsService(DealAnalyticsStore store,
+                                @Value("${app.deal-analytics.parallel-threshold:65536}") int parallelThreshold) {
+        this.store = store;
+        this.parallelThreshold = parallelThreshold;
+    }
+    
+    public DealPivotDTO pivot(List<String> groupBy, List<UUID> pipelineIds, List<UUID> stageIds, List<UUID> ownerIds,
+                              List<String> statuses, List<String> currencies, LocalDate closeFrom, LocalDate closeTo) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        List<DealDimension> dimensions = parseDimensions(groupBy);
+        if (closeFrom != null && closeTo != null && closeFrom.isAfter(closeTo)) {
+            throw new BadRequestException("closeFrom must not be after closeTo");
+        }
+        
+        Map<DealDimension, List<String>> values = new EnumMap<>(DealDimension.class);
+        values.put(DealDimension.PIPELINE, asStrings(pipelineIds));
+        values.put(DealDimension.STAGE, asStrings(stageIds));
+        values.put(DealDimension.OWNER, asStrings(ownerIds));
+        values.put(DealDimension.STATUS, statuses != null
+                ? statuses.stream().map(s -> s.toUpperCase(Locale.ROOT)).toList() : null);
+        values.put(DealDimension.CURRENCY, currencies != null
+                ? currencies.stream().map(c -> c.toUpperCase(Locale.ROOT)).toList() : null);
+        DealFilter filter = DealFilter.of(values,
+                closeFrom != null ? (int) closeFrom.toEpochDay() : null,
+                closeTo != null ? (int) closeTo.toEpochDay() : null);
+        
+        List<DealColumns.Group> groups = store.read(tenantId, columns -> columns.pivot(dimensions, filter, parallelThreshold));
+        
+        List<DealPivotDTO.Row> rows = new ArrayList<>(groups.size());
+        long count = 0;
+        long amountCents = 0;
+        long weightedBasis = 0;
+        for (DealColumns.Group group : groups) {
+            rows.add(toRow(group.keys(), group.count(), group.amountCents(), group.weightedBasis()));
+            count += group.count();
+            amountCents = Math.addExact(amountCents, group.amountCents());
+            weightedBasis = Math.addExact(weightedBasis, group.weightedBasis());
+        }
+        rows.sort(Comparator.comparing((DealPivotDTO.Row row) -> row.getKeys(), this::compareKeys));
+        
+        return DealPivotDTO.builder()
+                .dimensions(dimensions.stream().map(DealDimension::label).toList())
+                .rows(rows)
+                .totals(toRow(List.of(), count, amountCents, weightedBasis))
+                .build();
+    }
+    
+    private List<DealDimension> parseDimensions(List<String> groupBy) {
+        List<DealDimension> dimensions = new ArrayList<>();
+        if (groupBy == null) {
+            return dimensions;
+        }
+        for (String name : groupBy) {
+            DealDimension dimension;
+            try {
+                dimension = DealDimension.parse(name);
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Unknown dimension: " + name);
+            }
+            if (dimensions.contains(dimension)) {
+                throw new BadRequestException("Dimension grouped twice: " + name);
+            }
+            dimensions.add(dimension);
+        }
+        if (dimensions.size() > DealColumns.MAX_GROUP_BY) {
+            throw new BadRequestException("At most " + DealColumns.MAX_GROUP_BY + " dimensions can be grouped");
+        }
+        return dimensions;
+    }
+    
+    private int compareKeys(List<String> a, List<String> b) {
+        for (int i = 0; i < a.size(); i++) {
+            int c = KEY_ORDER.compare(a.get(i), b.get(i));
+            if (c != 0) {
+                return c;
+            }
+        }
+        return 0;
+    }
+    
+    private static DealPivotDTO.Row toRow(List<String> keys, long count, long amountCents, long weightedBasis) {
+        return DealPivotDTO.Row.builder()
+                .keys(keys)
+                .count(count)
+                .amount(BigDecimal.valueOf(amountCents, 2))
+                .weightedAmount(BigDecimal.valueOf(weightedBasis, 4).setScale(2, RoundingMode.HALF_UP))
+                .build();
+    }
+    
+    private static List<String> asStrings(List<UUID> ids) {
+        return ids != null ? ids.stream().map(UUID::toString).toList() : null;
+    }
+}
@@ -0,0 +1,463 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.common.CursorPage;
+import com.neobit.crm.dto.deal.DealBoardDTO;
+import com.neobit.crm.dto.deal.DealCardDTO;
+import com.neobit.crm.dto.deal.DealMoveDTO;
+import com.neobit.crm.dto.deal.MoveDealRequest;
+import com.neobit.crm.dto.deal.StageOrderDTO;
+import com.neobit.crm.entity.Deal;
+import com.neobit.crm.entity.PipelineStage;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.ConflictException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.repository.DealRepository;
+import com.neobit.crm.repository.PipelineStageRepository;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.service.board.DealBoardCursor;
+import com.neobit.crm.service.board.DealStageMaintenanceJob;
+import com.neobit.crm.service.board.RankKeys;
+import com.neobit.crm.service.board.RottingCursor;
+import com.neobit.crm.service.board.StageOrder;
+import com.neobit.crm.service.velocity.StageVelocityWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Pipeline boards: one column per stage holding its first cards plus the count
+ * and amount of all its deals. The whole board is one statement that numbers deals
+ * within their stage with a window function; further cards of a stage are
+ * keyset-paged with {@link DealBoardCursor}. Abandoned deals are left off the board.
+ *
+ * Cards and stages are ordered by {@link RankKeys}, so a drag and drop writes only
+ * the moved row. Moving a card across stages goes through {@link Deal#moveToStage};
+ * either way only the moved card and the totals of the stages it touched are
+ * broadcast, as {@code deal.moved}. The deal's {@code @Version} makes concurrent
+ * moves of one card, or a move racing a rebalance, fail with a conflict instead
+ * of silently losing one of them.
+ *
+ * Cards carry {@code rotsAt}; a card whose {@code rotsAt} has passed is rotting.
+ */
+@Service
+@RequiredArgsConstructor
+public class DealBoardService {
+    
+    private static final int MAX_CARDS = 100;
+    
+    private static final String CARD_COLUMNS =
+            "d.id, d.deal_number, d.name, d.stage_id, d.board_rank, d.version, d.amount, d.currency, " +
+            "d.probability, d.status, d.expected_close_date, d.contact_id, d.owner_id, " +
+            "nullif(trim(concat_ws(' ', u.first_name, u.last_name)), '') AS owner_name, " +
+            "d.days_in_stage, d.rots_at, d.last_activity_at, d.created_at";
+    
+    private static final String ON_BOARD = "lower(d.status) <> 'abandoned'";
+    
+    private static final String BOARD_SQL =
+            "SELECT p.id AS pipeline_id, p.name AS pipeline_name, s.id AS column_id, s.name AS column_name, " +
+            "s.board_rank AS column_rank, s.position, s.color, s.win_probability, s.is_won_stage, s.is_lost_stage, " +
+            "d.stage_count, d.stage_amount, " + CARD_COLUMNS + " " +
+            "FROM pipelines p " +
+            "LEFT JOIN pipeline_stages s ON s.pipeline_id = p.id " +
+            "LEFT JOIN (SELECT d.*, " +
+            "row_number() OVER (PARTITION BY d.stage_id ORDER BY d.board_rank, d.id) AS rn, " +
+            "count(*) OVER (PARTITION BY d.stage_id) AS stage_count, " +
+            "coalesce(sum(d.amount) OVER (PARTITION BY d.stage_id), 0) AS stage_amount " +
+            "FROM deals d WHERE d.tenant_id = :tenantId AND d.pipeline_id = :pipelineId AND " + ON_BOARD + ") d " +
+            "ON d.stage_id = s.id AND d.rn <= :perStage " +
+            "LEFT JOIN users u ON u.id = d.owner_id " +
+            "WHERE p.id = :pipelineId AND p.tenant_id = :tenantId " +
+            "ORDER BY s.board_rank NULLS LAST, s.position, s.id, d.rn";
+    
+    private static final String STAGE_PAGE_SQL =
+            "SELECT " + CARD_COLUMNS + " FROM deals d LEFT JOIN users u ON u.id = d.owner_id " +
+            "WHERE d.tenant_id = :tenantId AND d.stage_id = :stageId AND " + ON_BOARD;
+    
+    private static final String STAGE_TOTALS_SQL =
+            "SELECT d.stage_id, count(*) AS deal_count, coalesce(sum(d.amount), 0) AS total_amount FROM deals d " +
+            "WHERE d.tenant_id = :tenantId AND d.stage_id IN (:stageIds) AND " + ON_BOARD + " GROUP BY d.stage_id";
+    
+    private static final String ROTTING_SQL =
+            "SELECT " + CARD_COLUMNS + " FROM deals d LEFT JOIN users u ON u.id = d.owner_id " +
+            "WHERE d.tenant_id = :tenantId AND d.rots_at <= :now";
+    
+    private static final String NEXT_RANK_SQL =
+            "SELECT d.board_rank FROM deals d WHERE d.tenant_id = :tenantId AND d.stage_id = :stageId " +
+            "AND d.id <> :dealId";
+    
+    private static final String HISTORY_SQL =
+            "INSERT INTO deal_stage_history (deal_id, from_stage_id, to_stage_id, changed_by, duration_seconds) " +
+            "VALUES (:dealId, :fromStageId, :toStageId, :changedBy, :durationSeconds)";
+    
+    private static final RowMapper<DealCardDTO> CARD_MAPPER = (rs, rowNum) -> card(rs);
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final DealRepository dealRepository;
+    private final PipelineStageRepository stageRepository;
+    private final WebSocketNotificationService webSocketNotificationService;
+    private final StageVelocityWriter velocityWriter;
+    
+    @Transactional(readOnly = true)
+    public DealBoardDTO getBoard(UUID pipelineId, int perStage) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        int limit = pageSize(perStage);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("pipelineId", pipelineId)
+                .addValue("perStage", limit);
+        
+        DealBoardDTO board = new DealBoardDTO();
+        Map<UUID, DealBoardDTO.Stage> stages = new LinkedHashMap<>();
+        jdbcTemplate.query(BOARD_SQL, params, rs -> {
+            if (board.getPipelineId() == null) {
+                board.setPipelineId(rs.getObject("pipeline_id", UUID.class));
+                board.setName(rs.getString("pipeline_name"));
+            }
+            UUID stageId = rs.getObject("column_id", UUID.class);
+            if (stageId == null) {
+                // Pipeline without stages
+                return;
+            }
+            DealBoardDTO.Stage stage = stages.get(stageId);
+            if (stage == null) {
+                stage = DealBoardDTO.Stage.builder()
+                        .id(stageId)
+                        .name(rs.getString("column_name"))
+                        .rank(rs.getString("column_rank"))
+                        .position(rs.getInt("position"))
+                        .color(rs.getString("color"))
+                        .winProbability((Integer) rs.getObject("win_probability"))
+                        .wonStage(rs.getBoolean("is_won_stage"))
+                        .lostStage(rs.getBoolean("is_lost_stage"))
+                        .dealCount(rs.getLong("stage_count"))
+                        .totalAmount(rs.getObject("stage_amount") != null ? rs.getBigDecimal("stage_amount") : BigDecimal.ZERO)
+                        .deals(new ArrayList<>())
+                        .build();
+                stages.put(stageId, stage);
+            }
+            if (rs.getObject("id") != null) {
+                stage.getDeals().add(card(rs));
+            }
+        });
+        if (board.getPipelineId() == null) {
+            throw new ResourceNotFoundException("Pipeline", "id", pipelineId);
+        }
+        for (DealBoardDTO.Stage stage : stages.values()) {
+            List<DealCardDTO> deals = stage.getDeals();
+            if (stage.getDealCount() > deals.size() && !deals.isEmpty()) {
+                stage.setNextCursor(cursorAfter(deals.get(deals.size() - 1)));
+            }
+        }
+        board.setStages(new ArrayList<>(stages.values()));
+        return board;
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<DealCardDTO> getStageDeals(UUID stageId, String cursor, int size) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        stageRepository.findByIdAndTenantId(stageId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("PipelineStage", "id", stageId));
+        int limit = pageSize(size);
+        DealBoardCursor after = DealBoardCursor.decode(cursor);
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("stageId", stageId)
+                .addValue("limit", limit + 1);
+        StringBuilder sql = new StringBuilder(STAGE_PAGE_SQL);
+        if (after != null) {
+            sql.append(" AND (d.board_rank, d.id) > (:afterRank, :afterId)");
+            params.addValue("afterRank", after.rank())
+                    .addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY d.board_rank, d.id LIMIT :limit");
+        
+        List<DealCardDTO> cards = jdbcTemplate.query(sql.toString(), params, CARD_MAPPER);
+        if (cards.size() <= limit) {
+            return CursorPage.of(cards, null);
+        }
+        List<DealCardDTO> page = new ArrayList<>(cards.subList(0, limit));
+        return CursorPage.of(page, cursorAfter(page.get(limit - 1)));
+    }
+    
+    /**
+     * Open deals that have started rotting, longest rotting first, optionally of one
+     * pipeline or owner. Read from the partial rotting indexes kept by
+     * {@link DealStageMaintenanceJob}.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<DealCardDTO> getRottingDeals(UUID pipelineId, UUID ownerId, String cursor, int size) {
+        int limit = pageSize(size);
+        RottingCursor after = RottingCursor.decode(cursor);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", TenantContext.getCurrentTenant())
+                .addValue("now", Timestamp.from(Instant.now()))
+                .addValue("limit", limit + 1);
+        StringBuilder sql = new StringBuilder(ROTTING_SQL);
+        if (ownerId != null) {
+            sql.append(" AND d.owner_id = :ownerId");
+            params.addValue("ownerId", ownerId);
+        }
+        if (pipelineId != null) {
+            sql.append(" AND d.pipeline_id = :pipelineId");
+            params.addValue("pipelineId", pipelineId);
+        }
+        if (after != null) {
+            sql.append(" AND (d.rots_at, d.id) > (:afterRotsAt, :afterId)");
+            params.addValue("afterRotsAt", Timestamp.from(after.rotsAt()))
+                    .addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY d.rots_at, d.id LIMIT :limit");
+        
+        List<DealCardDTO> cards = jdbcTemplate.query(sql.toString(), params, CARD_MAPPER);
+        if (cards.size() <= limit) {
+            return CursorPage.of(cards, null);
+        }
+        List<DealCardDTO> page = new ArrayList<>(cards.subList(0, limit));
+        DealCardDTO last = page.get(limit - 1);
+        return CursorPage.of(page, new RottingCursor(last.getRotsAt(), last.getId()).encode());
+    }
+    
+    /**
+     * Drops a card into {@code request.stageId} directly below {@code afterDealId},
+     * or on top of the column when that is null; only the moved deal is written.
+     */
+    @Transactional
+    public DealMoveDTO moveDeal(UUID dealId, MoveDealRequest request) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        UUID stageId = request.getStageId();
+        Deal deal = dealRepository.findByIdAndTenantId(dealId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("Deal", "id", dealId));
+        if (request.getVersion() != null && !request.getVersion().equals(deal.getVersion())) {
+            throw new ConflictException("Deal was changed by someone else; reload the board");
+        }
+        PipelineStage stage = stageRepository.findByIdAndTenantId(stageId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("PipelineStage", "id", stageId));
+        if (!stage.getPipeline().getId().equals(deal.getPipeline().getId())) {
+            throw new BadRequestException("Stage belongs to a different pipeline");
+        }
+        
+        String rank = rankBelow(tenantId, dealId, stageId, request.getAfterDealId());
+        PipelineStage fromStage = deal.getStage();
+        UUID fromStageId = fromStage.getId();
+        boolean stageChanged = !fromStageId.equals(stageId);
+        Instant enteredAt = deal.getStageEnteredAt();
+        Deal.DealStatus previousStatus = deal.getStatus();
+        String previousRank = deal.getBoardRank();
+        if (stageChanged) {
+            deal.moveToStage(stage);
+        }
+        deal.setBoardRank(rank);
+        Deal savedDeal = dealRepository.saveAndFlush(deal);
+        if (stageChanged) {
+            Integer durationSeconds = enteredAt != null
+                    ? (int) Math.min(Integer.MAX_VALUE, Duration.between(enteredAt, savedDeal.getStageEnteredAt()).getSeconds())
+                    : null;
+            jdbcTemplate.update(HISTORY_SQL, new MapSqlParameterSource()
+                    .addValue("dealId", dealId)
+                    .addValue("fromStageId", fromStageId)
+                    .addValue("toStageId", stageId)
+                    .addValue("changedBy", currentUserId())
+                    .addValue("durationSeconds", durationSeconds));
+            velocityWriter.recordTransition(tenantId, fromStage, stage, savedDeal.getStageEnteredAt(), durationSeconds);
+        }
+        
+        DealMoveDTO move = DealMoveDTO.builder()
+                .deal(card(savedDeal))
+                .fromStageId(fromStageId)
+                .toStageId(stageId)
+                .stages(totals(tenantId, stageChanged ? List.of(fromStageId, stageId) : List.of(stageId)))
+                .build();
+        Map<String, Object> previous = new HashMap<>();
+        previous.put("stageId", fromStageId);
+        previous.put("status", previousStatus);
+        previous.put("rank", previousRank);
+        webSocketNotificationService.notifyTenant(tenantId, "deal.moved", move, previous);
+        return move;
+    }
+    
+    /**
+     * Moves a stage column to directly after {@code afterStageId}, or to the front
+     * when that is null. Only the moved stage is written, unless the pipeline still
+     * has stages without a rank or with overlong ones; then all of its stages, which
+     * are few, are ranked afresh in their current order first.
+     */
+    @Transactional
+    public StageOrderDTO moveStage(UUID stageId, UUID afterStageId) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        PipelineStage stage = stageRepository.findByIdAndTenantId(stageId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("PipelineStage", "id", stageId));
+        List<PipelineStage> stages = new ArrayList<>(
+                stageRepository.findByTenantIdAndPipelineId(tenantId, stage.getPipeline().getId()));
+        stages.sort(StageOrder.COMPARATOR);
+        
+        boolean respread = stages.stream().anyMatch(s -> s.getBoardRank() == null
+                || s.getBoardRank().length() > RankKeys.MAX_LENGTH);
+        List<PipelineStage> changed = new ArrayList<>();
+        if (respread) {
+            List<String> ranks = RankKeys.spread(stages.size());
+            for (int i = 0; i < stages.size(); i++) {
+                stages.get(i).setBoardRank(ranks.get(i));
+            }
+            changed.addAll(stages);
+        }
+        
+        stages.remove(stage);
+        int index = 0;
+        if (afterStageId != null) {
+            if (afterStageId.equals(stageId)) {
+                throw new BadRequestException("A stage cannot be placed after itself");
+            }
+            PipelineStage after = stages.stream().filter(s -> s.getId().equals(afterStageId)).findFirst()
+                    .orElseThrow(() -> new BadRequestException("afterStageId is not a stage of the same pipeline"));
+            index = stages.indexOf(after) + 1;
+        }
+        String before = index > 0 ? stages.get(index - 1).getBoardRank() : null;
+        String next = index < stages.size() ? stages.get(index).getBoardRank() : null;
+        stage.setBoardRank(RankKeys.between(before, next));
+        if (!respread) {
+            changed.add(stage);
+        }
+        stageRepository.saveAll(changed);
+        
+        StageOrderDTO order = StageOrderDTO.builder()
+                .pipelineId(stage.getPipeline().getId())
+                .stages(changed.stream()
+                        .map(s -> new StageOrderDTO.Entry(s.getId(), s.getBoardRank()))
+                        .toList())
+                .build();
+        webSocketNotificationService.notifyTenant(tenantId, "pipeline.stages_reordered", order);
+        return order;
+    }
+    
+    /**
+     * Rank for a card dropped below {@code afterDealId} in a stage, between that card
+     * and whichever card currently follows it, ignoring the moved card itself.
+     */
+    private String rankBelow(UUID tenantId, UUID dealId, UUID stageId, UUID afterDealId) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("stageId", stageId)
+                .addValue("dealId", dealId);
+        String above = null;
+        StringBuilder sql = new StringBuilder(NEXT_RANK_SQL);
+        if (afterDealId != null) {
+            if (afterDealId.equals(dealId)) {
+                throw new BadRequestException("A deal cannot be placed below itself");
+            }
+            List<String> ranks = jdbcTemplate.queryForList(
+                    "SELECT d.board_rank FROM deals d WHERE d.id = :afterDealId AND d.tenant_id = :tenantId " +
+                    "AND d.stage_id = :stageId", params.addValue("afterDealId", afterDealId), String.class);
+            if (ranks.isEmpty()) {
+                throw new BadRequestException("afterDealId is not a deal of the target stage");
+            }
+            above = ranks.get(0);
+            sql.append(" AND d.board_rank > :above");
+            params.addValue("above", above);
+        }
+        sql.append(" ORDER BY d.board_rank LIMIT 1");
+        List<String> next = jdbcTemplate.queryForList(sql.toString(), params, String.class);
+        return RankKeys.between(above, next.isEmpty() ? null : next.get(0));
+    }
+    
+    private List<DealMoveDTO.StageTotals> totals(UUID tenantId, List<UUID> stageIds) {
+        Map<UUID, DealMoveDTO.StageTotals> totals = new LinkedHashMap<>();
+        stageIds.forEach(id -> totals.put(id, new DealMoveDTO.StageTotals(id, 0, BigDecimal.ZERO)));
+        jdbcTemplate.query(STAGE_TOTALS_SQL, new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("stageIds", stageIds), rs -> {
+            DealMoveDTO.StageTotals stage = totals.get(rs.getObject("stage_id", UUID.class));
+            stage.setDealCount(rs.getLong("deal_count"));
+            stage.setTotalAmount(rs.getBigDecimal("total_amount"));
+        });
+        return new ArrayList<>(totals.values());
+    }
+    
+    private static int pageSize(int requested) {
+        if (requested < 1) {
+            throw new BadRequestException("Page size must be positive");
+        }
+        return Math.min(requested, MAX_CARDS);
+    }
+    
+    private static String cursorAfter(DealCardDTO card) {
+        return new DealBoardCursor(card.getRank(), card.getId()).encode();
+    }
+    
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal user ? user.getId() : null;
+    }
+    
+    private static DealCardDTO card(ResultSet rs) throws SQLException {
+        Date closeDate = rs.getDate("expected_close_date");
+        Timestamp rotsAt = rs.getTimestamp("rots_at");
+        Timestamp lastActivityAt = rs.getTimestamp("last_activity_at");
+        Timestamp createdAt = rs.getTimestamp("created_at");
+        String status = rs.getString("status");
+        return DealCardDTO.builder()
+                .id(rs.getObject("id", UUID.class))
+                .dealNumber(rs.getString("deal_number"))
+                .name(rs.getString("name"))
+                .stageId(rs.getObject("stage_id", UUID.class))
+                .rank(rs.getString("board_rank"))
+                .version(rs.getLong("version"))
+                .amount(rs.getBigDecimal("amount"))
+                .currency(rs.getString("currency"))
+                .probability((Integer) rs.getObject("probability"))
+                .status(status != null ? Deal.DealStatus.valueOf(status.toUpperCase(Locale.ROOT)) : null)
+                .expectedCloseDate(closeDate != null ? closeDate.toLocalDate() : null)
+                .contactId(rs.getObject("contact_id", UUID.class))
+                .ownerId(rs.getObject("owner_id", UUID.class))
+                .ownerName(rs.getString("owner_name"))
+                .daysInStage((Integer) rs.getObject("days_in_stage"))
+                .rotsAt(rotsAt != null ? rotsAt.toInstant() : null)
+                .lastActivityAt(lastActivityAt != null ? lastActivityAt.toInstant() : null)
+                .createdAt(createdAt != null ? createdAt.toInstant() : null)
+                .build();
+    }
+    
+    private static DealCardDTO card(Deal deal) {
+        return DealCardDTO.builder()
+                .id(deal.getId())
+                .dealNumber(deal.getDealNumber())
+                .name(deal.getName())
+                .stageId(deal.getStage().getId())
+                .rank(deal.getBoardRank())
+                .version(deal.getVersion())
+                .amount(deal.getAmount())
+                .currency(deal.getCurrency())
+                .probability(deal.getProbability())
+                .status(deal.getStatus())
+                .expectedCloseDate(deal.getExpectedCloseDate())
+                .contactId(deal.getContact() != null ? deal.getContact().getId() : null)
+                .ownerId(deal.getOwner() != null ? deal.getOwner().getId() : null)
+                .ownerName(deal.getOwner() != null ? deal.getOwner().getFullName() : null)
+                .daysInStage(deal.getDaysInStage())
+                .rotsAt(deal.getRotsAt())
+                .lastActivityAt(deal.getLastActivityAt())
+                .createdAt(deal.getCreatedAt())
+                .build();
+    }
+}
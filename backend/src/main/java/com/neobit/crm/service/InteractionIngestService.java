@@ -0,0 +1,284 @@
+package com.neobit.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.neobit.crm.dto.interaction.CreateInteractionRequest;
+import com.neobit.crm.dto.interaction.IngestBatchDTO;
+import com.neobit.crm.dto.interaction.IngestInteractionsRequest;
+import com.neobit.crm.entity.Interaction;
+import com.neobit.crm.entity.InteractionIngestBatch;
+import com.neobit.crm.entity.id.UuidV7Generator;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.exception.TooManyRequestsException;
+import com.neobit.crm.repository.AccountRepository;
+import com.neobit.crm.repository.CustomerRepository;
+import com.neobit.crm.repository.InteractionIngestBatchRepository;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.service.ingest.IngestRecord;
+import com.neobit.crm.service.ingest.InteractionIngestQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Batch interaction ingest for integrations (call logs, synced mail, chat).
+ *
+ * Items are validated in bulk, with customer and account ownership checked
+ * against a short-lived cache, and then queued for {@code InteractionIngestWriter}.
+ * The response is an acknowledgement: a batch id plus per-item rejections. The
+ * batch record, with the accepted records as its payload, is committed before
+ * the acknowledgement, so {@code InteractionIngestReaper} can replay a batch
+ * whose node died before writing it. The record carries the final
+ * inserted/duplicate/failed counts once written. When the queue cannot take the
+ * whole batch the request is refused with 429.
+ */
+@Service
+public class InteractionIngestService {
+    
+    private static final int MAX_TEXT = 500;
+    
+    private static final String SET_PAYLOAD_SQL =
+            "UPDATE interaction_ingest_batches SET payload = ?::jsonb WHERE id = ?";
+    
+    private final InteractionIngestQueue queue;
+    private final InteractionIngestBatchRepository batchRepository;
+    private final CustomerRepository customerRepository;
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int maxBatchSize;
+    private final long retryAfterSeconds;
+    
+    // entity id -> owning tenant id
+    private final Cache<UUID, UUID> customerTenants;
+    private final Cache<UUID, UUID> accountTenants;
+    
+    public InteractionIngestService(InteractionIngestQueue queue,
+                                    InteractionIngestBatchRepository batchRepository,
+                                    CustomerRepository customerRepository,
+                                    AccountRepository accountRepository,
+                                    JdbcTemplate jdbcTemplate,
+                                    PlatformTransactionManager transactionManager,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.interaction-ingest.max-batch-size:5000}") int maxBatchSize,
+                                    @Value("${app.interaction-ingest.retry-after-seconds:5}") long retryAfterSeconds,
+                                    @Value("${app.interaction-ingest.lookup-cache-size:100000}") long lookupCacheSize) {
+        this.queue = queue;
+        this.batchRepository = batchRepository;
+        this.customerRepository = customerRepository;
+        this.accountRepository = accountRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.maxBatchSize = maxBatchSize;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.customerTenants = Caffeine.newBuilder().maximumSize(lookupCacheSize).expireAfterWrite(Duration.ofMinutes(10)).build();
+        this.accountTenants = Caffeine.newBuilder().maximumSize(lookupCacheSize).expireAfterWrite(Duration.ofMinutes(10)).build();
+    }
+    
+    public IngestBatchDTO submit(IngestInteractionsRequest request) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        List<CreateInteractionRequest> items = request.getInteractions();
+        if (items.size() > maxBatchSize) {
+            throw new BadRequestException("Batch exceeds the maximum of " + maxBatchSize + " interactions");
+        }
+        if (items.size() > queue.capacity()) {
+            throw new BadRequestException("Batch exceeds the ingest queue capacity of " + queue.capacity());
+        }
+        
+        Set<UUID> knownCustomers = resolve(tenantId, items, CreateInteractionRequest::getCustomerId,
+                customerTenants, customerRepository::findExistingIds);
+        Set<UUID> knownAccounts = resolve(tenantId, items, CreateInteractionRequest::getAccountId,
+                accountTenants, accountRepository::findExistingIds);
+        
+        UUID batchId = UuidV7Generator.next();
+        Instant now = Instant.now();
+        List<IngestRecord> accepted = new ArrayList<>(items.size());
+        List<IngestBatchDTO.Rejection> rejections = new ArrayList<>();
+        Set<String> seenExternalKeys = new HashSet<>();
+        
+        for (int i = 0; i < items.size(); i++) {
+            CreateInteractionRequest item = items.get(i);
+            String reason = validate(item, knownCustomers, knownAccounts, seenExternalKeys);
+            if (reason != null) {
+                rejections.add(IngestBatchDTO.Rejection.builder()
+                        .index(i)
+                        .externalId(item != null ? item.getExternalId() : null)
+                        .reason(reason)
+                        .build());
+                continue;
+            }
+            accepted.add(toRecord(item, batchId, tenantId, currentUser.getId(), now));
+        }
+        
+        InteractionIngestBatch batch = InteractionIngestBatch.builder()
+                .id(batchId)
+                .tenantId(tenantId)
+                .submittedBy(currentUser.getId())
+                .status(accepted.isEmpty() ? "completed" : "queued")
+                .received(items.size())
+                .accepted(accepted.size())
+                .rejected(rejections.size())
+                .completedAt(accepted.isEmpty() ? now : null)
+                .build();
+        // Committed before queueing: the writer updates this row, and the reaper replays it from the payload
+        String payload = accepted.isEmpty() ? null : json(accepted);
+        transactionTemplate.executeWithoutResult(status -> {
+            batchRepository.save(batch);
+            if (payload != null) {
+                jdbcTemplate.update(SET_PAYLOAD_SQL, payload, batchId);
+            }
+        });
+        
+        if (!queue.offerAll(accepted)) {
+            batchRepository.delete(batch);
+            throw new TooManyRequestsException("Ingest queue is full, retry later", retryAfterSeconds);
+        }
+        
+        IngestBatchDTO dto = toDTO(batch);
+        dto.setRejections(rejections);
+        return dto;
+    }
+    
+    @Transactional(readOnly = true)
+    public IngestBatchDTO getBatch(UUID batchId) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        InteractionIngestBatch batch = batchRepository.findByIdAndTenantId(batchId, tenantId)
+                .orElseThrow(() -> new ResourceNotFoundException("IngestBatch", "id", batchId));
+        return toDTO(batch);
+    }
+    
+    private String validate(CreateInteractionRequest item, Set<UUID> knownCustomers, Set<UUID> knownAccounts,
+                            Set<String> seenExternalKeys) {
+        if (item == null) {
+            return "Interaction is empty";
+        }
+        if (item.getType() == null) {
+            return "Interaction type is required";
+        }
+        if (item.getExternalId() != null) {
+            if (item.getExternalSource() == null) {
+                return "externalSource is required when externalId is set";
+            }
+            if (!seenExternalKeys.add(item.getExternalSource() + '\u0000' + item.getExternalId())) {
+                return "Duplicate externalId within batch";
+            }
+        }
+        if (item.getCustomerId() != null && !knownCustomers.contains(item.getCustomerId())) {
+            return "Customer not found: " + item.getCustomerId();
+        }
+        if (item.getAccountId() != null && !knownAccounts.contains(item.getAccountId())) {
+            return "Account not found: " + item.getAccountId();
+        }
+        if (item.getSubject() != null && item.getSubject().length() > MAX_TEXT) {
+            return "Subject exceeds " + MAX_TEXT + " characters";
+        }
+        return null;
+    }
+    
+    /**
+     * Ids from the batch that belong to the tenant, using the cache first and one
+     * query for the rest.
+     */
+    private Set<UUID> resolve(UUID tenantId, List<CreateInteractionRequest> items,
+                              Function<CreateInteractionRequest, UUID> idOf,
+                              Cache<UUID, UUID> cache,
+                              BiFunction<UUID, Collection<UUID>, List<UUID>> loader) {
+        Set<UUID> known = new HashSet<>();
+        Set<UUID> missing = new HashSet<>();
+        for (CreateInteractionRequest item : items) {
+            UUID id = item != null ? idOf.apply(item) : null;
+            if (id == null) {
+                continue;
+            }
+            UUID owner = cache.getIfPresent(id);
+            if (owner == null) {
+                missing.add(id);
+            } else if (owner.equals(tenantId)) {
+                known.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            for (UUID id : loader.apply(tenantId, missing)) {
+                cache.put(id, tenantId);
+                known.add(id);
+            }
+        }
+        return known;
+    }
+    
+    private IngestRecord toRecord(CreateInteractionRequest item, UUID batchId, UUID tenantId, UUID userId, Instant now) {
+        Interaction.InteractionDirection direction = item.getDirection() != null
+                ? item.getDirection() : Interaction.InteractionDirection.OUTBOUND;
+        Interaction.InteractionStatus status = item.getStatus() != null
+                ? item.getStatus() : Interaction.InteractionStatus.COMPLETED;
+        return new IngestRecord(
+                UuidV7Generator.next(),
+                batchId,
+                tenantId,
+                item.getCustomerId(),
+                item.getAccountId(),
+                userId,
+                item.getType().name().toLowerCase(Locale.ROOT),
+                direction.name().toLowerCase(Locale.ROOT),
+                status.name().toLowerCase(Locale.ROOT),
+                item.getSubject(),
+                item.getDescription(),
+                item.getStartedAt() != null ? item.getStartedAt() : now,
+                item.getEndedAt(),
+                item.getDurationSeconds(),
+                item.getScheduledAt(),
+                item.getLocation(),
+                item.getExternalId(),
+                item.getExternalSource(),
+                item.getMetadata(),
+                item.getTags(),
+                now);
+    }
+    
+    private String json(List<IngestRecord> records) {
+        try {
+            return objectMapper.writeValueAsString(records);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Interactions could not be serialized: " + e.getOriginalMessage());
+        }
+    }
+    
+    private IngestBatchDTO toDTO(InteractionIngestBatch batch) {
+        return IngestBatchDTO.builder()
+                .id(batch.getId())
+                .status(batch.getStatus())
+                .received(batch.getReceived())
+                .accepted(batch.getAccepted())
+                .rejected(batch.getRejected())
+                .inserted(batch.getInserted())
+                .duplicates(batch.getDuplicates())
+                .failed(batch.getFailed())
+                .createdAt(batch.getCreatedAt())
+                .completedAt(batch.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,174 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.common.CursorPage;
+import com.neobit.crm.dto.interaction.InteractionSearchHit;
+import com.neobit.crm.entity.Interaction;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Full-text search over interaction subjects and descriptions.
+ *
+ * The match expression is written exactly like {@code idx_interactions_fulltext}
+ * so PostgreSQL can use the GIN index. Hits are ordered by {@code ts_rank_cd},
+ * then newest first, and paged with a keyset cursor on (rank, created_at, id).
+ * Headlines are only computed for the rows of the returned page. Months that
+ * have been archived out of the database are not searched.
+ */
+@Service
+@RequiredArgsConstructor
+public class InteractionSearchService {
+    
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    private static final String DOCUMENT = "to_tsvector('english', coalesce(i.subject, '') || ' ' || coalesce(i.description, ''))";
+    
+    // Control characters survive ts_headline untouched and cannot appear in escaped HTML
+    private static final String START_SEL = "\u0002";
+    private static final String STOP_SEL = "\u0003";
+    
+    private static final String SEARCH_SQL =
+            "WITH q AS (SELECT websearch_to_tsquery('english', :query) AS query), " +
+            "page AS (" +
+            "  SELECT i.id, i.created_at, ts_rank_cd(" + DOCUMENT + ", q.query) AS rank " +
+            "  FROM interactions i CROSS JOIN q " +
+            "  WHERE i.tenant_id = :tenantId AND " + DOCUMENT + " @@ q.query %s" +
+            "  ORDER BY rank DESC, i.created_at DESC, i.id DESC " +
+            "  LIMIT :limit) " +
+            "SELECT i.id, i.type::text AS type, i.direction::text AS direction, i.status::text AS status, i.subject, " +
+            "  ts_headline('english', coalesce(i.subject, '') || ' ' || coalesce(i.description, ''), q.query, " +
+            "    'StartSel=" + START_SEL + ", StopSel=" + STOP_SEL + ", MaxFragments=2, MaxWords=30, MinWords=10') AS headline, " +
+            "  i.customer_id, c.first_name, c.last_name, i.account_id, a.name AS account_name, p.rank, p.created_at " +
+            "FROM page p " +
+            "JOIN interactions i ON i.id = p.id AND i.created_at = p.created_at " +
+            "CROSS JOIN q " +
+            "LEFT JOIN customers c ON c.id = i.customer_id " +
+            "LEFT JOIN accounts a ON a.id = i.account_id " +
+            "ORDER BY p.rank DESC, p.created_at DESC, p.id DESC";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    @Transactional(readOnly = true)
+    public CursorPage<InteractionSearchHit> search(String query, Interaction.InteractionType type, UUID customerId,
+                                                   Instant from, Instant to, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query is required");
+        }
+        int limit = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        UUID tenantId = TenantContext.getCurrentTenant();
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query.trim())
+                .addValue("tenantId", tenantId)
+                .addValue("limit", limit + 1);
+        StringBuilder filters = new StringBuilder();
+        if (type != null) {
+            filters.append(" AND i.type = CAST(:type AS interaction_type)");
+            params.addValue("type", type.name().toLowerCase(Locale.ROOT));
+        }
+        if (customerId != null) {
+            filters.append(" AND i.customer_id = :customerId");
+            params.addValue("customerId", customerId);
+        }
+        if (from != null) {
+            filters.append(" AND i.created_at >= :from");
+            params.addValue("from", Timestamp.from(from));
+        }
+        if (to != null) {
+            filters.append(" AND i.created_at < :to");
+            params.addValue("to", Timestamp.from(to));
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor after = Cursor.decode(cursor);
+            // Row comparison matches the all-descending ORDER BY
+            filters.append(" AND (ts_rank_cd(").append(DOCUMENT).append(", q.query), i.created_at, i.id)")
+                    .append(" < (CAST(:afterRank AS real), :afterCreatedAt, :afterId)");
+            params.addValue("afterRank", after.rank())
+                    .addValue("afterCreatedAt", Timestamp.from(after.createdAt()))
+                    .addValue("afterId", after.id());
+        }
+        
+        List<InteractionSearchHit> hits = jdbcTemplate.query(String.format(SEARCH_SQL, filters), params,
+                (rs, rowNum) -> toHit(rs));
+        String nextCursor = null;
+        if (hits.size() > limit) {
+            hits = hits.subList(0, limit);
+            InteractionSearchHit last = hits.get(limit - 1);
+            nextCursor = new Cursor(last.getRank(), last.getCreatedAt(), last.getId()).encode();
+        }
+        return CursorPage.of(hits, nextCursor);
+    }
+    
+    private static InteractionSearchHit toHit(ResultSet rs) throws SQLException {
+        String firstName = rs.getString("first_name");
+        String lastName = rs.getString("last_name");
+        String customerName = firstName == null && lastName == null ? null
+                : ((firstName != null ? firstName : "") + " " + (lastName != null ? lastName : "")).trim();
+        return InteractionSearchHit.builder()
+                .id(rs.getObject("id", UUID.class))
+                .type(enumValue(Interaction.InteractionType.class, rs.getString("type")))
+                .direction(enumValue(Interaction.InteractionDirection.class, rs.getString("direction")))
+                .status(enumValue(Interaction.InteractionStatus.class, rs.getString("status")))
+                .subject(rs.getString("subject"))
+                .headline(highlight(rs.getString("headline")))
+                .customerId(rs.getObject("customer_id", UUID.class))
+                .customerName(customerName)
+                .accountId(rs.getObject("account_id", UUID.class))
+                .accountName(rs.getString("account_name"))
+                .rank(rs.getFloat("rank"))
+                .createdAt(rs.getTimestamp("created_at").toInstant())
+                .build();
+    }
+    
+    private static String highlight(String headline) {
+        if (headline == null) {
+            return null;
+        }
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+    
+    private static <E extends Enum<E>> E enumValue(Class<E> type, String value) {
+        return value != null ? Enum.valueOf(type, value.toUpperCase(Locale.ROOT)) : null;
+    }
+    
+    /** Position after the last hit of a page: {@code rank|epochMicros|id}, base64url encoded. */
+    record Cursor(float rank, Instant createdAt, UUID id) {
+        
+        String encode() {
+            long micros = createdAt.getEpochSecond() * 1_000_000L + createdAt.getNano() / 1_000;
+            String raw = Float.toString(rank) + '|' + micros + '|' + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static Cursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                long micros = Long.parseLong(parts[1]);
+                return new Cursor(Float.parseFloat(parts[0]),
+                        Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L),
+                        UUID.fromString(parts[2]));
+            } catch (RuntimeException e) {
+                throw new BadRequestException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package com.neobit.crm.service;
 
+import com.neobit.crm.archive.InteractionArchiveReader;
 import com.neobit.crm.dto.common.PageResponse;
 import com.neobit.crm.dto.interaction.CreateInteractionRequest;
 import com.neobit.crm.dto.interaction.InteractionDTO;
 import com.neobit.crm.entity.*;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.DuplicateResourceException;
 import com.neobit.crm.exception.ResourceNotFoundException;
 import com.neobit.crm.mapper.InteractionMapper;
 import com.neobit.crm.repository.*;
 import com.neobit.crm.security.TenantContext;
 import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.service.rollup.InteractionRollupWriter;
+import com.neobit.crm.service.rollup.RollupKey;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -29,13 +41,18 @@ public class InteractionService {
     private final AccountRepository accountRepository;
     private final UserRepository userRepository;
     private final InteractionMapper interactionMapper;
+    private final InteractionArchiveReader archiveReader;
+    private final CustomerContactTracker contactTracker;
+    private final InteractionRollupWriter rollupWriter;
     
+    @Transactional(readOnly = true)
     public PageResponse<InteractionDTO> getInteractions(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Interaction> page = interactionRepository.findByTenantId(tenantId, pageable);
         return PageResponse.of(page, page.getContent().stream().map(interactionMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public InteractionDTO getInteractionById(UUID interactionId) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Interaction interaction = interactionRepository.findByIdAndTenantId(interactionId, tenantId)
@@ -43,28 +60,60 @@ public class InteractionService {
         return interactionMapper.toDTO(interaction);
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<InteractionDTO> getInteractionsByCustomer(UUID customerId, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Interaction> page = interactionRepository.findByTenantIdAndCustomerId(tenantId, customerId, pageable);
         return PageResponse.of(page, page.getContent().stream().map(interactionMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<InteractionDTO> getInteractionsByAccount(UUID accountId, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Interaction> page = interactionRepository.findByTenantIdAndAccountId(tenantId, accountId, pageable);
         return PageResponse.of(page, page.getContent().stream().map(interactionMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<InteractionDTO> getInteractionsByType(Interaction.InteractionType type, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Interaction> page = interactionRepository.findByTenantIdAndType(tenantId, type, pageable);
         return PageResponse.of(page, page.getContent().stream().map(interactionMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<InteractionDTO> getInteractionsByDateRange(Instant startDate, Instant endDate, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
-        Page<Interaction> page = interactionRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate, pageable);
-        return PageResponse.of(page, page.getContent().stream().map(interactionMapper::toDTO).toList());
+        if (!archiveReader.coversAny(startDate, endDate)) {
+            Page<Interaction> page = interactionRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate, pageable);
+            return PageResponse.of(page, page.getContent().stream().map(interactionMapper::toDTO).toList());
+        }
+        
+        // Live rows are not necessarily newer than archived ones (the default partition
+        // can hold any month), so both sources are merged newest first and the page cut
+        // from the merge; that takes the first offset + size live rows
+        int needed = (int) Math.min(pageable.getOffset() + pageable.getPageSize(), Integer.MAX_VALUE);
+        Page<Interaction> live = interactionRepository.findByTenantIdAndDateRange(tenantId, startDate, endDate,
+                PageRequest.of(0, needed, Sort.by(Sort.Direction.DESC, "createdAt")));
+        List<InteractionDTO> archived = archiveReader.find(tenantId, startDate, endDate);
+        List<InteractionDTO> merged = new ArrayList<>(needed);
+        Iterator<Interaction> liveRows = live.getContent().iterator();
+        Iterator<InteractionDTO> archivedRows = archived.iterator();
+        InteractionDTO nextLive = liveRows.hasNext() ? interactionMapper.toDTO(liveRows.next()) : null;
+        InteractionDTO nextArchived = archivedRows.hasNext() ? archivedRows.next() : null;
+        while (merged.size() < needed && (nextLive != null || nextArchived != null)) {
+            if (nextArchived == null || (nextLive != null && !nextLive.getCreatedAt().isBefore(nextArchived.getCreatedAt()))) {
+                merged.add(nextLive);
+                nextLive = liveRows.hasNext() ? interactionMapper.toDTO(liveRows.next()) : null;
+            } else {
+                merged.add(nextArchived);
+                nextArchived = archivedRows.hasNext() ? archivedRows.next() : null;
+            }
+        }
+        List<InteractionDTO> content = pageable.getOffset() < merged.size()
+                ? merged.subList((int) pageable.getOffset(), merged.size())
+                : List.of();
+        return PageResponse.of(new PageImpl<>(content, pageable, live.getTotalElements() + archived.size()));
     }
     
     @Transactional
@@ -73,6 +122,20 @@ public class InteractionService {
         Tenant tenant = tenantRepository.findById(tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tenant", "id", tenantId));
         
+        // Same idempotency key as batch ingest: a resubmitted external record returns the stored one
+        if (request.getExternalId() != null) {
+            if (request.getExternalSource() == null) {
+                throw new BadRequestException("externalSource is required when externalId is set");
+            }
+            Optional<UUID> existingId = interactionRepository.findIdByExternalKey(tenantId,
+                    request.getExternalSource(), request.getExternalId());
+            if (existingId.isPresent()) {
+                return interactionRepository.findByIdAndTenantId(existingId.get(), tenantId)
+                        .map(interactionMapper::toDTO)
+                        .orElseThrow(() -> new ResourceNotFoundException("Interaction", "id", existingId.get()));
+            }
+        }
+        
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext()
                 .getAuthentication().getPrincipal();
         User user = userRepository.findById(currentUser.getId())
@@ -102,9 +165,8 @@ public class InteractionService {
                     .orElseThrow(() -> new ResourceNotFoundException("Customer", "id", request.getCustomerId()));
             interaction.setCustomer(customer);
             
-            // Update customer's last contacted timestamp
-            customer.setLastContactedAt(Instant.now());
-            customerRepository.save(customer);
+            // Written behind and coalesced, so the customer row is not locked here
+            contactTracker.recordContact(customer.getId(), interaction.getCreatedAt());
         }
         
         if (request.getAccountId() != null) {
@@ -113,7 +175,14 @@ public class InteractionService {
             interaction.setAccount(account);
         }
         
-        return interactionMapper.toDTO(interactionRepository.save(interaction));
+        Interaction saved = interactionRepository.save(interaction);
+        if (saved.getExternalId() != null && interactionRepository.claimExternalKey(tenantId,
+                saved.getExternalSource(), saved.getExternalId(), saved.getId(), saved.getCreatedAt()) == 0) {
+            // Lost a race with a concurrent submission of the same record; roll this one back
+            throw new DuplicateResourceException("Interaction", "externalId", saved.getExternalId());
+        }
+        rollupWriter.record(InteractionRollupWriter.keyOf(saved), 1, durationOf(saved));
+        return interactionMapper.toDTO(saved);
     }
     
     @Transactional
@@ -121,6 +190,8 @@ public class InteractionService {
         UUID tenantId = TenantContext.getCurrentTenant();
         Interaction interaction = interactionRepository.findByIdAndTenantId(interactionId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Interaction", "id", interactionId));
+        RollupKey previousKey = InteractionRollupWriter.keyOf(interaction);
+        long previousDuration = durationOf(interaction);
         
         if (request.getType() != null) interaction.setType(request.getType());
         if (request.getDirection() != null) interaction.setDirection(request.getDirection());
@@ -147,7 +218,13 @@ public class InteractionService {
             interaction.setAccount(account);
         }
         
-        return interactionMapper.toDTO(interactionRepository.save(interaction));
+        Interaction saved = interactionRepository.save(interaction);
+        RollupKey key = InteractionRollupWriter.keyOf(saved);
+        if (!key.equals(previousKey) || durationOf(saved) != previousDuration) {
+            rollupWriter.record(previousKey, -1, -previousDuration);
+            rollupWriter.record(key, 1, durationOf(saved));
+        }
+        return interactionMapper.toDTO(saved);
     }
     
     @Transactional
@@ -156,6 +233,11 @@ public class InteractionService {
         Interaction interaction = interactionRepository.findByIdAndTenantId(interactionId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Interaction", "id", interactionId));
         interactionRepository.delete(interaction);
+        rollupWriter.record(InteractionRollupWriter.keyOf(interaction), -1, -durationOf(interaction));
+    }
+    
+    private static long durationOf(Interaction interaction) {
+        return interaction.getDurationSeconds() != null ? interaction.getDurationSeconds() : 0;
     }
 }
 
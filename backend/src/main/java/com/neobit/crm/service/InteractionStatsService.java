@@ -0,0 +1,101 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.interaction.InteractionStatsDTO;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.security.TenantContext;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Interaction statistics served from {@code interaction_daily_rollups} (one row per
+ * tenant, day, type, direction and user) rather than from the interactions table.
+ * Days are UTC; today's figures trail live writes by the rollup flush interval.
+ */
+@Service
+@RequiredArgsConstructor
+public class InteractionStatsService {
+    
+    private static final String ROLLUP_SQL =
+            "SELECT day, type::text AS type, direction::text AS direction, " +
+            "sum(interaction_count) AS cnt, sum(duration_seconds) AS dur " +
+            "FROM interaction_daily_rollups " +
+            "WHERE tenant_id = :tenantId AND day >= :from AND day <= :to %s" +
+            "GROUP BY day, type, direction ORDER BY day";
+    
+    private static final int DEFAULT_DAYS = 30;
+    private static final int MAX_DAYS = 3660;
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    
+    @Transactional(readOnly = true)
+    public InteractionStatsDTO getStats(LocalDate from, LocalDate to, UUID userId) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (start.plusDays(MAX_DAYS).isBefore(end)) {
+            throw new BadRequestException("Date range is limited to " + MAX_DAYS + " days");
+        }
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("from", Date.valueOf(start))
+                .addValue("to", Date.valueOf(end));
+        String userFilter = "";
+        if (userId != null) {
+            userFilter = "AND user_id = :userId ";
+            params.addValue("userId", userId);
+        }
+        
+        Map<String, Long> byType = new TreeMap<>();
+        Map<String, Long> byDirection = new TreeMap<>();
+        Map<LocalDate, long[]> byDay = new TreeMap<>();
+        long[] totals = new long[2];
+        jdbcTemplate.query(String.format(ROLLUP_SQL, userFilter), params, rs -> {
+            LocalDate day = rs.getDate("day").toLocalDate();
+            long count = rs.getLong("cnt");
+            long duration = rs.getLong("dur");
+            byType.merge(rs.getString("type").toUpperCase(Locale.ROOT), count, Long::sum);
+            String direction = rs.getString("direction");
+            if (direction != null) {
+                byDirection.merge(direction.toUpperCase(Locale.ROOT), count, Long::sum);
+            }
+            long[] dayTotals = byDay.computeIfAbsent(day, d -> new long[2]);
+            dayTotals[0] += count;
+            dayTotals[1] += duration;
+            totals[0] += count;
+            totals[1] += duration;
+        });
+        
+        List<InteractionStatsDTO.DayCount> days = new ArrayList<>(byDay.size());
+        byDay.forEach((day, t) -> days.add(InteractionStatsDTO.DayCount.builder()
+                .day(day)
+                .count(t[0])
+                .durationSeconds(t[1])
+                .build()));
+        return InteractionStatsDTO.builder()
+                .from(start)
+                .to(end)
+                .totalInteractions(totals[0])
+                .totalDurationSeconds(totals[1])
+                .byType(byType)
+                .byDirection(byDirection)
+                .byDay(days)
+                .build();
+    }
+}
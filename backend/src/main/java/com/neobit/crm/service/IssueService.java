@@ -7,6 +7,8 @@ import com.neobit.crm.exception.ResourceNotFoundException;
 import com.neobit.crm.mapper.IssueMapper;
 import com.neobit.crm.repository.IssueRepository;
 import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.service.sequence.TenantSequence;
+import com.neobit.crm.service.sequence.TenantSequenceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -16,6 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -24,6 +27,7 @@ public class IssueService {
 
     private final IssueRepository issueRepository;
     private final IssueMapper issueMapper;
+    private final TenantSequenceService sequenceService;
     // Note: Jira and Linear integrations require Kotlin compilation - disabled for now
     // private final JiraService jiraService;
     // private final LinearService linearService;
@@ -79,8 +83,7 @@ public class IssueService {
         }
         
         // Generate internal key
-        long count = issueRepository.findByTenantId(tenantId, Pageable.unpaged()).getTotalElements();
-        issue.setExternalKey("INT-" + (count + 1));
+        issue.setExternalKey(sequenceService.nextFormatted(UUID.fromString(tenantId), null, TenantSequence.ISSUE));
         
         Issue savedIssue = issueRepository.save(issue);
         log.info("Created issue: {} for tenant: {}", savedIssue.getId(), tenantId);
@@ -0,0 +1,255 @@
+package com.neobit.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobit.crm.dto.dashboard.DashboardDeltaDTO;
+import com.neobit.crm.dto.dashboard.DashboardSnapshotDTO;
+import com.neobit.crm.event.TenantDataChangedEvent;
+import com.neobit.crm.security.TenantContext;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps dashboard figures in memory for tenants someone is watching and pushes
+ * compact deltas to {@code /topic/tenant/{id}/dashboard}.
+ *
+ * Clients load {@link #snapshot()} once, then add each delta whose version is
+ * above the snapshot's. Deltas are derived from {@link TenantDataChangedEvent}s
+ * after commit and relayed to the other nodes over Redis, so every node keeps
+ * its own subscribers current. State is dropped when a tenant has had no
+ * subscribers for the idle grace period, and is periodically checked against the
+ * database; any drift, such as writes that bypass the services or the seven day
+ * window moving at midnight, goes out as an ordinary delta.
+ */
+@Service
+@Slf4j
+public class LiveDashboardService implements MessageListener {
+    
+    static final String CHANNEL = "crm:dashboard:delta";
+    private static final Pattern DASHBOARD_TOPIC = Pattern.compile("^/topic/tenant/([0-9a-fA-F-]{36})/dashboard$");
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentHashMap<UUID, TenantState> states = new ConcurrentHashMap<>();
+    /** Tenant of each dashboard subscription, keyed by session and subscription id */
+    private final ConcurrentHashMap<String, UUID> subscriptions = new ConcurrentHashMap<>();
+    private final DashboardService dashboardService;
+    private final WebSocketNotificationService notificationService;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final long idleGraceMs;
+    
+    public LiveDashboardService(DashboardService dashboardService,
+                                WebSocketNotificationService notificationService,
+                                StringRedisTemplate redisTemplate,
+                                RedisMessageListenerContainer listenerContainer,
+                                ObjectMapper objectMapper,
+                                @Value("${app.dashboard.live.idle-grace-ms:120000}") long idleGraceMs) {
+        this.dashboardService = dashboardService;
+        this.notificationService = notificationService;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.idleGraceMs = idleGraceMs;
+    }
+    
+    @PostConstruct
+    void register() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+    
+    /**
+     * Current figures of the current tenant; starts tracking the tenant if nobody was.
+     */
+    public DashboardSnapshotDTO snapshot() {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        TenantState state = states.get(tenantId);
+        if (state == null) {
+            TenantState loaded = new TenantState(DashboardDeltas.flatten(dashboardService.computeStats(tenantId)));
+            state = states.putIfAbsent(tenantId, loaded);
+            if (state == null) {
+                state = loaded;
+            }
+        }
+        return state.snapshot();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        Map<String, Long> changes = DashboardDeltas.of(event);
+        if (changes.isEmpty()) {
+            return;
+        }
+        apply(event.tenantId(), changes);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(
+                    new RemoteDelta(nodeId, event.tenantId(), changes)));
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Other nodes correct themselves on their next resync
+            log.warn("Failed to relay dashboard delta for tenant {}: {}", event.tenantId(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            RemoteDelta delta = objectMapper.readValue(message.getBody(), RemoteDelta.class);
+            if (!nodeId.equals(delta.node())) {
+                apply(delta.tenantId(), delta.changes());
+            }
+        } catch (Exception e) {
+            log.warn("Ignoring malformed dashboard delta: {}", e.getMessage());
+        }
+    }
+    
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        if (headers.getDestination() == null) {
+            return;
+        }
+        Matcher matcher = DASHBOARD_TOPIC.matcher(headers.getDestination());
+        if (matcher.matches()) {
+            subscriptions.put(headers.getSessionId() + ":" + headers.getSubscriptionId(), UUID.fromString(matcher.group(1)));
+        }
+    }
+    
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(event.getMessage());
+        subscriptions.remove(headers.getSessionId() + ":" + headers.getSubscriptionId());
+    }
+    
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        String prefix = event.getSessionId() + ":";
+        subscriptions.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+    
+    /**
+     * Drops idle tenants and pushes the difference between memory and the database
+     * for the rest. A tenant whose figures moved while its recount ran is left for
+     * the next round, since the recount may or may not include that change.
+     */
+    @Scheduled(fixedDelayString = "${app.dashboard.live.resync-interval-ms:300000}")
+    public void resync() {
+        long now = System.currentTimeMillis();
+        Set<UUID> watched = new HashSet<>(subscriptions.values());
+        states.forEach((tenantId, state) -> {
+            if (!watched.contains(tenantId) && state.idleSince(now) > idleGraceMs) {
+                states.remove(tenantId, state);
+                return;
+            }
+            try {
+                long version = state.version();
+                Map<String, Long> actual = DashboardDeltas.flatten(dashboardService.computeStats(tenantId));
+                state.reconcile(tenantId, version, actual);
+            } catch (RuntimeException e) {
+                log.warn("Dashboard resync failed for tenant {}: {}", tenantId, e.getMessage());
+            }
+        });
+    }
+    
+    private void apply(UUID tenantId, Map<String, Long> changes) {
+        TenantState state = states.get(tenantId);
+        if (state != null) {
+            state.apply(tenantId, changes);
+        }
+    }
+    
+    record RemoteDelta(String node, UUID tenantId, Map<String, Long> changes) {
+    }
+    
+    /**
+     * Figures of one tenant. Deltas are numbered and pushed under the lock so
+     * subscribers see them in version order.
+     */
+    private final class TenantState {
+    
+        private final Map<String, Long> figures;
+        private long version;
+        private volatile long lastActive = System.currentTimeMillis();
+    
+        TenantState(Map<String, Long> figures) {
+            this.figures = new HashMap<>(figures);
+        }
+    
+        synchronized DashboardSnapshotDTO snapshot() {
+            lastActive = System.currentTimeMillis();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            Map<String, Long> byType = new TreeMap<>();
+            figures.forEach((name, value) -> {
+                if (name.startsWith(DashboardDeltas.BY_TYPE_PREFIX)) {
+                    byType.put(name.substring(DashboardDeltas.BY_TYPE_PREFIX.length()), value);
+                } else {
+                    stats.put(name, value);
+                }
+            });
+            stats.put("interactionsByType", byType);
+            return DashboardSnapshotDTO.builder().version(version).stats(stats).build();
+        }
+    
+        synchronized long version() {
+            return version;
+        }
+    
+        long idleSince(long now) {
+            return now - lastActive;
+        }
+    
+        synchronized void apply(UUID tenantId, Map<String, Long> changes) {
+            changes.forEach((name, amount) -> figures.merge(name, amount, Long::sum));
+            version++;
+            notificationService.notifyDashboard(tenantId, DashboardDeltaDTO.builder()
+                    .version(version)
+                    .changes(changes)
+                    .build());
+        }
+    
+        synchronized void reconcile(UUID tenantId, long expectedVersion, Map<String, Long> actual) {
+            if (version != expectedVersion) {
+                return;
+            }
+            Map<String, Long> drift = new HashMap<>();
+            actual.forEach((name, value) -> {
+                long difference = value - figures.getOrDefault(name, 0L);
+                if (difference != 0) {
+                    drift.put(name, difference);
+                }
+            });
+            figures.forEach((name, value) -> {
+                if (!actual.containsKey(name) && value != 0) {
+                    drift.put(name, -value);
+                }
+            });
+            if (!drift.isEmpty()) {
+                apply(tenantId, drift);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.analytics.TDigest;
+import com.neobit.crm.dto.deal.PipelineVelocityDTO;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.service.board.StageOrder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Array;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stage conversion and time in stage of a pipeline over a window of UTC days.
+ *
+ * Reads only {@code deal_stage_daily_stats}: counts are summed and the daily
+ * duration digests merged, so the cost depends on the number of stages and days,
+ * not on how many transitions there were.
+ */
+@Service
+public class PipelineVelocityService {
+    
+    private static final String VELOCITY_SQL =
+            "SELECT p.name AS pipeline_name, s.id AS stage_id, s.name, s.is_won_stage, s.is_lost_stage, " +
+            "coalesce(sum(v.entered), 0) AS entered, coalesce(sum(v.exited), 0) AS exited, " +
+            "coalesce(sum(v.advanced), 0) AS advanced, coalesce(sum(v.duration_seconds), 0) AS duration_seconds, " +
+            "array_agg(v.duration_digest) FILTER (WHERE v.duration_digest IS NOT NULL) AS digests " +
+            "FROM pipelines p LEFT JOIN pipeline_stages s ON s.pipeline_id = p.id " +
+            "LEFT JOIN deal_stage_daily_stats v ON v.tenant_id = p.tenant_id AND v.pipeline_id = p.id " +
+            "AND v.stage_id = s.id AND v.day >= :from AND v.day <= :to " +
+            "WHERE p.id = :pipelineId AND p.tenant_id = :tenantId " +
+            "GROUP BY p.name, s.id " +
+            "ORDER BY " + StageOrder.sql("s");
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int defaultWindowDays;
+    private final int maxWindowDays;
+    
+    public PipelineVelocityService(NamedParameterJdbcTemplate jdbcTemplate,
+                                   @Value("${app.deal-velocity.default-window-days:90}") int defaultWindowDays,
+                                   @Value("${app.deal-velocity.max-window-days:731}") int maxWindowDays) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.defaultWindowDays = defaultWindowDays;
+        this.maxWindowDays = maxWindowDays;
+    }
+    
+    /**
+     * Velocity for transitions on days {@code from} to {@code to}, both inclusive;
+     * the window defaults to the last {@code default-window-days} up to today.
+     */
+    public PipelineVelocityDTO getVelocity(UUID pipelineId, LocalDate from, LocalDate to) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(defaultWindowDays - 1L);
+        if (start.isAfter(end)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxWindowDays) {
+            throw new BadRequestException("Window must not exceed " + maxWindowDays + " days");
+        }
+        
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("pipelineId", pipelineId)
+                .addValue("from", Date.valueOf(start))
+                .addValue("to", Date.valueOf(end));
+        String[] pipelineName = new String[1];
+        List<PipelineVelocityDTO.Stage> stages = new ArrayList<>();
+        jdbcTemplate.query(VELOCITY_SQL, params, rs -> {
+            pipelineName[0] = rs.getString("pipeline_name");
+            UUID stageId = rs.getObject("stage_id", UUID.class);
+            if (stageId == null) {
+                return;
+            }
+            TDigest durations = new TDigest();
+            Array digests = rs.getArray("digests");
+            if (digests != null) {
+                for (Object bytes : (Object[]) digests.getArray()) {
+                    durations.merge(TDigest.fromBytes((byte[]) bytes));
+                }
+            }
+            long exited = rs.getLong("exited");
+            stages.add(PipelineVelocityDTO.Stage.builder()
+                    .stageId(stageId)
+                    .name(rs.getString("name"))
+                    .wonStage(rs.getBoolean("is_won_stage"))
+                    .lostStage(rs.getBoolean("is_lost_stage"))
+                    .entered(rs.getLong("entered"))
+                    .exited(exited)
+                    .advanced(rs.getLong("advanced"))
+                    .conversionRate(exited > 0 ? (double) rs.getLong("advanced") / exited : null)
+                    .meanSeconds(durations.count() > 0 ? (double) rs.getLong("duration_seconds") / durations.count() : null)
+                    .medianSeconds(durations.count() > 0 ? durations.quantile(0.5) : null)
+                    .p90Seconds(durations.count() > 0 ? durations.quantile(0.9) : null)
+                    .build());
+        });
+        if (pipelineName[0] == null) {
+            throw new ResourceNotFoundException("Pipeline", "id", pipelineId);
+        }
+        
+        // Funnel: a stage is reached by those that advanced out of every open stage before it
+        double reach = 1.0;
+        for (PipelineVelocityDTO.Stage stage : stages) {
+            if (stage.isWonStage() || stage.isLostStage()) {
+                continue;
+            }
+            if (stage.getConversionRate() == null) {
+                reach = Double.NaN;
+            } else if (!Double.isNaN(reach)) {
+                reach *= stage.getConversionRate();
+            }
+            stage.setReachRate(Double.isNaN(reach) ? null : reach);
+        }
+        return PipelineVelocityDTO.builder()
+                .pipelineId(pipelineId)
+                .pipelineName(pipelineName[0])
+                .from(start)
+                .to(end)
+                .stages(stages)
+                .build();
+    }
+}
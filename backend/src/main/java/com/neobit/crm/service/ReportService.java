@@ -0,0 +1,226 @@
+package com.neobit.crm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobit.crm.dto.report.DashboardResultDTO;
+import com.neobit.crm.dto.report.ReportResultDTO;
+import com.neobit.crm.entity.User;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.security.UserPrincipal;
+import com.neobit.crm.service.report.ReportDefinition;
+import com.neobit.crm.service.report.ReportEngine;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Runs saved reports and custom dashboards through {@link ReportEngine}.
+ *
+ * Only definitions are read here, on the regular pool and outside any transaction,
+ * so no request connection is held while a report runs on the reporting pool.
+ * A dashboard's layout is a list of widgets, each naming its report as
+ * {@code reportId}; all of them are answered with one engine call.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReportService {
+    
+    private static final String REPORT_COLUMNS =
+            "r.id, r.name, r.report_type, r.filters::text AS filters, r.columns::text AS columns, " +
+            "r.grouping::text AS grouping, r.sorting::text AS sorting";
+    
+    private static final String VISIBLE_REPORT =
+            "r.tenant_id = :tenantId AND (:admin OR r.is_public OR r.created_by = :userId " +
+            "OR EXISTS (SELECT 1 FROM unnest(r.shared_with_roles) role WHERE upper(role) = :role))";
+    
+    private static final String DASHBOARD_SQL =
+            "SELECT d.id, d.name, d.layout::text AS layout FROM custom_dashboards d " +
+            "WHERE d.id = :id AND d.tenant_id = :tenantId AND (:admin OR d.is_public OR d.created_by = :userId)";
+    
+    private static final RowMapper<SavedReport> REPORT_MAPPER = (rs, rowNum) -> new SavedReport(
+            rs.getObject("id", UUID.class), rs.getString("name"), rs.getString("report_type"),
+            rs.getString("filters"), rs.getString("columns"), rs.getString("grouping"), rs.getString("sorting"));
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReportEngine reportEngine;
+    private final ObjectMapper objectMapper;
+    
+    public ReportResultDTO runReport(UUID reportId) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        MapSqlParameterSource params = visibility(tenantId).addValue("id", reportId);
+        List<SavedReport> reports = jdbcTemplate.query(
+                "SELECT " + REPORT_COLUMNS + " FROM saved_reports r WHERE r.id = :id AND " + VISIBLE_REPORT,
+                params, REPORT_MAPPER);
+        if (reports.isEmpty()) {
+            throw new ResourceNotFoundException("Report", "id", reportId);
+        }
+        SavedReport report = reports.get(0);
+        ReportDefinition definition;
+        try {
+            definition = parse(report);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Report '" + report.name() + "' is invalid: " + e.getMessage());
+        }
+        ReportEngine.Outcome outcome = reportEngine.run(tenantId, List.of(definition)).get(0);
+        try {
+            return toDTO(report, definition, outcome);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Report '" + report.name() + "' is invalid: " + e.getMessage());
+        }
+    }
+    
+    public DashboardResultDTO runDashboard(UUID dashboardId) {
+        UUID tenantId = TenantContext.getCurrentTenant();
+        MapSqlParameterSource params = visibility(tenantId).addValue("id", dashboardId);
+        List<Map<String, Object>> dashboards = jdbcTemplate.queryForList(DASHBOARD_SQL, params);
+        if (dashboards.isEmpty()) {
+            throw new ResourceNotFoundException("Dashboard", "id", dashboardId);
+        }
+        Map<String, Object> dashboard = dashboards.get(0);
+        List<Widget> widgets = parseLayout((String) dashboard.get("layout"));
+    
+        Set<UUID> reportIds = new LinkedHashSet<>();
+        widgets.forEach(widget -> reportIds.add(widget.reportId()));
+        Map<UUID, SavedReport> reports = new HashMap<>();
+        if (!reportIds.isEmpty()) {
+            jdbcTemplate.query("SELECT " + REPORT_COLUMNS + " FROM saved_reports r WHERE r.id IN (:ids) AND " + VISIBLE_REPORT,
+                    visibility(tenantId).addValue("ids", reportIds), REPORT_MAPPER)
+                    .forEach(report -> reports.put(report.id(), report));
+        }
+    
+        List<DashboardResultDTO.Widget> results = new ArrayList<>(widgets.size());
+        List<ReportDefinition> definitions = new ArrayList<>();
+        List<Integer> runnable = new ArrayList<>();
+        for (Widget widget : widgets) {
+            DashboardResultDTO.Widget result = DashboardResultDTO.Widget.builder()
+                    .widgetId(widget.id())
+                    .reportId(widget.reportId())
+                    .build();
+            results.add(result);
+            SavedReport report = reports.get(widget.reportId());
+            if (report == null) {
+                result.setError("Report not found");
+                continue;
+            }
+            try {
+                definitions.add(parse(report));
+                runnable.add(results.size() - 1);
+            } catch (IllegalArgumentException e) {
+                result.setError("Report is invalid: " + e.getMessage());
+            }
+        }
+    
+        List<ReportEngine.Outcome> outcomes = definitions.isEmpty() ? List.of() : reportEngine.run(tenantId, definitions);
+        for (int i = 0; i < outcomes.size(); i++) {
+            DashboardResultDTO.Widget result = results.get(runnable.get(i));
+            try {
+                result.setResult(toDTO(reports.get(result.getReportId()), definitions.get(i), outcomes.get(i)));
+            } catch (IllegalArgumentException e) {
+                result.setError("Report is invalid: " + e.getMessage());
+            }
+        }
+        return DashboardResultDTO.builder()
+                .dashboardId(dashboardId)
+                .name((String) dashboard.get("name"))
+                .widgets(results)
+                .build();
+    }
+    
+    private ReportDefinition parse(SavedReport report) {
+        return ReportDefinition.parse(report.reportType(), readJson(report.filters()), readJson(report.columns()),
+                readJson(report.grouping()), readJson(report.sorting()));
+    }
+    
+    /**
+     * Widgets with a {@code reportId}, from either a bare list or {@code {"widgets": [...]}};
+     * other widgets, such as text blocks, are left to the client.
+     */
+    private List<Widget> parseLayout(String layout) {
+        JsonNode root;
+        try {
+            root = readJson(layout);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Dashboard layout is malformed");
+        }
+        JsonNode items = root != null && root.isObject() ? root.get("widgets") : root;
+        List<Widget> widgets = new ArrayList<>();
+        if (items == null || !items.isArray()) {
+            return widgets;
+        }
+        for (JsonNode item : items) {
+            JsonNode reportId = item.hasNonNull("reportId") ? item.get("reportId") : item.get("report_id");
+            if (reportId == null || reportId.isNull()) {
+                continue;
+            }
+            String id = item.hasNonNull("id") ? item.get("id").asText() : item.path("i").asText(null);
+            try {
+                widgets.add(new Widget(id, UUID.fromString(reportId.asText())));
+            } catch (IllegalArgumentException e) {
+                throw new BadRequestException("Dashboard widget " + id + " has an invalid reportId");
+            }
+        }
+        return widgets;
+    }
+    
+    private JsonNode readJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Stored JSON is malformed");
+        }
+    }
+    
+    private static MapSqlParameterSource visibility(UUID tenantId) {
+        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+        boolean admin = currentUser.getRole() == User.UserRole.TENANT_ADMIN
+                || currentUser.getRole() == User.UserRole.SUPER_ADMIN;
+        return new MapSqlParameterSource()
+                .addValue("tenantId", tenantId)
+                .addValue("userId", currentUser.getId())
+                .addValue("role", currentUser.getRole().name().toUpperCase(Locale.ROOT))
+                .addValue("admin", admin);
+    }
+    
+    private static ReportResultDTO toDTO(SavedReport report, ReportDefinition definition, ReportEngine.Outcome outcome) {
+        ReportDefinition.Sort sort = definition.sort();
+        List<ReportResultDTO.Row> rows = outcome.result().ordered(sort.by(), sort.descending(), sort.limit()).stream()
+                .map(row -> ReportResultDTO.Row.builder().keys(row.keys()).values(row.values()).build())
+                .toList();
+        return ReportResultDTO.builder()
+                .reportId(report.id())
+                .name(report.name())
+                .dimensions(outcome.result().dimensions())
+                .measures(outcome.result().measures())
+                .rows(rows)
+                .truncated(outcome.result().truncated())
+                .computedAt(outcome.computedAt())
+                .served(outcome.served().name().toLowerCase(Locale.ROOT))
+                .build();
+    }
+    
+    private record SavedReport(UUID id, String name, String reportType, String filters, String columns,
+                               String grouping, String sorting) {
+    }
+    
+    private record Widget(String id, UUID reportId) {
+    }
+}
@@ -35,12 +35,14 @@ public class TaskService {
     private final TelegramNotificationService telegramNotificationService;
     private final WebSocketNotificationService webSocketNotificationService;
     
+    @Transactional(readOnly = true)
     public PageResponse<TaskDTO> getTasks(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Task> page = taskRepository.findByTenantId(tenantId, pageable);
         return PageResponse.of(page, page.getContent().stream().map(taskMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public TaskDTO getTaskById(UUID taskId) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Task task = taskRepository.findByIdAndTenantId(taskId, tenantId)
@@ -48,12 +50,14 @@ public class TaskService {
         return taskMapper.toDTO(task);
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<TaskDTO> getTasksByStatus(String status, Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         Page<Task> page = taskRepository.findByTenantIdAndStatus(tenantId, status, pageable);
         return PageResponse.of(page, page.getContent().stream().map(taskMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public PageResponse<TaskDTO> getMyTasks(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext()
@@ -62,6 +66,7 @@ public class TaskService {
         return PageResponse.of(page, page.getContent().stream().map(taskMapper::toDTO).toList());
     }
     
+    @Transactional(readOnly = true)
     public List<TaskDTO> getOverdueTasks() {
         UUID tenantId = TenantContext.getCurrentTenant();
         return taskRepository.findOverdueTasks(tenantId, Instant.now())
@@ -159,6 +164,7 @@ public class TaskService {
         Task task = taskRepository.findByIdAndTenantId(taskId, tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
         
+        String previousStatus = task.getStatus();
         task.setStatus("completed");
         task.setCompletedAt(Instant.now());
         
@@ -167,7 +173,8 @@ public class TaskService {
         
         // Send notifications
         telegramNotificationService.notifyTaskCompleted(tenantId, savedTask);
-        webSocketNotificationService.notifyTaskUpdate(tenantId, "completed", taskDTO);
+        webSocketNotificationService.notifyTaskUpdate(tenantId, "completed", taskDTO,
+                java.util.Collections.singletonMap("status", previousStatus));
         
         return taskDTO;
     }
@@ -179,11 +186,13 @@ public class TaskService {
                 .orElseThrow(() -> new ResourceNotFoundException("Task", "id", taskId));
         
         String taskTitle = task.getTitle();
+        String previousStatus = task.getStatus();
         taskRepository.delete(task);
         
         // Send notifications
         telegramNotificationService.notifyTaskDeleted(tenantId, taskTitle);
-        webSocketNotificationService.notifyTaskUpdate(tenantId, "deleted", java.util.Map.of("id", taskId.toString()));
+        webSocketNotificationService.notifyTaskUpdate(tenantId, "deleted", java.util.Map.of("id", taskId.toString()),
+                java.util.Collections.singletonMap("status", previousStatus));
     }
 }
 
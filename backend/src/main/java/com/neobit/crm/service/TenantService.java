@@ -27,18 +27,21 @@ public class TenantService {
     private final TenantMapper tenantMapper;
     private final PasswordEncoder passwordEncoder;
     
+    @Transactional(readOnly = true)
     public TenantDTO getTenantById(UUID tenantId) {
         Tenant tenant = tenantRepository.findById(tenantId)
                 .orElseThrow(() -> new ResourceNotFoundException("Tenant", "id", tenantId));
         return tenantMapper.toDTO(tenant);
     }
     
+    @Transactional(readOnly = true)
     public TenantDTO getTenantBySlug(String slug) {
         Tenant tenant = tenantRepository.findBySlug(slug)
                 .orElseThrow(() -> new ResourceNotFoundException("Tenant", "slug", slug));
         return tenantMapper.toDTO(tenant);
     }
     
+    @Transactional(readOnly = true)
     public Page<TenantDTO> getAllTenants(Pageable pageable) {
         return tenantRepository.findAll(pageable)
                 .map(tenantMapper::toDTO);
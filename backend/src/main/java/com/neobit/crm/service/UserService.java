@@ -39,12 +39,14 @@ public class UserService implements UserDetailsService {
         return UserPrincipal.create(user);
     }
     
+    @Transactional(readOnly = true)
     public UserDTO getUserById(UUID userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
         return userMapper.toDTO(user);
     }
     
+    @Transactional(readOnly = true)
     public Page<UserDTO> getUsersByTenant(Pageable pageable) {
         UUID tenantId = TenantContext.getCurrentTenant();
         return userRepository.findByTenantId(tenantId, pageable)
@@ -2,8 +2,10 @@ package com.neobit.crm.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobit.crm.event.TenantDataChangedEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -18,11 +20,20 @@ public class WebSocketNotificationService {
     
     private final SimpMessagingTemplate messagingTemplate;
     private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
-     * Send update to all clients of a tenant
+     * Send update to all clients of a tenant, and to in-process listeners as a {@link TenantDataChangedEvent}
      */
     public void notifyTenant(UUID tenantId, String eventType, Object data) {
+        notifyTenant(tenantId, eventType, data, null);
+    }
+    
+    /**
+     * Send update to all clients of a tenant; {@code previous} only reaches in-process listeners
+     */
+    public void notifyTenant(UUID tenantId, String eventType, Object data, Object previous) {
+        eventPublisher.publishEvent(new TenantDataChangedEvent(tenantId, eventType, data, previous));
         try {
             Map<String, Object> message = new HashMap<>();
             message.put("eventType", eventType);
@@ -56,6 +67,18 @@ public class WebSocketNotificationService {
         }
     }
     
+    /**
+     * Send dashboard delta to the clients of a tenant watching the dashboard
+     */
+    public void notifyDashboard(UUID tenantId, Object delta) {
+        try {
+            String payload = objectMapper.writeValueAsString(delta);
+            messagingTemplate.convertAndSend("/topic/tenant/" + tenantId + "/dashboard", payload);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to send dashboard delta", e);
+        }
+    }
+    
     /**
      * Send customer update
      */
@@ -63,6 +86,13 @@ public class WebSocketNotificationService {
         notifyTenant(tenantId, "customer." + operation, customer);
     }
     
+    /**
+     * Send customer update, with the values it had before the change
+     */
+    public void notifyCustomerUpdate(UUID tenantId, String operation, Object customer, Object previous) {
+        notifyTenant(tenantId, "customer." + operation, customer, previous);
+    }
+    
     /**
      * Send task update
      */
@@ -70,6 +100,13 @@ public class WebSocketNotificationService {
         notifyTenant(tenantId, "task." + operation, task);
     }
     
+    /**
+     * Send task update, with the values it had before the change
+     */
+    public void notifyTaskUpdate(UUID tenantId, String operation, Object task, Object previous) {
+        notifyTenant(tenantId, "task." + operation, task, previous);
+    }
+    
     /**
      * Send interaction update
      */
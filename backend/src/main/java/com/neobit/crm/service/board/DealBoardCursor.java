@@ -0,0 +1,35 @@
+package com.neobit.crm.service.board;
+
+import com.neobit.crm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursor into one stage column of a deal board: the (rank, id) of the last
+ * card read, so the next page starts strictly after it.
+ */
+public record DealBoardCursor(String rank, UUID id) {
+    
+    public String encode() {
+        String raw = rank + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /** The position in {@code cursor}, or null to start from the top. */
+    public static DealBoardCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            if (!RankKeys.isValid(parts[0])) {
+                throw new IllegalArgumentException("Invalid rank");
+            }
+            return new DealBoardCursor(parts[0], UUID.fromString(parts[1]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
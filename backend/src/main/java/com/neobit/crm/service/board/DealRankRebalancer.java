@@ -0,0 +1,88 @@
+package com.neobit.crm.service.board;
+
+import com.neobit.crm.service.WebSocketNotificationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Re-spreads the rank keys of stage columns in which repeated drops at the same
+ * spot made a key longer than {@link RankKeys#MAX_LENGTH}. Such stages are found
+ * through a partial index, and each is rewritten in its current order by one
+ * statement in its own transaction. The rewrite bumps every deal's version, so a
+ * move that read the old keys fails with a conflict instead of landing out of place.
+ */
+@Component
+@Slf4j
+public class DealRankRebalancer {
+    
+    private static final String LONG_RANK_STAGES_SQL =
+            "SELECT DISTINCT d.tenant_id, d.stage_id FROM deals d WHERE length(d.board_rank) > " + RankKeys.MAX_LENGTH +
+            " LIMIT ?";
+    
+    private static final String STAGE_DEALS_SQL =
+            "SELECT d.id FROM deals d WHERE d.stage_id = ? ORDER BY d.board_rank, d.id FOR UPDATE";
+    
+    private static final String UPDATE_SQL =
+            "UPDATE deals d SET board_rank = v.board_rank, version = d.version + 1 " +
+            "FROM unnest(?::uuid[], ?::text[]) AS v(id, board_rank) WHERE d.id = v.id";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final WebSocketNotificationService webSocketNotificationService;
+    private final int batchSize;
+    
+    public DealRankRebalancer(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              WebSocketNotificationService webSocketNotificationService,
+                              @Value("${app.deal-board.rebalance-batch-size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.webSocketNotificationService = webSocketNotificationService;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.deal-board.rebalance-interval-ms:300000}")
+    public void rebalance() {
+        List<Map<String, Object>> stages;
+        try {
+            stages = jdbcTemplate.queryForList(LONG_RANK_STAGES_SQL, batchSize);
+        } catch (RuntimeException e) {
+            log.error("Could not look up stages to rebalance", e);
+            return;
+        }
+        for (Map<String, Object> stage : stages) {
+            UUID tenantId = (UUID) stage.get("tenant_id");
+            UUID stageId = (UUID) stage.get("stage_id");
+            try {
+                Integer count = transactionTemplate.execute(status -> rebalanceStage(stageId));
+                log.info("Rebalanced rank keys of {} deals in stage {}", count, stageId);
+                // Clients reload the column rather than mixing old and new keys
+                webSocketNotificationService.notifyTenant(tenantId, "stage.rebalanced", Map.of("stageId", stageId));
+            } catch (RuntimeException e) {
+                log.warn("Could not rebalance stage {}: {}", stageId, e.getMessage());
+            }
+        }
+    }
+    
+    private int rebalanceStage(UUID stageId) {
+        List<UUID> ids = jdbcTemplate.queryForList(STAGE_DEALS_SQL, UUID.class, stageId);
+        List<String> ranks = RankKeys.spread(ids.size());
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(UPDATE_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", ids.toArray()));
+            ps.setArray(2, connection.createArrayOf("text", ranks.toArray()));
+            return ps;
+        });
+        return ids.size();
+    }
+}
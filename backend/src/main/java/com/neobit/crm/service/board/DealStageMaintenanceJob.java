@@ -0,0 +1,108 @@
+package com.neobit.crm.service.board;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keeps {@code deals.days_in_stage} and {@code deals.rots_at} current for open deals.
+ *
+ * Tenants are processed in batches, each with a single set-based UPDATE in its own
+ * transaction, and only rows whose values actually change are written. A deal rots
+ * once its stage's {@code rotting_days} have passed since it entered the stage or
+ * last had activity, whichever is later; storing that moment rather than a flag
+ * means rotting lists stay right between runs, and a run is only needed to pick up
+ * activity, stage threshold edits and the day count.
+ */
+@Component
+@Slf4j
+public class DealStageMaintenanceJob {
+    
+    private static final long ADVISORY_LOCK_KEY = 0x6372_6d5f_726f_7473L;
+    
+    private static final String TENANTS_SQL =
+            "SELECT id FROM tenants WHERE id > ? AND coalesce(is_active, true) ORDER BY id LIMIT ?";
+    
+    private static final String OPEN = "lower(d.status) = 'open'";
+    
+    private static final String UPDATE_SQL =
+            "UPDATE deals d SET days_in_stage = v.days_in_stage, rots_at = v.rots_at FROM (" +
+            "SELECT d.id, " +
+            "CASE WHEN " + OPEN + " THEN " +
+            "greatest(0, floor(extract(epoch FROM (?::timestamptz - d.stage_entered_at)) / 86400))::int " +
+            "ELSE d.days_in_stage END AS days_in_stage, " +
+            "CASE WHEN " + OPEN + " AND NOT coalesce(s.is_won_stage, false) AND NOT coalesce(s.is_lost_stage, false) " +
+            "AND s.rotting_days > 0 " +
+            "THEN greatest(d.stage_entered_at, d.last_activity_at) + make_interval(days => s.rotting_days) END AS rots_at " +
+            "FROM deals d JOIN pipeline_stages s ON s.id = d.stage_id " +
+            "WHERE d.tenant_id = ANY(?) AND (" + OPEN + " OR d.rots_at IS NOT NULL)) v " +
+            "WHERE d.id = v.id AND (d.days_in_stage IS DISTINCT FROM v.days_in_stage OR d.rots_at IS DISTINCT FROM v.rots_at)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int tenantBatchSize;
+    
+    public DealStageMaintenanceJob(JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.deal-board.maintenance.tenant-batch-size:200}") int tenantBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tenantBatchSize = tenantBatchSize;
+    }
+    
+    @Scheduled(cron = "${app.deal-board.maintenance.cron:0 5 * * * *}", zone = "UTC")
+    public void run() {
+        try {
+            int updated = maintain(Instant.now());
+            if (updated > 0) {
+                log.info("Updated days in stage and rotting of {} deals", updated);
+            }
+        } catch (RuntimeException e) {
+            log.error("Deal stage maintenance failed", e);
+        }
+    }
+    
+    /**
+     * Brings every active tenant's open deals up to date as of {@code now}; returns
+     * the number of rows changed, or 0 if another instance holds the run.
+     */
+    public int maintain(Instant now) {
+        Timestamp asOf = Timestamp.from(now);
+        int updated = 0;
+        UUID after = new UUID(0, 0);
+        while (true) {
+            List<UUID> tenants = jdbcTemplate.queryForList(TENANTS_SQL, UUID.class, after, tenantBatchSize);
+            if (tenants.isEmpty()) {
+                return updated;
+            }
+            Integer rows = transactionTemplate.execute(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    return null;
+                }
+                return jdbcTemplate.update(connection -> {
+                    PreparedStatement ps = connection.prepareStatement(UPDATE_SQL);
+                    ps.setTimestamp(1, asOf);
+                    ps.setArray(2, connection.createArrayOf("uuid", tenants.toArray()));
+                    return ps;
+                });
+            });
+            if (rows == null) {
+                log.debug("Deal stage maintenance is running elsewhere");
+                return updated;
+            }
+            updated += rows;
+            after = tenants.get(tenants.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.neobit.crm.service.board;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lexicographic rank keys for ordering board cards and stages. A key is a base-62
+ * fraction in (0, 1) written with the digits {@code 0-9A-Za-z}, which are in ASCII
+ * order, so keys sort correctly as bytes ({@code COLLATE "C"}). Keys never end in
+ * {@code 0}, so there is always room for a key between any two of them: moving an
+ * item between two neighbours rewrites only the moved item.
+ *
+ * Repeated inserts at the same spot make keys longer; once a key is longer than
+ * {@link #MAX_LENGTH}, its list is re-spread with {@link #spread}.
+ */
+public final class RankKeys {
+    
+    /** Keys longer than this are rebalanced; the partial index in V15 uses the same literal. */
+    public static final int MAX_LENGTH = 24;
+    
+    static final String DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+    
+    private RankKeys() {
+    }
+    
+    /**
+     * A key strictly between {@code before} and {@code after}; either may be null
+     * for the start or end of the list.
+     */
+    public static String between(String before, String after) {
+        if (before != null) {
+            validate(before);
+        }
+        if (after != null) {
+            validate(after);
+        }
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Rank '" + before + "' is not before '" + after + "'");
+        }
+        return midpoint(before != null ? before : "", after);
+    }
+    
+    /**
+     * {@code count} evenly spaced keys in ascending order, all starting at {@code 1}
+     * or above so keys beginning with {@code 0} still sort in front of them, and
+     * spaced widely enough that the next insert between two of them needs no extra digit.
+     */
+    public static List<String> spread(int count) {
+        int width = 2;
+        long low = BASE;
+        long high = (long) BASE * BASE;
+        while ((high - low) / (count + 1) < BASE && width < 10) {
+            width++;
+            low = high;
+            high *= BASE;
+        }
+        long step = Math.max(1, (high - low) / (count + 1));
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(encode(low + step * i, width));
+        }
+        return keys;
+    }
+    
+    public static boolean isValid(String key) {
+        if (key == null || key.isEmpty() || key.charAt(key.length() - 1) == '0') {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (DIGITS.indexOf(key.charAt(i)) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static void validate(String key) {
+        if (!isValid(key)) {
+            throw new IllegalArgumentException("Invalid rank key '" + key + "'");
+        }
+    }
+    
+    /**
+     * Digit-wise midpoint of {@code a} (possibly empty, meaning 0) and {@code b}
+     * (null meaning 1), with {@code a < b}.
+     */
+    private static String midpoint(String a, String b) {
+        if (b != null) {
+            // Skip the common prefix, reading missing digits of a as 0
+            int n = 0;
+            while (n < b.length() && (n < a.length() ? a.charAt(n) : '0') == b.charAt(n)) {
+                n++;
+            }
+            if (n > 0) {
+                return b.substring(0, n) + midpoint(n < a.length() ? a.substring(n) : "", b.substring(n));
+            }
+        }
+        int digitA = a.isEmpty() ? 0 : DIGITS.indexOf(a.charAt(0));
+        int digitB = b != null ? DIGITS.indexOf(b.charAt(0)) : BASE;
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        if (b != null && b.length() > 1) {
+            // Consecutive first digits: b's first digit alone is above a and below b
+            return b.substring(0, 1);
+        }
+        return DIGITS.charAt(digitA) + midpoint(a.isEmpty() ? "" : a.substring(1), null);
+    }
+    
+    private static String encode(long value, int width) {
+        char[] digits = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            digits[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int length = width;
+        while (digits[length - 1] == '0') {
+            length--;
+        }
+        return new String(digits, 0, length);
+    }
+}
@@ -0,0 +1,33 @@
+package com.neobit.crm.service.board;
+
+import com.neobit.crm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursor into a rotting-deals list: the (rotsAt, id) of the last deal read.
+ */
+public record RottingCursor(Instant rotsAt, UUID id) {
+    
+    public String encode() {
+        String raw = rotsAt.getEpochSecond() + ":" + rotsAt.getNano() + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /** The position in {@code cursor}, or null to start from the top. */
+    public static RottingCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new RottingCursor(Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1])),
+                    UUID.fromString(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
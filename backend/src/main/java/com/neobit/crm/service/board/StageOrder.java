@@ -0,0 +1,36 @@
+package com.neobit.crm.service.board;
+
+import com.neobit.crm.entity.PipelineStage;
+
+import java.util.Comparator;
+
+/**
+ * Board order of the stages of a pipeline: by rank key, then, for stages not
+ * ranked yet, by position.
+ */
+public final class StageOrder {
+    
+    public static final Comparator<PipelineStage> COMPARATOR = Comparator
+            .comparing(PipelineStage::getBoardRank, Comparator.nullsLast(Comparator.<String>naturalOrder()))
+            .thenComparing(PipelineStage::getPosition)
+            .thenComparing(PipelineStage::getId);
+    
+    /** The same order in SQL for stage alias {@code s}; '~' sorts after every rank key */
+    public static String sql(String s) {
+        return "(coalesce(" + s + ".board_rank, '~'), " + s + ".position, " + s + ".id)";
+    }
+    
+    private StageOrder() {
+    }
+    
+    /**
+     * Whether moving a deal from {@code from} to {@code to} takes it forward: into a
+     * won stage, or into any later stage that is not a lost one.
+     */
+    public static boolean isAdvance(PipelineStage from, PipelineStage to) {
+        if (Boolean.TRUE.equals(to.getIsLostStage())) {
+            return false;
+        }
+        return Boolean.TRUE.equals(to.getIsWonStage()) || from == null || COMPARATOR.compare(to, from) > 0;
+    }
+}
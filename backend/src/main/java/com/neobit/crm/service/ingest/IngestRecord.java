@@ -0,0 +1,34 @@
+package com.neobit.crm.service.ingest;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A validated interaction waiting in the ingest queue. Enum values are already
+ * in their database spelling.
+ */
+public record IngestRecord(
+        UUID id,
+        UUID batchId,
+        UUID tenantId,
+        UUID customerId,
+        UUID accountId,
+        UUID userId,
+        String type,
+        String direction,
+        String status,
+        String subject,
+        String description,
+        Instant startedAt,
+        Instant endedAt,
+        Integer durationSeconds,
+        Instant scheduledAt,
+        String location,
+        String externalId,
+        String externalSource,
+        Map<String, Object> metadata,
+        List<String> tags,
+        Instant createdAt
+) {}
@@ -0,0 +1,73 @@
+package com.neobit.crm.service.ingest;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded in-memory buffer between the ingest API and the writer.
+ *
+ * Capacity is held as permits so a request is admitted whole or not at all;
+ * permits come back as the writer takes records off the queue.
+ */
+@Component
+public class InteractionIngestQueue {
+    
+    private final int capacity;
+    private final Semaphore permits;
+    private final LinkedBlockingQueue<IngestRecord> queue = new LinkedBlockingQueue<>();
+    
+    public InteractionIngestQueue(@Value("${app.interaction-ingest.queue-capacity:100000}") int capacity,
+                                  MeterRegistry meterRegistry) {
+        this.capacity = capacity;
+        this.permits = new Semaphore(capacity);
+        Gauge.builder("crm.ingest.interactions.queued", queue, LinkedBlockingQueue::size)
+                .description("Interactions accepted and waiting to be written")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * @return false when the records do not fit; nothing is enqueued in that case
+     */
+    public boolean offerAll(List<IngestRecord> records) {
+        if (records.isEmpty()) {
+            return true;
+        }
+        if (!permits.tryAcquire(records.size())) {
+            return false;
+        }
+        queue.addAll(records);
+        return true;
+    }
+    
+    /**
+     * Waits up to {@code timeout} for the first record, then takes whatever else is
+     * ready up to {@code max}.
+     */
+    public List<IngestRecord> drain(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        List<IngestRecord> drained = new ArrayList<>(Math.min(max, 1024));
+        IngestRecord first = queue.poll(timeout, unit);
+        if (first == null) {
+            return drained;
+        }
+        drained.add(first);
+        queue.drainTo(drained, max - 1);
+        permits.release(drained.size());
+        return drained;
+    }
+    
+    public int size() {
+        return queue.size();
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,110 @@
+package com.neobit.crm.service.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Picks up ingest batches that stopped making progress, typically because the
+ * node holding them in its queue died.
+ *
+ * A stale batch is queued again from its stored payload with its counts reset;
+ * records keep their ids, so rows written before the crash come back as
+ * duplicates. After {@code app.interaction-ingest.max-attempts} replays, or when
+ * there is no payload to replay, the unwritten remainder is marked failed. Rows
+ * are claimed with {@code FOR UPDATE SKIP LOCKED}, so instances never replay the
+ * same batch at once.
+ */
+@Component
+@Slf4j
+public class InteractionIngestReaper {
+    
+    private static final TypeReference<List<IngestRecord>> RECORDS = new TypeReference<>() {};
+    
+    private static final String STALE_SQL =
+            "SELECT id, attempts, payload::text AS payload FROM interaction_ingest_batches " +
+            "WHERE status IN ('queued', 'processing') AND updated_at < now() - make_interval(secs => ?) " +
+            "ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    
+    private static final String REQUEUE_SQL =
+            "UPDATE interaction_ingest_batches SET status = 'queued', attempts = attempts + 1, " +
+            "inserted = 0, duplicates = 0, failed = 0, updated_at = now() WHERE id = ?";
+    
+    private static final String FAIL_SQL =
+            "UPDATE interaction_ingest_batches SET status = 'failed', failed = accepted - inserted - duplicates, " +
+            "payload = NULL, completed_at = now(), updated_at = now() WHERE id = ?";
+    
+    private final InteractionIngestQueue queue;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final long staleAfterSeconds;
+    private final int maxAttempts;
+    private final int batchSize;
+    
+    public InteractionIngestReaper(InteractionIngestQueue queue,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   @Value("${app.interaction-ingest.stale-after-seconds:600}") long staleAfterSeconds,
+                                   @Value("${app.interaction-ingest.max-attempts:3}") int maxAttempts,
+                                   @Value("${app.interaction-ingest.reaper-batch-size:50}") int batchSize) {
+        this.queue = queue;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.staleAfterSeconds = staleAfterSeconds;
+        this.maxAttempts = maxAttempts;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.interaction-ingest.reaper-interval-ms:60000}")
+    public void reap() {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Map<String, Object>> stale = jdbcTemplate.queryForList(STALE_SQL, staleAfterSeconds, batchSize);
+                for (Map<String, Object> batch : stale) {
+                    UUID id = (UUID) batch.get("id");
+                    int attempts = ((Number) batch.get("attempts")).intValue();
+                    List<IngestRecord> records = parse(id, (String) batch.get("payload"));
+                    if (records == null || attempts >= maxAttempts) {
+                        jdbcTemplate.update(FAIL_SQL, id);
+                        log.warn("Ingest batch {} failed after {} replays", id, attempts);
+                        continue;
+                    }
+                    // Left for the next run when the queue is full; the row stays stale
+                    if (!queue.offerAll(records)) {
+                        return;
+                    }
+                    jdbcTemplate.update(REQUEUE_SQL, id);
+                    log.info("Replaying stale ingest batch {} (attempt {})", id, attempts + 1);
+                }
+            });
+        } catch (RuntimeException e) {
+            log.error("Ingest batch recovery failed", e);
+        }
+    }
+    
+    private List<IngestRecord> parse(UUID batchId, String payload) {
+        if (payload == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(payload, RECORDS);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable payload on ingest batch {}: {}", batchId, e.getOriginalMessage());
+            return null;
+        }
+    }
+}
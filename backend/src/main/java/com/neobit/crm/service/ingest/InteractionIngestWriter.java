@@ -0,0 +1,283 @@
+package com.neobit.crm.service.ingest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.neobit.crm.service.CustomerContactTracker;
+import com.neobit.crm.service.rollup.InteractionRollupWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single background writer for the interaction ingest queue.
+ *
+ * Each chunk is one {@code INSERT ... SELECT FROM unnest(...)} statement: every
+ * column travels as one array parameter, so a thousand rows cost one round trip
+ * and one plan. Rows with an external id first claim their key in
+ * {@code interaction_external_keys} ({@code ON CONFLICT DO NOTHING}), and records
+ * keep the id assigned at submit, so redelivery of a replayed batch is harmless;
+ * {@code RETURNING id} tells inserted rows from duplicates.
+ * If a chunk fails (e.g. a customer was deleted after validation) its rows are
+ * retried one at a time so only the bad rows are counted as failed.
+ */
+@Component
+@Slf4j
+public class InteractionIngestWriter implements SmartLifecycle {
+    
+    private static final String INSERT_SQL =
+            "WITH r AS (SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::uuid[], ?::uuid[], " +
+            "?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::timestamptz[], ?::timestamptz[], ?::int[], " +
+            "?::timestamptz[], ?::text[], ?::text[], ?::text[], ?::text[], ?::text[], ?::timestamptz[]) " +
+            "AS t(id, tenant_id, customer_id, account_id, user_id, type, direction, status, " +
+            "subject, description, started_at, ended_at, duration_seconds, scheduled_at, location, " +
+            "external_id, external_source, metadata, tags, created_at)), " +
+            "k AS (INSERT INTO interaction_external_keys (tenant_id, external_source, external_id, interaction_id, created_at) " +
+            "SELECT tenant_id, external_source, external_id, id, created_at FROM r WHERE external_id IS NOT NULL " +
+            "ON CONFLICT DO NOTHING RETURNING interaction_id) " +
+            "INSERT INTO interactions (id, tenant_id, customer_id, account_id, user_id, type, direction, status, " +
+            "subject, description, started_at, ended_at, duration_seconds, scheduled_at, location, " +
+            "external_id, external_source, metadata, tags, created_at, updated_at) " +
+            "SELECT r.id, r.tenant_id, r.customer_id, r.account_id, r.user_id, " +
+            "r.type::interaction_type, r.direction::interaction_direction, r.status::interaction_status, " +
+            "r.subject, r.description, r.started_at, r.ended_at, r.duration_seconds, r.scheduled_at, r.location, " +
+            "r.external_id, r.external_source, COALESCE(r.metadata::jsonb, '{}'::jsonb), " +
+            "ARRAY(SELECT jsonb_array_elements_text(COALESCE(r.tags::jsonb, '[]'::jsonb))), r.created_at, r.created_at " +
+            "FROM r WHERE r.external_id IS NULL OR r.id IN (SELECT interaction_id FROM k) " +
+            "ON CONFLICT DO NOTHING RETURNING id";
+    
+    private static final String UPDATE_BATCH_SQL =
+            "UPDATE interaction_ingest_batches SET " +
+            "inserted = inserted + ?, duplicates = duplicates + ?, failed = failed + ?, " +
+            "status = CASE WHEN inserted + duplicates + failed + ? >= accepted THEN 'completed' ELSE 'processing' END, " +
+            "completed_at = CASE WHEN inserted + duplicates + failed + ? >= accepted THEN now() ELSE completed_at END, " +
+            "payload = CASE WHEN inserted + duplicates + failed + ? >= accepted THEN NULL ELSE payload END, " +
+            "updated_at = now() " +
+            "WHERE id = ?";
+    
+    private final InteractionIngestQueue queue;
+    private final CustomerContactTracker contactTracker;
+    private final InteractionRollupWriter rollupWriter;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final Counter insertedCounter;
+    private final Counter duplicateCounter;
+    private final Counter failedCounter;
+    private final Timer flushTimer;
+    
+    private volatile boolean running;
+    private Thread worker;
+    
+    public InteractionIngestWriter(InteractionIngestQueue queue,
+                                   CustomerContactTracker contactTracker,
+                                   InteractionRollupWriter rollupWriter,
+                                   JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager,
+                                   ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.interaction-ingest.chunk-size:1000}") int chunkSize) {
+        this.queue = queue;
+        this.contactTracker = contactTracker;
+        this.rollupWriter = rollupWriter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.insertedCounter = meterRegistry.counter("crm.ingest.interactions.written", "outcome", "inserted");
+        this.duplicateCounter = meterRegistry.counter("crm.ingest.interactions.written", "outcome", "duplicate");
+        this.failedCounter = meterRegistry.counter("crm.ingest.interactions.written", "outcome", "failed");
+        this.flushTimer = meterRegistry.timer("crm.ingest.interactions.flush");
+    }
+    
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "interaction-ingest-writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    @Override
+    public void stop() {
+        // The loop keeps draining until the queue is empty, so accepted work is flushed on shutdown
+        running = false;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (queue.size() > 0) {
+            log.warn("Interaction ingest stopped with {} queued records unwritten", queue.size());
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+    
+    private void run() {
+        while (running || queue.size() > 0) {
+            try {
+                List<IngestRecord> chunk = queue.drain(chunkSize, 200, TimeUnit.MILLISECONDS);
+                if (!chunk.isEmpty()) {
+                    flushTimer.record(() -> flush(chunk));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Interaction ingest flush failed", e);
+            }
+        }
+    }
+    
+    void flush(List<IngestRecord> chunk) {
+        Set<UUID> inserted = new HashSet<>();
+        Set<UUID> failed = new HashSet<>();
+        try {
+            inserted.addAll(insertCounted(chunk));
+        } catch (DataAccessException e) {
+            log.warn("Ingest chunk of {} failed, retrying row by row: {}", chunk.size(), e.getMostSpecificCause().getMessage());
+            for (IngestRecord record : chunk) {
+                try {
+                    inserted.addAll(insertCounted(List.of(record)));
+                } catch (DataAccessException rowError) {
+                    failed.add(record.id());
+                    log.warn("Ingest of interaction {} (external {}:{}) failed: {}", record.id(),
+                            record.externalSource(), record.externalId(), rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        
+        touchCustomers(chunk, inserted);
+        updateBatches(chunk, inserted, failed);
+        
+        insertedCounter.increment(inserted.size());
+        failedCounter.increment(failed.size());
+        duplicateCounter.increment(chunk.size() - inserted.size() - failed.size());
+    }
+    
+    /**
+     * Inserts and records rollup deltas in one transaction, so deltas for closed
+     * days commit together with their rows.
+     */
+    private List<UUID> insertCounted(List<IngestRecord> records) {
+        return transactionTemplate.execute(status -> {
+            List<UUID> ids = insert(records);
+            updateRollups(records, new HashSet<>(ids));
+            return ids;
+        });
+    }
+    
+    private List<UUID> insert(List<IngestRecord> records) {
+        int n = records.size();
+        Object[][] columns = new Object[20][n];
+        for (int i = 0; i < n; i++) {
+            IngestRecord r = records.get(i);
+            columns[0][i] = r.id();
+            columns[1][i] = r.tenantId();
+            columns[2][i] = r.customerId();
+            columns[3][i] = r.accountId();
+            columns[4][i] = r.userId();
+            columns[5][i] = r.type();
+            columns[6][i] = r.direction();
+            columns[7][i] = r.status();
+            columns[8][i] = r.subject();
+            columns[9][i] = r.description();
+            columns[10][i] = timestamp(r.startedAt());
+            columns[11][i] = timestamp(r.endedAt());
+            columns[12][i] = r.durationSeconds();
+            columns[13][i] = timestamp(r.scheduledAt());
+            columns[14][i] = r.location();
+            columns[15][i] = r.externalId();
+            columns[16][i] = r.externalSource();
+            columns[17][i] = json(r.metadata());
+            columns[18][i] = json(r.tags());
+            columns[19][i] = timestamp(r.createdAt());
+        }
+        String[] types = {"uuid", "uuid", "uuid", "uuid", "uuid", "text", "text", "text", "text", "text",
+                "timestamptz", "timestamptz", "int4", "timestamptz", "text", "text", "text", "text", "text", "timestamptz"};
+        
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL);
+            for (int c = 0; c < columns.length; c++) {
+                ps.setArray(c + 1, connection.createArrayOf(types[c], columns[c]));
+            }
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+    }
+    
+    private void touchCustomers(List<IngestRecord> chunk, Set<UUID> inserted) {
+        for (IngestRecord r : chunk) {
+            if (r.customerId() != null && inserted.contains(r.id())) {
+                contactTracker.recordContact(r.customerId(), r.createdAt());
+            }
+        }
+    }
+    
+    private void updateRollups(List<IngestRecord> chunk, Set<UUID> inserted) {
+        for (IngestRecord r : chunk) {
+            if (inserted.contains(r.id())) {
+                rollupWriter.record(InteractionRollupWriter.key(r.tenantId(), r.createdAt(), r.type(), r.direction(), r.userId()),
+                        1, r.durationSeconds() != null ? r.durationSeconds() : 0);
+            }
+        }
+    }
+    
+    private void updateBatches(List<IngestRecord> chunk, Set<UUID> inserted, Set<UUID> failed) {
+        Map<UUID, int[]> perBatch = new HashMap<>();
+        for (IngestRecord r : chunk) {
+            int[] counts = perBatch.computeIfAbsent(r.batchId(), id -> new int[3]);
+            if (inserted.contains(r.id())) {
+                counts[0]++;
+            } else if (failed.contains(r.id())) {
+                counts[2]++;
+            } else {
+                counts[1]++;
+            }
+        }
+        List<Object[]> args = new ArrayList<>(perBatch.size());
+        perBatch.forEach((batchId, c) -> {
+            int total = c[0] + c[1] + c[2];
+            args.add(new Object[]{c[0], c[1], c[2], total, total, total, batchId});
+        });
+        jdbcTemplate.batchUpdate(UPDATE_BATCH_SQL, args);
+    }
+    
+    private String json(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unserializable ingest value", e);
+        }
+    }
+    
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+}
@@ -0,0 +1,8 @@
+package com.neobit.crm.service.pricing;
+
+/**
+ * Unit price in minor units and line discount in hundredths of a percent that a
+ * price book gives a product at some quantity.
+ */
+public record LinePrice(long unitPriceCents, long discountBasisPoints) {
+}
@@ -0,0 +1,220 @@
+package com.neobit.crm.service.pricing;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-tenant {@link PriceBookSnapshot}s, loaded on first use.
+ *
+ * A tenant's snapshot is tagged with its {@code price_book_versions} row, which
+ * triggers bump on any change to its books or entries. At most once per check
+ * interval a lookup reads that one row, and a moved version reloads the tenant:
+ * books and entries in two queries, read in one snapshot together with the
+ * version. Tenants not priced for the idle period are dropped.
+ */
+@Component
+@Slf4j
+public class PriceBookIndex {
+    
+    private static final String VERSION_SQL =
+            "SELECT coalesce((SELECT version FROM price_book_versions WHERE tenant_id = ?), 0)";
+    
+    private static final String BOOKS_SQL =
+            "SELECT id, is_default, coalesce(is_active, false) AS is_active, valid_from, valid_to, currency, " +
+            "pricing_model FROM price_books WHERE tenant_id = ?";
+    
+    // A NULL min_quantity means 1; when a product also has an explicit 1 tier, that one wins
+    private static final String ENTRIES_SQL =
+            "SELECT DISTINCT ON (e.price_book_id, e.product_id, coalesce(e.min_quantity, 1)) " +
+            "e.price_book_id, e.product_id, coalesce(e.min_quantity, 1) AS min_quantity, e.unit_price, " +
+            "e.discount_percent FROM price_book_entries e JOIN price_books b ON b.id = e.price_book_id " +
+            "WHERE b.tenant_id = ? " +
+            "ORDER BY e.price_book_id, e.product_id, coalesce(e.min_quantity, 1), e.min_quantity NULLS LAST";
+    
+    private final ConcurrentHashMap<UUID, Entry> tenants = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate loadTransaction;
+    private final long checkIntervalMs;
+    private final long idleMs;
+    
+    public PriceBookIndex(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.price-books.version-check-interval-ms:1000}") long checkIntervalMs,
+                          @Value("${app.price-books.idle-minutes:60}") long idleMinutes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.loadTransaction = new TransactionTemplate(transactionManager);
+        // Version and rows from one snapshot, so a concurrent edit is never half seen
+        this.loadTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.loadTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.loadTransaction.setReadOnly(true);
+        this.checkIntervalMs = checkIntervalMs;
+        this.idleMs = idleMinutes * 60_000;
+        Gauge.builder("crm.price_books.tenants", tenants, Map::size)
+                .description("Tenants whose price books are held in memory")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * The tenant's price books, at most one check interval behind the database.
+     */
+    PriceBookSnapshot snapshot(UUID tenantId) {
+        Entry entry = tenants.computeIfAbsent(tenantId, id -> new Entry());
+        long now = System.currentTimeMillis();
+        entry.lastUsedMs = now;
+        PriceBookSnapshot current = entry.snapshot;
+        if (current != null && now - entry.checkedMs < checkIntervalMs) {
+            return current;
+        }
+        synchronized (entry) {
+            current = entry.snapshot;
+            if (current != null && now - entry.checkedMs < checkIntervalMs) {
+                return current;
+            }
+            if (current == null || version(tenantId) != current.version()) {
+                current = load(tenantId);
+                entry.snapshot = current;
+            }
+            entry.checkedMs = System.currentTimeMillis();
+            return current;
+        }
+    }
+    
+    /** Forces the next lookup for the tenant to check its version. */
+    public void invalidate(UUID tenantId) {
+        Entry entry = tenants.get(tenantId);
+        if (entry != null) {
+            entry.checkedMs = 0;
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.price-books.evict-interval-ms:300000}")
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        tenants.values().removeIf(entry -> now - entry.lastUsedMs >= idleMs);
+    }
+    
+    private long version(UUID tenantId) {
+        Long version = jdbcTemplate.queryForObject(VERSION_SQL, Long.class, tenantId);
+        return version != null ? version : 0;
+    }
+    
+    private PriceBookSnapshot load(UUID tenantId) {
+        return loadTransaction.execute(status -> {
+            long version = version(tenantId);
+            List<BookRow> rows = jdbcTemplate.query(BOOKS_SQL, (rs, rowNum) -> {
+                Date validFrom = rs.getDate("valid_from");
+                Date validTo = rs.getDate("valid_to");
+                String model = rs.getString("pricing_model");
+                return new BookRow(rs.getObject("id", UUID.class), rs.getBoolean("is_default"), rs.getBoolean("is_active"),
+                        validFrom != null ? validFrom.toLocalDate() : null, validTo != null ? validTo.toLocalDate() : null,
+                        rs.getString("currency"),
+                        model != null ? PricingModel.valueOf(model.toUpperCase(Locale.ROOT)) : PricingModel.VOLUME);
+            }, tenantId);
+            Map<UUID, BookRow> byId = new HashMap<>();
+            rows.forEach(row -> byId.put(row.id(), row));
+            
+            // Rows arrive grouped by book and product with tiers in order
+            TierBuilder tiers = new TierBuilder(byId);
+            jdbcTemplate.query(ENTRIES_SQL, rs -> {
+                tiers.add(rs.getObject("price_book_id", UUID.class), rs.getObject("product_id", UUID.class),
+                        rs.getInt("min_quantity"), Scaled.of(rs.getBigDecimal("unit_price"), Scaled.MONEY_SCALE),
+                        Scaled.of(rs.getBigDecimal("discount_percent"), Scaled.PERCENT_SCALE));
+            }, tenantId);
+            tiers.finish();
+            
+            List<PriceBookSnapshot.Book> books = new ArrayList<>(rows.size());
+            for (BookRow row : rows) {
+                List<ProductTiers> products = tiers.byBook.getOrDefault(row.id(), List.of());
+                UuidMap<PriceTiers> map = new UuidMap<>(products.size());
+                products.forEach(product -> map.put(product.productId(), product.tiers()));
+                books.add(new PriceBookSnapshot.Book(row.id(), row.isDefault(), row.active(), row.validFrom(),
+                        row.validTo(), row.currency(), row.model(), map));
+            }
+            log.debug("Loaded {} price books of tenant {} at version {}", books.size(), tenantId, version);
+            return new PriceBookSnapshot(version, books);
+        });
+    }
+    
+    private static final class Entry {
+        volatile PriceBookSnapshot snapshot;
+        volatile long checkedMs;
+        volatile long lastUsedMs;
+    }
+    
+    private record BookRow(UUID id, boolean isDefault, boolean active, LocalDate validFrom,
+                           LocalDate validTo, String currency, PricingModel model) {
+    }
+    
+    private record ProductTiers(UUID productId, PriceTiers tiers) {
+    }
+    
+    /** Collects consecutive entry rows of one book and product into {@link PriceTiers}. */
+    private static final class TierBuilder {
+        
+        private final Map<UUID, BookRow> books;
+        private final Map<UUID, List<ProductTiers>> byBook = new HashMap<>();
+        private UUID bookId;
+        private UUID productId;
+        private int[] minQuantities = new int[4];
+        private long[] prices = new long[4];
+        private long[] discounts = new long[4];
+        private int count;
+        
+        TierBuilder(Map<UUID, BookRow> books) {
+            this.books = books;
+        }
+        
+        void add(UUID bookId, UUID productId, int minQuantity, long priceCents, long discountBasisPoints) {
+            if (!bookId.equals(this.bookId) || !productId.equals(this.productId)) {
+                finish();
+                this.bookId = bookId;
+                this.productId = productId;
+            }
+            // Quantities below 1 all start at zero; keep the first so one bad row cannot fail the tenant
+            if (count > 0 && Math.max(0, minQuantity) == Math.max(0, minQuantities[count - 1])) {
+                log.warn("Skipping price book {} entry for product {}: another tier already starts at {}",
+                        bookId, productId, Math.max(0, minQuantity));
+                return;
+            }
+            if (count == minQuantities.length) {
+                minQuantities = Arrays.copyOf(minQuantities, count * 2);
+                prices = Arrays.copyOf(prices, count * 2);
+                discounts = Arrays.copyOf(discounts, count * 2);
+            }
+            minQuantities[count] = minQuantity;
+            prices[count] = priceCents;
+            discounts[count] = discountBasisPoints;
+            count++;
+        }
+        
+        void finish() {
+            BookRow book = bookId != null ? books.get(bookId) : null;
+            if (book != null && count > 0) {
+                byBook.computeIfAbsent(bookId, id -> new ArrayList<>()).add(new ProductTiers(productId,
+                        new PriceTiers(book.model(), Arrays.copyOf(minQuantities, count),
+                                Arrays.copyOf(prices, count), Arrays.copyOf(discounts, count))));
+            }
+            count = 0;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.neobit.crm.service.pricing;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One tenant's price books as of {@code version} of {@code price_book_versions}.
+ * Immutable, so any number of quotes can be priced from it while a newer one loads.
+ */
+record PriceBookSnapshot(long version, List<Book> books) {
+    
+    private static final Comparator<Book> PREFERENCE = Comparator
+            .comparing((Book book) -> book.currency() == null)
+            .thenComparing(Book::validFrom, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Book::id);
+    
+    /**
+     * A price book and its products' tiers. {@code currency} null means any currency.
+     */
+    record Book(UUID id, boolean isDefault, boolean active, LocalDate validFrom, LocalDate validTo, String currency,
+                PricingModel model, UuidMap<PriceTiers> products) {
+        
+        boolean appliesOn(LocalDate day) {
+            return active && (validFrom == null || !validFrom.isAfter(day)) && (validTo == null || !validTo.isBefore(day));
+        }
+        
+        boolean accepts(String quoteCurrency) {
+            return currency == null || quoteCurrency == null || currency.equalsIgnoreCase(quoteCurrency);
+        }
+        
+        PriceTiers tiers(UUID productId) {
+            return products.get(productId);
+        }
+    }
+    
+    Book book(UUID id) {
+        for (Book book : books) {
+            if (book.id().equals(id)) {
+                return book;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * The default book in effect on {@code day} for a quote in {@code currency},
+     * preferring one in that currency over one for any currency; null if none.
+     */
+    Book defaultBook(String currency, LocalDate day) {
+        return books.stream()
+                .filter(book -> book.isDefault() && book.appliesOn(day) && book.accepts(currency))
+                .min(PREFERENCE)
+                .orElse(null);
+    }
+}
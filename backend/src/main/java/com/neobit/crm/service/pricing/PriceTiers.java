@@ -0,0 +1,121 @@
+package com.neobit.crm.service.pricing;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * The {@code price_book_entries} of one product in one price book, sorted by
+ * {@code min_quantity}. Immutable.
+ *
+ * Under {@link PricingModel#VOLUME} a quantity takes the price and discount of
+ * the highest tier it reaches. Under {@link PricingModel#TIERED} units are priced
+ * band by band, units below the first tier at the first tier, and the result is
+ * one blended unit price rounded to a cent with the discounts folded in; a quote
+ * line holds one unit price, and it is what the line total is computed from.
+ */
+public final class PriceTiers {
+    
+    private final PricingModel model;
+    /** In hundredths, ascending */
+    private final long[] minQuantities;
+    private final long[] unitPriceCents;
+    private final long[] discountBasisPoints;
+    
+    /**
+     * Tiers in any order; {@code minQuantities} are whole units as stored.
+     */
+    public PriceTiers(PricingModel model, int[] minQuantities, long[] unitPriceCents, long[] discountBasisPoints) {
+        int n = minQuantities.length;
+        if (n == 0 || unitPriceCents.length != n || discountBasisPoints.length != n) {
+            throw new IllegalArgumentException("Tiers need one price and discount per minimum quantity");
+        }
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(minQuantities[a], minQuantities[b]));
+        this.model = model;
+        this.minQuantities = new long[n];
+        this.unitPriceCents = new long[n];
+        this.discountBasisPoints = new long[n];
+        for (int i = 0; i < n; i++) {
+            this.minQuantities[i] = Math.max(0, minQuantities[order[i]]) * 100L;
+            this.unitPriceCents[i] = unitPriceCents[order[i]];
+            this.discountBasisPoints[i] = discountBasisPoints[order[i]];
+            if (i > 0 && this.minQuantities[i] == this.minQuantities[i - 1]) {
+                throw new IllegalArgumentException("Two tiers start at " + minQuantities[order[i]]);
+            }
+        }
+    }
+    
+    public PricingModel model() {
+        return model;
+    }
+    
+    public int size() {
+        return minQuantities.length;
+    }
+    
+    /**
+     * Price of {@code quantityHundredths} units, or null under volume pricing when
+     * the quantity is below every tier.
+     */
+    public LinePrice resolve(long quantityHundredths) {
+        if (model == PricingModel.TIERED) {
+            return tiered(quantityHundredths);
+        }
+        int tier = tierOf(quantityHundredths);
+        return tier < 0 ? null : new LinePrice(unitPriceCents[tier], discountBasisPoints[tier]);
+    }
+    
+    /** Index of the highest tier starting at or below the quantity, -1 if none. */
+    private int tierOf(long quantityHundredths) {
+        int index = Arrays.binarySearch(minQuantities, quantityHundredths);
+        return index >= 0 ? index : -index - 2;
+    }
+    
+    private LinePrice tiered(long quantityHundredths) {
+        if (quantityHundredths <= 0) {
+            return new LinePrice(unitPriceCents[0], discountBasisPoints[0]);
+        }
+        try {
+            // Band amounts in 10^-6 of a cent: hundredths * cents * (100% - discount)
+            long amount = 0;
+            for (int i = 0; i < minQuantities.length; i++) {
+                long from = i == 0 ? 0 : bandStart(i);
+                long to = i + 1 < minQuantities.length ? bandStart(i + 1) : Long.MAX_VALUE;
+                if (quantityHundredths <= from) {
+                    break;
+                }
+                long units = Math.min(quantityHundredths, to) - from;
+                amount = Math.addExact(amount, Math.multiplyExact(Math.multiplyExact(units, unitPriceCents[i]),
+                        Scaled.ONE_HUNDRED_PERCENT - discountBasisPoints[i]));
+            }
+            return new LinePrice(Scaled.divideHalfUp(amount, Math.multiplyExact(quantityHundredths, Scaled.ONE_HUNDRED_PERCENT)), 0);
+        } catch (ArithmeticException e) {
+            return tieredExact(quantityHundredths);
+        }
+    }
+    
+    /** Units before tier {@code i}: a tier starting at 10 covers the tenth unit on */
+    private long bandStart(int i) {
+        return Math.max(0, minQuantities[i] - 100);
+    }
+    
+    private LinePrice tieredExact(long quantityHundredths) {
+        BigDecimal amount = BigDecimal.ZERO;
+        for (int i = 0; i < minQuantities.length; i++) {
+            long from = i == 0 ? 0 : bandStart(i);
+            long to = i + 1 < minQuantities.length ? bandStart(i + 1) : Long.MAX_VALUE;
+            if (quantityHundredths <= from) {
+                break;
+            }
+            amount = amount.add(BigDecimal.valueOf(Math.min(quantityHundredths, to) - from)
+                    .multiply(BigDecimal.valueOf(unitPriceCents[i]))
+                    .multiply(BigDecimal.valueOf(Scaled.ONE_HUNDRED_PERCENT - discountBasisPoints[i])));
+        }
+        return new LinePrice(amount.divide(BigDecimal.valueOf(quantityHundredths)
+                .multiply(BigDecimal.valueOf(Scaled.ONE_HUNDRED_PERCENT)), 0, RoundingMode.HALF_UP).longValueExact(), 0);
+    }
+}
@@ -0,0 +1,13 @@
+package com.neobit.crm.service.pricing;
+
+/**
+ * How a price book applies the quantity tiers of a product ({@code min_quantity}).
+ */
+public enum PricingModel {
+    
+    /** Every unit is priced at the highest tier the quantity reaches */
+    VOLUME,
+    
+    /** Each unit is priced at the tier its position falls in, like tax brackets */
+    TIERED
+}
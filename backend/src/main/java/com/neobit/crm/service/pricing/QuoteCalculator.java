@@ -0,0 +1,179 @@
+package com.neobit.crm.service.pricing;
+
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.QuoteLineItem;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Totals of one quote in scaled longs, kept up to date line by line.
+ *
+ * This is the only quote arithmetic: {@link QuoteLineItem#calculateTotal} and
+ * {@link Quote#recalculateTotals} delegate here. A line total is
+ * {@code quantity * unit price} less its discount, rounded half up to a cent; tax
+ * and the quote discount are summed unrounded and only the amounts are rounded,
+ * half up to the cent a {@code numeric(15, 2)} column keeps. Tax and discount sums
+ * are therefore kept in 10^-4 of a cent.
+ *
+ * Changing, adding or removing a line adjusts the sums by that line's old and
+ * new contributions instead of re-reducing every line. Not thread-safe.
+ */
+public final class QuoteCalculator {
+    
+    private long[] quantities = new long[16];
+    private long[] unitPrices = new long[16];
+    private long[] discounts = new long[16];
+    private long[] taxRates = new long[16];
+    private long[] totals = new long[16];
+    private int size;
+    
+    private long subtotalCents;
+    /** Sum of line total * tax rate, in 10^-4 of a cent */
+    private long taxMicros;
+    private Quote.DiscountType discountType;
+    /** Percent in hundredths for PERCENT, cents for AMOUNT */
+    private long discountValue;
+    
+    public static QuoteCalculator of(Quote quote) {
+        QuoteCalculator calculator = new QuoteCalculator();
+        calculator.setDiscount(quote.getDiscountType(), Scaled.of(quote.getDiscountValue(), Scaled.MONEY_SCALE));
+        List<QuoteLineItem> items = quote.getLineItems();
+        calculator.ensureCapacity(items.size());
+        for (QuoteLineItem item : items) {
+            calculator.addLine(Scaled.of(item.getQuantity(), Scaled.QUANTITY_SCALE),
+                    Scaled.of(item.getUnitPrice(), Scaled.MONEY_SCALE),
+                    Scaled.of(item.getDiscountPercent(), Scaled.PERCENT_SCALE),
+                    Scaled.of(item.getTaxRate(), Scaled.PERCENT_SCALE));
+        }
+        return calculator;
+    }
+    
+    /**
+     * A line total in cents: {@code quantity * unit price}, less the discount when it
+     * is positive, rounded half up.
+     */
+    public static long lineTotal(long quantityHundredths, long unitPriceCents, long discountBasisPoints) {
+        long keep = discountBasisPoints > 0 ? Scaled.ONE_HUNDRED_PERCENT - discountBasisPoints : Scaled.ONE_HUNDRED_PERCENT;
+        return Scaled.multiplyDivideHalfUp(quantityHundredths, unitPriceCents, keep, 100 * Scaled.ONE_HUNDRED_PERCENT);
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    /** Appends a line and returns its index. */
+    public int addLine(long quantityHundredths, long unitPriceCents, long discountBasisPoints, long taxBasisPoints) {
+        ensureCapacity(size + 1);
+        int index = size++;
+        write(index, quantityHundredths, unitPriceCents, discountBasisPoints, taxBasisPoints);
+        return index;
+    }
+    
+    /** Replaces line {@code index}; the totals move by the difference only. */
+    public void setLine(int index, long quantityHundredths, long unitPriceCents, long discountBasisPoints, long taxBasisPoints) {
+        checkIndex(index);
+        retract(index);
+        write(index, quantityHundredths, unitPriceCents, discountBasisPoints, taxBasisPoints);
+    }
+    
+    /** Removes line {@code index}; later lines move up by one. */
+    public void removeLine(int index) {
+        checkIndex(index);
+        retract(index);
+        int tail = size - index - 1;
+        for (long[] column : new long[][] {quantities, unitPrices, discounts, taxRates, totals}) {
+            System.arraycopy(column, index + 1, column, index, tail);
+        }
+        size--;
+    }
+    
+    public void setDiscount(Quote.DiscountType type, long value) {
+        this.discountType = type;
+        this.discountValue = value;
+    }
+    
+    public long lineTotalCents(int index) {
+        checkIndex(index);
+        return totals[index];
+    }
+    
+    public long subtotalCents() {
+        return subtotalCents;
+    }
+    
+    public long taxCents() {
+        return Scaled.divideHalfUp(taxMicros, Scaled.ONE_HUNDRED_PERCENT);
+    }
+    
+    public long discountCents() {
+        return Scaled.divideHalfUp(discountMicros(), Scaled.ONE_HUNDRED_PERCENT);
+    }
+    
+    public long totalCents() {
+        return Scaled.divideHalfUp(Math.addExact(Math.subtractExact(
+                Math.multiplyExact(subtotalCents, Scaled.ONE_HUNDRED_PERCENT), discountMicros()), taxMicros),
+                Scaled.ONE_HUNDRED_PERCENT);
+    }
+    
+    /**
+     * Writes the line totals and quote amounts onto the entities, which must be the
+     * quote's lines in the order they were added.
+     */
+    public void applyTo(Quote quote) {
+        List<QuoteLineItem> items = quote.getLineItems();
+        if (items.size() != size) {
+            throw new IllegalStateException("Quote has " + items.size() + " lines, calculator " + size);
+        }
+        for (int i = 0; i < size; i++) {
+            items.get(i).setTotalPrice(Scaled.toDecimal(totals[i], Scaled.MONEY_SCALE));
+        }
+        quote.setSubtotal(Scaled.toDecimal(subtotalCents, Scaled.MONEY_SCALE));
+        quote.setTaxAmount(Scaled.toDecimal(taxCents(), Scaled.MONEY_SCALE));
+        quote.setTotalAmount(Scaled.toDecimal(totalCents(), Scaled.MONEY_SCALE));
+    }
+    
+    private long discountMicros() {
+        if (discountType == Quote.DiscountType.PERCENT) {
+            return Math.multiplyExact(subtotalCents, discountValue);
+        }
+        if (discountType == Quote.DiscountType.AMOUNT) {
+            return Math.multiplyExact(discountValue, Scaled.ONE_HUNDRED_PERCENT);
+        }
+        return 0;
+    }
+    
+    private void write(int index, long quantity, long unitPrice, long discount, long taxRate) {
+        long total = lineTotal(quantity, unitPrice, discount);
+        quantities[index] = quantity;
+        unitPrices[index] = unitPrice;
+        discounts[index] = discount;
+        taxRates[index] = taxRate;
+        totals[index] = total;
+        subtotalCents = Math.addExact(subtotalCents, total);
+        taxMicros = Math.addExact(taxMicros, Math.multiplyExact(total, taxRate));
+    }
+    
+    private void retract(int index) {
+        subtotalCents -= totals[index];
+        taxMicros -= totals[index] * taxRates[index];
+    }
+    
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Line " + index + " of " + size);
+        }
+    }
+    
+    private void ensureCapacity(int capacity) {
+        if (capacity <= quantities.length) {
+            return;
+        }
+        int length = Math.max(capacity, quantities.length * 2);
+        quantities = Arrays.copyOf(quantities, length);
+        unitPrices = Arrays.copyOf(unitPrices, length);
+        discounts = Arrays.copyOf(discounts, length);
+        taxRates = Arrays.copyOf(taxRates, length);
+        totals = Arrays.copyOf(totals, length);
+    }
+}
@@ -0,0 +1,67 @@
+package com.neobit.crm.service.pricing;
+
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.QuoteLineItem;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Prices quotes from price books and computes their totals with {@link QuoteCalculator}.
+ *
+ * Lines with a product take their unit price and discount from the product's
+ * tiers in the price book, found in the tenant's {@link PriceBookIndex} in one
+ * pass over the lines. Lines without a product, or whose product the book does
+ * not list, keep the price they have.
+ */
+@Service
+@RequiredArgsConstructor
+public class QuotePricingService {
+    
+    private final PriceBookIndex priceBookIndex;
+    
+    /**
+     * Reprices the quote's lines from {@code priceBookId}, or from the tenant's default
+     * book for the quote's currency valid on the issue date when it is null, and sets
+     * every total. The returned calculator keeps the totals current as single lines change.
+     */
+    public QuoteCalculator price(Quote quote, UUID priceBookId) {
+        UUID tenantId = quote.getTenant().getId();
+        LocalDate day = quote.getIssueDate() != null ? quote.getIssueDate() : LocalDate.now();
+        PriceBookSnapshot.Book book = findBook(priceBookIndex.snapshot(tenantId), priceBookId, quote.getCurrency(), day);
+        if (book != null) {
+            List<QuoteLineItem> items = quote.getLineItems();
+            for (QuoteLineItem item : items) {
+                PriceTiers tiers = item.getProduct() != null ? book.tiers(item.getProduct().getId()) : null;
+                LinePrice price = tiers != null ? tiers.resolve(Scaled.of(item.getQuantity(), Scaled.QUANTITY_SCALE)) : null;
+                if (price != null) {
+                    item.setUnitPrice(Scaled.toDecimal(price.unitPriceCents(), Scaled.MONEY_SCALE));
+                    item.setDiscountPercent(Scaled.toDecimal(price.discountBasisPoints(), Scaled.PERCENT_SCALE));
+                }
+            }
+        }
+        QuoteCalculator calculator = QuoteCalculator.of(quote);
+        calculator.applyTo(quote);
+        return calculator;
+    }
+    
+    private static PriceBookSnapshot.Book findBook(PriceBookSnapshot snapshot, UUID priceBookId, String currency,
+                                                   LocalDate day) {
+        if (priceBookId == null) {
+            return snapshot.defaultBook(currency, day);
+        }
+        PriceBookSnapshot.Book book = snapshot.book(priceBookId);
+        if (book == null || !book.appliesOn(day)) {
+            throw new ResourceNotFoundException("PriceBook", "id", priceBookId);
+        }
+        if (!book.accepts(currency)) {
+            throw new BadRequestException("Price book is in " + book.currency() + " but the quote is in " + currency);
+        }
+        return book;
+    }
+}
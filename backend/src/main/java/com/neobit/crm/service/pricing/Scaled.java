@@ -0,0 +1,64 @@
+package com.neobit.crm.service.pricing;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point helpers for pricing. Money is held in minor units (scale 2),
+ * quantities in hundredths and percentages in hundredths of a percent, matching
+ * the quote and price book columns. Products fall back to {@link BigInteger}
+ * only when they would overflow a long, so results are always exact.
+ */
+public final class Scaled {
+    
+    public static final int MONEY_SCALE = 2;
+    public static final int QUANTITY_SCALE = 2;
+    public static final int PERCENT_SCALE = 2;
+    
+    /** 100% in hundredths of a percent */
+    public static final long ONE_HUNDRED_PERCENT = 10_000;
+    
+    private Scaled() {
+    }
+    
+    /**
+     * {@code value} in units of {@code 10^-scale}, rounded half up as the column would
+     * store it; null is 0.
+     */
+    public static long of(BigDecimal value, int scale) {
+        if (value == null) {
+            return 0;
+        }
+        if (value.scale() <= scale) {
+            // Exact; stays on BigDecimal's compact long form without a BigInteger
+            return value.movePointRight(scale).longValueExact();
+        }
+        return value.setScale(scale, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    public static BigDecimal toDecimal(long value, int scale) {
+        return BigDecimal.valueOf(value, scale);
+    }
+    
+    /** {@code numerator / denominator} rounded half away from zero, like {@link RoundingMode#HALF_UP}. */
+    public static long divideHalfUp(long numerator, long denominator) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder != 0 && Math.abs(remainder) >= denominator - Math.abs(remainder)) {
+            quotient += Long.signum(numerator) * Long.signum(denominator);
+        }
+        return quotient;
+    }
+    
+    /** {@code a * b * c / denominator} rounded half up, exact for any long inputs. */
+    public static long multiplyDivideHalfUp(long a, long b, long c, long denominator) {
+        try {
+            return divideHalfUp(Math.multiplyExact(Math.multiplyExact(a, b), c), denominator);
+        } catch (ArithmeticException e) {
+            return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b)).multiply(BigInteger.valueOf(c)))
+                    .divide(BigDecimal.valueOf(denominator), 0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        }
+    }
+}
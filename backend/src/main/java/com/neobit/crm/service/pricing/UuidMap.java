@@ -0,0 +1,72 @@
+package com.neobit.crm.service.pricing;
+
+import java.util.UUID;
+
+/**
+ * Open-addressing map from UUID to value that stores keys as two longs, so a
+ * lookup hashes and compares primitives without boxing or allocating. Filled
+ * once and then only read; not thread-safe while filling.
+ */
+final class UuidMap<V> {
+    
+    private final long[] most;
+    private final long[] least;
+    private final Object[] values;
+    private final int mask;
+    private int size;
+    
+    UuidMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        this.most = new long[capacity];
+        this.least = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+    
+    void put(UUID key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Null values are not supported");
+        }
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        int slot = slot(hi, lo);
+        while (values[slot] != null) {
+            if (most[slot] == hi && least[slot] == lo) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size + 1 > values.length / 2) {
+            throw new IllegalStateException("UuidMap sized for fewer than " + (size + 1) + " keys");
+        }
+        most[slot] = hi;
+        least[slot] = lo;
+        values[slot] = value;
+        size++;
+    }
+    
+    @SuppressWarnings("unchecked")
+    V get(UUID key) {
+        long hi = key.getMostSignificantBits();
+        long lo = key.getLeastSignificantBits();
+        int slot = slot(hi, lo);
+        Object value;
+        while ((value = values[slot]) != null) {
+            if (most[slot] == hi && least[slot] == lo) {
+                return (V) value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    private int slot(long hi, long lo) {
+        long h = (hi ^ lo) * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,193 @@
+package com.neobit.crm.service.reminder;
+
+import com.neobit.crm.dto.reminder.ReminderDTO;
+import com.neobit.crm.service.WebSocketNotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Delivers activity and interaction reminders over WebSocket.
+ *
+ * Every refresh loads the unsent reminders firing within the horizon, across all
+ * tenants, with one indexed range query per source, and arms them on a
+ * {@link TimingWheel}. The wheel is advanced every tick; expired reminders are
+ * claimed with {@code FOR UPDATE SKIP LOCKED}, so when several instances hold
+ * the same reminder exactly one of them delivers it.
+ *
+ * Reminders that came due while no instance was running are caught up on the
+ * next refresh if they are no older than the catch-up window, and marked sent
+ * without delivery otherwise. A reminder created or moved inside the loaded
+ * window is picked up by the next refresh.
+ */
+@Component
+@Slf4j
+public class ReminderScheduler {
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final WebSocketNotificationService notificationService;
+    private final Map<ReminderSource, Long> leadSeconds = new EnumMap<>(ReminderSource.class);
+    private final long horizonMs;
+    private final long catchUpMs;
+    private final int claimBatchSize;
+    private final TimingWheel<ArmedReminder> wheel;
+    /** Fire time of every reminder loaded by the last refresh; timers that disagree are stale */
+    private Map<ArmedReminder.Key, Long> armed = new HashMap<>();
+    private final Counter deliveredCounter;
+    private final Counter expiredCounter;
+    
+    public ReminderScheduler(JdbcTemplate jdbcTemplate,
+                             WebSocketNotificationService notificationService,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.reminders.interaction-lead-seconds:900}") long interactionLeadSeconds,
+                             @Value("${app.reminders.horizon-seconds:600}") long horizonSeconds,
+                             @Value("${app.reminders.catch-up-seconds:900}") long catchUpSeconds,
+                             @Value("${app.reminders.tick-ms:1000}") long tickMs,
+                             @Value("${app.reminders.claim-batch-size:500}") int claimBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.notificationService = notificationService;
+        // Activities store the reminder time itself; interactions are reminded ahead of scheduled_at
+        this.leadSeconds.put(ReminderSource.ACTIVITY, 0L);
+        this.leadSeconds.put(ReminderSource.INTERACTION, interactionLeadSeconds);
+        this.horizonMs = horizonSeconds * 1000;
+        this.catchUpMs = catchUpSeconds * 1000;
+        this.claimBatchSize = claimBatchSize;
+        this.wheel = new TimingWheel<>(tickMs, 64, 2, System.currentTimeMillis());
+        if (horizonMs > wheel.horizonMs()) {
+            throw new IllegalArgumentException("app.reminders.horizon-seconds exceeds the timing wheel horizon of "
+                    + wheel.horizonMs() / 1000 + "s");
+        }
+        this.deliveredCounter = meterRegistry.counter("crm.reminders.fired", "outcome", "delivered");
+        this.expiredCounter = meterRegistry.counter("crm.reminders.fired", "outcome", "expired");
+        Gauge.builder("crm.reminders.armed", this, ReminderScheduler::armedCount)
+                .description("Reminders waiting on the timing wheel")
+                .register(meterRegistry);
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void catchUp() {
+        refresh();
+    }
+    
+    /**
+     * Reloads the horizon window and expires reminders older than the catch-up window.
+     */
+    @Scheduled(fixedDelayString = "${app.reminders.refresh-interval-ms:30000}",
+            initialDelayString = "${app.reminders.refresh-interval-ms:30000}")
+    public synchronized void refresh() {
+        long now = System.currentTimeMillis();
+        Map<ArmedReminder.Key, Long> loaded = new HashMap<>();
+        try {
+            for (ReminderSource source : ReminderSource.values()) {
+                long leadMs = leadSeconds.get(source) * 1000;
+                int expired = jdbcTemplate.update(source.expireSql, dueAt(now - catchUpMs, leadMs));
+                if (expired > 0) {
+                    expiredCounter.increment(expired);
+                    log.info("Expired {} {} reminders older than the catch-up window", expired, source.name().toLowerCase(Locale.ROOT));
+                }
+                jdbcTemplate.query(source.loadSql, rs -> {
+                    loaded.put(new ArmedReminder.Key(source, rs.getObject("id", UUID.class)),
+                            rs.getTimestamp("fire_at").getTime());
+                }, leadSeconds.get(source), dueAt(now - catchUpMs, leadMs), dueAt(now + horizonMs, leadMs));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not load reminders, keeping the current window: {}", e.getMessage());
+            return;
+        }
+        for (Map.Entry<ArmedReminder.Key, Long> entry : loaded.entrySet()) {
+            Long previous = armed.get(entry.getKey());
+            if (previous == null || previous.longValue() != entry.getValue()) {
+                wheel.add(entry.getValue(), new ArmedReminder(entry.getKey(), entry.getValue()));
+            }
+        }
+        armed = loaded;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.reminders.tick-ms:1000}")
+    public synchronized void tick() {
+        Map<ReminderSource, List<UUID>> due = new EnumMap<>(ReminderSource.class);
+        wheel.advance(System.currentTimeMillis(), reminder -> {
+            // Skip timers left behind when a reminder was moved, cancelled or sent elsewhere
+            Long fireAt = armed.get(reminder.key());
+            if (fireAt != null && fireAt == reminder.fireAtMs()) {
+                armed.remove(reminder.key());
+                due.computeIfAbsent(reminder.key().source(), s -> new ArrayList<>()).add(reminder.key().id());
+            }
+        });
+        due.forEach((source, ids) -> {
+            for (int from = 0; from < ids.size(); from += claimBatchSize) {
+                claimAndDeliver(source, ids.subList(from, Math.min(ids.size(), from + claimBatchSize)));
+            }
+        });
+    }
+    
+    int armedCount() {
+        return armed.size();
+    }
+    
+    private void claimAndDeliver(ReminderSource source, List<UUID> ids) {
+        long leadMs = leadSeconds.get(source) * 1000;
+        Instant firedAt = Instant.now();
+        List<Claimed> claimed;
+        try {
+            claimed = jdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(source.claimSql);
+                ps.setArray(1, connection.createArrayOf("uuid", ids.toArray()));
+                ps.setTimestamp(2, dueAt(firedAt.toEpochMilli(), leadMs));
+                return ps;
+            }, (rs, rowNum) -> new Claimed(
+                    rs.getString("email"),
+                    ReminderDTO.builder()
+                            .source(source.name().toLowerCase(Locale.ROOT))
+                            .id(rs.getObject("id", UUID.class))
+                            .tenantId(rs.getObject("tenant_id", UUID.class))
+                            .subject(rs.getString("subject"))
+                            .startsAt(rs.getTimestamp("starts_at") != null ? rs.getTimestamp("starts_at").toInstant() : null)
+                            .firedAt(firedAt)
+                            .build()));
+        } catch (RuntimeException e) {
+            // Still unsent, so the next refresh arms them again
+            log.warn("Could not claim {} {} reminders: {}", ids.size(), source.name().toLowerCase(Locale.ROOT), e.getMessage());
+            return;
+        }
+        for (Claimed reminder : claimed) {
+            if (reminder.username() == null) {
+                log.debug("Reminder {} has no user to notify", reminder.payload().getId());
+                continue;
+            }
+            notificationService.notifyUser(reminder.username(), "reminder.due", reminder.payload());
+            deliveredCounter.increment();
+        }
+    }
+    
+    private static Timestamp dueAt(long fireAtMs, long leadMs) {
+        return new Timestamp(fireAtMs + leadMs);
+    }
+    
+    record ArmedReminder(Key key, long fireAtMs) {
+    
+        record Key(ReminderSource source, UUID id) {
+        }
+    }
+    
+    private record Claimed(String username, ReminderDTO payload) {
+    }
+}
@@ -0,0 +1,40 @@
+package com.neobit.crm.service.reminder;
+
+/**
+ * Tables that carry reminders, with the SQL the scheduler runs against each.
+ *
+ * A reminder fires a lead time ahead of the due column. Bounds are passed in
+ * terms of the due column so the partial {@code *_reminder_due} indexes are used.
+ */
+public enum ReminderSource {
+    
+    ACTIVITY("activities", "reminder_at", "status = 'scheduled'", "COALESCE(t.assigned_to, t.owner_id)", "t.scheduled_start"),
+    INTERACTION("interactions", "scheduled_at", "status = 'pending'", "t.user_id", "t.scheduled_at");
+    
+    /** Unsent reminders due in {@code [from, to)}: lead seconds, from, to. */
+    final String loadSql;
+    
+    /** Marks reminders due before {@code cutoff} as sent without delivering them: cutoff. */
+    final String expireSql;
+    
+    /**
+     * Claims the given ids if they are still unsent and due by {@code dueBy}, skipping rows
+     * another node or a user edit holds: ids, dueBy. Returns what the notification needs.
+     */
+    final String claimSql;
+    
+    ReminderSource(String table, String column, String openPredicate, String userExpression, String startsExpression) {
+        String unsent = "reminder_sent = false AND " + openPredicate + " AND " + column + " IS NOT NULL";
+        this.loadSql = "SELECT id, " + column + " - make_interval(secs => ?) AS fire_at FROM " + table +
+                " WHERE " + unsent + " AND " + column + " >= ? AND " + column + " < ?";
+        this.expireSql = "UPDATE " + table + " SET reminder_sent = true WHERE " + unsent +
+                " AND " + column + " < ?";
+        this.claimSql = "WITH due AS (SELECT id FROM " + table + " WHERE id = ANY(?) AND " + unsent +
+                " AND " + column + " <= ? FOR UPDATE SKIP LOCKED), " +
+                "claimed AS (UPDATE " + table + " t SET reminder_sent = true FROM due WHERE t.id = due.id " +
+                "RETURNING t.id, t.tenant_id, " + userExpression + " AS user_id, t.subject, " +
+                startsExpression + " AS starts_at) " +
+                "SELECT c.id, c.tenant_id, c.user_id, u.email, c.subject, c.starts_at " +
+                "FROM claimed c LEFT JOIN users u ON u.id = c.user_id";
+    }
+}
@@ -0,0 +1,134 @@
+package com.neobit.crm.service.reminder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel.
+ *
+ * Level 0 has one slot per tick; each higher level has slots {@code wheelSize}
+ * times wider. A timer is placed on the lowest level whose span covers its
+ * delay and is moved down a level each time its coarse slot comes round, so
+ * adding a timer and expiring it are both O(1) regardless of how many are
+ * pending. Deadlines are rounded up to the next tick, so a timer never fires
+ * early; it may fire up to one tick late.
+ *
+ * Not thread-safe; callers serialise access.
+ */
+public class TimingWheel<T> {
+    
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Timer<T>>[][] slots;
+    private final long[] levelTicks;
+    private final List<Timer<T>> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+    
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel shape");
+        }
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.slots = new List[levels][wheelSize];
+        this.levelTicks = new long[levels + 1];
+        long ticks = 1;
+        for (int level = 0; level <= levels; level++) {
+            levelTicks[level] = ticks;
+            ticks = Math.multiplyExact(ticks, wheelSize);
+        }
+        this.currentTick = startMs / tickMs;
+    }
+    
+    /**
+     * Longest delay, in milliseconds from the current tick, that the wheel can hold.
+     */
+    public long horizonMs() {
+        return (levelTicks[slots.length] - 1) * tickMs;
+    }
+    
+    /**
+     * Adds a timer. A deadline that has already passed fires on the next
+     * {@link #advance}. Returns {@code false} if the deadline is beyond the horizon.
+     */
+    public boolean add(long deadlineMs, T item) {
+        long tick = Math.floorDiv(deadlineMs + tickMs - 1, tickMs);
+        if (!place(new Timer<>(tick, item))) {
+            return false;
+        }
+        size++;
+        return true;
+    }
+    
+    /**
+     * Moves the wheel forward to {@code nowMs}, handing every expired item to {@code expired}.
+     */
+    public void advance(long nowMs, Consumer<T> expired) {
+        long targetTick = nowMs / tickMs;
+        drainDue(expired);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Coarse slots whose range starts at this tick move their timers down a level
+            for (int level = slots.length - 1; level >= 1; level--) {
+                if (currentTick % levelTicks[level] == 0) {
+                    int slot = (int) ((currentTick / levelTicks[level]) % wheelSize);
+                    List<Timer<T>> timers = slots[level][slot];
+                    if (timers != null) {
+                        slots[level][slot] = null;
+                        for (Timer<T> timer : timers) {
+                            place(timer);
+                        }
+                    }
+                }
+            }
+            int slot = (int) (currentTick % wheelSize);
+            List<Timer<T>> timers = slots[0][slot];
+            if (timers != null) {
+                slots[0][slot] = null;
+                due.addAll(timers);
+            }
+            drainDue(expired);
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    private boolean place(Timer<T> timer) {
+        long delay = timer.tick() - currentTick;
+        if (delay <= 0) {
+            due.add(timer);
+            return true;
+        }
+        for (int level = 0; level < slots.length; level++) {
+            if (delay < levelTicks[level + 1]) {
+                int slot = (int) ((timer.tick() / levelTicks[level]) % wheelSize);
+                if (slots[level][slot] == null) {
+                    slots[level][slot] = new ArrayList<>();
+                }
+                slots[level][slot].add(timer);
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private void drainDue(Consumer<T> expired) {
+        if (due.isEmpty()) {
+            return;
+        }
+        List<Timer<T>> fired = new ArrayList<>(due);
+        due.clear();
+        size -= fired.size();
+        for (Timer<T> timer : fired) {
+            expired.accept(timer.item());
+        }
+    }
+    
+    private record Timer<T>(long tick, T item) {
+    }
+}
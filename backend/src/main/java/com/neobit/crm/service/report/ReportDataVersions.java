@@ -0,0 +1,111 @@
+package com.neobit.crm.service.report;
+
+import com.neobit.crm.event.TenantDataChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data versions that cached report results are checked against.
+ *
+ * Every committed change to a tenant's entity takes the next number of a node-wide
+ * sequence; a delete also records that number as the entity's last delete, since
+ * removed rows cannot be found by an incremental refresh. Changes made on other
+ * nodes arrive over a Redis channel and are numbered locally. Writes that bypass
+ * the services raise no event and are only picked up when cached results expire.
+ */
+@Component
+@Slf4j
+public class ReportDataVersions implements MessageListener {
+    
+    static final String CHANNEL = "crm:reports:changed";
+    private static final String SEPARATOR = "|";
+    
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<EntityKey, Marks> marks = new ConcurrentHashMap<>();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    
+    public ReportDataVersions(StringRedisTemplate redisTemplate, RedisMessageListenerContainer listenerContainer) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+    
+    @PostConstruct
+    void register() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+    
+    /** Latest change and latest delete across {@code entities}; 0 when there was none. */
+    public record Version(long changed, long deleted) {
+    }
+    
+    public Version of(UUID tenantId, Set<String> entities) {
+        long changed = 0;
+        long deleted = 0;
+        for (String entity : entities) {
+            Marks mark = marks.get(new EntityKey(tenantId, entity));
+            if (mark != null) {
+                changed = Math.max(changed, mark.changed());
+                deleted = Math.max(deleted, mark.deleted());
+            }
+        }
+        return new Version(changed, deleted);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTenantDataChanged(TenantDataChangedEvent event) {
+        int dot = event.eventType().indexOf('.');
+        if (dot <= 0) {
+            return;
+        }
+        String entity = event.eventType().substring(0, dot);
+        boolean deleted = event.eventType().endsWith(".deleted");
+        bump(event.tenantId(), entity, deleted);
+        try {
+            redisTemplate.convertAndSend(CHANNEL,
+                    String.join(SEPARATOR, nodeId, event.tenantId().toString(), entity, Boolean.toString(deleted)));
+        } catch (RuntimeException e) {
+            // Other nodes fall back to the result TTL
+            log.warn("Failed to publish report data change for tenant {}: {}", event.tenantId(), e.getMessage());
+        }
+    }
+    
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\" + SEPARATOR, 4);
+        if (parts.length != 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            bump(UUID.fromString(parts[1]), parts[2], Boolean.parseBoolean(parts[3]));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed report data change: {}", parts[1]);
+        }
+    }
+    
+    private void bump(UUID tenantId, String entity, boolean deleted) {
+        long version = sequence.incrementAndGet();
+        marks.merge(new EntityKey(tenantId, entity), new Marks(version, deleted ? version : 0),
+                (a, b) -> new Marks(Math.max(a.changed(), b.changed()), Math.max(a.deleted(), b.deleted())));
+    }
+    
+    private record EntityKey(UUID tenantId, String entity) {
+    }
+    
+    private record Marks(long changed, long deleted) {
+    }
+}
@@ -0,0 +1,270 @@
+package com.neobit.crm.service.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * A saved report parsed from the JSON columns of {@code saved_reports}:
+ * <pre>
+ * grouping: {"by": ["stage_id", "created_at:month"]}
+ * columns:  [{"aggregate": "count"}, {"aggregate": "sum", "field": "amount"}]
+ * filters:  {"status": ["open", "won"], "owner_id": "...", "amount": {"from": 1000},
+ *            "created_at": {"from": "2026-01-01", "to": "2026-03-31"}}
+ * sorting:  {"by": "sum(amount)", "direction": "desc", "limit": 10}
+ * </pre>
+ * Temporal fields are grouped by a UTC {@code day}, {@code week}, {@code month},
+ * {@code quarter} or {@code year} bucket labelled by its first day, and filtered by
+ * inclusive date ranges. Parsing throws {@link IllegalArgumentException} for
+ * anything the compiler would not accept.
+ */
+public record ReportDefinition(ReportSource source, List<Dimension> dimensions, List<Measure> measures,
+                               List<Filter> filters, Sort sort) {
+    
+    public static final int MAX_DIMENSIONS = 3;
+    private static final int MAX_MEASURES = 10;
+    
+    public enum Bucket { DAY, WEEK, MONTH, QUARTER, YEAR }
+    
+    public enum Aggregate { COUNT, SUM, AVG, MIN, MAX }
+    
+    public record Dimension(ReportField field, Bucket bucket) {
+    
+        public String label() {
+            return bucket != null ? field.name() + ":" + bucket.name().toLowerCase(Locale.ROOT) : field.name();
+        }
+    }
+    
+    public record Measure(Aggregate aggregate, ReportField field) {
+    
+        public String label() {
+            String name = aggregate.name().toLowerCase(Locale.ROOT);
+            return field != null ? name + "(" + field.name() + ")" : name;
+        }
+    }
+    
+    /**
+     * {@code values} are matched exactly (a null element matches NULL); otherwise
+     * {@code from} and {@code to} bound the field, either of them optional.
+     */
+    public record Filter(ReportField field, List<Object> values, Object from, Object to) {
+    }
+    
+    public record Sort(String by, boolean descending, Integer limit) {
+    }
+    
+    public static ReportDefinition parse(String reportType, JsonNode filters, JsonNode columns, JsonNode grouping,
+                                         JsonNode sorting) {
+        if (reportType == null || reportType.isBlank()) {
+            throw new IllegalArgumentException("Report type is required");
+        }
+        ReportSource source;
+        try {
+            source = ReportSource.parse(reportType);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown report type '" + reportType + "'");
+        }
+        return new ReportDefinition(source, parseDimensions(source, grouping), parseMeasures(source, columns),
+                parseFilters(source, filters), parseSort(sorting));
+    }
+    
+    /**
+     * Index of the dimension that buckets {@code created_at}, which incremental refresh
+     * recomputes bucket by bucket; -1 if there is none.
+     */
+    public int refreshBucketIndex() {
+        for (int i = 0; i < dimensions.size(); i++) {
+            Dimension dimension = dimensions.get(i);
+            if (dimension.bucket() != null && dimension.field().name().equals(ReportSource.IMMUTABLE_TIME_FIELD)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Stable text of everything that determines the result, hashed into the cache key.
+     * Sorting is left out because it is applied to cached results on the way out.
+     */
+    public String canonical() {
+        StringBuilder text = new StringBuilder(source.name()).append('|');
+        text.append(dimensions.stream().map(Dimension::label).collect(Collectors.joining(","))).append('|');
+        text.append(measures.stream().map(Measure::label).collect(Collectors.joining(","))).append('|');
+        for (Filter filter : filters) {
+            text.append(filter.field().name()).append(filter.values()).append('[')
+                    .append(filter.from()).append(',').append(filter.to()).append("];");
+        }
+        return text.toString();
+    }
+    
+    private static List<Dimension> parseDimensions(ReportSource source, JsonNode grouping) {
+        JsonNode by = grouping != null && grouping.isObject() ? grouping.get("by") : grouping;
+        List<Dimension> dimensions = new ArrayList<>();
+        if (by == null || by.isNull() || by.isMissingNode()) {
+            return dimensions;
+        }
+        if (!by.isArray()) {
+            throw new IllegalArgumentException("grouping.by must be a list of fields");
+        }
+        for (JsonNode item : by) {
+            String[] parts = item.asText().split(":", 2);
+            ReportField field = source.field(parts[0].trim());
+            Bucket bucket = null;
+            if (parts.length == 2) {
+                bucket = parseEnum(Bucket.class, parts[1], "bucket");
+            } else if (field.kind().isTemporal()) {
+                bucket = Bucket.DAY;
+            }
+            if (bucket != null && !field.kind().isTemporal()) {
+                throw new IllegalArgumentException("Only date fields can be bucketed: " + field.name());
+            }
+            Dimension dimension = new Dimension(field, bucket);
+            if (dimensions.stream().anyMatch(d -> d.label().equals(dimension.label()))) {
+                throw new IllegalArgumentException("Grouped twice: " + dimension.label());
+            }
+            dimensions.add(dimension);
+        }
+        if (dimensions.size() > MAX_DIMENSIONS) {
+            throw new IllegalArgumentException("At most " + MAX_DIMENSIONS + " groupings are supported");
+        }
+        return dimensions;
+    }
+    
+    private static List<Measure> parseMeasures(ReportSource source, JsonNode columns) {
+        List<Measure> measures = new ArrayList<>();
+        if (columns != null && columns.isArray()) {
+            for (JsonNode item : columns) {
+                String aggregateName;
+                String fieldName;
+                if (item.isTextual()) {
+                    String[] parts = item.asText().split(":", 2);
+                    aggregateName = parts[0];
+                    fieldName = parts.length == 2 ? parts[1] : null;
+                } else {
+                    aggregateName = item.path("aggregate").asText("count");
+                    fieldName = item.hasNonNull("field") ? item.get("field").asText() : null;
+                }
+                Aggregate aggregate = parseEnum(Aggregate.class, aggregateName, "aggregate");
+                ReportField field = fieldName != null ? source.field(fieldName.trim()) : null;
+                if (aggregate != Aggregate.COUNT && (field == null || field.kind() != ReportField.Kind.NUMBER)) {
+                    throw new IllegalArgumentException(aggregate.name().toLowerCase(Locale.ROOT) + " needs a numeric field");
+                }
+                measures.add(new Measure(aggregate, field));
+            }
+        } else if (columns != null && !columns.isNull() && !columns.isMissingNode()) {
+            throw new IllegalArgumentException("columns must be a list of aggregates");
+        }
+        if (measures.isEmpty()) {
+            measures.add(new Measure(Aggregate.COUNT, null));
+        }
+        if (measures.size() > MAX_MEASURES) {
+            throw new IllegalArgumentException("At most " + MAX_MEASURES + " columns are supported");
+        }
+        return measures;
+    }
+    
+    private static List<Filter> parseFilters(ReportSource source, JsonNode filters) {
+        List<Filter> parsed = new ArrayList<>();
+        if (filters == null || filters.isNull() || filters.isMissingNode()) {
+            return parsed;
+        }
+        if (!filters.isObject()) {
+            throw new IllegalArgumentException("filters must be an object keyed by field");
+        }
+        Iterator<Map.Entry<String, JsonNode>> entries = filters.fields();
+        while (entries.hasNext()) {
+            Map.Entry<String, JsonNode> entry = entries.next();
+            ReportField field = source.field(entry.getKey());
+            JsonNode value = entry.getValue();
+            if (value.isObject()) {
+                if (field.kind() != ReportField.Kind.NUMBER && !field.kind().isTemporal()) {
+                    throw new IllegalArgumentException("Ranges only apply to numbers and dates: " + field.name());
+                }
+                Object from = value.hasNonNull("from") ? convert(field, value.get("from"), false) : null;
+                Object to = value.hasNonNull("to") ? convert(field, value.get("to"), true) : null;
+                if (from != null || to != null) {
+                    parsed.add(new Filter(field, null, from, to));
+                }
+                continue;
+            }
+            if (field.kind().isTemporal() && !value.isNull()) {
+                throw new IllegalArgumentException("Dates are filtered with {\"from\", \"to\"}: " + field.name());
+            }
+            List<Object> values = new ArrayList<>();
+            if (value.isArray()) {
+                value.forEach(item -> values.add(convert(field, item, false)));
+            } else {
+                values.add(convert(field, value, false));
+            }
+            if (values.isEmpty()) {
+                throw new IllegalArgumentException("Empty filter list for " + field.name());
+            }
+            parsed.add(new Filter(field, values, null, null));
+        }
+        parsed.sort((a, b) -> a.field().name().compareTo(b.field().name()));
+        return parsed;
+    }
+    
+    private static Sort parseSort(JsonNode sorting) {
+        if (sorting == null || !sorting.isObject()) {
+            return new Sort(null, false, null);
+        }
+        Integer limit = sorting.hasNonNull("limit") ? sorting.get("limit").asInt() : null;
+        if (limit != null && limit <= 0) {
+            throw new IllegalArgumentException("sorting.limit must be positive");
+        }
+        String by = sorting.hasNonNull("by") ? sorting.get("by").asText() : null;
+        return new Sort(by, "desc".equalsIgnoreCase(sorting.path("direction").asText("asc")), limit);
+    }
+    
+    /**
+     * Converts a filter value to what the driver binds for the field; the upper end
+     * of a timestamp range becomes the start of the following UTC day.
+     */
+    private static Object convert(ReportField field, JsonNode value, boolean upperBound) {
+        if (value.isNull()) {
+            return null;
+        }
+        try {
+            return switch (field.kind()) {
+                case ID -> UUID.fromString(value.asText());
+                case TEXT -> value.asText();
+                case CODE -> value.asText().toLowerCase(Locale.ROOT);
+                case NUMBER -> new BigDecimal(value.asText());
+                case BOOLEAN -> {
+                    if (!value.isBoolean()) {
+                        throw new IllegalArgumentException("Expected true or false for " + field.name());
+                    }
+                    yield value.asBoolean();
+                }
+                case DATE -> Date.valueOf(LocalDate.parse(value.asText()));
+                case TIMESTAMP -> {
+                    LocalDate day = LocalDate.parse(value.asText());
+                    yield Timestamp.from((upperBound ? day.plusDays(1) : day).atStartOfDay(ZoneOffset.UTC).toInstant());
+                }
+            };
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid value '" + value.asText() + "' for " + field.name());
+        }
+    }
+    
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String name, String what) {
+        try {
+            return Enum.valueOf(type, name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + what + " '" + name + "'");
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.neobit.crm.service.report;
+
+import com.neobit.crm.exception.BadRequestException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Array;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Runs saved report definitions on the reporting pool and caches their results.
+ * The pool reads the primary, so a result is never older than the version it is
+ * cached under.
+ *
+ * Results are cached per tenant under a hash of the definition, together with the
+ * {@link ReportDataVersions} version they were computed at. A request whose
+ * version has not moved is served from the cache. Otherwise, if the report groups
+ * by a {@code created_at} bucket and nothing it reads was deleted since, only the
+ * buckets touched by updated rows are recomputed and spliced in; anything else
+ * is recomputed in full. All reports of one call, such as the widgets of a
+ * dashboard, that need the database go out as a single statement.
+ */
+@Component
+@Slf4j
+public class ReportEngine {
+    
+    private static final String SQL_STATE_QUERY_CANCELED = "57014";
+    
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ReportDataVersions dataVersions;
+    private final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final Timer queryTimer;
+    private final long statementTimeoutMs;
+    private final long ttlMs;
+    private final long overlapMs;
+    private final int maxRows;
+    private final int maxEntries;
+    
+    public ReportEngine(@Qualifier("reportingDataSource") DataSource reportingDataSource,
+                        ReportDataVersions dataVersions,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.reporting.statement-timeout-ms:15000}") long statementTimeoutMs,
+                        @Value("${app.reporting.cache.ttl-seconds:900}") long ttlSeconds,
+                        @Value("${app.reporting.cache.max-entries:2000}") int maxEntries,
+                        @Value("${app.reporting.refresh-overlap-ms:60000}") long overlapMs,
+                        @Value("${app.reporting.max-rows:10000}") int maxRows) {
+        JdbcTemplate reporting = new JdbcTemplate(reportingDataSource);
+        // Client-side backstop for the server-side statement_timeout set on every pooled connection
+        reporting.setQueryTimeout((int) Math.max(1, (statementTimeoutMs + 999) / 1000 + 5));
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(reporting);
+        this.dataVersions = dataVersions;
+        this.meterRegistry = meterRegistry;
+        this.queryTimer = meterRegistry.timer("crm.reports.query");
+        this.statementTimeoutMs = statementTimeoutMs;
+        this.ttlMs = ttlSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.overlapMs = overlapMs;
+        this.maxRows = maxRows;
+    }
+    
+    /** How a result was produced: from the cache, by recomputing some buckets, or in full. */
+    public enum Served { CACHE, INCREMENTAL, FULL }
+    
+    public record Outcome(ReportResult result, Served served, Instant computedAt) {
+    }
+    
+    /**
+     * Results for {@code definitions} in order, with one database round trip for all
+     * of them that are not current in the cache.
+     */
+    public List<Outcome> run(UUID tenantId, List<ReportDefinition> definitions) {
+        long now = System.currentTimeMillis();
+        Outcome[] outcomes = new Outcome[definitions.size()];
+        // Identical definitions in one call share a branch
+        Map<String, Pending> pending = new LinkedHashMap<>();
+        List<ReportQuery> branches = new ArrayList<>();
+        for (int i = 0; i < definitions.size(); i++) {
+            ReportDefinition definition = definitions.get(i);
+            String key = tenantId + ":" + hash(definition);
+            ReportDataVersions.Version version = dataVersions.of(tenantId, definition.source().entities);
+            Cached cached = cache.get(key);
+            boolean fresh = cached != null && now - cached.computedAtMs() < ttlMs;
+            if (fresh && cached.version() >= version.changed()) {
+                outcomes[i] = new Outcome(cached.result(), Served.CACHE, Instant.ofEpochMilli(cached.computedAtMs()));
+                continue;
+            }
+            Pending existing = pending.get(key);
+            if (existing != null) {
+                existing.indexes().add(i);
+                continue;
+            }
+            int widget = branches.size();
+            // Deletes, and writes that bypass the services, are only caught by a full run
+            boolean incremental = cached != null && now - cached.fullAtMs() < ttlMs && !cached.result().truncated()
+                    && definition.refreshBucketIndex() >= 0 && cached.version() >= version.deleted();
+            branches.add(incremental
+                    ? ReportQuery.incremental(widget, definition, tenantId,
+                            Instant.ofEpochMilli(cached.computedAtMs() - overlapMs), maxRows)
+                    : ReportQuery.full(widget, definition, tenantId, maxRows));
+            List<Integer> indexes = new ArrayList<>();
+            indexes.add(i);
+            pending.put(key, new Pending(widget, definition, incremental ? cached : null, version.changed(), indexes));
+        }
+        if (branches.isEmpty()) {
+            count(Served.CACHE, definitions.size());
+            return Arrays.asList(outcomes);
+        }
+    
+        Map<Integer, List<Branch>> rowsByWidget = execute(ReportQuery.union(branches));
+        for (Map.Entry<String, Pending> entry : pending.entrySet()) {
+            Pending job = entry.getValue();
+            List<Branch> rows = rowsByWidget.getOrDefault(job.widget(), List.of());
+            ReportResult result;
+            Served served;
+            if (job.base() != null) {
+                result = refresh(job, rows);
+                served = Served.INCREMENTAL;
+            } else {
+                result = build(job.definition(), rows);
+                served = Served.FULL;
+            }
+            cache.put(entry.getKey(), new Cached(result, job.version(), now,
+                    job.base() != null ? job.base().fullAtMs() : now));
+            for (int index : job.indexes()) {
+                outcomes[index] = new Outcome(result, served, Instant.ofEpochMilli(now));
+                count(served, 1);
+            }
+        }
+        count(Served.CACHE, (int) Arrays.stream(outcomes).filter(o -> o.served() == Served.CACHE).count());
+        trim();
+        return Arrays.asList(outcomes);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.reporting.cache.evict-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(cached -> now - cached.computedAtMs() >= ttlMs);
+    }
+    
+    private Map<Integer, List<Branch>> execute(ReportQuery query) {
+        Map<Integer, List<Branch>> rows = new HashMap<>();
+        try {
+            queryTimer.record(() -> jdbcTemplate.query(query.sql(), query.params(), rs -> {
+                Array dims = rs.getArray("dims");
+                Array measures = rs.getArray("measures");
+                rows.computeIfAbsent(rs.getInt("widget"), w -> new ArrayList<>()).add(new Branch(rs.getString("bound"),
+                        dims != null ? (String[]) dims.getArray() : null,
+                        measures != null ? (BigDecimal[]) measures.getArray() : null));
+            }));
+        } catch (DataAccessException e) {
+            if (isTimeout(e)) {
+                throw new BadRequestException("Report took longer than " + statementTimeoutMs / 1000 +
+                        " seconds; narrow its filters or grouping");
+            }
+            throw e;
+        }
+        return rows;
+    }
+    
+    private ReportResult build(ReportDefinition definition, List<Branch> branches) {
+        List<ReportResult.Row> rows = new ArrayList<>(Math.min(branches.size(), maxRows));
+        for (Branch branch : branches) {
+            if (rows.size() == maxRows) {
+                break;
+            }
+            rows.add(branch.toRow());
+        }
+        return new ReportResult(definition.dimensions().stream().map(ReportDefinition.Dimension::label).toList(),
+                definition.measures().stream().map(ReportDefinition.Measure::label).toList(),
+                rows, branches.size() > maxRows);
+    }
+    
+    private ReportResult refresh(Pending job, List<Branch> branches) {
+        ReportResult base = job.base().result();
+        String bound = branches.isEmpty() ? null : branches.get(0).bound();
+        if (bound == null) {
+            // Nothing this report reads was updated since the last run
+            return base;
+        }
+        List<ReportResult.Row> fresh = new ArrayList<>();
+        for (Branch branch : branches) {
+            if (branch.dims() != null) {
+                fresh.add(branch.toRow());
+            }
+        }
+        return base.refreshed(job.definition().refreshBucketIndex(), bound, fresh, maxRows);
+    }
+    
+    /**
+     * Drops the oldest entries once the cache is over its size limit.
+     */
+    private void trim() {
+        int excess = cache.size() - maxEntries;
+        if (excess <= 0) {
+            return;
+        }
+        cache.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue((a, b) -> Long.compare(a.computedAtMs(), b.computedAtMs())))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(cache::remove);
+    }
+    
+    private void count(Served served, int amount) {
+        if (amount > 0) {
+            meterRegistry.counter("crm.reports.runs", "served", served.name().toLowerCase(Locale.ROOT)).increment(amount);
+        }
+    }
+    
+    private static boolean isTimeout(DataAccessException e) {
+        return e instanceof QueryTimeoutException
+                || e.getMostSpecificCause() instanceof SQLException sql && SQL_STATE_QUERY_CANCELED.equals(sql.getSQLState());
+    }
+    
+    private static String hash(ReportDefinition definition) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(definition.canonical().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private record Cached(ReportResult result, long version, long computedAtMs, long fullAtMs) {
+    }
+    
+    private record Pending(int widget, ReportDefinition definition, Cached base, long version, List<Integer> indexes) {
+    }
+    
+    /** One row of the combined statement */
+    private record Branch(String bound, String[] dims, BigDecimal[] measures) {
+    
+        ReportResult.Row toRow() {
+            return new ReportResult.Row(Arrays.asList(dims), Arrays.asList(measures));
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.neobit.crm.service.report;
+
+/**
+ * A column a saved report may filter, group or aggregate on. {@code expression}
+ * is the SQL over the source table aliased {@code t}.
+ */
+record ReportField(String name, String expression, Kind kind) {
+    
+    enum Kind {
+        /** Compared as text after a {@code ::text} cast */
+        ID,
+        /** Free text, compared as stored */
+        TEXT,
+        /** Lower-case codes such as statuses; filter values are lower-cased */
+        CODE,
+        NUMBER,
+        BOOLEAN,
+        DATE,
+        TIMESTAMP;
+    
+        boolean isTemporal() {
+            return this == DATE || this == TIMESTAMP;
+        }
+    }
+    
+    static ReportField of(String name, Kind kind) {
+        return new ReportField(name, "t." + name, kind);
+    }
+}
@@ -0,0 +1,165 @@
+package com.neobit.crm.service.report;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One report compiled to a SQL branch that can be combined with others by
+ * {@code UNION ALL}. Every branch yields the same four columns: {@code widget}
+ * (the branch's position in the batch), {@code bound}, {@code dims text[]} and
+ * {@code measures numeric[]}. Named parameters are prefixed with the widget index
+ * so branches never collide.
+ *
+ * A full branch returns every group. An incremental branch first finds the
+ * earliest {@code created_at} bucket touched by rows updated since a point in
+ * time, returns it as {@code bound}, and recomputes only the groups from that
+ * bucket on; it always yields at least one row, with null {@code bound} and
+ * {@code dims} when nothing changed.
+ */
+record ReportQuery(String sql, Map<String, Object> params) {
+    
+    static ReportQuery full(int widget, ReportDefinition definition, UUID tenantId, int maxRows) {
+        Builder builder = new Builder(widget, definition, tenantId);
+        String sql = "SELECT " + widget + " AS widget, NULL::text AS bound, " + builder.projection() +
+                " FROM " + definition.source().table + " t WHERE " + builder.where() + builder.groupBy() +
+                " LIMIT " + (maxRows + 1);
+        return new ReportQuery(sql, builder.params);
+    }
+    
+    static ReportQuery incremental(int widget, ReportDefinition definition, UUID tenantId, Instant changedSince,
+                                   int maxRows) {
+        int bucketIndex = definition.refreshBucketIndex();
+        if (bucketIndex < 0) {
+            throw new IllegalArgumentException("Report has no created_at bucket to refresh by");
+        }
+        Builder builder = new Builder(widget, definition, tenantId);
+        String table = definition.source().table;
+        String since = builder.bind(Timestamp.from(changedSince));
+        String bucket = definition.dimensions().get(bucketIndex).bucket().name().toLowerCase(Locale.ROOT);
+        String sql = "SELECT " + widget + " AS widget, b.bound, g.dims, g.measures FROM " +
+                "(SELECT to_char(date_trunc('" + bucket + "', min(t.created_at), 'UTC'), 'YYYY-MM-DD') AS bound " +
+                "FROM " + table + " t WHERE t.tenant_id = " + builder.tenant + " AND t.updated_at > " + since + ") b " +
+                "LEFT JOIN LATERAL (SELECT " + builder.projection() + " FROM " + table + " t WHERE " + builder.where() +
+                " AND b.bound IS NOT NULL AND t.created_at >= b.bound::timestamp AT TIME ZONE 'UTC'" +
+                builder.groupBy() + " LIMIT " + (maxRows + 1) + ") g ON true";
+        return new ReportQuery(sql, builder.params);
+    }
+    
+    /**
+     * Joins branches into one statement with one parameter map.
+     */
+    static ReportQuery union(List<ReportQuery> queries) {
+        StringBuilder sql = new StringBuilder();
+        Map<String, Object> params = new HashMap<>();
+        for (ReportQuery query : queries) {
+            if (!sql.isEmpty()) {
+                sql.append(" UNION ALL ");
+            }
+            sql.append('(').append(query.sql()).append(')');
+            params.putAll(query.params());
+        }
+        return new ReportQuery(sql.toString(), params);
+    }
+    
+    /** SQL label of a bucket of {@code expression}, e.g. {@code 2026-04-01} for April. */
+    static String bucketExpression(String expression, ReportField.Kind kind, ReportDefinition.Bucket bucket) {
+        String unit = bucket.name().toLowerCase(Locale.ROOT);
+        String truncated = kind == ReportField.Kind.TIMESTAMP
+                ? "date_trunc('" + unit + "', " + expression + ", 'UTC')"
+                : "date_trunc('" + unit + "', " + expression + ")";
+        return "to_char(" + truncated + ", 'YYYY-MM-DD')";
+    }
+    
+    private static final class Builder {
+    
+        private final int widget;
+        private final ReportDefinition definition;
+        private final Map<String, Object> params = new HashMap<>();
+        private final String tenant;
+    
+        Builder(int widget, ReportDefinition definition, UUID tenantId) {
+            this.widget = widget;
+            this.definition = definition;
+            this.tenant = bind(tenantId);
+        }
+    
+        String bind(Object value) {
+            String name = "w" + widget + "_" + params.size();
+            params.put(name, value);
+            return ":" + name;
+        }
+    
+        String projection() {
+            List<String> dims = new ArrayList<>();
+            for (ReportDefinition.Dimension dimension : definition.dimensions()) {
+                dims.add(dimensionExpression(dimension));
+            }
+            List<String> measures = new ArrayList<>();
+            for (ReportDefinition.Measure measure : definition.measures()) {
+                String field = measure.field() != null ? measure.field().expression() : null;
+                measures.add(switch (measure.aggregate()) {
+                    case COUNT -> field != null ? "count(" + field + ")" : "count(*)";
+                    case SUM -> "coalesce(sum(" + field + "), 0)";
+                    case AVG -> "avg(" + field + ")";
+                    case MIN -> "min(" + field + ")";
+                    case MAX -> "max(" + field + ")";
+                });
+            }
+            return "ARRAY[" + String.join(", ", dims) + "]::text[] AS dims, ARRAY[" +
+                    String.join(", ", measures) + "]::numeric[] AS measures";
+        }
+    
+        String where() {
+            StringBuilder where = new StringBuilder("t.tenant_id = ").append(tenant);
+            for (ReportDefinition.Filter filter : definition.filters()) {
+                String expression = filter.field().expression();
+                if (filter.values() != null) {
+                    List<Object> values = new ArrayList<>(filter.values());
+                    boolean matchNull = values.removeIf(value -> value == null);
+                    List<String> terms = new ArrayList<>();
+                    if (!values.isEmpty()) {
+                        terms.add(expression + " IN (" + bind(values) + ")");
+                    }
+                    if (matchNull) {
+                        terms.add(expression + " IS NULL");
+                    }
+                    where.append(" AND (").append(String.join(" OR ", terms)).append(')');
+                    continue;
+                }
+                if (filter.from() != null) {
+                    where.append(" AND ").append(expression).append(" >= ").append(bind(filter.from()));
+                }
+                if (filter.to() != null) {
+                    // Timestamp upper bounds were moved to the start of the next day
+                    String operator = filter.field().kind() == ReportField.Kind.TIMESTAMP ? " < " : " <= ";
+                    where.append(" AND ").append(expression).append(operator).append(bind(filter.to()));
+                }
+            }
+            return where.toString();
+        }
+    
+        String groupBy() {
+            if (definition.dimensions().isEmpty()) {
+                return "";
+            }
+            List<String> expressions = new ArrayList<>();
+            for (ReportDefinition.Dimension dimension : definition.dimensions()) {
+                expressions.add(dimensionExpression(dimension));
+            }
+            return " GROUP BY " + String.join(", ", expressions);
+        }
+    
+        private static String dimensionExpression(ReportDefinition.Dimension dimension) {
+            ReportField field = dimension.field();
+            return dimension.bucket() != null
+                    ? bucketExpression(field.expression(), field.kind(), dimension.bucket())
+                    : "(" + field.expression() + ")::text";
+        }
+    }
+}
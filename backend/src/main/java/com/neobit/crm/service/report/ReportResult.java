@@ -0,0 +1,67 @@
+package com.neobit.crm.service.report;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Groups of a report in no particular order. {@code truncated} means the query hit
+ * the row cap, so the groups are an arbitrary subset and cannot be refreshed in place.
+ */
+public record ReportResult(List<String> dimensions, List<String> measures, List<Row> rows, boolean truncated) {
+    
+    private static final Comparator<String> KEY_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+    private static final Comparator<BigDecimal> VALUE_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+    
+    public record Row(List<String> keys, List<BigDecimal> values) {
+    }
+    
+    /**
+     * Replaces every group in a bucket at or after {@code bound} with {@code fresh},
+     * the recomputation of exactly those buckets. Bucket labels are ISO dates, so
+     * they compare as text.
+     */
+    ReportResult refreshed(int bucketIndex, String bound, List<Row> fresh, int maxRows) {
+        List<Row> merged = new ArrayList<>(rows.size() + fresh.size());
+        for (Row row : rows) {
+            String bucket = row.keys().get(bucketIndex);
+            if (bucket == null || bucket.compareTo(bound) < 0) {
+                merged.add(row);
+            }
+        }
+        merged.addAll(fresh);
+        boolean overflow = merged.size() > maxRows;
+        return new ReportResult(dimensions, measures, overflow ? new ArrayList<>(merged.subList(0, maxRows)) : merged,
+                overflow);
+    }
+    
+    /**
+     * Rows ordered by a dimension or measure label, or by the dimensions in order
+     * when {@code by} is null, then cut to {@code limit}.
+     */
+    public List<Row> ordered(String by, boolean descending, Integer limit) {
+        Comparator<Row> order;
+        int measure = by != null ? measures.indexOf(by) : -1;
+        int dimension = by != null ? dimensions.indexOf(by) : -1;
+        if (by != null && measure < 0 && dimension < 0) {
+            throw new IllegalArgumentException("Cannot sort by '" + by + "'; expected one of " + dimensions + " or " + measures);
+        }
+        if (measure >= 0) {
+            order = Comparator.comparing((Row row) -> row.values().get(measure), VALUE_ORDER);
+        } else if (dimension >= 0) {
+            order = Comparator.comparing((Row row) -> row.keys().get(dimension), KEY_ORDER);
+        } else {
+            order = (a, b) -> 0;
+        }
+        if (descending) {
+            order = order.reversed();
+        }
+        for (int i = 0; i < dimensions.size(); i++) {
+            int index = i;
+            order = order.thenComparing(row -> row.keys().get(index), KEY_ORDER);
+        }
+        List<Row> sorted = rows.stream().sorted(order).toList();
+        return limit != null && limit < sorted.size() ? sorted.subList(0, limit) : sorted;
+    }
+}
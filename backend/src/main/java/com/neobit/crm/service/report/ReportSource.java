@@ -0,0 +1,79 @@
+package com.neobit.crm.service.report;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static com.neobit.crm.service.report.ReportField.Kind.*;
+
+/**
+ * Tables a saved report can run against, named by {@code saved_reports.report_type},
+ * with the fields each exposes.
+ *
+ * {@code entities} are the {@code TenantDataChangedEvent} entity names whose changes
+ * can alter a report's result, including deletes that cascade into the table.
+ * Every source has an immutable {@code created_at} and an {@code updated_at}
+ * maintained by trigger, which is what incremental refresh relies on.
+ */
+public enum ReportSource {
+    
+    DEALS("deals", Set.of("deal"),
+            ReportField.of("pipeline_id", ID), ReportField.of("stage_id", ID), ReportField.of("owner_id", ID),
+            ReportField.of("account_id", ID), ReportField.of("contact_id", ID),
+            new ReportField("status", "lower(t.status)", CODE), ReportField.of("currency", TEXT),
+            ReportField.of("lead_source", TEXT), ReportField.of("amount", NUMBER), ReportField.of("probability", NUMBER),
+            ReportField.of("expected_revenue", NUMBER), ReportField.of("expected_close_date", DATE),
+            ReportField.of("actual_close_date", DATE), ReportField.of("created_at", TIMESTAMP)),
+    CUSTOMERS("customers", Set.of("customer", "account"),
+            ReportField.of("account_id", ID), ReportField.of("owner_id", ID), ReportField.of("lead_source", TEXT),
+            ReportField.of("lead_status", CODE), ReportField.of("country", TEXT), ReportField.of("city", TEXT),
+            ReportField.of("is_lead", BOOLEAN), ReportField.of("lead_score", NUMBER),
+            ReportField.of("last_contacted_at", TIMESTAMP), ReportField.of("created_at", TIMESTAMP)),
+    ACCOUNTS("accounts", Set.of("account"),
+            ReportField.of("owner_id", ID), ReportField.of("industry", TEXT), ReportField.of("status", CODE),
+            ReportField.of("country", TEXT), ReportField.of("annual_revenue", NUMBER),
+            ReportField.of("employee_count", NUMBER), ReportField.of("created_at", TIMESTAMP)),
+    TASKS("tasks", Set.of("task", "customer", "account"),
+            ReportField.of("assigned_to", ID), ReportField.of("created_by", ID), ReportField.of("customer_id", ID),
+            ReportField.of("account_id", ID), ReportField.of("status", CODE), ReportField.of("priority", CODE),
+            ReportField.of("due_date", TIMESTAMP), ReportField.of("completed_at", TIMESTAMP),
+            ReportField.of("created_at", TIMESTAMP)),
+    INTERACTIONS("interactions", Set.of("interaction", "customer", "account"),
+            ReportField.of("user_id", ID), ReportField.of("customer_id", ID), ReportField.of("account_id", ID),
+            new ReportField("type", "t.type::text", CODE), new ReportField("direction", "t.direction::text", CODE),
+            new ReportField("status", "t.status::text", CODE), ReportField.of("sentiment", CODE),
+            ReportField.of("duration_seconds", NUMBER), ReportField.of("sentiment_score", NUMBER),
+            ReportField.of("started_at", TIMESTAMP), ReportField.of("scheduled_at", TIMESTAMP),
+            ReportField.of("created_at", TIMESTAMP));
+    
+    /** Field whose time buckets never change for a row, so they can be refreshed one by one */
+    static final String IMMUTABLE_TIME_FIELD = "created_at";
+    
+    final String table;
+    final Set<String> entities;
+    private final Map<String, ReportField> fields = new LinkedHashMap<>();
+    
+    ReportSource(String table, Set<String> entities, ReportField... fields) {
+        this.table = table;
+        this.entities = entities;
+        Arrays.stream(fields).forEach(field -> this.fields.put(field.name(), field));
+    }
+    
+    /**
+     * Accepts {@code deals}, {@code DEALS} and the singular {@code deal}.
+     */
+    public static ReportSource parse(String reportType) {
+        String normalized = reportType.trim().toUpperCase(Locale.ROOT);
+        return valueOf(normalized.endsWith("S") ? normalized : normalized + "S");
+    }
+    
+    ReportField field(String name) {
+        ReportField field = fields.get(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown field '" + name + "' for " + table + " reports");
+        }
+        return field;
+    }
+}
@@ -0,0 +1,146 @@
+package com.neobit.crm.service.rollup;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+/**
+ * Rebuilds daily rollups from the interactions table.
+ *
+ * Nightly it recomputes the last few closed days, which absorbs late updates,
+ * deletes and any deltas lost in a crash. On startup, when the rollup table is
+ * empty, it backfills every month that still has a partition, one month per
+ * transaction. Months already archived out of the database keep the rollups
+ * they had and are never recomputed.
+ *
+ * Only closed days are recomputed; today stays with the deltas, and a backfilled
+ * today fills in at the next nightly run. Each recompute marks its days in
+ * {@code interaction_rollup_fences} and holds {@link #FENCE_LOCK_KEY} exclusively,
+ * which is how {@link InteractionRollupWriter} keeps deltas the recount already
+ * includes from being added again.
+ */
+@Component
+@Slf4j
+public class InteractionRollupJob {
+    
+    private static final long ADVISORY_LOCK_KEY = 0x6372_6d5f_726f_6c6cL;
+    
+    /** Shared by rollup writes, exclusive during a recompute */
+    static final long FENCE_LOCK_KEY = 0x6372_6d5f_726f_6c66L;
+    
+    private static final String FENCE_SQL =
+            "INSERT INTO interaction_rollup_fences (day, recomputed_at) " +
+            "SELECT d::date, now() FROM generate_series(?::date, ?::date - 1, INTERVAL '1 day') d " +
+            "ON CONFLICT (day) DO UPDATE SET recomputed_at = EXCLUDED.recomputed_at";
+    
+    private static final String DELETE_SQL =
+            "DELETE FROM interaction_daily_rollups WHERE day >= ? AND day < ?";
+    
+    private static final String RECOMPUTE_SQL =
+            "INSERT INTO interaction_daily_rollups " +
+            "(tenant_id, day, type, direction, user_id, interaction_count, duration_seconds, updated_at) " +
+            "SELECT tenant_id, (created_at AT TIME ZONE 'UTC')::date, type, direction, user_id, " +
+            "count(*), COALESCE(sum(duration_seconds), 0), now() " +
+            "FROM interactions WHERE created_at >= ? AND created_at < ? " +
+            "GROUP BY tenant_id, (created_at AT TIME ZONE 'UTC')::date, type, direction, user_id";
+    
+    private static final String PARTITION_MONTHS_SQL =
+            "SELECT to_date(substring(c.relname from 'interactions_p(\\d{4}_\\d{2})'), 'YYYY_MM') " +
+            "FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'interactions'::regclass ORDER BY 1";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InteractionRollupWriter rollupWriter;
+    private final int recomputeDays;
+    private final boolean backfillOnStartup;
+    
+    public InteractionRollupJob(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                InteractionRollupWriter rollupWriter,
+                                @Value("${app.interaction-rollups.recompute-days:2}") int recomputeDays,
+                                @Value("${app.interaction-rollups.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rollupWriter = rollupWriter;
+        this.recomputeDays = recomputeDays;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM interaction_daily_rollups)", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                backfill();
+            }
+        } catch (RuntimeException e) {
+            log.error("Interaction rollup backfill failed", e);
+        }
+    }
+    
+    @Scheduled(cron = "${app.interaction-rollups.cron:0 30 2 * * *}", zone = "UTC")
+    public void recomputeRecent() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        try {
+            recompute(today.minusDays(recomputeDays), today);
+        } catch (RuntimeException e) {
+            log.error("Interaction rollup recompute failed", e);
+        }
+    }
+    
+    public void backfill() {
+        List<LocalDate> months = jdbcTemplate.queryForList(PARTITION_MONTHS_SQL, LocalDate.class);
+        log.info("Backfilling interaction rollups for {} months", months.size());
+        for (LocalDate month : months) {
+            recompute(month, month.plusMonths(1));
+        }
+    }
+    
+    /**
+     * Replaces the rollups for closed days in {@code [from, to)} with fresh
+     * aggregates; days from today on are left to the deltas.
+     */
+    public void recompute(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate end = to.isAfter(today) ? today : to;
+        if (!from.isBefore(end)) {
+            return;
+        }
+        // Push this instance's deltas first so they are not added on top of the recount
+        rollupWriter.flush();
+        Integer rows = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Interaction rollup recompute is running elsewhere");
+                return null;
+            }
+            // Waits for closed-day writes in flight; later ones wait for this commit
+            jdbcTemplate.query("SELECT pg_advisory_xact_lock(?)", rs -> null, FENCE_LOCK_KEY);
+            jdbcTemplate.update(FENCE_SQL, Date.valueOf(from), Date.valueOf(end));
+            jdbcTemplate.update(DELETE_SQL, Date.valueOf(from), Date.valueOf(end));
+            return jdbcTemplate.update(RECOMPUTE_SQL,
+                    Timestamp.from(from.atStartOfDay(ZoneOffset.UTC).toInstant()),
+                    Timestamp.from(end.atStartOfDay(ZoneOffset.UTC).toInstant()));
+        });
+        if (rows != null) {
+            log.info("Recomputed interaction rollups for {} to {}: {} rows", from, end, rows);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.neobit.crm.service.rollup;
+
+import com.neobit.crm.entity.Interaction;
+import com.neobit.crm.event.TenantDataChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies interaction count and duration deltas to the daily rollups.
+ *
+ * Deltas for the current UTC day are summed in memory per rollup row and written
+ * once per interval with a single upsert, so a burst of inserts for one user and
+ * day is one row update. Anything lost in a crash is repaired by the nightly
+ * recompute in {@link InteractionRollupJob}.
+ *
+ * The recompute recounts closed days, so it must not race with deltas it has
+ * already counted. Two rules keep them apart:
+ * <ul>
+ * <li>A buffered delta was recorded while its day was still open, so any recompute
+ * of that day started after its interaction committed and counted it. A flush
+ * drops deltas for days listed in {@code interaction_rollup_fences}.</li>
+ * <li>Deltas for days that are already closed (backdated imports, edits of old
+ * interactions) are not buffered. They are written before the interaction's own
+ * transaction commits, under a shared advisory lock that the recompute takes
+ * exclusively, so each one lands either before the recount or after it.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class InteractionRollupWriter {
+    
+    private static final String UPSERT_SQL =
+            "INSERT INTO interaction_daily_rollups AS r " +
+            "(tenant_id, day, type, direction, user_id, interaction_count, duration_seconds, updated_at) " +
+            "SELECT t.tenant_id, t.day, t.type::interaction_type, t.direction::interaction_direction, t.user_id, " +
+            "t.cnt, t.dur, now() " +
+            "FROM unnest(?::uuid[], ?::date[], ?::text[], ?::text[], ?::uuid[], ?::bigint[], ?::bigint[]) " +
+            "AS t(tenant_id, day, type, direction, user_id, cnt, dur) " +
+            "ON CONFLICT ON CONSTRAINT uq_interaction_daily_rollups DO UPDATE SET " +
+            "interaction_count = r.interaction_count + EXCLUDED.interaction_count, " +
+            "duration_seconds = r.duration_seconds + EXCLUDED.duration_seconds, " +
+            "updated_at = now()";
+    
+    private static final String LOCK_SHARED_SQL = "SELECT pg_advisory_xact_lock_shared(?)";
+    
+    private static final String FENCED_DAYS_SQL =
+            "SELECT day FROM interaction_rollup_fences WHERE day = ANY(?::date[])";
+    
+    private final ConcurrentHashMap<RollupKey, long[]> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Counter fencedCounter;
+    
+    public InteractionRollupWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry, ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        Gauge.builder("crm.interactions.rollup.pending", pending, Map::size)
+                .description("Rollup rows with deltas waiting to be written")
+                .register(meterRegistry);
+        this.fencedCounter = Counter.builder("crm.interactions.rollup.fenced")
+                .description("Buffered rollup deltas dropped because their day was recomputed")
+                .register(meterRegistry);
+    }
+    
+    public static RollupKey keyOf(Interaction interaction) {
+        return key(interaction.getTenant().getId(), interaction.getCreatedAt(),
+                interaction.getType().name().toLowerCase(Locale.ROOT),
+                interaction.getDirection() != null ? interaction.getDirection().name().toLowerCase(Locale.ROOT) : null,
+                interaction.getUser() != null ? interaction.getUser().getId() : null);
+    }
+    
+    public static RollupKey key(UUID tenantId, Instant createdAt, String type, String direction, UUID userId) {
+        return new RollupKey(tenantId, LocalDate.ofInstant(createdAt, ZoneOffset.UTC), type, direction, userId);
+    }
+    
+    /**
+     * Adds {@code count} interactions and {@code durationSeconds} to a rollup row.
+     * Inside a transaction the delta only counts once that transaction commits.
+     */
+    public void record(RollupKey key, long count, long durationSeconds) {
+        if (key.day().isBefore(today())) {
+            recordClosed(key, count, durationSeconds);
+        } else if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    merge(key, count, durationSeconds);
+                }
+            });
+        } else {
+            merge(key, count, durationSeconds);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.interaction-rollups.flush-interval-ms:2000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<RollupKey, long[]> drained = new HashMap<>();
+        for (RollupKey key : pending.keySet()) {
+            long[] delta = pending.remove(key);
+            if (delta != null) {
+                drained.put(key, delta);
+            }
+        }
+        Map<RollupKey, long[]> applied = new HashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lockShared();
+                Set<LocalDate> fenced = fencedDays(drained.keySet());
+                drained.forEach((key, delta) -> {
+                    if (fenced.contains(key.day())) {
+                        fencedCounter.increment();
+                    } else {
+                        applied.put(key, delta);
+                    }
+                });
+                upsert(applied);
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} interaction rollup deltas, will retry: {}", drained.size(), e.getMessage());
+            drained.forEach((key, delta) -> merge(key, delta[0], delta[1]));
+            return;
+        }
+        if (applied.size() < drained.size()) {
+            log.debug("Dropped {} rollup deltas for recomputed days", drained.size() - applied.size());
+        }
+        publishChanges(applied);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    /** The current UTC day; earlier days are closed. */
+    LocalDate today() {
+        return LocalDate.now(ZoneOffset.UTC);
+    }
+    
+    /**
+     * Writes a delta for a closed day just before the current transaction commits,
+     * or at once outside one. The deltas of one transaction go out as one upsert.
+     */
+    private void recordClosed(RollupKey key, long count, long durationSeconds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<RollupKey, long[]> single = Map.of(key, new long[]{count, durationSeconds});
+            transactionTemplate.executeWithoutResult(status -> {
+                lockShared();
+                upsert(single);
+            });
+            publishChanges(single);
+            return;
+        }
+        @SuppressWarnings("unchecked")
+        Map<RollupKey, long[]> closed = (Map<RollupKey, long[]>) TransactionSynchronizationManager.getResource(this);
+        if (closed == null) {
+            Map<RollupKey, long[]> deltas = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, deltas);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    lockShared();
+                    upsert(deltas);
+                }
+                
+                @Override
+                public void afterCommit() {
+                    publishChanges(deltas);
+                }
+                
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InteractionRollupWriter.this);
+                }
+            });
+            closed = deltas;
+        }
+        closed.merge(key, new long[]{count, durationSeconds}, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+    }
+    
+    /** Held until the transaction ends; the recompute takes it exclusively. */
+    private void lockShared() {
+        jdbcTemplate.query(LOCK_SHARED_SQL, rs -> null, InteractionRollupJob.FENCE_LOCK_KEY);
+    }
+    
+    private Set<LocalDate> fencedDays(Set<RollupKey> keys) {
+        Object[] days = keys.stream().map(RollupKey::day).distinct().map(Date::valueOf).toArray();
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(FENCED_DAYS_SQL);
+            ps.setArray(1, connection.createArrayOf("date", days));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, LocalDate.class)));
+    }
+    
+    /**
+     * Applies all non-zero deltas in one statement, in key order so concurrent
+     * writers lock rollup rows in the same order.
+     */
+    private void upsert(Map<RollupKey, long[]> deltas) {
+        List<RollupKey> keys = deltas.entrySet().stream()
+                .filter(e -> e.getValue()[0] != 0 || e.getValue()[1] != 0)
+                .map(Map.Entry::getKey)
+                .sorted(RollupKey.ORDER)
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            int n = keys.size();
+            Object[] tenants = new Object[n], days = new Object[n], types = new Object[n], directions = new Object[n],
+                    users = new Object[n], counts = new Object[n], durations = new Object[n];
+            for (int i = 0; i < n; i++) {
+                RollupKey key = keys.get(i);
+                tenants[i] = key.tenantId();
+                days[i] = Date.valueOf(key.day());
+                types[i] = key.type();
+                directions[i] = key.direction();
+                users[i] = key.userId();
+                counts[i] = deltas.get(key)[0];
+                durations[i] = deltas.get(key)[1];
+            }
+            PreparedStatement ps = connection.prepareStatement(UPSERT_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", tenants));
+            ps.setArray(2, connection.createArrayOf("date", days));
+            ps.setArray(3, connection.createArrayOf("text", types));
+            ps.setArray(4, connection.createArrayOf("text", directions));
+            ps.setArray(5, connection.createArrayOf("uuid", users));
+            ps.setArray(6, connection.createArrayOf("int8", counts));
+            ps.setArray(7, connection.createArrayOf("int8", durations));
+            return ps;
+        });
+    }
+    
+    /**
+     * One event per tenant with the count change per upper-case type and within the
+     * dashboard's seven day "recent" window.
+     */
+    private void publishChanges(Map<RollupKey, long[]> deltas) {
+        LocalDate recentSince = today().minusDays(6);
+        Map<UUID, Map<String, Long>> byTenant = new HashMap<>();
+        Map<UUID, Long> recentByTenant = new HashMap<>();
+        for (Map.Entry<RollupKey, long[]> entry : deltas.entrySet()) {
+            RollupKey key = entry.getKey();
+            long count = entry.getValue()[0];
+            if (count == 0) {
+                continue;
+            }
+            byTenant.computeIfAbsent(key.tenantId(), t -> new HashMap<>())
+                    .merge(key.type().toUpperCase(Locale.ROOT), count, Long::sum);
+            recentByTenant.merge(key.tenantId(), key.day().isBefore(recentSince) ? 0 : count, Long::sum);
+        }
+        byTenant.forEach((tenantId, byType) -> eventPublisher.publishEvent(new TenantDataChangedEvent(
+                tenantId, "interaction.rolled_up", Map.of("byType", byType, "recent", recentByTenant.get(tenantId)))));
+    }
+    
+    private void merge(RollupKey key, long count, long durationSeconds) {
+        pending.merge(key, new long[]{count, durationSeconds}, (a, b) -> new long[]{a[0] + b[0], a[1] + b[1]});
+    }
+}
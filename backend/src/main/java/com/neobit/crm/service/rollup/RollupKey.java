@@ -0,0 +1,19 @@
+package com.neobit.crm.service.rollup;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Grain of {@code interaction_daily_rollups}. Type and direction hold the
+ * database enum labels.
+ */
+public record RollupKey(UUID tenantId, LocalDate day, String type, String direction, UUID userId) {
+    
+    static final Comparator<RollupKey> ORDER = Comparator
+            .comparing(RollupKey::tenantId)
+            .thenComparing(RollupKey::day)
+            .thenComparing(RollupKey::type)
+            .thenComparing(RollupKey::direction, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(RollupKey::userId, Comparator.nullsFirst(Comparator.naturalOrder()));
+}
@@ -0,0 +1,39 @@
+package com.neobit.crm.service.sequence;
+
+import com.neobit.crm.entity.Deal;
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.Tenant;
+import jakarta.persistence.PrePersist;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Numbers new deals and quotes from {@link TenantSequenceService}, whichever path
+ * creates them. A number set by the caller is kept.
+ *
+ * Hibernate builds its listeners with the entity manager factory, which the
+ * sequence service's transaction manager depends on, so the service is looked up
+ * on first use.
+ */
+@Component
+public class DocumentNumberListener {
+    
+    private final ObjectProvider<TenantSequenceService> sequenceService;
+    
+    public DocumentNumberListener(ObjectProvider<TenantSequenceService> sequenceService) {
+        this.sequenceService = sequenceService;
+    }
+    
+    @PrePersist
+    public void number(Object entity) {
+        if (entity instanceof Deal deal && deal.getDealNumber() == null) {
+            deal.setDealNumber(next(deal.getTenant(), TenantSequence.DEAL));
+        } else if (entity instanceof Quote quote && quote.getQuoteNumber() == null) {
+            quote.setQuoteNumber(next(quote.getTenant(), TenantSequence.QUOTE));
+        }
+    }
+    
+    private String next(Tenant tenant, TenantSequence sequence) {
+        return sequenceService.getObject().nextFormatted(tenant.getId(), tenant.getSlug(), sequence);
+    }
+}
@@ -0,0 +1,39 @@
+package com.neobit.crm.service.sequence;
+
+/**
+ * A range of numbers reserved by this node, handed out in order. Not thread-safe;
+ * {@link TenantSequenceService} guards each block with its own lock.
+ */
+final class SequenceBlock {
+    
+    private long next;
+    private long limit;
+    
+    /** Starts exhausted */
+    SequenceBlock() {
+    }
+    
+    /** Takes over {@code [first, limit)} */
+    void reset(long first, long limit) {
+        if (limit <= first) {
+            throw new IllegalArgumentException("Empty block [" + first + ", " + limit + ")");
+        }
+        this.next = first;
+        this.limit = limit;
+    }
+    
+    boolean hasNext() {
+        return next < limit;
+    }
+    
+    long next() {
+        if (next >= limit) {
+            throw new IllegalStateException("Block is exhausted");
+        }
+        return next++;
+    }
+    
+    long remaining() {
+        return limit - next;
+    }
+}
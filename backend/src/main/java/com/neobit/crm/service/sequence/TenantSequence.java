@@ -0,0 +1,45 @@
+package com.neobit.crm.service.sequence;
+
+import java.util.Locale;
+
+/**
+ * Numbered documents of a tenant, each a row of {@code tenant_counters}. Deal and
+ * quote numbers look like {@code ACME-D001042}; internal issue keys are {@code INT-42}.
+ */
+public enum TenantSequence {
+    
+    DEAL("deal", 1000),
+    QUOTE("quote", 1000),
+    ISSUE("issue", 1);
+    
+    private final String counter;
+    private final long start;
+    
+    TenantSequence(String counter, long start) {
+        this.counter = counter;
+        this.start = start;
+    }
+    
+    /** Name of the counter row */
+    public String counter() {
+        return counter;
+    }
+    
+    /** First number of a tenant that has none yet */
+    public long start() {
+        return start;
+    }
+    
+    public String format(String tenantSlug, long number) {
+        return switch (this) {
+            case DEAL -> tenantSlug.toUpperCase(Locale.ROOT) + "-D" + pad(number);
+            case QUOTE -> tenantSlug.toUpperCase(Locale.ROOT) + "-Q" + pad(number);
+            case ISSUE -> "INT-" + number;
+        };
+    }
+    
+    private static String pad(long number) {
+        String digits = Long.toString(number);
+        return digits.length() >= 6 ? digits : "0".repeat(6 - digits.length()) + digits;
+    }
+}
@@ -0,0 +1,93 @@
+package com.neobit.crm.service.sequence;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Hands out per-tenant document numbers with hi/lo allocation.
+ *
+ * Each node reserves a block of numbers by moving the tenant's
+ * {@code tenant_counters} row forward once, in its own short transaction, and
+ * then numbers from memory until the block runs out. Numbers are unique per
+ * tenant and increase on each node; across nodes they interleave, and a block
+ * left unused at shutdown is a gap. Callers never touch the counter row, so
+ * concurrent creates do not queue behind each other's transactions.
+ */
+@Service
+@Slf4j
+public class TenantSequenceService {
+    
+    private static final String RESERVE_SQL =
+            "INSERT INTO tenant_counters AS c (tenant_id, name, next_value) VALUES (?, ?, ? + ?) " +
+            "ON CONFLICT (tenant_id, name) DO UPDATE SET next_value = c.next_value + EXCLUDED.next_value - ?, " +
+            "updated_at = now() RETURNING c.next_value";
+    
+    private final ConcurrentHashMap<Key, SequenceBlock> blocks = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reserveTransaction;
+    private final Counter reservations;
+    private final int blockSize;
+    
+    public TenantSequenceService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.sequences.block-size:20}") int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("app.sequences.block-size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.reserveTransaction = new TransactionTemplate(transactionManager);
+        // A reservation must commit even if the caller's transaction rolls back
+        this.reserveTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.reservations = meterRegistry.counter("crm.sequences.reservations");
+        this.blockSize = blockSize;
+    }
+    
+    /**
+     * The next number of {@code sequence} for a tenant; only reaches the database
+     * when this node's block for it is used up.
+     */
+    public long next(UUID tenantId, TenantSequence sequence) {
+        SequenceBlock block = blocks.computeIfAbsent(new Key(tenantId, sequence), k -> new SequenceBlock());
+        synchronized (block) {
+            if (!block.hasNext()) {
+                long limit = reserve(tenantId, sequence);
+                block.reset(limit - blockSize, limit);
+            }
+            return block.next();
+        }
+    }
+    
+    /** The next number formatted for display, such as {@code ACME-D001042}. */
+    public String nextFormatted(UUID tenantId, String tenantSlug, TenantSequence sequence) {
+        return sequence.format(tenantSlug, next(tenantId, sequence));
+    }
+    
+    /**
+     * Moves the counter a block forward and returns its new value, the end of the
+     * block just reserved. A missing row starts at the sequence's first number.
+     */
+    private long reserve(UUID tenantId, TenantSequence sequence) {
+        Long limit = reserveTransaction.execute(status -> jdbcTemplate.queryForObject(RESERVE_SQL, Long.class,
+                tenantId, sequence.counter(), sequence.start(), blockSize, sequence.start()));
+        if (limit == null) {
+            throw new IllegalStateException("Could not reserve " + sequence.counter() + " numbers for tenant " + tenantId);
+        }
+        reservations.increment();
+        log.debug("Reserved {} {} numbers up to {} for tenant {}", blockSize, sequence.counter(), limit, tenantId);
+        return limit;
+    }
+    
+    private record Key(UUID tenantId, TenantSequence sequence) {
+    }
+}
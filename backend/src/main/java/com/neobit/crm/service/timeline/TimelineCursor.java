@@ -0,0 +1,50 @@
+package com.neobit.crm.service.timeline;
+
+import com.neobit.crm.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.UUID;
+
+/**
+ * Opaque cursor holding one keyset position per source, so every stream resumes
+ * exactly after the last row it contributed. Sources that have not contributed
+ * yet have no entry and start from the top.
+ */
+public final class TimelineCursor {
+    
+    private TimelineCursor() {
+    }
+    
+    public static String encode(Map<String, TimelinePosition> positions) {
+        StringJoiner raw = new StringJoiner(";");
+        positions.forEach((source, position) -> raw.add(source + ':' + position.occurredAt().getEpochSecond()
+                + ':' + position.occurredAt().getNano() + ':' + position.id()));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static Map<String, TimelinePosition> decode(String cursor) {
+        Map<String, TimelinePosition> positions = new HashMap<>();
+        if (cursor == null || cursor.isBlank()) {
+            return positions;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            for (String entry : raw.split(";")) {
+                if (entry.isEmpty()) {
+                    continue;
+                }
+                String[] parts = entry.split(":");
+                Instant occurredAt = Instant.ofEpochSecond(Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+                positions.put(parts[0], new TimelinePosition(occurredAt, UUID.fromString(parts[3])));
+            }
+            return positions;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
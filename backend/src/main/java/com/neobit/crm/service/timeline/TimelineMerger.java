@@ -0,0 +1,98 @@
+package com.neobit.crm.service.timeline;
+
+import com.neobit.crm.dto.timeline.TimelineItemDTO;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * K-way merge of per-source streams that are each sorted newest first.
+ *
+ * Every stream starts with at most one page of rows. When a stream's buffer runs
+ * dry it fetches only what the page still needs plus one row of look-ahead, so a
+ * source that contributes little is queried for little. The heap holds one entry
+ * per stream with a buffered head.
+ */
+public final class TimelineMerger {
+    
+    /** Reads up to {@code limit} rows strictly after {@code after} (null = from the top), newest first. */
+    @FunctionalInterface
+    public interface Fetcher {
+        List<TimelineItemDTO> fetch(TimelinePosition after, int limit);
+    }
+    
+    public record Page(List<TimelineItemDTO> items, Map<String, TimelinePosition> positions, boolean hasMore) {
+    }
+    
+    // Newest first; ties broken by source and id so the order is total and stable across pages
+    static final Comparator<TimelineItemDTO> ORDER = Comparator
+            .comparing(TimelineItemDTO::getOccurredAt, Comparator.reverseOrder())
+            .thenComparing(TimelineItemDTO::getSource)
+            .thenComparing(TimelineItemDTO::getId, Comparator.reverseOrder());
+    
+    private TimelineMerger() {
+    }
+    
+    public static Page merge(Map<String, Fetcher> sources, Map<String, TimelinePosition> positions, int pageSize) {
+        PriorityQueue<Stream> heap = new PriorityQueue<>(Math.max(1, sources.size()),
+                (a, b) -> ORDER.compare(a.head(), b.head()));
+        sources.forEach((name, fetcher) -> {
+            Stream stream = new Stream(fetcher, positions.get(name));
+            if (stream.ensureHead(pageSize)) {
+                heap.add(stream);
+            }
+        });
+        
+        List<TimelineItemDTO> items = new ArrayList<>(pageSize);
+        Map<String, TimelinePosition> next = new HashMap<>(positions);
+        while (items.size() < pageSize && !heap.isEmpty()) {
+            Stream stream = heap.poll();
+            TimelineItemDTO item = stream.poll();
+            items.add(item);
+            next.put(item.getSource(), TimelinePosition.of(item));
+            if (stream.ensureHead(pageSize - items.size() + 1)) {
+                heap.add(stream);
+            }
+        }
+        return new Page(items, next, !heap.isEmpty());
+    }
+    
+    private static final class Stream {
+        
+        private final Fetcher fetcher;
+        private final Deque<TimelineItemDTO> buffer = new ArrayDeque<>();
+        private TimelinePosition last;
+        private boolean exhausted;
+        
+        Stream(Fetcher fetcher, TimelinePosition after) {
+            this.fetcher = fetcher;
+            this.last = after;
+        }
+        
+        TimelineItemDTO head() {
+            return buffer.peekFirst();
+        }
+        
+        TimelineItemDTO poll() {
+            return buffer.pollFirst();
+        }
+        
+        boolean ensureHead(int wanted) {
+            if (buffer.isEmpty() && !exhausted && wanted > 0) {
+                List<TimelineItemDTO> rows = fetcher.fetch(last, wanted);
+                exhausted = rows.size() < wanted;
+                if (!rows.isEmpty()) {
+                    buffer.addAll(rows);
+                    last = TimelinePosition.of(rows.get(rows.size() - 1));
+                }
+            }
+            return !buffer.isEmpty();
+        }
+    }
+}
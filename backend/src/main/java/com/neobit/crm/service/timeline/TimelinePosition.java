@@ -0,0 +1,16 @@
+package com.neobit.crm.service.timeline;
+
+import com.neobit.crm.dto.timeline.TimelineItemDTO;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Keyset position inside one source: the (occurredAt, id) of the last row read.
+ */
+public record TimelinePosition(Instant occurredAt, UUID id) {
+    
+    public static TimelinePosition of(TimelineItemDTO item) {
+        return new TimelinePosition(item.getOccurredAt(), item.getId());
+    }
+}
@@ -0,0 +1,45 @@
+package com.neobit.crm.service.timeline;
+
+import com.neobit.crm.dto.timeline.TimelineItemDTO;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * One keyset-paged timeline query. {@code select} must yield the columns id,
+ * occurred_at, title, body, kind, user_id and deal_id; {@code occurredAt} and
+ * {@code id} are the sort expressions, backed by an index that ends in
+ * {@code (occurredAt DESC, id DESC)}. Queries get the named parameters
+ * {@code tenantId}, {@code customerId} and {@code userId}.
+ */
+public record TimelineSource(String name, String select, String from, String where, String occurredAt, String id) {
+    
+    public List<TimelineItemDTO> fetch(NamedParameterJdbcTemplate jdbcTemplate, MapSqlParameterSource base,
+                                       TimelinePosition after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT ").append(select)
+                .append(" FROM ").append(from)
+                .append(" WHERE ").append(where)
+                .append(" AND ").append(occurredAt).append(" IS NOT NULL");
+        MapSqlParameterSource params = new MapSqlParameterSource(base.getValues()).addValue("limit", limit);
+        if (after != null) {
+            sql.append(" AND (").append(occurredAt).append(", ").append(id).append(") < (:afterAt, :afterId)");
+            params.addValue("afterAt", Timestamp.from(after.occurredAt()))
+                    .addValue("afterId", after.id());
+        }
+        sql.append(" ORDER BY ").append(occurredAt).append(" DESC, ").append(id).append(" DESC LIMIT :limit");
+        
+        return jdbcTemplate.query(sql.toString(), params, (rs, rowNum) -> TimelineItemDTO.builder()
+                .source(name)
+                .id(rs.getObject("id", UUID.class))
+                .occurredAt(rs.getTimestamp("occurred_at").toInstant())
+                .title(rs.getString("title"))
+                .body(rs.getString("body"))
+                .kind(rs.getString("kind"))
+                .userId(rs.getObject("user_id", UUID.class))
+                .dealId(rs.getObject("deal_id", UUID.class))
+                .build());
+    }
+}
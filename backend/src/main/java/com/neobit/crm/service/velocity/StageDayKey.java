@@ -0,0 +1,17 @@
+package com.neobit.crm.service.velocity;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.UUID;
+
+/**
+ * Grain of {@code deal_stage_daily_stats}.
+ */
+public record StageDayKey(UUID tenantId, UUID pipelineId, UUID stageId, LocalDate day) {
+    
+    static final Comparator<StageDayKey> ORDER = Comparator
+            .comparing(StageDayKey::tenantId)
+            .thenComparing(StageDayKey::pipelineId)
+            .thenComparing(StageDayKey::stageId)
+            .thenComparing(StageDayKey::day);
+}
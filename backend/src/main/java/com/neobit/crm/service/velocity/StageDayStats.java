@@ -0,0 +1,47 @@
+package com.neobit.crm.service.velocity;
+
+import com.neobit.crm.analytics.TDigest;
+
+/**
+ * Counts and stage durations for one {@link StageDayKey}, either a pending delta
+ * or a recomputed row. Not thread-safe.
+ */
+final class StageDayStats {
+    
+    long entered;
+    long exited;
+    long advanced;
+    long durationSeconds;
+    TDigest durations;
+    
+    void enter() {
+        entered++;
+    }
+    
+    void exit(boolean advancedOut, Integer seconds) {
+        exited++;
+        if (advancedOut) {
+            advanced++;
+        }
+        if (seconds != null && seconds >= 0) {
+            durationSeconds += seconds;
+            if (durations == null) {
+                durations = new TDigest();
+            }
+            durations.add(seconds);
+        }
+    }
+    
+    void add(StageDayStats other) {
+        entered += other.entered;
+        exited += other.exited;
+        advanced += other.advanced;
+        durationSeconds += other.durationSeconds;
+        if (other.durations != null) {
+            if (durations == null) {
+                durations = new TDigest();
+            }
+            durations.merge(other.durations);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.neobit.crm.service.velocity;
+
+import com.neobit.crm.service.board.StageOrder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Rebuilds {@code deal_stage_daily_stats} from {@code deal_stage_history}.
+ *
+ * Nightly it recomputes the last few days, which absorbs deltas lost in a crash
+ * and transitions written around the services. On startup, when the table is
+ * empty, it backfills all history one month per transaction. This is the only
+ * place history is scanned; queries read the daily rows.
+ */
+@Component
+@Slf4j
+public class StageVelocityJob {
+    
+    private static final long ADVISORY_LOCK_KEY = 0x6372_6d5f_7665_6c6fL;
+    
+    private static final String DELETE_SQL =
+            "DELETE FROM deal_stage_daily_stats WHERE day >= ? AND day < ?";
+    
+    private static final String HISTORY_SQL =
+            "SELECT ts.tenant_id, ts.pipeline_id, h.to_stage_id, fs.pipeline_id AS from_pipeline_id, h.from_stage_id, " +
+            "(h.created_at AT TIME ZONE 'UTC')::date AS day, h.duration_seconds, " +
+            "NOT coalesce(ts.is_lost_stage, false) AND (coalesce(ts.is_won_stage, false) OR fs.id IS NULL " +
+            "OR " + StageOrder.sql("ts") + " > " + StageOrder.sql("fs") + ") AS advanced " +
+            "FROM deal_stage_history h JOIN pipeline_stages ts ON ts.id = h.to_stage_id " +
+            "LEFT JOIN pipeline_stages fs ON fs.id = h.from_stage_id " +
+            "WHERE h.created_at >= ? AND h.created_at < ?";
+    
+    private static final String INSERT_SQL =
+            "INSERT INTO deal_stage_daily_stats " +
+            "(tenant_id, pipeline_id, stage_id, day, entered, exited, advanced, duration_seconds, duration_digest) " +
+            "SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::date[], ?::bigint[], ?::bigint[], ?::bigint[], " +
+            "?::bigint[], ?::bytea[])";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StageVelocityWriter velocityWriter;
+    private final int recomputeDays;
+    private final boolean backfillOnStartup;
+    
+    public StageVelocityJob(JdbcTemplate jdbcTemplate,
+                            PlatformTransactionManager transactionManager,
+                            StageVelocityWriter velocityWriter,
+                            @Value("${app.deal-velocity.recompute-days:2}") int recomputeDays,
+                            @Value("${app.deal-velocity.backfill-on-startup:true}") boolean backfillOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.velocityWriter = velocityWriter;
+        this.recomputeDays = recomputeDays;
+        this.backfillOnStartup = backfillOnStartup;
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!backfillOnStartup) {
+            return;
+        }
+        try {
+            Boolean empty = jdbcTemplate.queryForObject(
+                    "SELECT NOT EXISTS (SELECT 1 FROM deal_stage_daily_stats)", Boolean.class);
+            if (Boolean.TRUE.equals(empty)) {
+                backfill();
+            }
+        } catch (RuntimeException e) {
+            log.error("Deal stage velocity backfill failed", e);
+        }
+    }
+    
+    @Scheduled(cron = "${app.deal-velocity.cron:0 40 2 * * *}", zone = "UTC")
+    public void recomputeRecent() {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        try {
+            recompute(today.minusDays(recomputeDays), today.plusDays(1));
+        } catch (RuntimeException e) {
+            log.error("Deal stage velocity recompute failed", e);
+        }
+    }
+    
+    public void backfill() {
+        Timestamp first = jdbcTemplate.queryForObject("SELECT min(created_at) FROM deal_stage_history", Timestamp.class);
+        if (first == null) {
+            return;
+        }
+        LocalDate month = LocalDate.ofInstant(first.toInstant(), ZoneOffset.UTC).withDayOfMonth(1);
+        LocalDate end = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        log.info("Backfilling deal stage velocity from {}", month);
+        while (month.isBefore(end)) {
+            LocalDate next = month.plusMonths(1);
+            recompute(month, next.isBefore(end) ? next : end);
+            month = next;
+        }
+    }
+    
+    /**
+     * Replaces the stats for days in {@code [from, to)} with ones rebuilt from history.
+     */
+    public void recompute(LocalDate from, LocalDate to) {
+        // Push this instance's deltas first so they are not added on top of the recount
+        velocityWriter.flush();
+        Integer rows = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                log.debug("Deal stage velocity recompute is running elsewhere");
+                return null;
+            }
+            // Holds off writer flushes, which would otherwise add rows between the delete and the insert
+            jdbcTemplate.execute("LOCK TABLE deal_stage_daily_stats IN SHARE ROW EXCLUSIVE MODE");
+            Map<StageDayKey, StageDayStats> stats = new HashMap<>();
+            jdbcTemplate.query(HISTORY_SQL, rs -> {
+                LocalDate day = rs.getDate("day").toLocalDate();
+                UUID tenantId = rs.getObject("tenant_id", UUID.class);
+                stats.computeIfAbsent(new StageDayKey(tenantId, rs.getObject("pipeline_id", UUID.class),
+                        rs.getObject("to_stage_id", UUID.class), day), k -> new StageDayStats()).enter();
+                UUID fromStageId = rs.getObject("from_stage_id", UUID.class);
+                if (fromStageId != null) {
+                    stats.computeIfAbsent(new StageDayKey(tenantId, rs.getObject("from_pipeline_id", UUID.class),
+                            fromStageId, day), k -> new StageDayStats())
+                            .exit(rs.getBoolean("advanced"), (Integer) rs.getObject("duration_seconds"));
+                }
+            }, Timestamp.from(from.atStartOfDay(ZoneOffset.UTC).toInstant()),
+                    Timestamp.from(to.atStartOfDay(ZoneOffset.UTC).toInstant()));
+            jdbcTemplate.update(DELETE_SQL, Date.valueOf(from), Date.valueOf(to));
+            insert(stats);
+            return stats.size();
+        });
+        if (rows != null) {
+            log.info("Recomputed deal stage velocity for {} to {}: {} rows", from, to, rows);
+        }
+    }
+    
+    private void insert(Map<StageDayKey, StageDayStats> stats) {
+        if (stats.isEmpty()) {
+            return;
+        }
+        List<StageDayKey> keys = new ArrayList<>(stats.keySet());
+        int n = keys.size();
+        Object[] tenants = new Object[n], pipelines = new Object[n], stages = new Object[n], days = new Object[n],
+                entered = new Object[n], exited = new Object[n], advanced = new Object[n], seconds = new Object[n];
+        byte[][] digests = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            StageDayKey key = keys.get(i);
+            StageDayStats row = stats.get(key);
+            tenants[i] = key.tenantId();
+            pipelines[i] = key.pipelineId();
+            stages[i] = key.stageId();
+            days[i] = Date.valueOf(key.day());
+            entered[i] = row.entered;
+            exited[i] = row.exited;
+            advanced[i] = row.advanced;
+            seconds[i] = row.durationSeconds;
+            digests[i] = row.durations != null ? row.durations.toBytes() : null;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_SQL);
+            ps.setArray(1, connection.createArrayOf("uuid", tenants));
+            ps.setArray(2, connection.createArrayOf("uuid", pipelines));
+            ps.setArray(3, connection.createArrayOf("uuid", stages));
+            ps.setArray(4, connection.createArrayOf("date", days));
+            ps.setArray(5, connection.createArrayOf("int8", entered));
+            ps.setArray(6, connection.createArrayOf("int8", exited));
+            ps.setArray(7, connection.createArrayOf("int8", advanced));
+            ps.setArray(8, connection.createArrayOf("int8", seconds));
+            ps.setArray(9, connection.createArrayOf("bytea", digests));
+            return ps;
+        });
+    }
+}
@@ -0,0 +1,204 @@
+package com.neobit.crm.service.velocity;
+
+import com.neobit.crm.analytics.TDigest;
+import com.neobit.crm.entity.PipelineStage;
+import com.neobit.crm.service.board.StageOrder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Applies stage transitions to {@code deal_stage_daily_stats} as they are written.
+ *
+ * Deltas, including a t-digest of the durations, are combined in memory per row
+ * and written once per interval: the rows are locked, their stored digests merged
+ * with the pending ones, and everything written back with one statement. Anything
+ * lost in a crash is repaired by the nightly recompute in {@link StageVelocityJob}.
+ */
+@Component
+@Slf4j
+public class StageVelocityWriter {
+    
+    private static final String KEYS = "unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::date[])";
+    
+    private static final String ENSURE_SQL =
+            "INSERT INTO deal_stage_daily_stats (tenant_id, pipeline_id, stage_id, day) " +
+            "SELECT * FROM " + KEYS + " ON CONFLICT DO NOTHING";
+    
+    private static final String LOCK_SQL =
+            "SELECT s.tenant_id, s.pipeline_id, s.stage_id, s.day, s.duration_digest FROM deal_stage_daily_stats s " +
+            "JOIN " + KEYS + " AS k(tenant_id, pipeline_id, stage_id, day) " +
+            "USING (tenant_id, pipeline_id, stage_id, day) " +
+            "ORDER BY s.tenant_id, s.pipeline_id, s.stage_id, s.day FOR UPDATE OF s";
+    
+    private static final String UPDATE_SQL =
+            "UPDATE deal_stage_daily_stats s SET entered = s.entered + u.entered, exited = s.exited + u.exited, " +
+            "advanced = s.advanced + u.advanced, duration_seconds = s.duration_seconds + u.duration_seconds, " +
+            "duration_digest = coalesce(u.digest, s.duration_digest), updated_at = now() " +
+            "FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::date[], ?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[], " +
+            "?::bytea[]) AS u(tenant_id, pipeline_id, stage_id, day, entered, exited, advanced, duration_seconds, digest) " +
+            "WHERE s.tenant_id = u.tenant_id AND s.pipeline_id = u.pipeline_id AND s.stage_id = u.stage_id AND s.day = u.day";
+    
+    private final ConcurrentHashMap<StageDayKey, StageDayStats> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    
+    public StageVelocityWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("crm.deal_velocity.pending", pending, Map::size)
+                .description("Stage stats rows with deltas waiting to be written")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Counts a deal leaving {@code from} (null for none) for {@code to} at {@code at},
+     * after {@code durationSeconds} in {@code from}. Inside a transaction it only
+     * counts once that transaction commits.
+     */
+    public void recordTransition(UUID tenantId, PipelineStage from, PipelineStage to, Instant at, Integer durationSeconds) {
+        LocalDate day = LocalDate.ofInstant(at, ZoneOffset.UTC);
+        StageDayKey entered = new StageDayKey(tenantId, to.getPipeline().getId(), to.getId(), day);
+        StageDayKey exited = from != null ? new StageDayKey(tenantId, from.getPipeline().getId(), from.getId(), day) : null;
+        boolean advance = StageOrder.isAdvance(from, to);
+        Runnable apply = () -> {
+            merge(entered, StageDayStats::enter);
+            if (exited != null) {
+                merge(exited, stats -> stats.exit(advance, durationSeconds));
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${app.deal-velocity.flush-interval-ms:5000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<StageDayKey> keys = new ArrayList<>(pending.size());
+        List<StageDayStats> deltas = new ArrayList<>(pending.size());
+        for (StageDayKey key : pending.keySet().stream().sorted(StageDayKey.ORDER).toList()) {
+            StageDayStats delta = pending.remove(key);
+            if (delta != null) {
+                keys.add(key);
+                deltas.add(delta);
+            }
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(keys, deltas));
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} stage stats deltas, will retry: {}", keys.size(), e.getMessage());
+            for (int i = 0; i < keys.size(); i++) {
+                StageDayStats delta = deltas.get(i);
+                merge(keys.get(i), stats -> stats.add(delta));
+            }
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+    
+    private void write(List<StageDayKey> keys, List<StageDayStats> deltas) {
+        int n = keys.size();
+        Object[] tenants = new Object[n], pipelines = new Object[n], stages = new Object[n], days = new Object[n];
+        for (int i = 0; i < n; i++) {
+            StageDayKey key = keys.get(i);
+            tenants[i] = key.tenantId();
+            pipelines[i] = key.pipelineId();
+            stages[i] = key.stageId();
+            days[i] = Date.valueOf(key.day());
+        }
+        jdbcTemplate.update(connection -> keyStatement(connection.prepareStatement(ENSURE_SQL), connection,
+                tenants, pipelines, stages, days));
+        
+        // Stored digests of the rows, now locked until commit
+        Map<StageDayKey, byte[]> stored = new HashMap<>();
+        jdbcTemplate.query(connection -> keyStatement(connection.prepareStatement(LOCK_SQL), connection,
+                tenants, pipelines, stages, days), rs -> {
+            stored.put(new StageDayKey(rs.getObject("tenant_id", UUID.class), rs.getObject("pipeline_id", UUID.class),
+                    rs.getObject("stage_id", UUID.class), rs.getDate("day").toLocalDate()), rs.getBytes("duration_digest"));
+        });
+        
+        Object[] entered = new Object[n], exited = new Object[n], advanced = new Object[n], seconds = new Object[n];
+        byte[][] digests = new byte[n][];
+        for (int i = 0; i < n; i++) {
+            StageDayStats delta = deltas.get(i);
+            entered[i] = delta.entered;
+            exited[i] = delta.exited;
+            advanced[i] = delta.advanced;
+            seconds[i] = delta.durationSeconds;
+            if (delta.durations != null) {
+                byte[] current = stored.get(keys.get(i));
+                TDigest digest = current != null ? TDigest.fromBytes(current) : new TDigest();
+                digest.merge(delta.durations);
+                digests[i] = digest.toBytes();
+            }
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = keyStatement(connection.prepareStatement(UPDATE_SQL), connection,
+                    tenants, pipelines, stages, days);
+            ps.setArray(5, connection.createArrayOf("int8", entered));
+            ps.setArray(6, connection.createArrayOf("int8", exited));
+            ps.setArray(7, connection.createArrayOf("int8", advanced));
+            ps.setArray(8, connection.createArrayOf("int8", seconds));
+            ps.setArray(9, connection.createArrayOf("bytea", digests));
+            return ps;
+        });
+    }
+    
+    private static PreparedStatement keyStatement(PreparedStatement ps, Connection connection, Object[] tenants,
+                                                  Object[] pipelines, Object[] stages, Object[] days) throws SQLException {
+        ps.setArray(1, connection.createArrayOf("uuid", tenants));
+        ps.setArray(2, connection.createArrayOf("uuid", pipelines));
+        ps.setArray(3, connection.createArrayOf("uuid", stages));
+        ps.setArray(4, connection.createArrayOf("date", days));
+        return ps;
+    }
+    
+    /** Changes the pending delta of a row; compute keeps this atomic with flush's removal. */
+    private void merge(StageDayKey key, Consumer<StageDayStats> change) {
+        pending.compute(key, (k, stats) -> {
+            StageDayStats target = stats != null ? stats : new StageDayStats();
+            change.accept(target);
+            return target;
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.neobit.crm.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Removes blobs that no attachment has referenced for the grace period.
+ *
+ * Each candidate row is locked before its file is deleted, and uploads take the
+ * same row lock and only publish the file after their reference commits, so a
+ * blob that is re-uploaded while being collected is simply published again.
+ */
+@Component
+@Slf4j
+public class BlobGarbageCollector {
+    
+    private static final long ADVISORY_LOCK_KEY = 0x6372_6d5f_626c_6f62L;
+    
+    private static final String CANDIDATES_SQL =
+            "SELECT sha256 FROM blobs WHERE ref_count = 0 " +
+            "AND last_referenced_at < now() - make_interval(secs => ?) " +
+            "ORDER BY last_referenced_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BlobStore blobStore;
+    private final long graceSeconds;
+    private final int batchSize;
+    
+    public BlobGarbageCollector(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                BlobStore blobStore,
+                                @Value("${app.attachments.gc.grace-seconds:86400}") long graceSeconds,
+                                @Value("${app.attachments.gc.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.blobStore = blobStore;
+        this.graceSeconds = graceSeconds;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.attachments.gc.interval-ms:3600000}")
+    public void collect() {
+        try {
+            Integer removed = transactionTemplate.execute(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    return 0;
+                }
+                List<String> candidates = jdbcTemplate.queryForList(CANDIDATES_SQL, String.class, graceSeconds, batchSize);
+                int count = 0;
+                for (String sha256 : candidates) {
+                    try {
+                        blobStore.delete(sha256);
+                    } catch (IOException e) {
+                        log.warn("Could not delete blob {}: {}", sha256, e.getMessage());
+                        continue;
+                    }
+                    count += jdbcTemplate.update("DELETE FROM blobs WHERE sha256 = ? AND ref_count = 0", sha256);
+                }
+                return count;
+            });
+            if (removed != null && removed > 0) {
+                log.info("Removed {} unreferenced blobs", removed);
+            }
+        } catch (RuntimeException e) {
+            log.error("Blob garbage collection failed", e);
+        }
+    }
+}
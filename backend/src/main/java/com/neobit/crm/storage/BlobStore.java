@@ -0,0 +1,124 @@
+package com.neobit.crm.storage;
+
+import com.neobit.crm.exception.QuotaExceededException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Content-addressed blob files on local disk.
+ *
+ * A blob lives at {@code <dir>/<sha[0:2]>/<sha[2:4]>/<sha>} and is never modified
+ * once written, so identical uploads from any tenant share one file. Reference
+ * counts and quotas are kept in the database by {@code AttachmentService}; this
+ * class only moves bytes.
+ */
+@Component
+@Slf4j
+public class BlobStore {
+    
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final Path root;
+    private final Path tmpDir;
+    
+    public BlobStore(@Value("${app.attachments.store-dir:./data/blobs}") String storeDir) {
+        this.root = Paths.get(storeDir).toAbsolutePath().normalize();
+        this.tmpDir = root.resolve("tmp");
+    }
+    
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(tmpDir);
+    }
+    
+    /**
+     * Streams {@code in} to a temporary file in fixed-size chunks, hashing as it goes.
+     * Nothing is held in memory beyond one buffer. The temporary file is removed if
+     * the stream fails or grows past {@code maxBytes}.
+     */
+    public StagedBlob stage(InputStream in, long maxBytes) throws IOException {
+        MessageDigest digest = sha256();
+        Path tempFile = Files.createTempFile(tmpDir, "upload-", ".part");
+        long size = 0;
+        try (OutputStream out = Files.newOutputStream(tempFile)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                size += read;
+                if (size > maxBytes) {
+                    throw new QuotaExceededException("File exceeds the maximum size of " + maxBytes + " bytes");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new StagedBlob(HexFormat.of().formatHex(digest.digest()), size, tempFile);
+    }
+    
+    /**
+     * Makes the staged content available under its hash. If the file is already
+     * present the staged copy is dropped, which is where deduplication happens.
+     * Called after the reference to the blob has committed, so the garbage collector
+     * no longer considers it.
+     */
+    public void publish(StagedBlob staged) throws IOException {
+        Path target = path(staged.sha256());
+        if (Files.exists(target)) {
+            Files.deleteIfExists(staged.tempFile());
+            return;
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(staged.tempFile(), target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(staged.tempFile());
+        }
+    }
+    
+    /**
+     * Removes a staged file that was not published. Safe to call after {@link #publish}.
+     */
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists(staged.tempFile());
+        } catch (IOException e) {
+            log.warn("Could not remove staged upload {}: {}", staged.tempFile(), e.getMessage());
+        }
+    }
+    
+    public boolean delete(String sha256) throws IOException {
+        return Files.deleteIfExists(path(sha256));
+    }
+    
+    public Path path(String sha256) {
+        if (sha256 == null || sha256.length() != 64) {
+            throw new IllegalArgumentException("Invalid blob hash: " + sha256);
+        }
+        return root.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.neobit.crm.storage;
+
+/**
+ * A single inclusive byte range from an HTTP {@code Range} header.
+ *
+ * Only one {@code bytes=} range is honoured. Multi-range requests and malformed
+ * headers are ignored and the whole entity is served, which RFC 9110 allows.
+ */
+public record ByteRange(long start, long end) {
+    
+    public static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+    
+    private static final String UNIT = "bytes=";
+    
+    /**
+     * Returns the range to serve, {@code null} to serve the full entity, or
+     * {@link #UNSATISFIABLE} when the range lies outside {@code length}.
+     */
+    public static ByteRange parse(String header, long length) {
+        if (header == null || !header.regionMatches(true, 0, UNIT, 0, UNIT.length())) {
+            return null;
+        }
+        String spec = header.substring(UNIT.length()).trim();
+        if (spec.isEmpty() || spec.indexOf(',') >= 0) {
+            return null;
+        }
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        String first = spec.substring(0, dash).trim();
+        String last = spec.substring(dash + 1).trim();
+        try {
+            if (first.isEmpty()) {
+                // Suffix range: the final N bytes
+                if (last.isEmpty()) {
+                    return null;
+                }
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || length == 0) {
+                    return UNSATISFIABLE;
+                }
+                return new ByteRange(Math.max(0, length - suffix), length - 1);
+            }
+            long start = Long.parseLong(first);
+            long end = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+            if (start < 0 || end < start) {
+                return null;
+            }
+            if (start >= length) {
+                return UNSATISFIABLE;
+            }
+            return new ByteRange(start, Math.min(end, length - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+    
+    public boolean satisfiable() {
+        return start >= 0;
+    }
+    
+    public long length() {
+        return end - start + 1;
+    }
+    
+    public String contentRange(long total) {
+        return "bytes " + start + "-" + end + "/" + total;
+    }
+}
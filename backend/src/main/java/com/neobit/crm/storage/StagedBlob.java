@@ -0,0 +1,9 @@
+package com.neobit.crm.storage;
+
+import java.nio.file.Path;
+
+/**
+ * Upload written to a temporary file and hashed, not yet part of the store.
+ */
+public record StagedBlob(String sha256, long size, Path tempFile) {
+}
@@ -0,0 +1,449 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Monthly range partitions for interactions, built next to the live table.
+ *
+ * The copy never holds a lock on {@code interactions} for its length:
+ * <ol>
+ * <li>The partitioned table is created as {@code interactions_new}, and a trigger on
+ * the old table logs the id of every row written from then on.</li>
+ * <li>Rows are copied in keyset batches, each committed on its own.</li>
+ * <li>Logged ids are synced again in batches until few are left.</li>
+ * <li>Cut-over: one short transaction holding an EXCLUSIVE lock (reads go on)
+ * syncs the rest, drops the old table and renames the new one into place.</li>
+ * </ol>
+ *
+ * A partitioned table's primary key must include the partition key, so the key is
+ * {@code (id, created_at)}. {@code interaction_ids} keeps one row per id, maintained
+ * by triggers, which makes id unique across partitions and gives the tables that
+ * reference interactions a target for real foreign keys again. Its rows outlive
+ * archived months, so references to archived interactions stay valid. id and
+ * created_at cannot be updated; a changed created_at would move the row between
+ * partitions as a delete plus an insert.
+ *
+ * Runs outside a transaction so the batches commit as they go.
+ */
+public class V7__partition_interactions extends BaseJavaMigration {
+    
+    private static final int BATCH_SIZE = 10_000;
+    private static final int CATCH_UP_ROUNDS = 100;
+    private static final int LOCK_TIMEOUT_MS = 5_000;
+    private static final int CUT_OVER_ATTEMPTS = 20;
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
+    
+    private static final String COLUMNS =
+            "id, tenant_id, customer_id, account_id, user_id, type, direction, status, " +
+            "subject, description, summary, sentiment, sentiment_score, started_at, ended_at, " +
+            "duration_seconds, scheduled_at, location, external_id, external_source, metadata, " +
+            "tags, created_at, updated_at";
+    
+    private static final String SOURCE_COLUMNS =
+            "id, tenant_id, customer_id, account_id, user_id, type, direction, status, " +
+            "subject, description, summary, sentiment, sentiment_score, started_at, ended_at, " +
+            "duration_seconds, scheduled_at, location, external_id, external_source, metadata, " +
+            "tags, COALESCE(created_at, updated_at, now()), updated_at";
+    
+    private static final String[] NEW_TABLE = {
+            """
+            CREATE TABLE interactions_new (
+                id UUID NOT NULL DEFAULT uuid_generate_v7(),
+                tenant_id UUID NOT NULL REFERENCES tenants(id) ON DELETE CASCADE,
+                customer_id UUID REFERENCES customers(id) ON DELETE CASCADE,
+                account_id UUID REFERENCES accounts(id) ON DELETE SET NULL,
+                user_id UUID REFERENCES users(id) ON DELETE SET NULL,
+                type interaction_type NOT NULL,
+                direction interaction_direction DEFAULT 'outbound',
+                status interaction_status DEFAULT 'completed',
+                subject VARCHAR(500),
+                description TEXT,
+                summary TEXT,
+                sentiment VARCHAR(20),
+                sentiment_score DECIMAL(3,2),
+                started_at TIMESTAMP WITH TIME ZONE,
+                ended_at TIMESTAMP WITH TIME ZONE,
+                duration_seconds INTEGER,
+                scheduled_at TIMESTAMP WITH TIME ZONE,
+                location VARCHAR(255),
+                external_id VARCHAR(255),
+                external_source VARCHAR(50),
+                metadata JSONB DEFAULT '{}',
+                tags TEXT[],
+                created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                CONSTRAINT interactions_new_pkey PRIMARY KEY (id, created_at)
+            ) PARTITION BY RANGE (created_at)
+            """,
+            // One row per interaction id; the unique key partitions cannot have
+            """
+            CREATE TABLE interaction_ids (
+                id UUID PRIMARY KEY,
+                created_at TIMESTAMP WITH TIME ZONE NOT NULL
+            )
+            """,
+            // Ingest idempotency keys. A unique index on the partitioned table would have to
+            // include created_at, which would let the same external record in twice.
+            """
+            CREATE TABLE interaction_external_keys (
+                tenant_id UUID NOT NULL REFERENCES tenants(id) ON DELETE CASCADE,
+                external_source VARCHAR(50) NOT NULL,
+                external_id VARCHAR(255) NOT NULL,
+                interaction_id UUID NOT NULL,
+                created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+                PRIMARY KEY (tenant_id, external_source, external_id)
+            )
+            """,
+            """
+            CREATE OR REPLACE FUNCTION interactions_after_insert()
+            RETURNS TRIGGER AS $$
+            BEGIN
+                INSERT INTO interaction_ids (id, created_at) VALUES (NEW.id, NEW.created_at);
+                RETURN NEW;
+            END;
+            $$ LANGUAGE plpgsql
+            """,
+            // Dependent rows follow through their foreign keys to interaction_ids
+            """
+            CREATE OR REPLACE FUNCTION interactions_after_delete()
+            RETURNS TRIGGER AS $$
+            BEGIN
+                DELETE FROM interaction_ids WHERE id = OLD.id;
+                IF OLD.external_id IS NOT NULL THEN
+                    DELETE FROM interaction_external_keys
+                    WHERE tenant_id = OLD.tenant_id AND external_source = OLD.external_source
+                      AND external_id = OLD.external_id AND interaction_id = OLD.id;
+                END IF;
+                RETURN OLD;
+            END;
+            $$ LANGUAGE plpgsql
+            """,
+            """
+            CREATE OR REPLACE FUNCTION interactions_immutable_key()
+            RETURNS TRIGGER AS $$
+            BEGIN
+                IF NEW.id <> OLD.id OR NEW.created_at <> OLD.created_at THEN
+                    RAISE EXCEPTION 'Interaction id and created_at cannot be changed' USING ERRCODE = 'check_violation';
+                END IF;
+                RETURN NEW;
+            END;
+            $$ LANGUAGE plpgsql
+            """,
+            "CREATE TRIGGER interactions_after_insert AFTER INSERT ON interactions_new " +
+            "FOR EACH ROW EXECUTE FUNCTION interactions_after_insert()",
+            "CREATE TRIGGER interactions_after_delete AFTER DELETE ON interactions_new " +
+            "FOR EACH ROW EXECUTE FUNCTION interactions_after_delete()",
+            "CREATE TRIGGER interactions_immutable_key BEFORE UPDATE ON interactions_new " +
+            "FOR EACH ROW EXECUTE FUNCTION interactions_immutable_key()",
+            // Months detached from interactions and moved to columnar files under app.interaction-partitions.archive-dir
+            """
+            CREATE TABLE interaction_archives (
+                partition_name VARCHAR(63) PRIMARY KEY,
+                range_start TIMESTAMP WITH TIME ZONE NOT NULL,
+                range_end TIMESTAMP WITH TIME ZONE NOT NULL,
+                status VARCHAR(20) NOT NULL DEFAULT 'detaching',
+                file_path VARCHAR(1000),
+                row_count BIGINT,
+                file_size BIGINT,
+                checksum VARCHAR(64),
+                archived_at TIMESTAMP WITH TIME ZONE
+            )
+            """,
+            "CREATE INDEX idx_interaction_archives_range ON interaction_archives(range_start, range_end)",
+            // Ids of rows written to the old table while the copy runs
+            "CREATE TABLE interactions_migration_log (id UUID NOT NULL)",
+            """
+            CREATE OR REPLACE FUNCTION interactions_migration_capture()
+            RETURNS TRIGGER AS $$
+            BEGIN
+                IF TG_OP <> 'INSERT' THEN
+                    INSERT INTO interactions_migration_log (id) VALUES (OLD.id);
+                END IF;
+                IF TG_OP <> 'DELETE' THEN
+                    INSERT INTO interactions_migration_log (id) VALUES (NEW.id);
+                END IF;
+                RETURN NULL;
+            END;
+            $$ LANGUAGE plpgsql
+            """,
+            "CREATE TRIGGER interactions_migration_capture AFTER INSERT OR UPDATE OR DELETE ON interactions " +
+            "FOR EACH ROW EXECUTE FUNCTION interactions_migration_capture()",
+    };
+    
+    // Built after the bulk copy, under temporary names while the old table holds the real ones
+    private static final String[][] INDEXES = {
+            {"idx_interactions_tenant_created", "(tenant_id, created_at DESC)"},
+            {"idx_interactions_customer", "(customer_id)"},
+            {"idx_interactions_account", "(account_id)"},
+            {"idx_interactions_user", "(user_id)"},
+            {"idx_interactions_type", "(type)"},
+            {"idx_interactions_status", "(status)"},
+            {"idx_interactions_scheduled", "(scheduled_at)"},
+            {"idx_interactions_tags", "USING gin(tags)"},
+            {"idx_interactions_fulltext", "USING gin(to_tsvector('english', coalesce(subject, '') || ' ' || coalesce(description, '')))"},
+    };
+    
+    // table, constraint, ON DELETE action
+    private static final String[][] REFERENCES = {
+            {"interaction_attachments", "interaction_attachments_interaction_id_fkey", "CASCADE"},
+            {"tasks", "tasks_interaction_id_fkey", "SET NULL"},
+            {"email_sync_records", "email_sync_records_interaction_id_fkey", "SET NULL"},
+            {"calendar_events", "calendar_events_interaction_id_fkey", "SET NULL"},
+            {"telegram_messages", "telegram_messages_interaction_id_fkey", "SET NULL"},
+            {"issue_tracker_items", "issue_tracker_items_interaction_id_fkey", "SET NULL"},
+            {"call_logs", "call_logs_interaction_id_fkey", "SET NULL"},
+    };
+    
+    private static final String COPY_BATCH_SQL =
+            "WITH batch AS (SELECT " + SOURCE_COLUMNS + " FROM interactions " +
+            "WHERE ?::uuid IS NULL OR id > ?::uuid ORDER BY id LIMIT ?), " +
+            "copied AS (INSERT INTO interactions_new (" + COLUMNS + ") SELECT * FROM batch ON CONFLICT DO NOTHING) " +
+            "SELECT id FROM batch ORDER BY id DESC LIMIT 1";
+    
+    private static final String TAKE_LOGGED_SQL =
+            "WITH taken AS (DELETE FROM interactions_migration_log WHERE ctid IN " +
+            "(SELECT ctid FROM interactions_migration_log LIMIT ?) RETURNING id) SELECT DISTINCT id FROM taken";
+    
+    // Rows gone from the old table; the delete trigger clears their interaction_ids entries
+    private static final String SYNC_DELETE_SQL =
+            "DELETE FROM interactions_new n WHERE n.id = ANY(?) AND NOT EXISTS " +
+            "(SELECT 1 FROM interactions o WHERE o.id = n.id AND COALESCE(o.created_at, o.updated_at, now()) = n.created_at)";
+    
+    private static final String SYNC_UPSERT_SQL =
+            "INSERT INTO interactions_new (" + COLUMNS + ") SELECT " + SOURCE_COLUMNS + " FROM interactions " +
+            "WHERE id = ANY(?) ON CONFLICT (id, created_at) DO UPDATE SET " +
+            "tenant_id = EXCLUDED.tenant_id, customer_id = EXCLUDED.customer_id, account_id = EXCLUDED.account_id, " +
+            "user_id = EXCLUDED.user_id, type = EXCLUDED.type, direction = EXCLUDED.direction, status = EXCLUDED.status, " +
+            "subject = EXCLUDED.subject, description = EXCLUDED.description, summary = EXCLUDED.summary, " +
+            "sentiment = EXCLUDED.sentiment, sentiment_score = EXCLUDED.sentiment_score, " +
+            "started_at = EXCLUDED.started_at, ended_at = EXCLUDED.ended_at, duration_seconds = EXCLUDED.duration_seconds, " +
+            "scheduled_at = EXCLUDED.scheduled_at, location = EXCLUDED.location, external_id = EXCLUDED.external_id, " +
+            "external_source = EXCLUDED.external_source, metadata = EXCLUDED.metadata, tags = EXCLUDED.tags, " +
+            "updated_at = EXCLUDED.updated_at";
+    
+    private static final String EXTERNAL_KEYS_SQL =
+            "INSERT INTO interaction_external_keys (tenant_id, external_source, external_id, interaction_id, created_at) " +
+            "SELECT DISTINCT ON (tenant_id, external_source, external_id) " +
+            "tenant_id, external_source, external_id, id, created_at FROM interactions_new " +
+            "WHERE external_id IS NOT NULL AND external_source IS NOT NULL %s " +
+            "ORDER BY tenant_id, external_source, external_id, created_at ON CONFLICT DO NOTHING";
+    
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+    
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try {
+            prepare(connection);
+            copy(connection);
+            index(connection);
+            catchUp(connection);
+            cutOver(connection);
+            finish(connection);
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+    
+    private void prepare(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE interactions SET created_at = COALESCE(updated_at, now()) WHERE created_at IS NULL");
+            for (String sql : NEW_TABLE) {
+                statement.execute(sql);
+            }
+            LocalDate month;
+            try (ResultSet rs = statement.executeQuery("SELECT date_trunc('month', COALESCE(min(created_at), now()) " +
+                    "AT TIME ZONE 'UTC')::date FROM interactions")) {
+                rs.next();
+                month = rs.getObject(1, LocalDate.class);
+            }
+            LocalDate last;
+            try (ResultSet rs = statement.executeQuery("SELECT date_trunc('month', GREATEST(max(created_at), " +
+                    "now() + INTERVAL '3 months') AT TIME ZONE 'UTC')::date FROM interactions")) {
+                rs.next();
+                last = rs.getObject(1, LocalDate.class);
+            }
+            DateTimeFormatter suffix = DateTimeFormatter.ofPattern("yyyy_MM");
+            for (; !month.isAfter(last); month = month.plusMonths(1)) {
+                statement.execute(String.format("CREATE TABLE interactions_p%s PARTITION OF interactions_new " +
+                        "FOR VALUES FROM ('%s 00:00:00+00') TO ('%s 00:00:00+00')",
+                        month.format(suffix), month, month.plusMonths(1)));
+            }
+        }
+        connection.commit();
+    }
+    
+    private void copy(Connection connection) throws SQLException {
+        UUID last = null;
+        try (PreparedStatement ps = connection.prepareStatement(COPY_BATCH_SQL)) {
+            while (true) {
+                ps.setObject(1, last);
+                ps.setObject(2, last);
+                ps.setInt(3, BATCH_SIZE);
+                UUID next = null;
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) {
+                        next = rs.getObject(1, UUID.class);
+                    }
+                }
+                connection.commit();
+                if (next == null) {
+                    return;
+                }
+                last = next;
+            }
+        }
+    }
+    
+    private void index(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String[] index : INDEXES) {
+                statement.execute("CREATE INDEX " + temporary(index[0]) + " ON interactions_new " + index[1]);
+            }
+            statement.executeUpdate(String.format(EXTERNAL_KEYS_SQL, ""));
+        }
+        connection.commit();
+    }
+    
+    /**
+     * Syncs logged ids until a round takes less than a full batch, so the cut-over
+     * has little left to do under its lock.
+     */
+    private void catchUp(Connection connection) throws SQLException {
+        for (int round = 0; round < CATCH_UP_ROUNDS; round++) {
+            int synced = syncLogged(connection);
+            connection.commit();
+            if (synced < BATCH_SIZE) {
+                return;
+            }
+        }
+    }
+    
+    private void cutOver(Connection connection) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL lock_timeout = " + LOCK_TIMEOUT_MS);
+                // Writers wait from here to the commit; readers carry on until the drop
+                statement.execute("LOCK TABLE interactions IN EXCLUSIVE MODE");
+                while (syncLogged(connection) > 0) {
+                    // drain
+                }
+                for (String[] reference : REFERENCES) {
+                    statement.execute("ALTER TABLE " + reference[0] + " DROP CONSTRAINT IF EXISTS " + reference[1]);
+                }
+                statement.execute("DROP TABLE interactions");
+                statement.execute("DROP FUNCTION interactions_migration_capture()");
+                statement.execute("DROP TABLE interactions_migration_log");
+                statement.execute("ALTER TABLE interactions_new RENAME TO interactions");
+                statement.execute("ALTER TABLE interactions RENAME CONSTRAINT interactions_new_pkey TO interactions_pkey");
+                for (String column : List.of("tenant_id", "customer_id", "account_id", "user_id")) {
+                    statement.execute("ALTER TABLE interactions RENAME CONSTRAINT interactions_new_" + column
+                            + "_fkey TO interactions_" + column + "_fkey");
+                }
+                for (String[] index : INDEXES) {
+                    statement.execute("ALTER INDEX " + temporary(index[0]) + " RENAME TO " + index[0]);
+                }
+                statement.execute("CREATE TRIGGER update_interactions_updated_at BEFORE UPDATE ON interactions " +
+                        "FOR EACH ROW EXECUTE FUNCTION update_updated_at_column()");
+                statement.execute("""
+                        CREATE OR REPLACE FUNCTION create_interaction_partition(p_month DATE)
+                        RETURNS TEXT AS $$
+                        DECLARE
+                            v_start DATE := date_trunc('month', p_month)::date;
+                            v_name TEXT := 'interactions_p' || to_char(v_start, 'YYYY_MM');
+                        BEGIN
+                            IF to_regclass(v_name) IS NULL THEN
+                                EXECUTE format('CREATE TABLE %I PARTITION OF interactions FOR VALUES FROM (%L) TO (%L)',
+                                               v_name,
+                                               v_start::timestamp AT TIME ZONE 'UTC',
+                                               (v_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+                            END IF;
+                            RETURN v_name;
+                        END;
+                        $$ LANGUAGE plpgsql
+                        """);
+                // Validated after the commit, without blocking writes to the referencing tables
+                for (String[] reference : REFERENCES) {
+                    statement.execute("ALTER TABLE " + reference[0] + " ADD CONSTRAINT " + reference[1]
+                            + " FOREIGN KEY (interaction_id) REFERENCES interaction_ids(id) ON DELETE "
+                            + reference[2] + " NOT VALID");
+                }
+                connection.commit();
+                return;
+            } catch (SQLException e) {
+                connection.rollback();
+                if (!LOCK_NOT_AVAILABLE.equals(e.getSQLState()) || attempt >= CUT_OVER_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+    
+    private void finish(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String[] reference : REFERENCES) {
+                statement.execute("ALTER TABLE " + reference[0] + " VALIDATE CONSTRAINT " + reference[1]);
+            }
+            // interaction_attachments has had idx_attachments_interaction since V1
+            for (String[] reference : REFERENCES) {
+                if (!"interaction_attachments".equals(reference[0])) {
+                    statement.execute("CREATE INDEX IF NOT EXISTS idx_" + reference[0] + "_interaction ON "
+                            + reference[0] + "(interaction_id)");
+                }
+            }
+        }
+        connection.commit();
+    }
+    
+    /**
+     * Takes up to a batch of logged ids and makes interactions_new match the old
+     * table for them.
+     */
+    private int syncLogged(Connection connection) throws SQLException {
+        List<UUID> ids = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement(TAKE_LOGGED_SQL)) {
+            ps.setInt(1, BATCH_SIZE);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getObject(1, UUID.class));
+                }
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        Array array = connection.createArrayOf("uuid", ids.toArray());
+        for (String sql : List.of(SYNC_DELETE_SQL, SYNC_UPSERT_SQL, String.format(EXTERNAL_KEYS_SQL, "AND id = ANY(?)"))) {
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setArray(1, array);
+                ps.executeUpdate();
+            }
+        }
+        return ids.size();
+    }
+    
+    private static String temporary(String index) {
+        return index.replace("idx_interactions_", "idx_interactions_new_");
+    }
+}
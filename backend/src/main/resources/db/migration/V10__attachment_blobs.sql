@@ -0,0 +1,29 @@
+-- =====================================================
+-- Content-addressed attachment storage
+-- Version: 10.0
+-- =====================================================
+
+-- One row per distinct content, shared by every attachment (in any tenant) with the same bytes.
+-- The file lives at <app.attachments.store-dir>/<sha[0:2]>/<sha[2:4]>/<sha>.
+CREATE TABLE IF NOT EXISTS blobs (
+    sha256 CHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    ref_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    last_referenced_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Unreferenced blobs waiting for the garbage collector
+CREATE INDEX IF NOT EXISTS idx_blobs_unreferenced ON blobs(last_referenced_at) WHERE ref_count = 0;
+
+ALTER TABLE attachments ADD COLUMN IF NOT EXISTS content_sha256 CHAR(64) REFERENCES blobs(sha256);
+ALTER TABLE attachments ALTER COLUMN file_url DROP NOT NULL;
+
+-- Logical bytes per tenant: every attachment counts in full, even when its content is shared
+CREATE TABLE IF NOT EXISTS tenant_storage_usage (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(id) ON DELETE CASCADE,
+    used_bytes BIGINT NOT NULL DEFAULT 0,
+    -- NULL uses app.attachments.default-quota-bytes
+    quota_bytes BIGINT,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
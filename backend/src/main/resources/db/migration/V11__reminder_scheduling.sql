@@ -0,0 +1,43 @@
+-- =====================================================
+-- Reminder scheduling
+-- Version: 11.0
+-- =====================================================
+
+-- Pending interactions get a reminder ahead of scheduled_at, tracked like activities.reminder_sent
+ALTER TABLE interactions ADD COLUMN IF NOT EXISTS reminder_sent BOOLEAN NOT NULL DEFAULT false;
+
+-- Nothing is owed for meetings that have already started
+UPDATE interactions SET reminder_sent = true WHERE status = 'pending' AND scheduled_at < now();
+
+-- Only unsent reminders are indexed, so the horizon scan stays small as history grows
+CREATE INDEX IF NOT EXISTS idx_interactions_reminder_due ON interactions(scheduled_at)
+    WHERE status = 'pending' AND reminder_sent = false;
+CREATE INDEX IF NOT EXISTS idx_activities_reminder_due ON activities(reminder_at)
+    WHERE status = 'scheduled' AND reminder_sent = false;
+
+-- Moving the reminder time re-arms it
+CREATE OR REPLACE FUNCTION reset_interaction_reminder()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.scheduled_at IS DISTINCT FROM OLD.scheduled_at AND NEW.reminder_sent = OLD.reminder_sent THEN
+        NEW.reminder_sent := false;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reset_interaction_reminder BEFORE UPDATE ON interactions
+    FOR EACH ROW EXECUTE FUNCTION reset_interaction_reminder();
+
+CREATE OR REPLACE FUNCTION reset_activity_reminder()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.reminder_at IS DISTINCT FROM OLD.reminder_at AND NEW.reminder_sent = OLD.reminder_sent THEN
+        NEW.reminder_sent := false;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reset_activity_reminder BEFORE UPDATE ON activities
+    FOR EACH ROW EXECUTE FUNCTION reset_activity_reminder();
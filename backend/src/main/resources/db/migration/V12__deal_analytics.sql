@@ -0,0 +1,27 @@
+-- =====================================================
+-- Deal analytics change tracking
+-- Version: 12.0
+-- =====================================================
+
+-- Incremental refresh of the in-memory deal columns reads rows changed since its last pass
+CREATE INDEX IF NOT EXISTS idx_deals_tenant_updated ON deals(tenant_id, updated_at);
+
+-- Deleted deals leave a tombstone so the refresh can drop them; pruned after a day
+CREATE TABLE IF NOT EXISTS deal_deletions (
+    deal_id UUID NOT NULL,
+    tenant_id UUID NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+CREATE INDEX IF NOT EXISTS idx_deal_deletions_tenant ON deal_deletions(tenant_id, deleted_at);
+
+CREATE OR REPLACE FUNCTION record_deal_deletion()
+RETURNS TRIGGER AS $$
+BEGIN
+    INSERT INTO deal_deletions (deal_id, tenant_id) VALUES (OLD.id, OLD.tenant_id);
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER record_deal_deletion AFTER DELETE ON deals
+    FOR EACH ROW EXECUTE FUNCTION record_deal_deletion();
@@ -0,0 +1,11 @@
+-- =====================================================
+-- Saved report incremental refresh
+-- Version: 13.0
+-- =====================================================
+
+-- Incremental refresh finds the earliest created_at among rows updated since its last run
+-- (deals are covered by idx_deals_tenant_updated from V12)
+CREATE INDEX IF NOT EXISTS idx_customers_tenant_updated ON customers(tenant_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_accounts_tenant_updated ON accounts(tenant_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_tasks_tenant_updated ON tasks(tenant_id, updated_at);
+CREATE INDEX IF NOT EXISTS idx_interactions_tenant_updated ON interactions(tenant_id, updated_at);
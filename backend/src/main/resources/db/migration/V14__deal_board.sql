@@ -0,0 +1,7 @@
+-- =====================================================
+-- Pipeline board
+-- Version: 14.0
+-- =====================================================
+
+-- "Load more" pages one stage column newest first by (created_at, id)
+CREATE INDEX IF NOT EXISTS idx_deals_stage_board ON deals(stage_id, created_at DESC, id DESC);
@@ -0,0 +1,32 @@
+-- =====================================================
+-- Board rank keys and optimistic locking for deals
+-- Version: 15.0
+-- =====================================================
+
+-- Rank keys are base-62 fractions compared byte-wise (see RankKeys)
+ALTER TABLE deals ADD COLUMN IF NOT EXISTS board_rank TEXT COLLATE "C";
+ALTER TABLE deals ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE pipeline_stages ADD COLUMN IF NOT EXISTS board_rank TEXT COLLATE "C";
+
+-- Existing cards keep their board order (newest first), existing stages their position order;
+-- fixed-width hex digits are valid base-62 digits and sort the same way
+UPDATE deals d SET board_rank = '1' || lpad(to_hex(r.rn), 8, '0') || 'V'
+FROM (SELECT id, row_number() OVER (PARTITION BY stage_id ORDER BY created_at DESC, id DESC) AS rn FROM deals) r
+WHERE d.id = r.id;
+
+UPDATE pipeline_stages s SET board_rank = '1' || lpad(to_hex(r.rn), 4, '0') || 'V'
+FROM (SELECT id, row_number() OVER (PARTITION BY pipeline_id ORDER BY position, id) AS rn FROM pipeline_stages) r
+WHERE s.id = r.id;
+
+-- New deals go on top of their column: '0' sorts before every rebalanced key, and the
+-- digits count down with time so the newest comes first
+ALTER TABLE deals ALTER COLUMN board_rank SET DEFAULT
+    ('0' || lpad(to_hex(4398046511103 - (extract(epoch FROM clock_timestamp()) * 1000)::bigint), 11, '0') || 'V');
+ALTER TABLE deals ALTER COLUMN board_rank SET NOT NULL;
+
+-- Columns are read and paged in rank order
+DROP INDEX IF EXISTS idx_deals_stage_board;
+CREATE INDEX IF NOT EXISTS idx_deals_stage_rank ON deals(stage_id, board_rank, id);
+
+-- Stages due for a rebalance; the literal is RankKeys.MAX_LENGTH
+CREATE INDEX IF NOT EXISTS idx_deals_long_rank ON deals(stage_id) WHERE length(board_rank) > 24;
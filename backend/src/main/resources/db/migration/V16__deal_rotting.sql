@@ -0,0 +1,40 @@
+-- =====================================================
+-- Days in stage and rotting deals
+-- Version: 16.0
+-- =====================================================
+
+-- When an open deal starts (or started) rotting: its stage's rotting_days after it
+-- entered the stage or last had activity, whichever is later; NULL for closed deals.
+-- Kept current by DealStageMaintenanceJob and Deal.moveToStage.
+ALTER TABLE deals ADD COLUMN IF NOT EXISTS rots_at TIMESTAMP WITH TIME ZONE;
+
+-- Rotting lists are range scans of these, never a scan of deals
+CREATE INDEX IF NOT EXISTS idx_deals_rotting ON deals(tenant_id, rots_at, id) WHERE rots_at IS NOT NULL;
+CREATE INDEX IF NOT EXISTS idx_deals_rotting_owner ON deals(tenant_id, owner_id, rots_at, id) WHERE rots_at IS NOT NULL;
+
+-- Maintenance only rewrites days_in_stage and rots_at; that is not a change to the
+-- deal, so it must not move updated_at, which incremental readers go by
+CREATE OR REPLACE FUNCTION touch_deal_updated_at()
+RETURNS TRIGGER AS $$
+DECLARE
+    probe deals;
+BEGIN
+    probe := NEW;
+    probe.days_in_stage := OLD.days_in_stage;
+    probe.rots_at := OLD.rots_at;
+    probe.updated_at := OLD.updated_at;
+    IF probe IS DISTINCT FROM OLD THEN
+        NEW.updated_at = CURRENT_TIMESTAMP;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS update_deals_updated_at ON deals;
+CREATE TRIGGER update_deals_updated_at BEFORE UPDATE ON deals FOR EACH ROW EXECUTE FUNCTION touch_deal_updated_at();
+
+-- Seed rots_at for open deals; the job keeps it and days_in_stage current from here
+UPDATE deals d SET rots_at = greatest(d.stage_entered_at, d.last_activity_at) + make_interval(days => s.rotting_days)
+FROM pipeline_stages s
+WHERE s.id = d.stage_id AND lower(d.status) = 'open'
+  AND NOT coalesce(s.is_won_stage, false) AND NOT coalesce(s.is_lost_stage, false) AND s.rotting_days > 0;
@@ -0,0 +1,26 @@
+-- =====================================================
+-- Pipeline stage conversion and velocity
+-- Version: 17.0
+-- =====================================================
+
+-- One row per tenant, pipeline, stage and UTC day of deal_stage_history transitions.
+-- entered counts transitions into the stage; exited and advanced count transitions out
+-- of it, advanced being those to a later or won stage. duration_digest is a t-digest
+-- (TDigest) of the seconds spent in the stage by the deals that left it that day.
+-- Maintained by StageVelocityWriter (deltas) and StageVelocityJob (recompute/backfill).
+CREATE TABLE IF NOT EXISTS deal_stage_daily_stats (
+    tenant_id UUID NOT NULL REFERENCES tenants(id) ON DELETE CASCADE,
+    pipeline_id UUID NOT NULL REFERENCES pipelines(id) ON DELETE CASCADE,
+    stage_id UUID NOT NULL REFERENCES pipeline_stages(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    entered BIGINT NOT NULL DEFAULT 0,
+    exited BIGINT NOT NULL DEFAULT 0,
+    advanced BIGINT NOT NULL DEFAULT 0,
+    duration_seconds BIGINT NOT NULL DEFAULT 0,
+    duration_digest BYTEA,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, pipeline_id, stage_id, day)
+);
+
+-- Recompute and backfill read history by time
+CREATE INDEX IF NOT EXISTS idx_deal_stage_history_created ON deal_stage_history(created_at);
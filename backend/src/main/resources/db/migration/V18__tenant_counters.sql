@@ -0,0 +1,52 @@
+-- =====================================================
+-- Per-tenant document numbering
+-- Version: 18.0
+-- =====================================================
+
+-- next_value is the first number not yet handed out for a tenant's sequence.
+-- TenantSequenceService reserves blocks by moving it forward and numbers from
+-- memory; the SQL functions below take one number at a time from the same row.
+CREATE TABLE IF NOT EXISTS tenant_counters (
+    tenant_id UUID NOT NULL REFERENCES tenants(id) ON DELETE CASCADE,
+    name VARCHAR(50) NOT NULL,
+    next_value BIGINT NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (tenant_id, name)
+);
+
+-- Continue after the highest number each tenant already has
+INSERT INTO tenant_counters (tenant_id, name, next_value)
+SELECT tenant_id, 'deal', greatest(1000, max(substring(deal_number FROM '-D([0-9]+)$')::bigint) + 1)
+FROM deals WHERE deal_number IS NOT NULL GROUP BY tenant_id
+ON CONFLICT DO NOTHING;
+
+INSERT INTO tenant_counters (tenant_id, name, next_value)
+SELECT tenant_id, 'quote', greatest(1000, max(substring(quote_number FROM '-Q([0-9]+)$')::bigint) + 1)
+FROM quotes GROUP BY tenant_id
+ON CONFLICT DO NOTHING;
+
+INSERT INTO tenant_counters (tenant_id, name, next_value)
+SELECT tenant_id, 'issue', coalesce(max(substring(external_key FROM '^INT-([0-9]+)$')::bigint), 0) + 1
+FROM issues WHERE provider = 'internal' GROUP BY tenant_id
+ON CONFLICT DO NOTHING;
+
+CREATE OR REPLACE FUNCTION next_tenant_number(p_tenant_id UUID, p_name VARCHAR, p_start BIGINT)
+RETURNS BIGINT AS $$
+    INSERT INTO tenant_counters AS c (tenant_id, name, next_value)
+    VALUES (p_tenant_id, p_name, p_start + 1)
+    ON CONFLICT (tenant_id, name) DO UPDATE SET next_value = c.next_value + 1, updated_at = now()
+    RETURNING next_value - 1;
+$$ LANGUAGE sql;
+
+-- Same signatures as before, now numbered per tenant instead of from global sequences
+CREATE OR REPLACE FUNCTION generate_deal_number(tenant_slug VARCHAR)
+RETURNS VARCHAR AS $$
+    SELECT UPPER(tenant_slug) || '-D' || LPAD(next_tenant_number(t.id, 'deal', 1000)::TEXT, 6, '0')
+    FROM tenants t WHERE t.slug = tenant_slug;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION generate_quote_number(tenant_slug VARCHAR)
+RETURNS VARCHAR AS $$
+    SELECT UPPER(tenant_slug) || '-Q' || LPAD(next_tenant_number(t.id, 'quote', 1000)::TEXT, 6, '0')
+    FROM tenants t WHERE t.slug = tenant_slug;
+$$ LANGUAGE sql;
@@ -0,0 +1,11 @@
+-- =====================================================
+-- Price book tier models
+-- Version: 19.0
+-- =====================================================
+
+-- volume: all units at the highest min_quantity tier reached;
+-- tiered: each unit at the tier its position falls in (QuotePricingService)
+ALTER TABLE price_books ADD COLUMN IF NOT EXISTS pricing_model VARCHAR(10) NOT NULL DEFAULT 'volume'
+    CHECK (pricing_model IN ('volume', 'tiered'));
+
+CREATE INDEX IF NOT EXISTS idx_price_books_tenant ON price_books(tenant_id) WHERE is_active;
@@ -0,0 +1,55 @@
+-- =====================================================
+-- In-memory price book index
+-- Version: 20.0
+-- =====================================================
+
+-- Currency the book's prices are in; NULL books apply to quotes in any currency
+ALTER TABLE price_books ADD COLUMN IF NOT EXISTS currency VARCHAR(3);
+
+-- Bumped by every change to a tenant's price books or entries, however it is made;
+-- PriceBookIndex reloads a tenant whose version moved
+CREATE TABLE IF NOT EXISTS price_book_versions (
+    tenant_id UUID PRIMARY KEY REFERENCES tenants(id) ON DELETE CASCADE,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Skips tenants being deleted, whose books go by cascade
+CREATE OR REPLACE FUNCTION bump_price_book_version(p_tenant_id UUID)
+RETURNS VOID AS $$
+    INSERT INTO price_book_versions AS v (tenant_id, version)
+    SELECT t.id, 1 FROM tenants t WHERE t.id = p_tenant_id
+    ON CONFLICT (tenant_id) DO UPDATE SET version = v.version + 1;
+$$ LANGUAGE sql;
+
+CREATE OR REPLACE FUNCTION price_book_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        PERFORM bump_price_book_version(OLD.tenant_id);
+        RETURN OLD;
+    END IF;
+    PERFORM bump_price_book_version(NEW.tenant_id);
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Entries of a book deleted by cascade find no book; the book's own trigger covers them
+CREATE OR REPLACE FUNCTION price_book_entry_changed()
+RETURNS TRIGGER AS $$
+BEGIN
+    PERFORM bump_price_book_version(b.tenant_id) FROM price_books b
+    WHERE b.id = CASE WHEN TG_OP = 'DELETE' THEN OLD.price_book_id ELSE NEW.price_book_id END;
+    IF TG_OP = 'UPDATE' AND OLD.price_book_id <> NEW.price_book_id THEN
+        PERFORM bump_price_book_version(b.tenant_id) FROM price_books b WHERE b.id = OLD.price_book_id;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS price_book_changed ON price_books;
+CREATE TRIGGER price_book_changed AFTER INSERT OR UPDATE OR DELETE ON price_books
+    FOR EACH ROW EXECUTE FUNCTION price_book_changed();
+
+DROP TRIGGER IF EXISTS price_book_entry_changed ON price_book_entries;
+CREATE TRIGGER price_book_entry_changed AFTER INSERT OR UPDATE OR DELETE ON price_book_entries
+    FOR EACH ROW EXECUTE FUNCTION price_book_entry_changed();
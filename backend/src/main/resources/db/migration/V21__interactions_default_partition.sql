@@ -0,0 +1,56 @@
+-- =====================================================
+-- Default partition for interactions
+-- Version: 21.0
+-- =====================================================
+
+-- Catches rows whose month has no partition (backdated imports, months archived
+-- already, dates beyond the pre-created window) instead of failing the insert
+CREATE TABLE IF NOT EXISTS interactions_default PARTITION OF interactions DEFAULT;
+
+-- Rows moved between partitions are not deleted interactions; skip the cleanup
+CREATE OR REPLACE FUNCTION interactions_after_delete()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF current_setting('app.moving_interactions', true) = 'on' THEN
+        RETURN OLD;
+    END IF;
+    DELETE FROM interaction_ids WHERE id = OLD.id;
+    IF OLD.external_id IS NOT NULL THEN
+        DELETE FROM interaction_external_keys
+        WHERE tenant_id = OLD.tenant_id AND external_source = OLD.external_source
+          AND external_id = OLD.external_id AND interaction_id = OLD.id;
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+-- A month's partition cannot be created while the default partition holds rows of
+-- that month, so those rows are moved into a new table that is then attached
+CREATE OR REPLACE FUNCTION create_interaction_partition(p_month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    v_start DATE := date_trunc('month', p_month)::date;
+    v_name TEXT := 'interactions_p' || to_char(v_start, 'YYYY_MM');
+    v_from TIMESTAMP WITH TIME ZONE := v_start::timestamp AT TIME ZONE 'UTC';
+    v_to TIMESTAMP WITH TIME ZONE := (v_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+BEGIN
+    IF to_regclass(v_name) IS NOT NULL THEN
+        RETURN v_name;
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM interactions_default WHERE created_at >= v_from AND created_at < v_to) THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF interactions FOR VALUES FROM (%L) TO (%L)',
+                       v_name, v_from, v_to);
+        RETURN v_name;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE interactions INCLUDING DEFAULTS INCLUDING CONSTRAINTS)', v_name);
+    PERFORM set_config('app.moving_interactions', 'on', true);
+    EXECUTE format('WITH moved AS (DELETE FROM interactions_default WHERE created_at >= %L AND created_at < %L '
+                   'RETURNING *) INSERT INTO %I SELECT * FROM moved', v_from, v_to, v_name);
+    PERFORM set_config('app.moving_interactions', 'off', true);
+    EXECUTE format('ALTER TABLE interactions ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   v_name, v_from, v_to);
+    RETURN v_name;
+END;
+$$ LANGUAGE plpgsql;
+
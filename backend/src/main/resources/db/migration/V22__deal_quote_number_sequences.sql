@@ -0,0 +1,35 @@
+-- =====================================================
+-- Deal and quote numbers back on sequences
+-- Version: 22.0
+-- =====================================================
+
+-- Taking numbers from a tenant_counters row held its lock until the caller's
+-- transaction ended, so every deal or quote a tenant created waited for the one
+-- before it to commit. nextval never blocks and never rolls back: numbers are
+-- unique but shared across tenants, with gaps, as they were before V18.
+
+-- Continue after everything V18 handed out
+SELECT setval('deal_number_seq', greatest(
+        (SELECT last_value FROM deal_number_seq),
+        coalesce((SELECT max(next_value) - 1 FROM tenant_counters WHERE name = 'deal'), 0)));
+SELECT setval('quote_number_seq', greatest(
+        (SELECT last_value FROM quote_number_seq),
+        coalesce((SELECT max(next_value) - 1 FROM tenant_counters WHERE name = 'quote'), 0)));
+
+CREATE OR REPLACE FUNCTION generate_deal_number(tenant_slug VARCHAR)
+RETURNS VARCHAR AS $$
+BEGIN
+    RETURN UPPER(tenant_slug) || '-D' || LPAD(nextval('deal_number_seq')::TEXT, 6, '0');
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION generate_quote_number(tenant_slug VARCHAR)
+RETURNS VARCHAR AS $$
+BEGIN
+    RETURN UPPER(tenant_slug) || '-Q' || LPAD(nextval('quote_number_seq')::TEXT, 6, '0');
+END;
+$$ LANGUAGE plpgsql;
+
+-- tenant_counters now only backs TenantSequenceService
+DROP FUNCTION IF EXISTS next_tenant_number(UUID, VARCHAR, BIGINT);
+DELETE FROM tenant_counters WHERE name IN ('deal', 'quote');
@@ -0,0 +1,14 @@
+-- =====================================================
+-- Durable ingest batches
+-- Version: 23.0
+-- =====================================================
+
+-- Accepted records are stored with the batch before it is acknowledged, so a batch
+-- whose node dies before writing it can be replayed; cleared once the batch completes
+ALTER TABLE interaction_ingest_batches
+    ADD COLUMN IF NOT EXISTS payload JSONB,
+    ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_ingest_batches_pending ON interaction_ingest_batches(updated_at)
+    WHERE status IN ('queued', 'processing');
@@ -0,0 +1,40 @@
+-- =====================================================
+-- Read-only horizon for archived interactions
+-- Version: 24.0
+-- =====================================================
+
+-- Interactions created before frozen_before cannot be inserted, changed or deleted.
+-- The archiver moves it past a month before exporting that month, so the exported
+-- file cannot miss a late write, and nothing new lands behind archived months.
+CREATE TABLE IF NOT EXISTS interaction_archive_horizon (
+    id BOOLEAN PRIMARY KEY DEFAULT TRUE CHECK (id),
+    frozen_before TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+INSERT INTO interaction_archive_horizon (id, frozen_before)
+SELECT TRUE, COALESCE(max(range_end), '-infinity') FROM interaction_archives
+ON CONFLICT (id) DO NOTHING;
+
+CREATE OR REPLACE FUNCTION interactions_reject_frozen()
+RETURNS TRIGGER AS $$
+DECLARE
+    v_horizon TIMESTAMP WITH TIME ZONE := (SELECT frozen_before FROM interaction_archive_horizon);
+BEGIN
+    IF (TG_OP <> 'INSERT' AND OLD.created_at < v_horizon)
+       OR (TG_OP <> 'DELETE' AND NEW.created_at < v_horizon) THEN
+        RAISE EXCEPTION 'Interactions created before % are archived and read-only', v_horizon
+            USING ERRCODE = 'check_violation';
+    END IF;
+    IF TG_OP = 'DELETE' THEN
+        RETURN OLD;
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS interactions_reject_frozen ON interactions;
+CREATE TRIGGER interactions_reject_frozen BEFORE INSERT OR UPDATE OR DELETE ON interactions
+    FOR EACH ROW EXECUTE FUNCTION interactions_reject_frozen();
+
+-- Order-independent hash of the exported rows, compared again after the detach
+ALTER TABLE interaction_archives ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
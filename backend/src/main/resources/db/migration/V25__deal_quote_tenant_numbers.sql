@@ -0,0 +1,23 @@
+-- =====================================================
+-- Deal and quote numbers per tenant again
+-- Version: 25.0
+-- =====================================================
+
+-- New deals and quotes are numbered by TenantSequenceService, which reserves blocks
+-- of the tenant's counter in their own short transactions, so creates never wait on
+-- each other. Continue after the highest number each tenant already has, including
+-- the ones V22's global sequences handed out.
+INSERT INTO tenant_counters AS c (tenant_id, name, next_value)
+SELECT tenant_id, 'deal', greatest(1000, max(substring(deal_number FROM '-D([0-9]+)$')::bigint) + 1)
+FROM deals WHERE deal_number IS NOT NULL GROUP BY tenant_id
+ON CONFLICT (tenant_id, name) DO UPDATE SET next_value = greatest(c.next_value, EXCLUDED.next_value), updated_at = now();
+
+INSERT INTO tenant_counters AS c (tenant_id, name, next_value)
+SELECT tenant_id, 'quote', greatest(1000, max(substring(quote_number FROM '-Q([0-9]+)$')::bigint) + 1)
+FROM quotes GROUP BY tenant_id
+ON CONFLICT (tenant_id, name) DO UPDATE SET next_value = greatest(c.next_value, EXCLUDED.next_value), updated_at = now();
+
+-- Numbers taken from the global sequences would collide with the tenant's own;
+-- a SQL path that takes them one at a time would hold the counter row until commit
+DROP FUNCTION IF EXISTS generate_deal_number(VARCHAR);
+DROP FUNCTION IF EXISTS generate_quote_number(VARCHAR);
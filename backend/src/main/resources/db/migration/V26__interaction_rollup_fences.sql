@@ -0,0 +1,11 @@
+-- =====================================================
+-- Recompute fences for interaction rollups
+-- Version: 26.0
+-- =====================================================
+
+-- Days InteractionRollupJob has recounted. A delta buffered while its day was still
+-- open is already part of any later recount of that day, so the writer drops it.
+CREATE TABLE IF NOT EXISTS interaction_rollup_fences (
+    day DATE PRIMARY KEY,
+    recomputed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
@@ -0,0 +1,34 @@
+-- =====================================================
+-- Time-ordered UUIDv7 primary keys
+-- Version: 5.0
+-- =====================================================
+
+-- Entities get v7 ids from the application (UuidV7Generator). This function covers
+-- rows inserted by SQL (functions, seeds, manual fixes) so they sort the same way.
+-- Layout per RFC 9562: 48-bit unix millis | ver 7 | 12 random bits | variant | 62 random bits
+CREATE OR REPLACE FUNCTION uuid_generate_v7()
+RETURNS UUID AS $$
+DECLARE
+    v_bytes BYTEA;
+BEGIN
+    v_bytes := overlay(uuid_send(gen_random_uuid())
+                       placing substring(int8send(floor(extract(epoch FROM clock_timestamp()) * 1000)::BIGINT) FROM 3)
+                       FROM 1 FOR 6);
+    -- version nibble 0111, variant bits were already set to 10 by gen_random_uuid()
+    v_bytes := set_byte(v_bytes, 6, (get_byte(v_bytes, 6) & 15) | 112);
+    RETURN encode(v_bytes, 'hex')::UUID;
+END;
+$$ LANGUAGE plpgsql VOLATILE;
+
+-- High insert-rate tables
+ALTER TABLE interactions ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE interaction_attachments ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE customers ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE tasks ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE activities ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE notes ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE audit_logs ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE deal_stage_history ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE email_sync_records ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE calendar_events ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE notifications ALTER COLUMN id SET DEFAULT uuid_generate_v7();
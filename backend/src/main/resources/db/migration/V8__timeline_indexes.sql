@@ -0,0 +1,28 @@
+-- =====================================================
+-- Keyset indexes for the customer timeline
+-- Version: 8.0
+-- =====================================================
+
+-- One index per timeline source, matching its filter and (occurred_at DESC, id DESC) order,
+-- so each stream reads only the rows the page needs
+
+CREATE INDEX IF NOT EXISTS idx_interactions_customer_timeline
+    ON interactions(customer_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_activities_contact_timeline
+    ON activities(contact_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_tasks_customer_timeline
+    ON tasks(customer_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_notes_entity_timeline
+    ON notes(entity_type, entity_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_email_sync_customer_timeline
+    ON email_sync_records(customer_id, (COALESCE(received_at, created_at)) DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_calendar_events_customer_timeline
+    ON calendar_events(customer_id, start_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_deal_stage_history_deal_timeline
+    ON deal_stage_history(deal_id, created_at DESC, id DESC);
@@ -0,0 +1,22 @@
+-- =====================================================
+-- Daily interaction rollups
+-- Version: 9.0
+-- =====================================================
+
+-- One row per tenant, UTC day, type, direction and user. Maintained by
+-- InteractionRollupWriter (deltas) and InteractionRollupJob (recompute/backfill).
+CREATE TABLE IF NOT EXISTS interaction_daily_rollups (
+    tenant_id UUID NOT NULL REFERENCES tenants(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    type interaction_type NOT NULL,
+    direction interaction_direction,
+    user_id UUID,
+    interaction_count BIGINT NOT NULL DEFAULT 0,
+    duration_seconds BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT uq_interaction_daily_rollups
+        UNIQUE NULLS NOT DISTINCT (tenant_id, day, type, direction, user_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_interaction_daily_rollups_user
+    ON interaction_daily_rollups(tenant_id, user_id, day);
@@ -0,0 +1,187 @@
+package com.neobit.crm.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealColumnsTest {
+
+    private final UUID pipeline = UUID.randomUUID();
+    private final UUID qualified = UUID.randomUUID();
+    private final UUID proposal = UUID.randomUUID();
+
+    @Test
+    void pivot_ShouldGroupByStageWithWeightedAmount() {
+        // Arrange
+        DealColumns columns = new DealColumns(0);
+        columns.upsertAll(List.of(
+                deal(qualified, "OPEN", 100_00, 50, "2026-03-10"),
+                deal(qualified, "OPEN", 300_00, 10, "2026-03-20"),
+                deal(proposal, "OPEN", 1_000_00, 75, "2026-04-01")));
+
+        // Act
+        Map<List<String>, DealColumns.Group> groups = byKeys(columns.pivot(List.of(DealDimension.STAGE), DealFilter.NONE, Integer.MAX_VALUE));
+
+        // Assert
+        DealColumns.Group first = groups.get(List.of(qualified.toString()));
+        assertEquals(2, first.count());
+        assertEquals(400_00, first.amountCents());
+        assertEquals(100_00 * 50 + 300_00 * 10, first.weightedBasis());
+        assertEquals(1, groups.get(List.of(proposal.toString())).count());
+    }
+
+    @Test
+    void pivot_ShouldApplyValueAndCloseDateFilters() {
+        // Arrange
+        DealColumns columns = new DealColumns(0);
+        columns.upsertAll(List.of(
+                deal(qualified, "OPEN", 100_00, 50, "2026-03-10"),
+                deal(qualified, "WON", 200_00, 100, "2026-03-20"),
+                deal(proposal, "OPEN", 300_00, 75, "2026-05-01"),
+                deal(proposal, "OPEN", 400_00, 75, null)));
+        DealFilter filter = DealFilter.of(Map.of(DealDimension.STATUS, List.of("OPEN")),
+                (int) LocalDate.parse("2026-03-01").toEpochDay(), (int) LocalDate.parse("2026-04-30").toEpochDay());
+
+        // Act
+        List<DealColumns.Group> groups = columns.pivot(List.of(), filter, Integer.MAX_VALUE);
+
+        // Assert
+        assertEquals(1, groups.size());
+        assertEquals(1, groups.get(0).count());
+        assertEquals(100_00, groups.get(0).amountCents());
+    }
+
+    @Test
+    void pivot_ShouldReturnNothingWhenFilterValueIsUnknown() {
+        // Arrange
+        DealColumns columns = new DealColumns(0);
+        columns.upsertAll(List.of(deal(qualified, "OPEN", 100_00, 50, null)));
+
+        // Act
+        List<DealColumns.Group> groups = columns.pivot(List.of(DealDimension.STAGE),
+                DealFilter.of(Map.of(DealDimension.STATUS, List.of("LOST")), null, null), Integer.MAX_VALUE);
+
+        // Assert
+        assertTrue(groups.isEmpty());
+    }
+
+    @Test
+    void pivot_ShouldGroupByCloseMonthWithNullForMissingDate() {
+        // Arrange
+        DealColumns columns = new DealColumns(0);
+        columns.upsertAll(List.of(
+                deal(qualified, "OPEN", 100_00, 50, "2026-03-31"),
+                deal(qualified, "OPEN", 100_00, 50, "2026-03-01"),
+                deal(qualified, "OPEN", 100_00, 50, "2024-02-29"),
+                deal(qualified, "OPEN", 100_00, 50, null)));
+
+        // Act
+        Map<List<String>, DealColumns.Group> groups = byKeys(columns.pivot(List.of(DealDimension.CLOSE_MONTH), DealFilter.NONE, Integer.MAX_VALUE));
+
+        // Assert
+        assertEquals(2, groups.get(List.of("2026-03")).count());
+        assertEquals(1, groups.get(List.of("2024-02")).count());
+        assertEquals(1, groups.get(Collections.singletonList(null)).count());
+    }
+
+    @Test
+    void upsertAll_ShouldReplaceExistingDealById() {
+        // Arrange
+        DealColumns columns = new DealColumns(0);
+        DealRow original = deal(qualified, "OPEN", 100_00, 50, null);
+        columns.upsertAll(List.of(original));
+
+        // Act
+        columns.upsertAll(List.of(new DealRow(original.id(), pipeline, proposal, null, "OPEN", "USD", 250_00, 60,
+                DealColumns.NO_DAY, DealColumns.NO_DAY)));
+
+        // Assert
+        Map<List<String>, DealColumns.Group> groups = byKeys(columns.pivot(List.of(DealDimension.STAGE), DealFilter.NONE, Integer.MAX_VALUE));
+        assertEquals(1, columns.size());
+        assertNull(groups.get(List.of(qualified.toString())));
+        assertEquals(250_00, groups.get(List.of(proposal.toString())).amountCents());
+    }
+
+    @Test
+    void removeAll_ShouldKeepRemainingRowsAddressable() {
+        // Arrange
+        DealColumns columns = new DealColumns(0);
+        DealRow first = deal(qualified, "OPEN", 100_00, 50, null);
+        DealRow second = deal(qualified, "OPEN", 200_00, 50, null);
+        DealRow last = deal(proposal, "OPEN", 300_00, 50, null);
+        columns.upsertAll(List.of(first, second, last));
+
+        // Act
+        columns.removeAll(List.of(first.id(), UUID.randomUUID()));
+        columns.removeAll(List.of(last.id()));
+
+        // Assert
+        List<DealColumns.Group> groups = columns.pivot(List.of(), DealFilter.NONE, Integer.MAX_VALUE);
+        assertEquals(1, columns.size());
+        assertEquals(200_00, groups.get(0).amountCents());
+    }
+
+    @Test
+    void pivot_ShouldMatchSequentialResultWhenScannedInParallel() {
+        // Arrange
+        Random random = new Random(42);
+        List<UUID> stages = List.of(qualified, proposal, UUID.randomUUID(), UUID.randomUUID());
+        List<String> statuses = List.of("OPEN", "WON", "LOST");
+        List<DealRow> rows = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) {
+            rows.add(new DealRow(UUID.randomUUID(), pipeline, stages.get(random.nextInt(stages.size())), null,
+                    statuses.get(random.nextInt(statuses.size())), "USD", random.nextInt(1_000_000), random.nextInt(101),
+                    20_000 + random.nextInt(800), 19_000 + random.nextInt(800)));
+        }
+        DealColumns columns = new DealColumns(rows.size());
+        columns.upsertAll(rows);
+        List<DealDimension> groupBy = List.of(DealDimension.STAGE, DealDimension.STATUS, DealDimension.CREATED_MONTH);
+
+        // Act
+        List<DealColumns.Group> sequential = columns.pivot(groupBy, DealFilter.NONE, Integer.MAX_VALUE);
+        List<DealColumns.Group> parallel = columns.pivot(groupBy, DealFilter.NONE, 0);
+
+        // Assert
+        assertEquals(sorted(sequential), sorted(parallel));
+        assertEquals(rows.size(), parallel.stream().mapToLong(DealColumns.Group::count).sum());
+    }
+
+    @Test
+    void monthCode_ShouldOrderMonthsAndReserveZeroForNoDate() {
+        // Act
+        int january = DealColumns.monthCode((int) LocalDate.parse("2026-01-31").toEpochDay());
+        int february = DealColumns.monthCode((int) LocalDate.parse("2026-02-01").toEpochDay());
+        int earlier = DealColumns.monthCode((int) LocalDate.parse("1969-12-31").toEpochDay());
+
+        // Assert
+        assertEquals(0, DealColumns.monthCode(DealColumns.NO_DAY));
+        assertEquals(january + 1, february);
+        assertEquals(1969 * 12 + 11 + 1, earlier);
+    }
+
+    private DealRow deal(UUID stage, String status, long amountCents, int probability, String closeDate) {
+        return new DealRow(UUID.randomUUID(), pipeline, stage, null, status, "USD", amountCents, probability,
+                closeDate != null ? (int) LocalDate.parse(closeDate).toEpochDay() : DealColumns.NO_DAY,
+                (int) LocalDate.parse("2026-01-15").toEpochDay());
+    }
+
+    private static Map<List<String>, DealColumns.Group> byKeys(List<DealColumns.Group> groups) {
+        Map<List<String>, DealColumns.Group> map = new HashMap<>();
+        groups.forEach(group -> map.put(group.keys(), group));
+        return map;
+    }
+
+    private static List<DealColumns.Group> sorted(List<DealColumns.Group> groups) {
+        return groups.stream().sorted(Comparator.comparing(group -> String.join("|", group.keys()))).toList();
+    }
+}
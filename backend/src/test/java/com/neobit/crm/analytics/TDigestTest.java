@@ -0,0 +1,87 @@
+package com.neobit.crm.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TDigestTest {
+
+    @Test
+    void quantile_ShouldTrackMedianAndTailOfSkewedData() {
+        // Arrange
+        Random random = new Random(7);
+        double[] values = new double[100_000];
+        TDigest digest = new TDigest();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = -Math.log(1 - random.nextDouble()) * 86_400;
+            digest.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        // Act
+        double median = digest.quantile(0.5);
+        double p90 = digest.quantile(0.9);
+
+        // Assert
+        assertEquals(values[50_000], median, values[50_000] * 0.02);
+        assertEquals(values[90_000], p90, values[90_000] * 0.02);
+        assertEquals(values.length, digest.count());
+    }
+
+    @Test
+    void merge_ShouldMatchOneDigestOverAllValues() {
+        // Arrange
+        Random random = new Random(11);
+        TDigest all = new TDigest();
+        TDigest merged = new TDigest();
+        for (int day = 0; day < 30; day++) {
+            TDigest daily = new TDigest();
+            for (int i = 0; i < 500; i++) {
+                double value = random.nextGaussian() * 3_600 + 10 * 86_400 + day * 3_600;
+                daily.add(value);
+                all.add(value);
+            }
+            // Act
+            merged.merge(TDigest.fromBytes(daily.toBytes()));
+        }
+
+        // Assert
+        assertEquals(all.count(), merged.count());
+        for (double q : new double[]{0.1, 0.5, 0.9}) {
+            assertEquals(all.quantile(q), merged.quantile(q), 3_600 * 0.1);
+        }
+    }
+
+    @Test
+    void toBytes_ShouldStayCompactAndRoundTrip() {
+        // Arrange
+        TDigest digest = new TDigest();
+        for (int i = 1; i <= 50_000; i++) {
+            digest.add(i);
+        }
+
+        // Act
+        byte[] bytes = digest.toBytes();
+        TDigest copy = TDigest.fromBytes(bytes);
+
+        // Assert
+        assertTrue(bytes.length < 4_096, "digest is " + bytes.length + " bytes");
+        assertEquals(digest.quantile(0.9), copy.quantile(0.9));
+        assertEquals(1.0, copy.quantile(0));
+        assertEquals(50_000.0, copy.quantile(1));
+    }
+
+    @Test
+    void quantile_ShouldHandleEmptyAndSingleValue() {
+        // Arrange
+        TDigest digest = new TDigest();
+
+        // Act & Assert
+        assertTrue(Double.isNaN(digest.quantile(0.5)));
+        digest.add(42);
+        assertEquals(42.0, digest.quantile(0.9));
+    }
+}
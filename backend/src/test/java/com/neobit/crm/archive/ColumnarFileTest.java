@@ -0,0 +1,77 @@
+package com.neobit.crm.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarFileTest {
+
+    private static final List<ColumnType> COLUMNS = List.of(
+            ColumnType.UUID_VALUE, ColumnType.TEXT, ColumnType.TIMESTAMP, ColumnType.INT);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTrip_ShouldPreserveValuesAndNulls() throws IOException {
+        // Arrange
+        Path file = dir.resolve("roundtrip.cia");
+        UUID tenant = UUID.randomUUID();
+        Instant createdAt = Instant.parse("2024-01-15T10:15:30.123456Z");
+        Object[] full = {UUID.randomUUID(), "Call with ünïcode", createdAt, 42};
+        Object[] empty = {UUID.randomUUID(), null, createdAt.plusSeconds(60), null};
+
+        // Act
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, COLUMNS, 100)) {
+            writer.write(tenant, ColumnType.toMicros(createdAt), full);
+            writer.write(tenant, ColumnType.toMicros(createdAt.plusSeconds(60)), empty);
+        }
+
+        // Assert
+        try (ColumnarFileReader reader = ColumnarFileReader.open(file)) {
+            assertEquals(COLUMNS, reader.columns());
+            assertEquals(2, reader.rowCount());
+            List<Object[]> rows = reader.read(reader.rowGroups().get(0));
+            assertArrayEquals(full, rows.get(0));
+            assertArrayEquals(empty, rows.get(1));
+        }
+    }
+
+    @Test
+    void write_ShouldStartNewGroupPerKeyAndWhenFull() throws IOException {
+        // Arrange
+        Path file = dir.resolve("groups.cia");
+        UUID first = new UUID(0, 1);
+        UUID second = new UUID(0, 2);
+
+        // Act
+        try (ColumnarFileWriter writer = new ColumnarFileWriter(file, COLUMNS, 2)) {
+            for (int i = 0; i < 3; i++) {
+                writer.write(first, i, new Object[]{first, "a" + i, Instant.EPOCH, i});
+            }
+            writer.write(second, 10, new Object[]{second, "b", Instant.EPOCH, 10});
+        }
+
+        // Assert
+        try (ColumnarFileReader reader = ColumnarFileReader.open(file)) {
+            List<ColumnarFileReader.RowGroup> groups = reader.rowGroups();
+            assertEquals(3, groups.size());
+            assertEquals(first, groups.get(0).key());
+            assertEquals(2, groups.get(0).rowCount());
+            assertEquals(0, groups.get(0).minSort());
+            assertEquals(1, groups.get(0).maxSort());
+            assertEquals(1, groups.get(1).rowCount());
+            assertEquals(second, groups.get(2).key());
+            assertTrue(groups.get(2).overlaps(5, 10));
+            assertFalse(groups.get(2).overlaps(0, 9));
+            assertEquals("b", reader.read(groups.get(2)).get(0)[1]);
+        }
+    }
+}
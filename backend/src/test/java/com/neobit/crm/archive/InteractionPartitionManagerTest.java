@@ -0,0 +1,147 @@
+package com.neobit.crm.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archives old months on the Flyway-migrated schema, with the default partition
+ * in place, and checks that archived months stay readable and read-only.
+ */
+@Testcontainers
+class InteractionPartitionManagerTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static UUID tenantId;
+
+    @TempDir
+    Path archiveDir;
+
+    private InteractionPartitionManager manager;
+    private InteractionArchiveReader reader;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        tenantId = jdbcTemplate.queryForObject("INSERT INTO tenants (name, slug) VALUES ('Archive', ?) RETURNING id",
+                UUID.class, "archive-" + UUID.randomUUID());
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Each test archives its own month; earlier tests must not freeze it
+        jdbcTemplate.update("UPDATE interaction_archive_horizon SET frozen_before = '-infinity'");
+        manager = new InteractionPartitionManager(jdbcTemplate, 3, 24, true, archiveDir.toString(), 1000, 200, 5);
+        reader = new InteractionArchiveReader(jdbcTemplate, new ObjectMapper());
+    }
+
+    @Test
+    void maintain_ShouldArchiveMonthWhileDefaultPartitionExists() {
+        // Arrange
+        LocalDate month = monthsAgo(30);
+        String partition = createPartition(month);
+        insert(start(month).plus(1, ChronoUnit.DAYS));
+        insert(start(month).plus(2, ChronoUnit.DAYS));
+        insert(start(month).plus(3, ChronoUnit.DAYS));
+        // Far beyond the pre-created partitions, so it lands in the default partition
+        insert(Instant.now().plus(5 * 365, ChronoUnit.DAYS));
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_default", Integer.class));
+
+        // Act
+        manager.maintain();
+
+        // Assert
+        assertEquals("archived", status(partition));
+        assertFalse(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition));
+        assertTrue(Files.exists(archiveDir.resolve(partition + ".cia")));
+        assertEquals(3, reader.find(tenantId, start(month), start(month.plusMonths(1)).minusMillis(1)).size());
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM interactions_default", Integer.class));
+    }
+
+    @Test
+    void maintain_ShouldExportAgainWhenMonthChangedAfterExport() throws IOException {
+        // Arrange: an export recorded before two rows were written, as if they slipped past the freeze
+        LocalDate month = monthsAgo(32);
+        String partition = createPartition(month);
+        insert(start(month).plus(1, ChronoUnit.DAYS));
+        insert(start(month).plus(2, ChronoUnit.DAYS));
+        Path stale = archiveDir.resolve(partition + ".cia");
+        new ColumnarFileWriter(stale, InteractionArchiveSchema.COLUMNS, 1000).close();
+        jdbcTemplate.update("INSERT INTO interaction_archives (partition_name, range_start, range_end, status, " +
+                        "file_path, row_count, content_hash) VALUES (?, ?, ?, 'exported', ?, 0, '0')",
+                partition, Timestamp.from(start(month)), Timestamp.from(start(month.plusMonths(1))), stale.toString());
+
+        // Act
+        manager.maintain();
+
+        // Assert
+        assertEquals("archived", status(partition));
+        assertEquals(2L, jdbcTemplate.queryForObject(
+                "SELECT row_count FROM interaction_archives WHERE partition_name = ?", Long.class, partition));
+        assertEquals(2, reader.find(tenantId, start(month), start(month.plusMonths(1)).minusMillis(1)).size());
+    }
+
+    @Test
+    void archivedMonth_ShouldRejectWrites() {
+        // Arrange
+        LocalDate month = monthsAgo(34);
+        String partition = createPartition(month);
+        insert(start(month).plus(1, ChronoUnit.DAYS));
+
+        // Act
+        manager.maintain();
+
+        // Assert: the row would otherwise land in the default partition behind the archive
+        assertEquals("archived", status(partition));
+        assertThrows(DataIntegrityViolationException.class, () -> insert(start(month).plus(2, ChronoUnit.DAYS)));
+    }
+
+    private static LocalDate monthsAgo(int months) {
+        return LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1).minusMonths(months);
+    }
+
+    private static Instant start(LocalDate month) {
+        return month.atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+
+    private static String createPartition(LocalDate month) {
+        return jdbcTemplate.queryForObject("SELECT create_interaction_partition(?)", String.class, month);
+    }
+
+    private static void insert(Instant createdAt) {
+        jdbcTemplate.update("INSERT INTO interactions (tenant_id, type, subject, created_at) " +
+                "VALUES (?, 'call', 'Archived call', ?)", tenantId, Timestamp.from(createdAt));
+    }
+
+    private static String status(String partition) {
+        return jdbcTemplate.queryForObject(
+                "SELECT status FROM interaction_archives WHERE partition_name = ?", String.class, partition);
+    }
+}
@@ -0,0 +1,135 @@
+package com.neobit.crm.archive;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Migrates a populated unpartitioned interactions table through V7 and checks
+ * that rows, ids and the references to them survive the cut-over.
+ */
+@Testcontainers
+class InteractionPartitionMigrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static UUID tenantId;
+    private static UUID recent;
+    private static UUID old;
+    private static UUID undated;
+    private static UUID taskId;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").target("6").load().migrate();
+
+        tenantId = jdbcTemplate.queryForObject("INSERT INTO tenants (name, slug) VALUES ('Migration', ?) RETURNING id",
+                UUID.class, "migration-" + UUID.randomUUID());
+        recent = insert(Instant.now().minus(2, ChronoUnit.DAYS), "crm", "ext-1");
+        old = insert(Instant.now().minus(400, ChronoUnit.DAYS), null, null);
+        undated = insert(null, null, null);
+        taskId = jdbcTemplate.queryForObject("INSERT INTO tasks (tenant_id, title, interaction_id) " +
+                "VALUES (?, 'Follow up', ?) RETURNING id", UUID.class, tenantId, old);
+        jdbcTemplate.update("INSERT INTO interaction_attachments (interaction_id, file_name, file_url) " +
+                "VALUES (?, 'notes.txt', 'blob://notes')", recent);
+
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+    }
+
+    @Test
+    void migrate_ShouldCopyRowsIntoMonthlyPartitionsAndRegisterIds() {
+        // Act
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM interactions WHERE tenant_id = ?", Integer.class, tenantId);
+        Integer ids = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM interaction_ids WHERE id IN (?, ?, ?)", Integer.class, recent, old, undated);
+        String partition = jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM interactions WHERE id = ?", String.class, old);
+
+        // Assert
+        assertEquals(3, rows);
+        assertEquals(3, ids);
+        assertTrue(partition.startsWith("interactions_p"));
+        assertFalse(jdbcTemplate.queryForObject("SELECT to_regclass('interactions_new') IS NOT NULL", Boolean.class));
+        assertFalse(jdbcTemplate.queryForObject(
+                "SELECT to_regclass('interactions_migration_log') IS NOT NULL", Boolean.class));
+        assertEquals(recent, jdbcTemplate.queryForObject("SELECT interaction_id FROM interaction_external_keys " +
+                "WHERE tenant_id = ? AND external_source = 'crm' AND external_id = 'ext-1'", UUID.class, tenantId));
+        assertEquals(old, jdbcTemplate.queryForObject("SELECT interaction_id FROM tasks WHERE id = ?", UUID.class, taskId));
+        assertTrue(jdbcTemplate.queryForObject("SELECT bool_and(convalidated) FROM pg_constraint " +
+                "WHERE confrelid = 'interaction_ids'::regclass", Boolean.class));
+    }
+
+    @Test
+    void insert_ShouldRejectIdReusedInAnotherMonth() {
+        // Arrange
+        UUID id = insert(Instant.now().minus(1, ChronoUnit.DAYS), null, null);
+
+        // Act & Assert: (id, created_at) differs, so only interaction_ids catches it
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO interactions (id, tenant_id, type, subject, created_at) VALUES (?, ?, 'call', 'Copy', ?)",
+                id, tenantId, Timestamp.from(Instant.now().minus(60, ChronoUnit.DAYS))));
+    }
+
+    @Test
+    void update_ShouldRejectCreatedAtChange() {
+        // Arrange
+        UUID id = insert(Instant.now().minus(1, ChronoUnit.DAYS), null, null);
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "UPDATE interactions SET created_at = created_at - INTERVAL '40 days' WHERE id = ?", id));
+    }
+
+    @Test
+    void delete_ShouldDetachTasksAndCascadeAttachmentsThroughForeignKeys() {
+        // Arrange
+        UUID id = insert(Instant.now().minus(1, ChronoUnit.DAYS), null, null);
+        UUID task = jdbcTemplate.queryForObject("INSERT INTO tasks (tenant_id, title, interaction_id) " +
+                "VALUES (?, 'Call back', ?) RETURNING id", UUID.class, tenantId, id);
+        jdbcTemplate.update("INSERT INTO interaction_attachments (interaction_id, file_name, file_url) " +
+                "VALUES (?, 'call.mp3', 'blob://call')", id);
+
+        // Act
+        jdbcTemplate.update("DELETE FROM interactions WHERE id = ?", id);
+
+        // Assert
+        assertNull(jdbcTemplate.queryForObject("SELECT interaction_id FROM tasks WHERE id = ?", UUID.class, task));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM interaction_attachments WHERE interaction_id = ?", Integer.class, id));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM interaction_ids WHERE id = ?", Integer.class, id));
+    }
+
+    @Test
+    void insert_ShouldRejectTaskForUnknownInteraction() {
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class, () -> jdbcTemplate.update(
+                "INSERT INTO tasks (tenant_id, title, interaction_id) VALUES (?, 'Orphan', ?)",
+                tenantId, UUID.randomUUID()));
+    }
+
+    private static UUID insert(Instant createdAt, String externalSource, String externalId) {
+        return jdbcTemplate.queryForObject("INSERT INTO interactions (tenant_id, type, subject, created_at, " +
+                        "external_source, external_id) VALUES (?, 'call', 'Migrated call', ?, ?, ?) RETURNING id",
+                UUID.class, tenantId, createdAt == null ? null : Timestamp.from(createdAt), externalSource, externalId);
+    }
+}
@@ -0,0 +1,115 @@
+package com.neobit.crm.benchmark;
+
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.QuoteLineItem;
+import com.neobit.crm.service.pricing.QuoteCalculator;
+import com.neobit.crm.service.pricing.Scaled;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quote totals through the entity methods ({@link QuoteLineItem#calculateTotal} and
+ * {@link Quote#recalculateTotals}), which build a {@link QuoteCalculator} from the
+ * entities and write every amount back, against a calculator kept across calls: a
+ * full calculation of a large quote, and the recalculation after one line changes.
+ *
+ * Run with {@code mvn test -Dtest=QuotePricingBenchmark -Dbenchmark=true}; the test
+ * hands the class to the JMH runner, which forks a JVM and reports us/op per
+ * benchmark and line count.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QuotePricingBenchmark {
+
+    @Param({"50", "5000"})
+    public int lines;
+
+    private Quote quote;
+    private QuoteCalculator calculator;
+    private Random edits;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        quote = quote(new Random(7), lines);
+        calculator = QuoteCalculator.of(quote);
+        edits = new Random(11);
+    }
+
+    @Benchmark
+    public BigDecimal entityFull() {
+        quote.getLineItems().forEach(QuoteLineItem::calculateTotal);
+        quote.recalculateTotals();
+        return quote.getTotalAmount();
+    }
+
+    @Benchmark
+    public long calculatorFull() {
+        return QuoteCalculator.of(quote).totalCents();
+    }
+
+    @Benchmark
+    public BigDecimal entityEdit() {
+        QuoteLineItem item = quote.getLineItems().get(edits.nextInt(lines));
+        item.setQuantity(BigDecimal.valueOf(1 + edits.nextInt(10_000), 2));
+        item.calculateTotal();
+        quote.recalculateTotals();
+        return quote.getTotalAmount();
+    }
+
+    @Benchmark
+    public long calculatorEdit() {
+        int index = edits.nextInt(lines);
+        QuoteLineItem item = quote.getLineItems().get(index);
+        calculator.setLine(index, 1 + edits.nextInt(10_000), Scaled.of(item.getUnitPrice(), Scaled.MONEY_SCALE),
+                Scaled.of(item.getDiscountPercent(), Scaled.PERCENT_SCALE),
+                Scaled.of(item.getTaxRate(), Scaled.PERCENT_SCALE));
+        return calculator.totalCents();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void quoteTotals() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(QuotePricingBenchmark.class.getName())
+                .build()).run();
+    }
+
+    private static Quote quote(Random random, int lines) {
+        Quote quote = Quote.builder()
+                .discountType(Quote.DiscountType.PERCENT)
+                .discountValue(new BigDecimal("7.50"))
+                .build();
+        for (int i = 0; i < lines; i++) {
+            quote.getLineItems().add(QuoteLineItem.builder()
+                    .quantity(BigDecimal.valueOf(1 + random.nextInt(10_000), 2))
+                    .unitPrice(BigDecimal.valueOf(random.nextInt(1_000_000), 2))
+                    .discountPercent(BigDecimal.valueOf(random.nextInt(3000), 2))
+                    .taxRate(BigDecimal.valueOf(random.nextInt(2500), 2))
+                    .build());
+        }
+        return quote;
+    }
+}
@@ -0,0 +1,142 @@
+package com.neobit.crm.benchmark;
+
+import com.neobit.crm.entity.id.UuidV7Generator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Bulk insert comparison for interaction- and customer-shaped rows. Random v4
+ * keys are compared with v7 keys under identical batched, rewritten inserts,
+ * so throughput and primary key size and fill differ only by key order; the
+ * effect of batching is reported separately, with v7 keys on both sides.
+ *
+ * Run with {@code mvn test -Dtest=UuidKeyInsertBenchmark -Dbenchmark=true [-Dbenchmark.rows=200000]}.
+ */
+@Testcontainers
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class UuidKeyInsertBenchmark {
+
+    private static final int ROWS = Integer.getInteger("benchmark.rows", 200_000);
+    private static final int BATCH_SIZE = 50;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @Test
+    void interactions() throws Exception {
+        String ddl = "(id UUID PRIMARY KEY, tenant_id UUID NOT NULL, customer_id UUID, type VARCHAR(20), " +
+                "subject VARCHAR(500), description TEXT, created_at TIMESTAMPTZ NOT NULL)";
+        String insert = "(id, tenant_id, customer_id, type, subject, description, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        Row row = (ps, i, id, tenantId) -> {
+            ps.setObject(1, id);
+            ps.setObject(2, tenantId);
+            ps.setObject(3, UUID.randomUUID());
+            ps.setString(4, "call");
+            ps.setString(5, "Follow-up call " + i);
+            ps.setString(6, "Discussed renewal terms and next steps for order " + i);
+            ps.setTimestamp(7, Timestamp.from(Instant.now()));
+        };
+        compare("interactions", ddl, insert, row);
+    }
+
+    @Test
+    void customers() throws Exception {
+        String ddl = "(id UUID PRIMARY KEY, tenant_id UUID NOT NULL, first_name VARCHAR(100), last_name VARCHAR(100), " +
+                "email VARCHAR(255), lead_status VARCHAR(50), created_at TIMESTAMPTZ NOT NULL)";
+        String insert = "(id, tenant_id, first_name, last_name, email, lead_status, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        Row row = (ps, i, id, tenantId) -> {
+            ps.setObject(1, id);
+            ps.setObject(2, tenantId);
+            ps.setString(3, "First" + i);
+            ps.setString(4, "Last" + i);
+            ps.setString(5, "customer" + i + "@example.com");
+            ps.setString(6, "new");
+            ps.setTimestamp(7, Timestamp.from(Instant.now()));
+        };
+        compare("customers", ddl, insert, row);
+    }
+
+    private void compare(String name, String ddl, String insert, Row row) throws Exception {
+        // Key order alone: both runs batch the same way
+        Result v4 = run(name + "_v4", ddl, insert, row, UUID::randomUUID, BATCH_SIZE, true);
+        Result v7 = run(name + "_v7", ddl, insert, row, UuidV7Generator::next, BATCH_SIZE, true);
+        // Batching alone: both runs use v7 keys
+        Result unbatched = run(name + "_v7_single", ddl, insert, row, UuidV7Generator::next, 1, false);
+
+        System.out.printf("%n%-18s %12s %14s %14s%n", name, "rows/s", "pk index", "pk leaf fill");
+        print("v4, batch " + BATCH_SIZE, v4);
+        print("v7, batch " + BATCH_SIZE, v7);
+        System.out.printf("%-18s%n", "batching (v7 keys)");
+        print("no batch", unbatched);
+        print("batch " + BATCH_SIZE, v7);
+    }
+
+    private static void print(String label, Result result) {
+        System.out.printf("%-18s %,12.0f %,11d KB %13.1f%%%n", label, result.rowsPerSecond, result.indexKb, result.leafFill);
+    }
+
+    private Result run(String table, String ddl, String insert, Row row, Supplier<UUID> ids,
+                       int batchSize, boolean rewriteBatched) throws Exception {
+        String url = postgres.getJdbcUrl() + (rewriteBatched ? "&reWriteBatchedInserts=true" : "");
+        try (Connection connection = DriverManager.getConnection(url, postgres.getUsername(), postgres.getPassword())) {
+            try (Statement st = connection.createStatement()) {
+                st.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+                st.execute("DROP TABLE IF EXISTS " + table);
+                st.execute("CREATE TABLE " + table + " " + ddl);
+            }
+            connection.setAutoCommit(false);
+
+            UUID tenantId = UUID.randomUUID();
+            long start = System.nanoTime();
+            try (PreparedStatement ps = connection.prepareStatement("INSERT INTO " + table + " " + insert)) {
+                for (int i = 0; i < ROWS; i++) {
+                    row.bind(ps, i, ids.get(), tenantId);
+                    if (batchSize == 1) {
+                        ps.executeUpdate();
+                    } else {
+                        ps.addBatch();
+                        if ((i + 1) % batchSize == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                    if ((i + 1) % 1_000 == 0) {
+                        connection.commit();
+                    }
+                }
+                if (batchSize > 1) {
+                    ps.executeBatch();
+                }
+                connection.commit();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            connection.setAutoCommit(true);
+            try (Statement st = connection.createStatement();
+                 ResultSet rs = st.executeQuery("SELECT pg_relation_size('" + table + "_pkey') / 1024, " +
+                         "avg_leaf_density FROM pgstatindex('" + table + "_pkey')")) {
+                rs.next();
+                return new Result(ROWS / seconds, rs.getLong(1), rs.getDouble(2));
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Row {
+        void bind(PreparedStatement ps, int i, UUID id, UUID tenantId) throws Exception;
+    }
+
+    private record Result(double rowsPerSecond, long indexKb, double leafFill) {}
+}
@@ -0,0 +1,129 @@
+package com.neobit.crm.cache;
+
+import com.neobit.crm.event.TenantDataChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardStatsCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private DashboardStatsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new DashboardStatsCache(redisTemplate, listenerContainer, new SimpleMeterRegistry(), 60);
+    }
+
+    @Test
+    void get_ShouldComputeOnceForConcurrentRequests() throws Exception {
+        // Arrange
+        UUID tenantId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<Map<String, Object>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < 50; i++) {
+                results.add(executor.submit(() -> cache.get(tenantId, () -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return Map.of("totalCustomers", 3L);
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Map<String, Object>> result : results) {
+                assertEquals(3L, result.get(5, TimeUnit.SECONDS).get("totalCustomers"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void onTenantDataChanged_ShouldDropEntryAndNotifyOtherNodes() {
+        // Arrange
+        UUID tenantId = UUID.randomUUID();
+        AtomicInteger loads = new AtomicInteger();
+        cache.get(tenantId, () -> Map.of("load", loads.incrementAndGet()));
+
+        // Act
+        cache.onTenantDataChanged(new TenantDataChangedEvent(tenantId, "customer.created", Map.of()));
+        Map<String, Object> stats = cache.get(tenantId, () -> Map.of("load", loads.incrementAndGet()));
+
+        // Assert
+        assertEquals(2, stats.get("load"));
+        verify(redisTemplate).convertAndSend(eq(DashboardStatsCache.CHANNEL), anyString());
+    }
+
+    @Test
+    void onTenantDataChanged_ShouldIgnoreEntitiesTheDashboardDoesNotCount() {
+        // Arrange
+        UUID tenantId = UUID.randomUUID();
+        cache.get(tenantId, () -> Map.of("load", 1));
+
+        // Act
+        cache.onTenantDataChanged(new TenantDataChangedEvent(tenantId, "reminder.due", Map.of()));
+        Map<String, Object> stats = cache.get(tenantId, () -> Map.of("load", 2));
+
+        // Assert
+        assertEquals(1, stats.get("load"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void get_ShouldNotCacheFailures() {
+        // Arrange
+        UUID tenantId = UUID.randomUUID();
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> cache.get(tenantId, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        Map<String, Object> stats = cache.get(tenantId, () -> Map.of("load", 1));
+
+        // Assert
+        assertEquals(1, stats.get("load"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.neobit.crm.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.neobit.crm.dto.customer.CreateCustomerRequest;
 import com.neobit.crm.dto.customer.CustomerDTO;
+import com.neobit.crm.dto.customer.CustomerDetailResponse;
+import com.neobit.crm.service.CustomerDetailService;
 import com.neobit.crm.service.CustomerService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,6 +42,9 @@ class CustomerControllerTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerDetailService customerDetailService;
+
     private CustomerDTO testCustomerDTO;
     private UUID customerId;
 
@@ -79,14 +84,15 @@ class CustomerControllerTest {
     @WithMockUser(roles = "AGENT")
     void getCustomerById_WhenExists_ShouldReturnCustomer() throws Exception {
         // Arrange
-        when(customerService.getCustomerById(customerId)).thenReturn(testCustomerDTO);
+        when(customerDetailService.getCustomerDetail(customerId))
+                .thenReturn(CustomerDetailResponse.builder().customer(testCustomerDTO).build());
 
         // Act & Assert
         mockMvc.perform(get("/customers/{id}", customerId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data.firstName").value("John"))
-                .andExpect(jsonPath("$.data.lastName").value("Doe"));
+                .andExpect(jsonPath("$.customer.firstName").value("John"))
+                .andExpect(jsonPath("$.customer.lastName").value("Doe"))
+                .andExpect(jsonPath("$.unavailableSections").isEmpty());
     }
 
     @Test
@@ -0,0 +1,55 @@
+package com.neobit.crm.entity.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UuidV7GeneratorTest {
+
+    @Test
+    void next_ShouldSetVersionVariantAndTimestamp() {
+        // Arrange
+        UuidV7Generator.Source source = new UuidV7Generator.Source(() -> 1_700_000_000_000L, new SecureRandom());
+
+        // Act
+        UUID id = source.next();
+
+        // Assert
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertEquals(1_700_000_000_000L, id.getMostSignificantBits() >>> 16);
+    }
+
+    @Test
+    void next_WithinSameMillisecond_ShouldBeStrictlyIncreasing() {
+        // Arrange
+        UuidV7Generator.Source source = new UuidV7Generator.Source(() -> 1_700_000_000_000L, new SecureRandom());
+        UUID previous = source.next();
+
+        // Act & Assert - more ids than the counter holds, so the timestamp has to carry
+        for (int i = 0; i < 10_000; i++) {
+            UUID current = source.next();
+            assertTrue(Long.compareUnsigned(current.getMostSignificantBits(), previous.getMostSignificantBits()) > 0);
+            previous = current;
+        }
+    }
+
+    @Test
+    void next_WhenClockStepsBack_ShouldNotGoBackwards() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(1_700_000_000_500L);
+        UuidV7Generator.Source source = new UuidV7Generator.Source(clock::get, new SecureRandom());
+        UUID before = source.next();
+
+        // Act
+        clock.set(1_700_000_000_000L);
+        UUID after = source.next();
+
+        // Assert
+        assertTrue(Long.compareUnsigned(after.getMostSignificantBits(), before.getMostSignificantBits()) > 0);
+    }
+}
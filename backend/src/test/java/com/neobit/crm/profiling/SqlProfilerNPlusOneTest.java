@@ -0,0 +1,140 @@
+package com.neobit.crm.profiling;
+
+import com.neobit.crm.config.SqlProfilerConfig;
+import com.neobit.crm.entity.Customer;
+import com.neobit.crm.entity.Tenant;
+import com.neobit.crm.entity.User;
+import com.neobit.crm.repository.CustomerRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs a lazy-loading loop through the profiled datasource and checks that the
+ * repeated owner lookups are flagged as N+1 for the request's route.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({SqlProfilerConfig.class, SqlProfiler.class, SqlProfilerNPlusOneTest.Metrics.class})
+class SqlProfilerNPlusOneTest {
+
+    private static final int THRESHOLD = 5;
+    private static final String ROUTE = "GET /customers";
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("app.sql-profiler.n-plus-one-threshold", () -> String.valueOf(THRESHOLD));
+        // Users are L2-cached; the lazy loads have to reach the database
+        registry.add("spring.jpa.properties.hibernate.cache.use_second_level_cache", () -> "false");
+        registry.add("spring.jpa.properties.hibernate.cache.use_query_cache", () -> "false");
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private SqlProfiler profiler;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        profiler.reset();
+        Tenant tenant = Tenant.builder().name("Acme").slug("acme-" + UUID.randomUUID()).build();
+        entityManager.persist(tenant);
+        tenantId = tenant.getId();
+
+        for (int i = 0; i < THRESHOLD * 2; i++) {
+            User owner = User.builder().tenant(tenant).email("owner" + i + "-" + tenantId + "@acme.test")
+                    .firstName("Owner").lastName(String.valueOf(i)).build();
+            entityManager.persist(owner);
+            entityManager.persist(Customer.builder().tenant(tenant).owner(owner)
+                    .firstName("Customer").lastName(String.valueOf(i)).build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void end_ShouldFlagLazyLoadLoopAsNPlusOne() {
+        // Arrange
+        SqlProfiler.RequestProfile profile = profiler.begin();
+
+        // Act
+        List<Customer> customers = customerRepository.findAll().stream()
+                .filter(c -> c.getTenant().getId().equals(tenantId))
+                .toList();
+        customers.forEach(c -> c.getOwner().getFirstName());
+        profiler.end(profile, ROUTE);
+
+        // Assert
+        Counter flagged = meterRegistry.find("crm.sql.n_plus_one").tags("route", ROUTE, "table", "users").counter();
+        assertNotNull(flagged);
+        assertEquals(1.0, flagged.count());
+        assertTrue(profiler.snapshot().get(ROUTE).stream()
+                .anyMatch(shape -> "users".equals(shape.get("table"))
+                        && Long.valueOf(1).equals(shape.get("nPlusOneRequests"))
+                        && ((Long) shape.get("count")) >= THRESHOLD * 2));
+    }
+
+    @Test
+    void end_ShouldNotFlagSelectsBelowThreshold() {
+        // Arrange
+        String route = "GET /customers/recent";
+        SqlProfiler.RequestProfile profile = profiler.begin();
+
+        // Act
+        customerRepository.findAll().stream()
+                .filter(c -> c.getTenant().getId().equals(tenantId))
+                .limit(THRESHOLD - 1)
+                .forEach(c -> c.getOwner().getFirstName());
+        profiler.end(profile, route);
+
+        // Assert
+        assertNull(meterRegistry.find("crm.sql.n_plus_one").tags("route", route).counter());
+        List<Map<String, Object>> shapes = profiler.snapshot().get(route);
+        assertTrue(shapes.stream().allMatch(shape -> Long.valueOf(0).equals(shape.get("nPlusOneRequests"))));
+    }
+}
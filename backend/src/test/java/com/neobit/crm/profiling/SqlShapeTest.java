@@ -0,0 +1,52 @@
+package com.neobit.crm.profiling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlShapeTest {
+
+    @Test
+    void normalize_ShouldReplaceLiteralsAndCollapseWhitespace() {
+        // Act
+        SqlShape shape = SqlShape.normalize("select c1_0.id from customers c1_0\n  where c1_0.email = 'a@b.c' and c1_0.lead_score > 42");
+
+        // Assert
+        assertEquals("select c1_0.id from customers c1_0 where c1_0.email = ? and c1_0.lead_score > ?", shape.sql());
+        assertEquals("select", shape.operation());
+        assertEquals("customers", shape.table());
+        assertTrue(shape.isSelect());
+    }
+
+    @Test
+    void normalize_ShouldCollapseInListsOfAnyLength() {
+        // Act
+        SqlShape two = SqlShape.normalize("select * from users u where u.id in (?, ?)");
+        SqlShape five = SqlShape.normalize("select * from users u where u.id in (?,?,?,?,?)");
+
+        // Assert
+        assertEquals(two.sql(), five.sql());
+    }
+
+    @Test
+    void normalize_ShouldCollapseMultiRowInserts() {
+        // Act
+        SqlShape single = SqlShape.normalize("insert into interactions (id, subject) values (?, ?)");
+        SqlShape rewritten = SqlShape.normalize("insert into interactions (id, subject) values (?, ?),(?, ?),(?, ?)");
+
+        // Assert
+        assertEquals("insert", rewritten.operation());
+        assertEquals("interactions", rewritten.table());
+        assertEquals("insert into interactions (id, subject) values (?, ?)...", rewritten.sql());
+        assertNotEquals(single.sql(), rewritten.sql());
+    }
+
+    @Test
+    void normalize_ShouldKeepAliasDigits() {
+        // Act
+        SqlShape shape = SqlShape.normalize("select t1_0.id from tasks t1_0 offset 20 rows fetch first 10 rows only");
+
+        // Assert
+        assertEquals("select t1_0.id from tasks t1_0 offset ? rows fetch first ? rows only", shape.sql());
+    }
+}
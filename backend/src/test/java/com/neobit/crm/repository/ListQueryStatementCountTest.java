@@ -0,0 +1,185 @@
+package com.neobit.crm.repository;
+
+import com.neobit.crm.archive.InteractionArchiveReader;
+import com.neobit.crm.dto.account.AccountDTO;
+import com.neobit.crm.dto.common.PageResponse;
+import com.neobit.crm.dto.customer.CustomerDTO;
+import com.neobit.crm.dto.interaction.InteractionDTO;
+import com.neobit.crm.entity.*;
+import com.neobit.crm.mapper.AccountMapper;
+import com.neobit.crm.mapper.CustomerMapper;
+import com.neobit.crm.mapper.InteractionMapper;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.service.AccountService;
+import com.neobit.crm.service.CustomerContactTracker;
+import com.neobit.crm.service.CustomerService;
+import com.neobit.crm.service.InteractionService;
+import com.neobit.crm.service.TelegramNotificationService;
+import com.neobit.crm.service.WebSocketNotificationService;
+import com.neobit.crm.service.rollup.InteractionRollupWriter;
+import com.neobit.crm.support.StatementCounter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the list endpoints against N+1 lazy loading: the number of statements
+ * needed to build a page of DTOs must not grow with the page size. Runs the
+ * services against the Flyway-migrated schema, partitioned interactions included.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CustomerMapper.class, AccountMapper.class, InteractionMapper.class,
+        AccountService.class, CustomerService.class, InteractionService.class})
+class ListQueryStatementCountTest {
+
+    private static final int ROWS = 50;
+    private static final PageRequest PAGE = PageRequest.of(0, ROWS, Sort.by("createdAt"));
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.properties.hibernate.generate_statistics", () -> "true");
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerService customerService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private InteractionService interactionService;
+
+    @MockBean
+    private InteractionArchiveReader archiveReader;
+
+    @MockBean
+    private CustomerContactTracker contactTracker;
+
+    @MockBean
+    private InteractionRollupWriter rollupWriter;
+
+    @MockBean
+    private WebSocketNotificationService webSocketNotificationService;
+
+    @MockBean
+    private TelegramNotificationService telegramNotificationService;
+
+    private StatementCounter counter;
+    private UUID tenantId;
+    private UUID customerId;
+
+    @BeforeEach
+    void setUp() {
+        Tenant tenant = Tenant.builder().name("Acme").slug("acme-" + UUID.randomUUID()).build();
+        entityManager.persist(tenant);
+        tenantId = tenant.getId();
+
+        for (int i = 0; i < ROWS; i++) {
+            User owner = User.builder().tenant(tenant).email("owner" + i + "@acme.test")
+                    .firstName("Owner").lastName(String.valueOf(i)).build();
+            entityManager.persist(owner);
+
+            Account account = Account.builder().tenant(tenant).name("Account " + i).owner(owner).build();
+            entityManager.persist(account);
+
+            Customer customer = Customer.builder().tenant(tenant).account(account).owner(owner)
+                    .firstName("Customer").lastName(String.valueOf(i)).build();
+            entityManager.persist(customer);
+            if (customerId == null) {
+                customerId = customer.getId();
+            }
+
+            for (int j = 0; j < 2; j++) {
+                Interaction interaction = Interaction.builder().tenant(tenant)
+                        .customer(customerRepository.getReferenceById(customerId))
+                        .account(account).user(owner)
+                        .type(Interaction.InteractionType.CALL).subject("Call " + i + "/" + j).build();
+                entityManager.persist(interaction);
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        TenantContext.setCurrentTenant(tenantId);
+        counter = new StatementCounter(entityManagerFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void customerList_ShouldUsePageCountAndOneGroupedInteractionCount() {
+        // Act
+        StatementCounter.Counted<PageResponse<CustomerDTO>> counted = counter.count(() ->
+                customerService.getCustomers(PAGE));
+
+        // Assert
+        List<CustomerDTO> customers = counted.result().getContent();
+        assertEquals(ROWS, customers.size());
+        assertEquals(ROWS * 2, customers.stream().mapToInt(CustomerDTO::getInteractionCount).sum());
+        assertNotNull(customers.get(0).getOwnerName());
+        assertTrue(counted.statements() <= 3, "statements: " + counted.statements());
+    }
+
+    @Test
+    void accountList_ShouldNotLoadOwnersOrCustomersPerRow() {
+        // Act
+        StatementCounter.Counted<PageResponse<AccountDTO>> counted = counter.count(() ->
+                accountService.getAccounts(PAGE));
+
+        // Assert
+        assertEquals(ROWS, counted.result().getContent().size());
+        assertEquals(1, counted.result().getContent().get(0).getCustomerCount());
+        assertTrue(counted.statements() <= 3, "statements: " + counted.statements());
+    }
+
+    @Test
+    void interactionList_ShouldNotLoadAssociationsPerRow() {
+        // Act
+        StatementCounter.Counted<PageResponse<InteractionDTO>> counted = counter.count(() ->
+                interactionService.getInteractions(PAGE));
+
+        // Assert
+        assertEquals(ROWS, counted.result().getContent().size());
+        assertNotNull(counted.result().getContent().get(0).getUserName());
+        assertTrue(counted.statements() <= 3, "statements: " + counted.statements());
+    }
+}
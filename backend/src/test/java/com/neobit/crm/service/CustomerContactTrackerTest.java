@@ -0,0 +1,70 @@
+package com.neobit.crm.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerContactTrackerTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private CustomerContactTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new CustomerContactTracker(jdbcTemplate, new SimpleMeterRegistry(), 500);
+    }
+
+    @Test
+    void flush_ShouldWriteLatestContactPerCustomerInOneStatement() {
+        // Arrange
+        UUID customerId = UUID.randomUUID();
+        UUID otherId = UUID.randomUUID();
+        Instant earlier = Instant.parse("2024-03-01T10:00:00Z");
+        Instant later = Instant.parse("2024-03-01T10:05:00Z");
+        tracker.recordContact(customerId, later);
+        tracker.recordContact(customerId, earlier);
+        tracker.recordContact(otherId, earlier);
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(jdbcTemplate, times(1)).update(anyString(), args.capture());
+        Object[] values = args.getValue();
+        assertEquals(4, values.length);
+        int index = values[0].equals(customerId) ? 1 : 3;
+        assertEquals(Timestamp.from(later), values[index]);
+        assertEquals(0, tracker.pendingCount());
+    }
+
+    @Test
+    void flush_ShouldKeepContactsWhenUpdateFails() {
+        // Arrange
+        tracker.recordContact(UUID.randomUUID(), Instant.now());
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenThrow(new IllegalStateException("db down"));
+
+        // Act
+        tracker.flush();
+
+        // Assert
+        assertEquals(1, tracker.pendingCount());
+    }
+}
@@ -7,6 +7,7 @@ import com.neobit.crm.entity.Customer;
 import com.neobit.crm.entity.Tenant;
 import com.neobit.crm.mapper.CustomerMapper;
 import com.neobit.crm.repository.*;
+import com.neobit.crm.repository.projection.CustomerRow;
 import com.neobit.crm.security.TenantContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +25,7 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 /**
@@ -36,6 +38,9 @@ class CustomerServiceTest {
     @Mock
     private CustomerRepository customerRepository;
     
+    @Mock
+    private InteractionRepository interactionRepository;
+    
     @Mock
     private TenantRepository tenantRepository;
     
@@ -60,6 +65,7 @@ class CustomerServiceTest {
     private UUID tenantId;
     private UUID customerId;
     private Customer testCustomer;
+    private CustomerRow testCustomerRow;
     private CustomerDTO testCustomerDTO;
 
     @BeforeEach
@@ -82,6 +88,10 @@ class CustomerServiceTest {
                 .phone("+1234567890")
                 .build();
 
+        testCustomerRow = new CustomerRow(customerId, null, null, "John", "Doe", "john.doe@example.com",
+                "+1234567890", null, null, null, null, null, null, null, null, null, null, "new", 0, true,
+                null, null, null, List.of(), null, null, null, null);
+
         testCustomerDTO = new CustomerDTO();
         testCustomerDTO.setId(customerId);
         testCustomerDTO.setFirstName("John");
@@ -96,10 +106,10 @@ class CustomerServiceTest {
     void getAllCustomers_ShouldReturnPageOfCustomers() {
         // Arrange
         PageRequest pageable = PageRequest.of(0, 10);
-        Page<Customer> customerPage = new PageImpl<>(List.of(testCustomer));
+        Page<CustomerRow> customerPage = new PageImpl<>(List.of(testCustomerRow));
         
-        when(customerRepository.findByTenantId(tenantId, pageable)).thenReturn(customerPage);
-        when(customerMapper.toDTO(any(Customer.class))).thenReturn(testCustomerDTO);
+        when(customerRepository.findRowsByTenantId(tenantId, pageable)).thenReturn(customerPage);
+        when(customerMapper.toDTO(any(CustomerRow.class), anyLong())).thenReturn(testCustomerDTO);
 
         // Act
         PageResponse<CustomerDTO> result = customerService.getCustomers(pageable);
@@ -107,15 +117,17 @@ class CustomerServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getTotalElements());
-        verify(customerRepository).findByTenantId(tenantId, pageable);
+        verify(customerRepository).findRowsByTenantId(tenantId, pageable);
     }
 
     @Test
     void getCustomerById_WhenExists_ShouldReturnCustomer() {
         // Arrange
-        when(customerRepository.findByIdAndTenantId(customerId, tenantId))
-                .thenReturn(Optional.of(testCustomer));
-        when(customerMapper.toDTO(testCustomer)).thenReturn(testCustomerDTO);
+        when(customerRepository.findRowByIdAndTenantId(customerId, tenantId))
+                .thenReturn(Optional.of(testCustomerRow));
+        when(interactionRepository.countByCustomerIds(tenantId, List.of(customerId)))
+                .thenReturn(List.<Object[]>of(new Object[]{customerId, 3L}));
+        when(customerMapper.toDTO(testCustomerRow, 3L)).thenReturn(testCustomerDTO);
 
         // Act
         CustomerDTO result = customerService.getCustomerById(customerId);
@@ -0,0 +1,96 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.customer.CustomerDTO;
+import com.neobit.crm.dto.task.TaskDTO;
+import com.neobit.crm.event.TenantDataChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardDeltasTest {
+
+    private final UUID tenantId = UUID.randomUUID();
+
+    @Test
+    void of_ShouldCountNewLeadAsCustomerAndLead() {
+        // Arrange
+        CustomerDTO customer = new CustomerDTO();
+        customer.setIsLead(true);
+
+        // Act
+        Map<String, Long> changes = DashboardDeltas.of(new TenantDataChangedEvent(tenantId, "customer.created", customer));
+
+        // Assert
+        assertEquals(Map.of("totalCustomers", 1L, "totalLeads", 1L), changes);
+    }
+
+    @Test
+    void of_ShouldOnlyMoveLeadCountWhenLeadFlagChanges() {
+        // Arrange
+        CustomerDTO converted = new CustomerDTO();
+        converted.setIsLead(false);
+        CustomerDTO unchanged = new CustomerDTO();
+        unchanged.setIsLead(true);
+
+        // Act
+        Map<String, Long> conversion = DashboardDeltas.of(new TenantDataChangedEvent(
+                tenantId, "customer.updated", converted, Map.of("isLead", true)));
+        Map<String, Long> edit = DashboardDeltas.of(new TenantDataChangedEvent(
+                tenantId, "customer.updated", unchanged, Map.of("isLead", true)));
+
+        // Assert
+        assertEquals(Map.of("totalLeads", -1L), conversion);
+        assertTrue(edit.isEmpty());
+    }
+
+    @Test
+    void of_ShouldUsePreviousTaskStatusForPendingCount() {
+        // Arrange
+        TaskDTO task = new TaskDTO();
+        task.setStatus("completed");
+
+        // Act
+        Map<String, Long> fromPending = DashboardDeltas.of(new TenantDataChangedEvent(
+                tenantId, "task.completed", task, Map.of("status", "pending")));
+        Map<String, Long> fromInProgress = DashboardDeltas.of(new TenantDataChangedEvent(
+                tenantId, "task.completed", task, Map.of("status", "in_progress")));
+        Map<String, Long> deleted = DashboardDeltas.of(new TenantDataChangedEvent(
+                tenantId, "task.deleted", Map.of("id", "x"), Collections.singletonMap("status", null)));
+
+        // Assert
+        assertEquals(Map.of("pendingTasks", -1L), fromPending);
+        assertTrue(fromInProgress.isEmpty());
+        assertEquals(Map.of("totalTasks", -1L), deleted);
+    }
+
+    @Test
+    void of_ShouldSpreadRolledUpInteractionsOverTotalsAndTypes() {
+        // Arrange
+        Map<String, Object> rolledUp = Map.of("byType", Map.of("CALL", 3L, "EMAIL", -1L), "recent", 2L);
+
+        // Act
+        Map<String, Long> changes = DashboardDeltas.of(new TenantDataChangedEvent(
+                tenantId, "interaction.rolled_up", rolledUp));
+
+        // Assert
+        assertEquals(Map.of("totalInteractions", 2L, "recentInteractions", 2L,
+                "interactionsByType.CALL", 3L, "interactionsByType.EMAIL", -1L), changes);
+    }
+
+    @Test
+    void flatten_ShouldUseDottedKeysForNestedFigures() {
+        // Arrange
+        Map<String, Object> stats = Map.of("totalCustomers", 4L, "interactionsByType", new TreeMap<>(Map.of("NOTE", 7L)));
+
+        // Act
+        Map<String, Long> flat = DashboardDeltas.flatten(stats);
+
+        // Assert
+        assertEquals(Map.of("totalCustomers", 4L, "interactionsByType.NOTE", 7L), flat);
+    }
+}
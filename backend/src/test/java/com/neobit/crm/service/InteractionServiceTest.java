@@ -0,0 +1,112 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.archive.InteractionArchiveReader;
+import com.neobit.crm.dto.common.PageResponse;
+import com.neobit.crm.dto.interaction.InteractionDTO;
+import com.neobit.crm.entity.Interaction;
+import com.neobit.crm.mapper.InteractionMapper;
+import com.neobit.crm.repository.*;
+import com.neobit.crm.security.TenantContext;
+import com.neobit.crm.service.rollup.InteractionRollupWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InteractionServiceTest {
+
+    private static final Instant START = Instant.parse("2023-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2023-12-31T23:59:59Z");
+
+    @Mock
+    private InteractionRepository interactionRepository;
+
+    @Mock
+    private TenantRepository tenantRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private InteractionMapper interactionMapper;
+
+    @Mock
+    private InteractionArchiveReader archiveReader;
+
+    @Mock
+    private CustomerContactTracker contactTracker;
+
+    @Mock
+    private InteractionRollupWriter rollupWriter;
+
+    @InjectMocks
+    private InteractionService interactionService;
+
+    private UUID tenantId;
+
+    @BeforeEach
+    void setUp() {
+        tenantId = UUID.randomUUID();
+        TenantContext.setCurrentTenant(tenantId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getInteractionsByDateRange_ShouldInterleaveLiveAndArchivedRowsNewestFirst() {
+        // Arrange: a live row older than an archived one, as the default partition allows
+        List<Interaction> live = List.of(interaction("2023-06-01T00:00:00Z"), interaction("2023-02-01T00:00:00Z"));
+        List<InteractionDTO> archived = List.of(dto("2023-09-01T00:00:00Z"), dto("2023-03-01T00:00:00Z"));
+        when(archiveReader.coversAny(START, END)).thenReturn(true);
+        when(archiveReader.find(tenantId, START, END)).thenReturn(archived);
+        when(interactionRepository.findByTenantIdAndDateRange(eq(tenantId), eq(START), eq(END), any(Pageable.class)))
+                .thenAnswer(inv -> new PageImpl<>(live, inv.getArgument(3), live.size()));
+        when(interactionMapper.toDTO(any(Interaction.class)))
+                .thenAnswer(inv -> InteractionDTO.builder().createdAt(((Interaction) inv.getArgument(0)).getCreatedAt()).build());
+
+        // Act
+        PageResponse<InteractionDTO> first = interactionService.getInteractionsByDateRange(START, END, PageRequest.of(0, 3));
+        PageResponse<InteractionDTO> second = interactionService.getInteractionsByDateRange(START, END, PageRequest.of(1, 3));
+
+        // Assert
+        assertEquals(List.of(Instant.parse("2023-09-01T00:00:00Z"), Instant.parse("2023-06-01T00:00:00Z"),
+                        Instant.parse("2023-03-01T00:00:00Z")),
+                first.getContent().stream().map(InteractionDTO::getCreatedAt).toList());
+        assertEquals(List.of(Instant.parse("2023-02-01T00:00:00Z")),
+                second.getContent().stream().map(InteractionDTO::getCreatedAt).toList());
+        assertEquals(4, first.getTotalElements());
+    }
+
+    private static Interaction interaction(String createdAt) {
+        return Interaction.builder().createdAt(Instant.parse(createdAt)).build();
+    }
+
+    private static InteractionDTO dto(String createdAt) {
+        return InteractionDTO.builder().createdAt(Instant.parse(createdAt)).build();
+    }
+}
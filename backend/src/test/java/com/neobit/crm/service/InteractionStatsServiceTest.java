@@ -0,0 +1,112 @@
+package com.neobit.crm.service;
+
+import com.neobit.crm.dto.interaction.InteractionStatsDTO;
+import com.neobit.crm.exception.BadRequestException;
+import com.neobit.crm.security.TenantContext;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers
+class InteractionStatsServiceTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 4);
+
+    private static JdbcTemplate jdbcTemplate;
+    private static InteractionStatsService statsService;
+
+    private UUID tenantId;
+    private UUID userId;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        statsService = new InteractionStatsService(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    @BeforeEach
+    void setUp() {
+        tenantId = jdbcTemplate.queryForObject("INSERT INTO tenants (name, slug) VALUES ('Stats', ?) RETURNING id",
+                UUID.class, "stats-" + UUID.randomUUID());
+        userId = UUID.randomUUID();
+        insertRollup(tenantId, DAY, "call", "outbound", userId, 3, 300);
+        insertRollup(tenantId, DAY, "call", "inbound", null, 2, 120);
+        insertRollup(tenantId, DAY.plusDays(1), "email", "outbound", userId, 4, 0);
+        insertRollup(tenantId, DAY.plusDays(1), "note", null, null, 1, 0);
+        insertRollup(tenantId, DAY.plusDays(5), "call", "outbound", userId, 9, 900);
+
+        UUID otherTenant = jdbcTemplate.queryForObject("INSERT INTO tenants (name, slug) VALUES ('Other', ?) RETURNING id",
+                UUID.class, "stats-other-" + UUID.randomUUID());
+        insertRollup(otherTenant, DAY, "call", "outbound", null, 50, 5000);
+        TenantContext.setCurrentTenant(tenantId);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TenantContext.clear();
+    }
+
+    @Test
+    void getStats_ShouldSumRollupRowsInRange() {
+        // Act
+        InteractionStatsDTO stats = statsService.getStats(DAY, DAY.plusDays(1), null);
+
+        // Assert
+        assertEquals(10L, stats.getTotalInteractions());
+        assertEquals(420L, stats.getTotalDurationSeconds());
+        assertEquals(Map.of("CALL", 5L, "EMAIL", 4L, "NOTE", 1L), stats.getByType());
+        assertEquals(Map.of("INBOUND", 2L, "OUTBOUND", 7L), stats.getByDirection());
+        assertEquals(2, stats.getByDay().size());
+        assertEquals(DAY, stats.getByDay().get(0).getDay());
+        assertEquals(5L, stats.getByDay().get(0).getCount());
+        assertEquals(420L, stats.getByDay().get(0).getDurationSeconds());
+        assertEquals(5L, stats.getByDay().get(1).getCount());
+    }
+
+    @Test
+    void getStats_ShouldOnlyCountRowsOfRequestedUser() {
+        // Act
+        InteractionStatsDTO stats = statsService.getStats(DAY, DAY.plusDays(5), userId);
+
+        // Assert
+        assertEquals(16L, stats.getTotalInteractions());
+        assertEquals(1200L, stats.getTotalDurationSeconds());
+        assertEquals(Map.of("CALL", 12L, "EMAIL", 4L), stats.getByType());
+        assertEquals(3, stats.getByDay().size());
+    }
+
+    @Test
+    void getStats_ShouldRejectFromAfterTo() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> statsService.getStats(DAY.plusDays(1), DAY, null));
+    }
+
+    private void insertRollup(UUID tenant, LocalDate day, String type, String direction, UUID user,
+                              long count, long duration) {
+        jdbcTemplate.update("INSERT INTO interaction_daily_rollups (tenant_id, day, type, direction, user_id, " +
+                        "interaction_count, duration_seconds) " +
+                        "VALUES (?, ?, ?::interaction_type, ?::interaction_direction, ?, ?, ?)",
+                tenant, Date.valueOf(day), type, direction, user, count, duration);
+    }
+}
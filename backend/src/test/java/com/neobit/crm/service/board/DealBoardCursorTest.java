@@ -0,0 +1,38 @@
+package com.neobit.crm.service.board;
+
+import com.neobit.crm.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DealBoardCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedPosition() {
+        // Arrange
+        DealBoardCursor cursor = new DealBoardCursor("1000002aV", UUID.randomUUID());
+
+        // Act
+        DealBoardCursor decoded = DealBoardCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_ShouldStartFromTopWhenCursorIsBlank() {
+        // Act & Assert
+        assertNull(DealBoardCursor.decode(null));
+        assertNull(DealBoardCursor.decode(""));
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedCursor() {
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> DealBoardCursor.decode("not-a-cursor"));
+        assertThrows(BadRequestException.class, () -> DealBoardCursor.decode(
+                new DealBoardCursor("1'--", UUID.randomUUID()).encode()));
+    }
+}
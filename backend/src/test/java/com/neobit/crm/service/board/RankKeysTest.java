@@ -0,0 +1,78 @@
+package com.neobit.crm.service.board;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankKeysTest {
+
+    @Test
+    void between_ShouldKeepRandomInsertsInOrder() {
+        // Arrange
+        Random random = new Random(42);
+        List<String> keys = new ArrayList<>(RankKeys.spread(3));
+
+        // Act
+        for (int i = 0; i < 2000; i++) {
+            int slot = random.nextInt(keys.size() + 1);
+            String before = slot > 0 ? keys.get(slot - 1) : null;
+            String after = slot < keys.size() ? keys.get(slot) : null;
+            keys.add(slot, RankKeys.between(before, after));
+        }
+
+        // Assert
+        for (int i = 0; i < keys.size(); i++) {
+            assertTrue(RankKeys.isValid(keys.get(i)), keys.get(i));
+            if (i > 0) {
+                assertTrue(keys.get(i - 1).compareTo(keys.get(i)) < 0, keys.get(i - 1) + " < " + keys.get(i));
+            }
+        }
+    }
+
+    @Test
+    void between_ShouldGrowSlowlyWhenAlwaysInsertingAtTheTop() {
+        // Arrange
+        String first = RankKeys.spread(1).get(0);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            String top = RankKeys.between(null, first);
+            assertTrue(top.compareTo(first) < 0);
+            first = top;
+        }
+
+        // Assert
+        assertTrue(first.length() <= RankKeys.MAX_LENGTH, first);
+    }
+
+    @Test
+    void between_ShouldRejectNeighboursOutOfOrder() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("b", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a", "a"));
+        assertThrows(IllegalArgumentException.class, () -> RankKeys.between("a0", null));
+    }
+
+    @Test
+    void spread_ShouldReturnShortAscendingKeysAboveTheNewDealPrefix() {
+        // Act
+        List<String> keys = RankKeys.spread(10_000);
+
+        // Assert
+        assertEquals(10_000, keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            assertTrue(RankKeys.isValid(key), key);
+            assertTrue(key.length() <= 4, key);
+            assertTrue(key.compareTo("1") >= 0, key);
+            if (i > 0) {
+                assertTrue(keys.get(i - 1).compareTo(key) < 0);
+            }
+        }
+        assertTrue(RankKeys.between(keys.get(0), keys.get(1)).length() <= 4);
+    }
+}
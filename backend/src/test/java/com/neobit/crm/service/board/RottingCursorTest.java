@@ -0,0 +1,31 @@
+package com.neobit.crm.service.board;
+
+import com.neobit.crm.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RottingCursorTest {
+
+    @Test
+    void decode_ShouldReturnEncodedPositionWithNanos() {
+        // Arrange
+        RottingCursor cursor = new RottingCursor(Instant.parse("2026-05-01T10:15:30.123456789Z"), UUID.randomUUID());
+
+        // Act
+        RottingCursor decoded = RottingCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, decoded);
+    }
+
+    @Test
+    void decode_ShouldRejectMalformedCursor() {
+        // Act & Assert
+        assertNull(RottingCursor.decode(null));
+        assertThrows(BadRequestException.class, () -> RottingCursor.decode("bm90OmE6Y3Vyc29y"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.neobit.crm.service.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceBookSnapshotTest {
+
+    private static final LocalDate DAY = LocalDate.of(2026, 6, 1);
+
+    @Test
+    void defaultBook_ShouldPreferQuoteCurrencyOverAnyCurrency() {
+        // Arrange
+        PriceBookSnapshot.Book any = book(true, null, null);
+        PriceBookSnapshot.Book euro = book(true, "EUR", null);
+        PriceBookSnapshot.Book expired = book(true, "USD", DAY.minusDays(1));
+        PriceBookSnapshot snapshot = new PriceBookSnapshot(3, List.of(any, euro, expired, book(false, "USD", null)));
+
+        // Act & Assert
+        assertSame(euro, snapshot.defaultBook("eur", DAY));
+        assertSame(any, snapshot.defaultBook("USD", DAY));
+        assertSame(euro, snapshot.book(euro.id()));
+        assertNull(snapshot.book(UUID.randomUUID()));
+    }
+
+    @Test
+    void tiers_ShouldFindEveryProductOfLargeBook() {
+        // Arrange
+        List<UUID> products = new ArrayList<>();
+        UuidMap<PriceTiers> map = new UuidMap<>(5_000);
+        for (int i = 0; i < 5_000; i++) {
+            UUID productId = UUID.randomUUID();
+            products.add(productId);
+            map.put(productId, new PriceTiers(PricingModel.VOLUME, new int[] {1}, new long[] {i}, new long[] {0}));
+        }
+        PriceBookSnapshot.Book book = new PriceBookSnapshot.Book(UUID.randomUUID(), true, true, null, null, null,
+                PricingModel.VOLUME, map);
+
+        // Act & Assert
+        for (int i = 0; i < products.size(); i++) {
+            assertEquals(i, book.tiers(products.get(i)).resolve(100).unitPriceCents());
+        }
+        assertNull(book.tiers(UUID.randomUUID()));
+        assertEquals(5_000, map.size());
+    }
+
+    private static PriceBookSnapshot.Book book(boolean isDefault, String currency, LocalDate validTo) {
+        return new PriceBookSnapshot.Book(UUID.randomUUID(), isDefault, true, null, validTo, currency,
+                PricingModel.VOLUME, new UuidMap<>(0));
+    }
+}
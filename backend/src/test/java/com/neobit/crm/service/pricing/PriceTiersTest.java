@@ -0,0 +1,46 @@
+package com.neobit.crm.service.pricing;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceTiersTest {
+
+    private static final int[] MIN_QUANTITIES = {10, 1, 100};
+    private static final long[] PRICES = {900, 1000, 800};
+    private static final long[] DISCOUNTS = {0, 0, 500};
+
+    @Test
+    void resolve_ShouldPriceAllUnitsAtReachedTierForVolume() {
+        // Arrange
+        PriceTiers tiers = new PriceTiers(PricingModel.VOLUME, MIN_QUANTITIES, PRICES, DISCOUNTS);
+
+        // Act & Assert
+        assertEquals(new LinePrice(1000, 0), tiers.resolve(900));
+        assertEquals(new LinePrice(900, 0), tiers.resolve(1000));
+        assertEquals(new LinePrice(800, 500), tiers.resolve(25000));
+        assertNull(new PriceTiers(PricingModel.VOLUME, new int[] {5}, new long[] {100}, new long[] {0}).resolve(400));
+    }
+
+    @Test
+    void resolve_ShouldBlendBandsForTiered() {
+        // Arrange
+        PriceTiers tiers = new PriceTiers(PricingModel.TIERED, MIN_QUANTITIES, PRICES, DISCOUNTS);
+
+        // Act
+        LinePrice twenty = tiers.resolve(2000);
+        LinePrice hundred = tiers.resolve(10000);
+
+        // Assert: 9 x 10.00 + 11 x 9.00 = 189.00 over 20 units
+        assertEquals(new LinePrice(945, 0), twenty);
+        // 9 x 10.00 + 90 x 9.00 + 1 x 8.00 less 5% = 907.60 over 100 units
+        assertEquals(new LinePrice(908, 0), hundred);
+    }
+
+    @Test
+    void constructor_ShouldRejectDuplicateTiers() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new PriceTiers(PricingModel.VOLUME,
+                new int[] {1, 1}, new long[] {100, 90}, new long[] {0, 0}));
+    }
+}
@@ -0,0 +1,159 @@
+package com.neobit.crm.service.pricing;
+
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.QuoteLineItem;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteCalculatorTest {
+
+    @Test
+    void lineTotal_ShouldRoundHalfUpLikeEntity() {
+        // Arrange
+        QuoteLineItem item = QuoteLineItem.builder()
+                .quantity(new BigDecimal("3.00"))
+                .unitPrice(new BigDecimal("0.05"))
+                .discountPercent(new BigDecimal("50.00"))
+                .build();
+        item.calculateTotal();
+
+        // Act
+        long total = QuoteCalculator.lineTotal(300, 5, 5000);
+
+        // Assert: 0.075 rounds up to 0.08
+        assertEquals(new BigDecimal("0.08"), item.getTotalPrice());
+        assertEquals(8, total);
+    }
+
+    @Test
+    void recalculateTotals_ShouldAgreeWithDecimalArithmeticAndCalculator() {
+        // Arrange
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            Quote quote = randomQuote(random, 1 + random.nextInt(40));
+            Quote expected = decimalTotals(quote);
+
+            // Act
+            quote.getLineItems().forEach(QuoteLineItem::calculateTotal);
+            quote.recalculateTotals();
+            QuoteCalculator calculator = QuoteCalculator.of(quote);
+
+            // Assert
+            for (int i = 0; i < quote.getLineItems().size(); i++) {
+                assertEquals(expected.getLineItems().get(i).getTotalPrice(), quote.getLineItems().get(i).getTotalPrice());
+            }
+            assertEquals(expected.getSubtotal(), quote.getSubtotal());
+            assertEquals(expected.getTaxAmount(), quote.getTaxAmount());
+            assertEquals(expected.getTotalAmount(), quote.getTotalAmount());
+            assertEquals(stored(expected.getTotalAmount()), calculator.totalCents());
+        }
+    }
+
+    @Test
+    void recalculateTotals_ShouldRoundHalfCentTaxAndDiscountUp() {
+        // Arrange: 12.5% off 0.10 and 5% tax on 0.10 are both half a cent
+        Quote quote = Quote.builder()
+                .discountType(Quote.DiscountType.PERCENT)
+                .discountValue(new BigDecimal("12.50"))
+                .build();
+        quote.addLineItem(QuoteLineItem.builder()
+                .quantity(BigDecimal.ONE)
+                .unitPrice(new BigDecimal("0.10"))
+                .taxRate(new BigDecimal("5.00"))
+                .build());
+
+        // Act
+        quote.recalculateTotals();
+
+        // Assert: 0.10 - 0.0125 + 0.005 = 0.0925
+        assertEquals(new BigDecimal("0.10"), quote.getSubtotal());
+        assertEquals(new BigDecimal("0.01"), quote.getTaxAmount());
+        assertEquals(new BigDecimal("0.09"), quote.getTotalAmount());
+    }
+
+    @Test
+    void setLine_ShouldMatchRecalculatingFromScratch() {
+        // Arrange
+        QuoteCalculator incremental = new QuoteCalculator();
+        incremental.setDiscount(Quote.DiscountType.PERCENT, 1250);
+        for (int i = 0; i < 100; i++) {
+            incremental.addLine(100 + i, 1999 + i * 7L, i % 3 * 500L, 2000);
+        }
+
+        // Act
+        incremental.setLine(40, 350, 12345, 1000, 700);
+        incremental.removeLine(10);
+        QuoteCalculator scratch = new QuoteCalculator();
+        scratch.setDiscount(Quote.DiscountType.PERCENT, 1250);
+        for (int i = 0; i < 100; i++) {
+            if (i == 10) {
+                continue;
+            }
+            if (i == 40) {
+                scratch.addLine(350, 12345, 1000, 700);
+            } else {
+                scratch.addLine(100 + i, 1999 + i * 7L, i % 3 * 500L, 2000);
+            }
+        }
+
+        // Assert
+        assertEquals(scratch.subtotalCents(), incremental.subtotalCents());
+        assertEquals(scratch.taxCents(), incremental.taxCents());
+        assertEquals(scratch.totalCents(), incremental.totalCents());
+        assertEquals(scratch.lineTotalCents(39), incremental.lineTotalCents(39));
+    }
+
+    private static Quote randomQuote(Random random, int lines) {
+        Quote quote = Quote.builder()
+                .discountType(random.nextBoolean() ? Quote.DiscountType.PERCENT : Quote.DiscountType.AMOUNT)
+                .discountValue(BigDecimal.valueOf(random.nextInt(3000), 2))
+                .build();
+        for (int i = 0; i < lines; i++) {
+            quote.getLineItems().add(QuoteLineItem.builder()
+                    .quantity(BigDecimal.valueOf(1 + random.nextInt(100_000), 2))
+                    .unitPrice(BigDecimal.valueOf(random.nextInt(10_000_000), 2))
+                    .discountPercent(BigDecimal.valueOf(random.nextInt(5000), 2))
+                    .taxRate(BigDecimal.valueOf(random.nextInt(2500), 2))
+                    .build());
+        }
+        return quote;
+    }
+
+    /**
+     * The quote's amounts in BigDecimal, as the entities computed them before
+     * delegating to the calculator, rounded as the columns store them.
+     */
+    private static Quote decimalTotals(Quote quote) {
+        BigDecimal hundred = BigDecimal.valueOf(100);
+        Quote expected = Quote.builder().build();
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal tax = BigDecimal.ZERO;
+        for (QuoteLineItem item : quote.getLineItems()) {
+            BigDecimal total = item.getQuantity().multiply(item.getUnitPrice());
+            if (item.getDiscountPercent().signum() > 0) {
+                total = total.subtract(total.multiply(item.getDiscountPercent().divide(hundred, 4, RoundingMode.HALF_UP)));
+            }
+            total = total.setScale(2, RoundingMode.HALF_UP);
+            expected.getLineItems().add(QuoteLineItem.builder().totalPrice(total).build());
+            subtotal = subtotal.add(total);
+            tax = tax.add(total.multiply(item.getTaxRate().divide(hundred, 4, RoundingMode.HALF_UP)));
+        }
+        BigDecimal discount = quote.getDiscountType() == Quote.DiscountType.PERCENT
+                ? subtotal.multiply(quote.getDiscountValue().divide(hundred, 4, RoundingMode.HALF_UP))
+                : quote.getDiscountValue();
+        expected.setSubtotal(subtotal.setScale(2, RoundingMode.HALF_UP));
+        expected.setTaxAmount(tax.setScale(2, RoundingMode.HALF_UP));
+        expected.setTotalAmount(subtotal.subtract(discount).add(tax).setScale(2, RoundingMode.HALF_UP));
+        return expected;
+    }
+
+    /** What a numeric(15, 2) column keeps of an amount */
+    private static long stored(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+}
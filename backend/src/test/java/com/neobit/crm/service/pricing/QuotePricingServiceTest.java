@@ -0,0 +1,102 @@
+package com.neobit.crm.service.pricing;
+
+import com.neobit.crm.entity.Product;
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.QuoteLineItem;
+import com.neobit.crm.entity.Tenant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QuotePricingServiceTest {
+
+    @Mock
+    private PriceBookIndex priceBookIndex;
+
+    private QuotePricingService pricingService;
+    private Tenant tenant;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        pricingService = new QuotePricingService(priceBookIndex);
+        tenant = Tenant.builder().id(UUID.randomUUID()).slug("acme").build();
+        product = Product.builder().id(UUID.randomUUID()).build();
+        UuidMap<PriceTiers> products = new UuidMap<>(1);
+        products.put(product.getId(), new PriceTiers(PricingModel.VOLUME,
+                new int[] {1, 10}, new long[] {1999, 1749}, new long[] {0, 1250}));
+        PriceBookSnapshot.Book book = new PriceBookSnapshot.Book(UUID.randomUUID(), true, true, null, null, null,
+                PricingModel.VOLUME, products);
+        when(priceBookIndex.snapshot(tenant.getId())).thenReturn(new PriceBookSnapshot(1, List.of(book)));
+    }
+
+    @Test
+    void price_ShouldRepriceFromBookAndAgreeWithEntityRecalculation() {
+        // Arrange
+        Quote quote = quote();
+
+        // Act
+        QuoteCalculator calculator = pricingService.price(quote, null);
+
+        // Assert: 12 x 17.49 less 12.5% is 183.645, rounded up
+        QuoteLineItem priced = quote.getLineItems().get(0);
+        assertEquals(new BigDecimal("17.49"), priced.getUnitPrice());
+        assertEquals(new BigDecimal("12.50"), priced.getDiscountPercent());
+        assertEquals(new BigDecimal("183.65"), priced.getTotalPrice());
+        assertEquals(new BigDecimal("183.70"), quote.getSubtotal());
+        assertEquals(new BigDecimal("15.15"), quote.getTaxAmount());
+        assertEquals(new BigDecimal("185.08"), quote.getTotalAmount());
+        quote.recalculateTotals();
+        assertEquals(new BigDecimal("185.08"), quote.getTotalAmount());
+        assertEquals(18508, calculator.totalCents());
+    }
+
+    @Test
+    void price_ShouldKeepCalculatorInStepWithEntityAfterLineEdit() {
+        // Arrange
+        Quote quote = quote();
+        QuoteCalculator calculator = pricingService.price(quote, null);
+        QuoteLineItem item = quote.getLineItems().get(0);
+
+        // Act
+        item.setQuantity(new BigDecimal("5.00"));
+        item.calculateTotal();
+        quote.recalculateTotals();
+        calculator.setLine(0, 500, 1749, 1250, 825);
+
+        // Assert
+        assertEquals(Scaled.of(item.getTotalPrice(), Scaled.MONEY_SCALE), calculator.lineTotalCents(0));
+        assertEquals(Scaled.of(quote.getTaxAmount(), Scaled.MONEY_SCALE), calculator.taxCents());
+        assertEquals(Scaled.of(quote.getTotalAmount(), Scaled.MONEY_SCALE), calculator.totalCents());
+    }
+
+    private Quote quote() {
+        Quote quote = Quote.builder()
+                .tenant(tenant)
+                .discountType(Quote.DiscountType.PERCENT)
+                .discountValue(new BigDecimal("7.50"))
+                .build();
+        quote.addLineItem(QuoteLineItem.builder()
+                .product(product)
+                .quantity(new BigDecimal("12.00"))
+                .unitPrice(new BigDecimal("25.00"))
+                .taxRate(new BigDecimal("8.25"))
+                .build());
+        quote.addLineItem(QuoteLineItem.builder()
+                .quantity(BigDecimal.ONE)
+                .unitPrice(new BigDecimal("0.05"))
+                .taxRate(new BigDecimal("5.00"))
+                .build());
+        return quote;
+    }
+}
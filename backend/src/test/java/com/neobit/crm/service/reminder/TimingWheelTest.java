@@ -0,0 +1,69 @@
+package com.neobit.crm.service.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    @Test
+    void advance_ShouldFireTimersInDeadlineOrderAcrossLevels() {
+        // Arrange
+        TimingWheel<Long> wheel = new TimingWheel<>(1000, 8, 3, 0);
+        long[] deadlines = {500_000, 3_000, 70_000, 9_000, 64_000, 1_000};
+        for (long deadline : deadlines) {
+            assertTrue(wheel.add(deadline, deadline));
+        }
+
+        // Act
+        List<long[]> fired = new ArrayList<>();
+        for (long now = 0; now <= 511_000; now += 1000) {
+            long at = now;
+            wheel.advance(now, deadline -> fired.add(new long[]{deadline, at}));
+        }
+
+        // Assert
+        assertEquals(List.of(1_000L, 3_000L, 9_000L, 64_000L, 70_000L, 500_000L),
+                fired.stream().map(f -> f[0]).toList());
+        assertTrue(fired.stream().allMatch(f -> f[1] == f[0]));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void advance_ShouldNeverFireEarly() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 8, 2, 0);
+        wheel.add(2_500, "reminder");
+        List<String> fired = new ArrayList<>();
+
+        // Act
+        wheel.advance(2_999, fired::add);
+        boolean firedEarly = !fired.isEmpty();
+        wheel.advance(3_000, fired::add);
+
+        // Assert
+        assertFalse(firedEarly);
+        assertEquals(List.of("reminder"), fired);
+    }
+
+    @Test
+    void add_ShouldFirePastDeadlinesOnNextAdvanceAndRejectBeyondHorizon() {
+        // Arrange
+        TimingWheel<String> wheel = new TimingWheel<>(1000, 8, 2, 100_000);
+        List<String> fired = new ArrayList<>();
+
+        // Act
+        boolean overdue = wheel.add(40_000, "overdue");
+        boolean tooFar = wheel.add(100_000 + wheel.horizonMs() + 1000, "too far");
+        wheel.advance(100_000, fired::add);
+
+        // Assert
+        assertTrue(overdue);
+        assertFalse(tooFar);
+        assertEquals(List.of("overdue"), fired);
+        assertEquals(63_000, wheel.horizonMs());
+    }
+}
@@ -0,0 +1,126 @@
+package com.neobit.crm.service.report;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportDefinitionTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UUID tenantId = UUID.randomUUID();
+
+    @Test
+    void parse_ShouldReadGroupingMeasuresAndFilters() throws Exception {
+        // Act
+        ReportDefinition definition = ReportDefinition.parse("deals",
+                json("{\"status\": [\"OPEN\", \"Won\"], \"amount\": {\"from\": 1000}}"),
+                json("[{\"aggregate\": \"count\"}, \"sum:amount\"]"),
+                json("{\"by\": [\"stage_id\", \"created_at:month\"]}"),
+                json("{\"by\": \"sum(amount)\", \"direction\": \"desc\", \"limit\": 5}"));
+
+        // Assert
+        assertEquals(ReportSource.DEALS, definition.source());
+        assertEquals(List.of("stage_id", "created_at:month"),
+                definition.dimensions().stream().map(ReportDefinition.Dimension::label).toList());
+        assertEquals(List.of("count", "sum(amount)"),
+                definition.measures().stream().map(ReportDefinition.Measure::label).toList());
+        assertEquals(List.of("open", "won"), definition.filters().get(1).values());
+        assertEquals(1, definition.refreshBucketIndex());
+        assertTrue(definition.sort().descending());
+        assertEquals(5, definition.sort().limit());
+    }
+
+    @Test
+    void parse_ShouldDefaultToCountWhenNoColumns() throws Exception {
+        // Act
+        ReportDefinition definition = ReportDefinition.parse("customer", null, json("[]"), null, null);
+
+        // Assert
+        assertEquals(ReportSource.CUSTOMERS, definition.source());
+        assertEquals(List.of("count"), definition.measures().stream().map(ReportDefinition.Measure::label).toList());
+        assertEquals(-1, definition.refreshBucketIndex());
+    }
+
+    @Test
+    void parse_ShouldRejectUnknownFieldsAndNonNumericSums() throws Exception {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> ReportDefinition.parse("deals", null, null, json("[\"password_hash\"]"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReportDefinition.parse("deals", null, json("[\"sum:status\"]"), null, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReportDefinition.parse("deals", null, null, json("[\"status:month\"]"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> ReportDefinition.parse("invoices", null, null, null, null));
+    }
+
+    @Test
+    void canonical_ShouldIgnoreFilterOrderAndSorting() throws Exception {
+        // Arrange
+        ReportDefinition a = ReportDefinition.parse("deals", json("{\"status\": \"open\", \"currency\": \"EUR\"}"),
+                null, json("[\"stage_id\"]"), json("{\"by\": \"count\"}"));
+        ReportDefinition b = ReportDefinition.parse("deals", json("{\"currency\": \"EUR\", \"status\": \"open\"}"),
+                null, json("[\"stage_id\"]"), null);
+
+        // Act & Assert
+        assertEquals(a.canonical(), b.canonical());
+    }
+
+    @Test
+    void full_ShouldBindEveryValueUnderTheWidgetPrefix() throws Exception {
+        // Arrange
+        ReportDefinition definition = ReportDefinition.parse("interactions",
+                json("{\"type\": [\"CALL\", null], \"created_at\": {\"from\": \"2026-01-01\", \"to\": \"2026-01-31\"}}"),
+                json("[\"avg:duration_seconds\"]"), json("[\"type\", \"created_at:week\"]"), null);
+
+        // Act
+        ReportQuery query = ReportQuery.full(3, definition, tenantId, 100);
+
+        // Assert
+        assertTrue(query.sql().startsWith("SELECT 3 AS widget, NULL::text AS bound"));
+        assertTrue(query.sql().contains("(t.type::text IN (:w3_"));
+        assertTrue(query.sql().contains("OR t.type::text IS NULL)"));
+        assertTrue(query.sql().contains("date_trunc('week', t.created_at, 'UTC')"));
+        assertTrue(query.sql().contains("t.created_at < :w3_"));
+        assertTrue(query.sql().endsWith("LIMIT 101"));
+        assertTrue(query.params().keySet().stream().allMatch(name -> name.startsWith("w3_")));
+        assertEquals(4, query.params().size());
+    }
+
+    @Test
+    void incremental_ShouldRecomputeFromTheEarliestTouchedBucket() throws Exception {
+        // Arrange
+        ReportDefinition definition = ReportDefinition.parse("tasks", null, null, json("[\"created_at:month\"]"), null);
+
+        // Act
+        ReportQuery query = ReportQuery.incremental(0, definition, tenantId, Instant.parse("2026-05-01T00:00:00Z"), 100);
+        ReportQuery batch = ReportQuery.union(List.of(query, ReportQuery.full(1, definition, tenantId, 100)));
+
+        // Assert
+        assertTrue(query.sql().contains("date_trunc('month', min(t.created_at), 'UTC')"));
+        assertTrue(query.sql().contains("t.updated_at > :w0_1"));
+        assertTrue(query.sql().contains("LEFT JOIN LATERAL"));
+        assertTrue(batch.sql().contains(") UNION ALL ("));
+        assertEquals(3, batch.params().size());
+    }
+
+    @Test
+    void incremental_ShouldRequireCreatedAtBucket() throws Exception {
+        // Arrange
+        ReportDefinition definition = ReportDefinition.parse("tasks", null, null, json("[\"due_date:month\"]"), null);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> ReportQuery.incremental(0, definition, tenantId, Instant.now(), 100));
+    }
+
+    private JsonNode json(String text) throws Exception {
+        return objectMapper.readTree(text);
+    }
+}
@@ -0,0 +1,73 @@
+package com.neobit.crm.service.report;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportResultTest {
+
+    @Test
+    void refreshed_ShouldReplaceBucketsFromBoundOnly() {
+        // Arrange
+        ReportResult cached = new ReportResult(List.of("created_at:month", "status"), List.of("count"), List.of(
+                row("2026-03-01", "open", 4),
+                row("2026-04-01", "open", 2),
+                row("2026-05-01", "won", 1),
+                row(null, "open", 9)), false);
+
+        // Act
+        ReportResult refreshed = cached.refreshed(0, "2026-04-01", List.of(
+                row("2026-04-01", "won", 2),
+                row("2026-05-01", "won", 3)), 100);
+
+        // Assert
+        assertEquals(List.of(
+                row("2026-03-01", "open", 4),
+                row(null, "open", 9),
+                row("2026-04-01", "won", 2),
+                row("2026-05-01", "won", 3)), refreshed.rows());
+        assertFalse(refreshed.truncated());
+    }
+
+    @Test
+    void refreshed_ShouldMarkTruncatedWhenOverRowCap() {
+        // Arrange
+        ReportResult cached = new ReportResult(List.of("created_at:day"), List.of("count"), List.of(
+                row("2026-03-01", null, 1), row("2026-03-02", null, 1)), false);
+
+        // Act
+        ReportResult refreshed = cached.refreshed(0, "2026-03-03", List.of(row("2026-03-03", null, 1)), 2);
+
+        // Assert
+        assertTrue(refreshed.truncated());
+        assertEquals(2, refreshed.rows().size());
+    }
+
+    @Test
+    void ordered_ShouldSortByMeasureThenKeysAndApplyLimit() {
+        // Arrange
+        ReportResult result = new ReportResult(List.of("stage_id", "status"), List.of("count"), List.of(
+                row("b", "open", 5),
+                row("a", "open", 5),
+                row("c", "open", 7),
+                row(null, "open", 1)), false);
+
+        // Act
+        List<ReportResult.Row> top = result.ordered("count", true, 3);
+        List<ReportResult.Row> byKeys = result.ordered(null, false, null);
+
+        // Assert
+        assertEquals(List.of(row("c", "open", 7), row("a", "open", 5), row("b", "open", 5)), top);
+        assertNull(byKeys.get(3).keys().get(0));
+        assertThrows(IllegalArgumentException.class, () -> result.ordered("sum(amount)", false, null));
+    }
+
+    private static ReportResult.Row row(String first, String second, long count) {
+        List<String> keys = second != null ? Arrays.asList(first, second) : Arrays.asList(first);
+        return new ReportResult.Row(keys, List.of(BigDecimal.valueOf(count)));
+    }
+}
@@ -0,0 +1,130 @@
+package com.neobit.crm.service.rollup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+@Testcontainers
+class InteractionRollupJobTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+
+    private UUID tenantId;
+    private InteractionRollupWriter writer;
+    private InteractionRollupJob job;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        tenantId = jdbcTemplate.queryForObject("INSERT INTO tenants (name, slug) VALUES ('Rollup job', ?) RETURNING id",
+                UUID.class, "rollup-job-" + UUID.randomUUID());
+        writer = new InteractionRollupWriter(jdbcTemplate, transactionManager, new SimpleMeterRegistry(),
+                mock(ApplicationEventPublisher.class));
+        job = new InteractionRollupJob(jdbcTemplate, transactionManager, writer, 2, false);
+    }
+
+    @Test
+    void recompute_ShouldReplaceClosedDaysWithRecountAndFenceThem() {
+        // Arrange: a drifted rollup row
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(10);
+        insertInteraction(day, 60);
+        insertInteraction(day, 30);
+        insertRollup(day, 7, 999);
+
+        // Act
+        job.recompute(day, day.plusDays(1));
+
+        // Assert
+        assertEquals(2L, rollup(day, "interaction_count"));
+        assertEquals(90L, rollup(day, "duration_seconds"));
+        assertTrue(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM interaction_rollup_fences WHERE day = ?)", Boolean.class, Date.valueOf(day)));
+    }
+
+    @Test
+    void recompute_ShouldLeaveTodayToDeltas() {
+        // Arrange
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        insertInteraction(today, 0);
+        insertRollup(today, 5, 0);
+
+        // Act
+        job.recompute(today.minusDays(1), today.plusDays(1));
+
+        // Assert
+        assertEquals(5L, rollup(today, "interaction_count"));
+        assertFalse(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM interaction_rollup_fences WHERE day = ?)", Boolean.class, Date.valueOf(today)));
+    }
+
+    @Test
+    void recompute_ShouldNotDoubleCountDeltasPendingAtStart() {
+        // Arrange: a delta for an interaction the recount will also see
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        LocalDate day = today.minusDays(1);
+        InteractionRollupWriter yesterdayWriter = new InteractionRollupWriter(jdbcTemplate, transactionManager,
+                new SimpleMeterRegistry(), mock(ApplicationEventPublisher.class)) {
+            @Override
+            LocalDate today() {
+                return day;
+            }
+        };
+        InteractionRollupJob yesterdayJob = new InteractionRollupJob(jdbcTemplate, transactionManager, yesterdayWriter, 2, false);
+        insertInteraction(day, 0);
+        yesterdayWriter.record(new RollupKey(tenantId, day, "call", "outbound", null), 1, 0);
+
+        // Act
+        yesterdayJob.recompute(day, today);
+        yesterdayWriter.flush();
+
+        // Assert
+        assertEquals(1L, rollup(day, "interaction_count"));
+    }
+
+    private void insertInteraction(LocalDate day, int durationSeconds) {
+        jdbcTemplate.update("INSERT INTO interactions (tenant_id, type, direction, subject, duration_seconds, created_at) " +
+                        "VALUES (?, 'call', 'outbound', 'Recounted', ?, ?)",
+                tenantId, durationSeconds, Timestamp.from(day.atTime(9, 0).toInstant(ZoneOffset.UTC)));
+    }
+
+    private void insertRollup(LocalDate day, long count, long duration) {
+        jdbcTemplate.update("INSERT INTO interaction_daily_rollups (tenant_id, day, type, direction, user_id, " +
+                "interaction_count, duration_seconds) VALUES (?, ?, 'call', 'outbound', NULL, ?, ?)",
+                tenantId, Date.valueOf(day), count, duration);
+    }
+
+    private Long rollup(LocalDate day, String column) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM interaction_daily_rollups " +
+                "WHERE tenant_id = ? AND day = ? AND user_id IS NULL", Long.class, tenantId, Date.valueOf(day));
+    }
+}
@@ -0,0 +1,164 @@
+package com.neobit.crm.service.rollup;
+
+import com.neobit.crm.event.TenantDataChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Runs the writer against the migrated schema: coalescing of buffered deltas, and
+ * how deltas and the closed-day recompute stay out of each other's way.
+ */
+@Testcontainers
+class InteractionRollupWriterTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+    private static DataSourceTransactionManager transactionManager;
+
+    private UUID tenantId;
+    private ApplicationEventPublisher publisher;
+    private InteractionRollupWriter writer;
+    private InteractionRollupJob job;
+
+    @BeforeAll
+    static void migrate() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).locations("classpath:db/migration").load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @BeforeEach
+    void setUp() {
+        tenantId = jdbcTemplate.queryForObject("INSERT INTO tenants (name, slug) VALUES ('Rollups', ?) RETURNING id",
+                UUID.class, "rollups-" + UUID.randomUUID());
+        publisher = mock(ApplicationEventPublisher.class);
+        writer = new InteractionRollupWriter(jdbcTemplate, transactionManager, new SimpleMeterRegistry(), publisher);
+        job = new InteractionRollupJob(jdbcTemplate, transactionManager, writer, 2, false);
+    }
+
+    @Test
+    void flush_ShouldCoalesceDeltasIntoOneUpsertPerRow() {
+        // Arrange
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        UUID userId = UUID.randomUUID();
+        writer.record(key(today, null), 1, 30);
+        writer.record(key(today, null), 1, 45);
+        writer.record(key(today, null), 1, 0);
+        writer.record(key(today, userId), 1, 10);
+
+        // Act
+        writer.flush();
+
+        // Assert
+        assertEquals(3L, count(today, null));
+        assertEquals(75L, jdbcTemplate.queryForObject("SELECT duration_seconds FROM interaction_daily_rollups " +
+                "WHERE tenant_id = ? AND day = ? AND user_id IS NULL", Long.class, tenantId, Date.valueOf(today)));
+        assertEquals(1L, count(today, userId));
+        ArgumentCaptor<TenantDataChangedEvent> event = ArgumentCaptor.forClass(TenantDataChangedEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(Map.of("CALL", 4L), ((Map<?, ?>) event.getValue().data()).get("byType"));
+    }
+
+    @Test
+    void record_ShouldDiscardDeltaWhenTransactionRollsBack() {
+        // Arrange
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        // Act
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            writer.record(key(today, null), 1, 30);
+            status.setRollbackOnly();
+        });
+        writer.flush();
+
+        // Assert
+        assertNull(count(today, null));
+    }
+
+    @Test
+    void flush_ShouldDropBufferedDeltaForDayRecomputedSince() {
+        // Arrange: another instance buffered the delta while the day was still open
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(3);
+        InteractionRollupWriter otherInstance = new InteractionRollupWriter(jdbcTemplate, transactionManager,
+                new SimpleMeterRegistry(), publisher) {
+            @Override
+            LocalDate today() {
+                return day;
+            }
+        };
+        insertInteraction(day);
+        otherInstance.record(key(day, null), 1, 0);
+        job.recompute(day, day.plusDays(1));
+
+        // Act
+        otherInstance.flush();
+
+        // Assert: counted once, by the recompute
+        assertEquals(1L, count(day, null));
+    }
+
+    @Test
+    void record_ShouldWriteClosedDayDeltaWithItsTransaction() {
+        // Arrange
+        LocalDate day = LocalDate.now(ZoneOffset.UTC).minusDays(4);
+
+        // Act: a backdated insert, not buffered and not flushed
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            insertInteraction(day);
+            insertInteraction(day);
+            writer.record(key(day, null), 1, 0);
+            writer.record(key(day, null), 1, 0);
+            jdbcTemplate.update("DELETE FROM interactions WHERE id = (SELECT id FROM interactions " +
+                    "WHERE tenant_id = ? LIMIT 1)", tenantId);
+            writer.record(key(day, null), -1, 0);
+        });
+        Long written = count(day, null);
+        job.recompute(day, day.plusDays(1));
+
+        // Assert
+        assertEquals(1L, written);
+        assertEquals(1L, count(day, null));
+    }
+
+    private RollupKey key(LocalDate day, UUID userId) {
+        return new RollupKey(tenantId, day, "call", "outbound", userId);
+    }
+
+    private void insertInteraction(LocalDate day) {
+        jdbcTemplate.update("INSERT INTO interactions (tenant_id, type, direction, subject, created_at) " +
+                        "VALUES (?, 'call', 'outbound', 'Rolled up', ?)",
+                tenantId, Timestamp.from(day.atTime(12, 0).toInstant(ZoneOffset.UTC)));
+    }
+
+    private Long count(LocalDate day, UUID userId) {
+        return jdbcTemplate.query("SELECT interaction_count FROM interaction_daily_rollups " +
+                        "WHERE tenant_id = ? AND day = ? AND user_id IS NOT DISTINCT FROM ?::uuid",
+                rs -> rs.next() ? rs.getLong(1) : null, tenantId, Date.valueOf(day), userId);
+    }
+}
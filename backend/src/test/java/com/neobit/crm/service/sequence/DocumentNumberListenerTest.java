@@ -0,0 +1,67 @@
+package com.neobit.crm.service.sequence;
+
+import com.neobit.crm.entity.Deal;
+import com.neobit.crm.entity.Quote;
+import com.neobit.crm.entity.Tenant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DocumentNumberListenerTest {
+
+    @Mock
+    private ObjectProvider<TenantSequenceService> provider;
+
+    @Mock
+    private TenantSequenceService sequenceService;
+
+    private DocumentNumberListener listener;
+    private Tenant tenant;
+
+    @BeforeEach
+    void setUp() {
+        listener = new DocumentNumberListener(provider);
+        tenant = Tenant.builder().id(UUID.randomUUID()).slug("acme").build();
+    }
+
+    @Test
+    void number_ShouldTakeDealAndQuoteNumbersFromTenantSequences() {
+        // Arrange
+        when(provider.getObject()).thenReturn(sequenceService);
+        when(sequenceService.nextFormatted(tenant.getId(), "acme", TenantSequence.DEAL)).thenReturn("ACME-D001000");
+        when(sequenceService.nextFormatted(tenant.getId(), "acme", TenantSequence.QUOTE)).thenReturn("ACME-Q001000");
+        Deal deal = Deal.builder().tenant(tenant).build();
+        Quote quote = Quote.builder().tenant(tenant).build();
+
+        // Act
+        listener.number(deal);
+        listener.number(quote);
+
+        // Assert
+        assertEquals("ACME-D001000", deal.getDealNumber());
+        assertEquals("ACME-Q001000", quote.getQuoteNumber());
+    }
+
+    @Test
+    void number_ShouldKeepNumberSetByCaller() {
+        // Arrange
+        Deal deal = Deal.builder().tenant(tenant).dealNumber("ACME-D000042").build();
+
+        // Act
+        listener.number(deal);
+
+        // Assert
+        assertEquals("ACME-D000042", deal.getDealNumber());
+        verify(sequenceService, never()).nextFormatted(any(), any(), any());
+    }
+}
@@ -0,0 +1,49 @@
+package com.neobit.crm.service.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceBlockTest {
+
+    @Test
+    void next_ShouldHandOutReservedRangeInOrder() {
+        // Arrange
+        SequenceBlock block = new SequenceBlock();
+        block.reset(1000, 1003);
+
+        // Act
+        long first = block.next();
+        long second = block.next();
+        long third = block.next();
+
+        // Assert
+        assertEquals(1000, first);
+        assertEquals(1001, second);
+        assertEquals(1002, third);
+        assertFalse(block.hasNext());
+        assertThrows(IllegalStateException.class, block::next);
+    }
+
+    @Test
+    void hasNext_ShouldBeFalseUntilReset() {
+        // Arrange
+        SequenceBlock block = new SequenceBlock();
+
+        // Act & Assert
+        assertFalse(block.hasNext());
+        assertThrows(IllegalArgumentException.class, () -> block.reset(5, 5));
+        block.reset(5, 6);
+        assertTrue(block.hasNext());
+        assertEquals(1, block.remaining());
+    }
+
+    @Test
+    void format_ShouldMatchDocumentNumbering() {
+        // Act & Assert
+        assertEquals("ACME-D001042", TenantSequence.DEAL.format("acme", 1042));
+        assertEquals("ACME-Q1234567", TenantSequence.QUOTE.format("Acme", 1234567));
+        assertEquals("INT-7", TenantSequence.ISSUE.format(null, 7));
+        assertEquals("INT-1042", TenantSequence.ISSUE.format(null, 1042));
+    }
+}
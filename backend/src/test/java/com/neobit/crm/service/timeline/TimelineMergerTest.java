@@ -0,0 +1,83 @@
+package com.neobit.crm.service.timeline;
+
+import com.neobit.crm.dto.timeline.TimelineItemDTO;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimelineMergerTest {
+
+    @Test
+    void merge_ShouldInterleaveSourcesNewestFirstAcrossPages() {
+        // Arrange
+        Map<String, List<TimelineItemDTO>> data = new LinkedHashMap<>();
+        data.put("interaction", items("interaction", 1, 4, 7, 10));
+        data.put("note", items("note", 2, 5, 8));
+        data.put("task", items("task", 3));
+        List<Integer> fetchSizes = new ArrayList<>();
+        Map<String, TimelineMerger.Fetcher> fetchers = fetchers(data, fetchSizes);
+
+        // Act
+        List<TimelineItemDTO> all = new ArrayList<>();
+        Map<String, TimelinePosition> positions = new HashMap<>();
+        TimelineMerger.Page page;
+        do {
+            page = TimelineMerger.merge(fetchers, TimelineCursor.decode(TimelineCursor.encode(positions)), 3);
+            all.addAll(page.items());
+            positions = page.positions();
+        } while (page.hasMore());
+
+        // Assert
+        assertEquals(List.of(10L, 8L, 7L, 5L, 4L, 3L, 2L, 1L),
+                all.stream().map(i -> i.getOccurredAt().getEpochSecond()).toList());
+        assertTrue(fetchSizes.stream().allMatch(size -> size <= 3));
+    }
+
+    @Test
+    void merge_ShouldReportNoMoreWhenSourcesAreExhausted() {
+        // Arrange
+        Map<String, List<TimelineItemDTO>> data = Map.of("email", items("email", 1, 2));
+
+        // Act
+        TimelineMerger.Page page = TimelineMerger.merge(fetchers(data, new ArrayList<>()), Map.of(), 5);
+
+        // Assert
+        assertEquals(2, page.items().size());
+        assertFalse(page.hasMore());
+    }
+
+    private static Map<String, TimelineMerger.Fetcher> fetchers(Map<String, List<TimelineItemDTO>> data,
+                                                               List<Integer> fetchSizes) {
+        Map<String, TimelineMerger.Fetcher> fetchers = new LinkedHashMap<>();
+        data.forEach((source, rows) -> fetchers.put(source, (after, limit) -> {
+            fetchSizes.add(limit);
+            return rows.stream()
+                    .filter(r -> after == null || r.getOccurredAt().isBefore(after.occurredAt()))
+                    .limit(limit)
+                    .toList();
+        }));
+        return fetchers;
+    }
+
+    private static List<TimelineItemDTO> items(String source, long... epochSeconds) {
+        List<TimelineItemDTO> items = new ArrayList<>();
+        for (long second : epochSeconds) {
+            items.add(TimelineItemDTO.builder()
+                    .source(source)
+                    .id(UUID.randomUUID())
+                    .occurredAt(Instant.ofEpochSecond(second))
+                    .build());
+        }
+        items.sort(Comparator.comparing(TimelineItemDTO::getOccurredAt).reversed());
+        return items;
+    }
+}
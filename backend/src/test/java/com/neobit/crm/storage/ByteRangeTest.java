@@ -0,0 +1,51 @@
+package com.neobit.crm.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void parse_ShouldReturnClosedRange() {
+        // Act
+        ByteRange range = ByteRange.parse("bytes=10-19", 100);
+
+        // Assert
+        assertEquals(new ByteRange(10, 19), range);
+        assertEquals(10, range.length());
+        assertEquals("bytes 10-19/100", range.contentRange(100));
+    }
+
+    @Test
+    void parse_ShouldClampOpenAndOversizedRangesToLength() {
+        // Act & Assert
+        assertEquals(new ByteRange(90, 99), ByteRange.parse("bytes=90-", 100));
+        assertEquals(new ByteRange(90, 99), ByteRange.parse("bytes=90-500", 100));
+    }
+
+    @Test
+    void parse_ShouldResolveSuffixRange() {
+        // Act & Assert
+        assertEquals(new ByteRange(75, 99), ByteRange.parse("bytes=-25", 100));
+        assertEquals(new ByteRange(0, 99), ByteRange.parse("bytes=-500", 100));
+    }
+
+    @Test
+    void parse_ShouldReportUnsatisfiableRanges() {
+        // Act & Assert
+        assertFalse(ByteRange.parse("bytes=100-", 100).satisfiable());
+        assertFalse(ByteRange.parse("bytes=-0", 100).satisfiable());
+        assertFalse(ByteRange.parse("bytes=0-", 0).satisfiable());
+    }
+
+    @Test
+    void parse_ShouldIgnoreMissingMalformedAndMultiRangeHeaders() {
+        // Act & Assert
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-5", 100));
+        assertNull(ByteRange.parse("bytes=abc-5", 100));
+        assertNull(ByteRange.parse("bytes=20-10", 100));
+        assertNull(ByteRange.parse("bytes=0-5,10-15", 100));
+    }
+}
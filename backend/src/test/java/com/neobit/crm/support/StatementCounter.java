@@ -0,0 +1,35 @@
+package com.neobit.crm.support;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import java.util.function.Supplier;
+
+/**
+ * Counts JDBC statements prepared by Hibernate while a block runs.
+ * Requires {@code hibernate.generate_statistics=true}.
+ */
+public final class StatementCounter {
+
+    private final Statistics statistics;
+
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public long count(Runnable block) {
+        return count(() -> {
+            block.run();
+            return null;
+        }).statements();
+    }
+
+    public <T> Counted<T> count(Supplier<T> block) {
+        statistics.clear();
+        T result = block.get();
+        return new Counted<>(result, statistics.getPrepareStatementCount());
+    }
+
+    public record Counted<T>(T result, long statements) {}
+}